@@ -11,6 +11,7 @@ package org.openmrs;
 
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.envers.Audited;
+import org.openmrs.collection.PatientIdBitmap;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -21,6 +22,11 @@ import java.util.stream.Collectors;
 
 /**
  * This class represents a list of patientIds.
+ * <p>
+ * A cohort created from a {@link PatientIdBitmap} keeps its members in the bitmap, {@link #union},
+ * {@link #intersect} and {@link #subtract} of such cohorts as well as {@link #size()} and
+ * {@link #contains(Integer)} work on the bitmaps. The members are only converted to
+ * {@link CohortMembership}s when the memberships are accessed, e.g. when the cohort is saved.
  */
 @Audited
 public class Cohort extends BaseChangeableOpenmrsData {
@@ -35,6 +41,11 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	
 	private Collection<CohortMembership> memberships;
 	
+	/**
+	 * Members that have not been converted to memberships yet, null once they have been
+	 */
+	private PatientIdBitmap memberBitmap;
+	
 	public Cohort() {
 		memberships = new TreeSet<>();
 	}
@@ -115,6 +126,23 @@ public class Cohort extends BaseChangeableOpenmrsData {
 		}
 	}
 	
+	/**
+	 * This constructor does not check whether the database contains patients with the given ids,
+	 * but {@link org.openmrs.api.CohortService#saveCohort(Cohort)} will. The members are kept in a
+	 * copy of the given bitmap until the memberships of the cohort are first accessed.
+	 * 
+	 * @param name
+	 * @param description optional description
+	 * @param members the patient ids of the members
+	 * @since 3.0.0
+	 */
+	public Cohort(String name, String description, PatientIdBitmap members) {
+		this();
+		this.name = name;
+		this.description = description;
+		this.memberBitmap = members == null ? new PatientIdBitmap() : members.copy();
+	}
+	
 	/**
 	 * Convenience constructor taking in a string that is a list of comma separated patient ids This
 	 * constructor does not check whether the database contains patients with the given ids, but
@@ -138,6 +166,9 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	}
 	
 	public boolean contains(Integer patientId) {
+		if (memberBitmap != null) {
+			return patientId != null && memberBitmap.contains(patientId);
+		}
 		return getMemberships() != null
 		        && getMemberships().stream().anyMatch(m -> m.getPatientId().equals(patientId) && !m.getVoided());
 	}
@@ -148,7 +179,9 @@ public class Cohort extends BaseChangeableOpenmrsData {
 		if (getName() != null) {
 			sb.append(" name=").append(getName());
 		}
-		if (getMemberships() != null) {
+		if (memberBitmap != null) {
+			sb.append(" size=").append(memberBitmap.size());
+		} else if (getMemberships() != null) {
 			sb.append(" size=").append(getMemberships().size());
 		}
 		return sb.toString();
@@ -195,9 +228,42 @@ public class Cohort extends BaseChangeableOpenmrsData {
 		if (memberships == null) {
 			memberships = new TreeSet<>();
 		}
+		if (memberBitmap != null) {
+			PatientIdBitmap members = memberBitmap;
+			memberBitmap = null;
+			Date startDate = new Date();
+			members.forEach(patientId -> addMembership(new CohortMembership(patientId, startDate)));
+		}
 		return memberships;
 	}
 	
+	/**
+	 * Gets the patient ids of the non voided members of this cohort as a bitmap. If the cohort was
+	 * created from a bitmap and its memberships have not been accessed yet no memberships are created.
+	 * 
+	 * @return a new bitmap of the member ids
+	 * @since 3.0.0
+	 */
+	public PatientIdBitmap getMemberBitmap() {
+		if (memberBitmap != null) {
+			return memberBitmap.copy();
+		}
+		PatientIdBitmap members = new PatientIdBitmap();
+		for (CohortMembership membership : getMemberships()) {
+			if (!membership.getVoided()) {
+				members.add(membership.getPatientId());
+			}
+		}
+		return members;
+	}
+	
+	/**
+	 * @return true if the members of this cohort are only held in a bitmap
+	 */
+	private boolean isBitmapBacked() {
+		return memberBitmap != null;
+	}
+	
 	/**
 	 * @since 2.1.0
 	 * @param asOfDate date used to return active memberships
@@ -219,6 +285,9 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	}
 	
 	public int size() {
+		if (memberBitmap != null) {
+			return memberBitmap.size();
+		}
 		return getMemberships().stream().filter(m -> !m.getVoided()).collect(Collectors.toList())
 		        .size();
 	}
@@ -245,6 +314,15 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	 * @return Cohort
 	 */
 	public static Cohort union(Cohort a, Cohort b) {
+		if (isBitmapBacked(a, b)) {
+			Cohort ret = new Cohort(null, null, (PatientIdBitmap) null);
+			ret.memberBitmap = PatientIdBitmap.union(a == null ? null : a.memberBitmap, b == null ? null
+			        : b.memberBitmap);
+			if (a != null && b != null) {
+				ret.setName("(" + a.getName() + " + " + b.getName() + ")");
+			}
+			return ret;
+		}
 		Cohort ret = new Cohort();
 		if (a != null) {
 			ret.getMemberships().addAll(a.getMemberships());
@@ -266,6 +344,13 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	 * @return Cohort
 	 */
 	public static Cohort intersect(Cohort a, Cohort b) {
+		if (isBitmapBacked(a, b)) {
+			Cohort ret = new Cohort(null, null, (PatientIdBitmap) null);
+			ret.setName("(" + (a == null ? "NULL" : a.getName()) + " * " + (b == null ? "NULL" : b.getName()) + ")");
+			ret.memberBitmap = PatientIdBitmap.intersect(a == null ? null : a.memberBitmap, b == null ? null
+			        : b.memberBitmap);
+			return ret;
+		}
 		Cohort ret = new Cohort();
 		ret.setName("(" + (a == null ? "NULL" : a.getName()) + " * " + (b == null ? "NULL" : b.getName()) + ")");
 		if (a != null && b != null) {
@@ -283,6 +368,16 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	 * @return Cohort
 	 */
 	public static Cohort subtract(Cohort a, Cohort b) {
+		if (isBitmapBacked(a, b)) {
+			Cohort ret = new Cohort(null, null, (PatientIdBitmap) null);
+			if (a != null) {
+				ret.memberBitmap = PatientIdBitmap.subtract(a.memberBitmap, b == null ? null : b.memberBitmap);
+				if (b != null) {
+					ret.setName("(" + a.getName() + " - " + b.getName() + ")");
+				}
+			}
+			return ret;
+		}
 		Cohort ret = new Cohort();
 		if (a != null) {
 			ret.getMemberships().addAll(a.getMemberships());
@@ -294,6 +389,13 @@ public class Cohort extends BaseChangeableOpenmrsData {
 		return ret;
 	}
 	
+	/**
+	 * @return true if at least one of the cohorts is bitmap backed and all non null ones are
+	 */
+	private static boolean isBitmapBacked(Cohort a, Cohort b) {
+		return (a != null || b != null) && (a == null || a.isBitmapBacked()) && (b == null || b.isBitmapBacked());
+	}
+	
 	// getters and setters
 	
 	public Integer getCohortId() {
@@ -326,6 +428,10 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	@Deprecated
 	public Set<Integer> getMemberIds() {
 		Set<Integer> memberIds = new TreeSet<>();
+		if (memberBitmap != null) {
+			memberBitmap.forEach(memberIds::add);
+			return memberIds;
+		}
 		for (CohortMembership member : getMemberships()) {
 			memberIds.add(member.getPatientId());
 		}
@@ -349,6 +455,8 @@ public class Cohort extends BaseChangeableOpenmrsData {
 	}
 	
 	public void setMemberships(Collection<CohortMembership> members) {
+		// the given memberships replace any members not yet turned into memberships
+		this.memberBitmap = null;
 		this.memberships = members;
 	}
 	
@@ -49,10 +49,8 @@ import org.openmrs.api.db.hibernate.search.bridge.OpenmrsObjectValueBridge;
 import org.openmrs.customdatatype.CustomValueDescriptor;
 import org.openmrs.customdatatype.Customizable;
 import org.openmrs.util.LocaleUtility;
-import org.openmrs.util.OpenmrsUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.util.ObjectUtils;
 
 /**
  * A Concept object can represent either a question or an answer to a data point. That data point is
@@ -143,6 +141,17 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	 * getCompatibleNames().
 	 */
 	private Map<Locale, List<ConceptName>> compatibleCache;
+	
+	/**
+	 * An index of the names by locale used to resolve names without scanning all of them. Built
+	 * on-the-fly by {@link #getNameIndex()} and discarded when the names change.
+	 */
+	private transient volatile ConceptNameIndex nameIndex;
+	
+	/**
+	 * Changed whenever a name is added, removed or modified so that {@link #nameIndex} is rebuilt
+	 */
+	private transient volatile int nameChangeStamp;
 
 	private Set<ConceptAttribute> attributes = new LinkedHashSet<>();
 
@@ -464,7 +473,8 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	 * <strong>Should</strong> return name in broader locale in case none is found in specific one
 	 */
 	public ConceptName getName() {
-		if (getNames().isEmpty()) {
+		ConceptNameIndex index = getNameIndex();
+		if (index.isEmpty()) {
 			log.debug("there are no names defined for: {}", conceptId);
 			return null;
 		}
@@ -495,20 +505,14 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 			}
 		}
 		
-		for (ConceptName cn : getNames()) {
-			if (cn.isFullySpecifiedName()) {
-				return cn;
-			}
-		}
-		
-		if (!getSynonyms().isEmpty()) {
-			return getSynonyms().iterator().next();
+		if (index.getFirstFullySpecifiedName() != null) {
+			return index.getFirstFullySpecifiedName();
 		}
 		
 		// we don't expect to get here since every concept name must have at least
 		// one fully specified name, but just in case (probably inconsistent data)
 		
-		return null;
+		return index.getFirstSynonym();
 	}
 	
 	/**
@@ -605,49 +609,28 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	public ConceptName getName(Locale locale, boolean exact) {
 		
 		// fail early if this concept has no names defined
-		if (getNames().isEmpty()) {
+		ConceptNameIndex index = getNameIndex();
+		if (index.isEmpty()) {
 			log.debug("there are no names defined for: {}", conceptId);
 			return null;
 		}
 		
 		log.debug("Getting conceptName for locale: {}", locale);
 		
-		ConceptName exactName = getNameInLocale(locale);
+		// the best name in the locale is the preferred one, then the fully specified one and then a synonym
+		ConceptName exactName = index.getBestName(locale);
 		
 		if (exactName != null) {
 			return exactName;
 		}
 		
 		if (!exact) {
-			Locale broaderLocale = new Locale(locale.getLanguage());
-			ConceptName name = getNameInLocale(broaderLocale);
+			ConceptName name = index.getBestNameInLanguage(locale.getLanguage());
 			return name != null ? name : getName();
 		}
 		return null;
 	}
 	
-	/**
-	 * Gets the best name in the specified locale.
-	 * 
-	 * @param locale
-	 * @return null if name in given locale doesn't exist
-	 */
-	private ConceptName getNameInLocale(Locale locale) {
-		ConceptName preferredName = getPreferredName(locale);
-		if (preferredName != null) {
-			return preferredName;
-		}
-		
-		ConceptName fullySpecifiedName = getFullySpecifiedName(locale);
-		if (fullySpecifiedName != null) {
-			return fullySpecifiedName;
-		} else if (!getSynonyms(locale).isEmpty()) {
-			return getSynonyms(locale).iterator().next();
-		}
-		
-		return null;
-	}
-	
 	public ConceptName getPreferredName(Locale forLocale) {
 		return getPreferredName(forLocale, false);
 	}
@@ -672,36 +655,9 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 			return null;
 		}
 		
-		for (ConceptName nameInLocale : getNames(forLocale)) {
-			if (ObjectUtils.nullSafeEquals(nameInLocale.getLocalePreferred(), true)) {
-				return nameInLocale;
-			}
-		}
-		
-		if (exact) {
-			return null;
-		} else {
-			// look for partially locale match - any language matches takes precedence over country matches.
-			ConceptName bestMatch = null;
-
-			for (ConceptName nameInLocale : getPartiallyCompatibleNames(forLocale)) {
-				if (ObjectUtils.nullSafeEquals(nameInLocale.getLocalePreferred(), true)) {
-					Locale nameLocale = nameInLocale.getLocale();
-					if (forLocale.getLanguage().equals(nameLocale.getLanguage())) {
-						return nameInLocale;
-					} else {
-						bestMatch = nameInLocale;
-					}
-
-				}
-			}
-
-			if (bestMatch != null) {
-				return bestMatch;
-			}
-
-			return getFullySpecifiedName(forLocale);
-		}
+		// look for partially locale match if not exact - any language matches take precedence over country
+		// matches, followed by the fully specified name
+		return getNameIndex().getPreferredName(forLocale, exact);
 	}
 	
 	/**
@@ -712,28 +668,10 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	 * <strong>Should</strong> return the name marked as fully specified for the given locale
 	 */
 	public ConceptName getFullySpecifiedName(Locale locale) {
-		if (locale != null && !getNames(locale).isEmpty()) {
-			//get the first fully specified name, since every concept must have a fully specified name,
-			//then, this loop will have to return a name
-			for (ConceptName conceptName : getNames(locale)) {
-				if (ObjectUtils.nullSafeEquals(conceptName.isFullySpecifiedName(), true)) {
-					return conceptName;
-				}
-			}
-			
-			// look for partially locale match - any language matches takes precedence over country matches.
-			ConceptName bestMatch = null;
-			for (ConceptName conceptName : getPartiallyCompatibleNames(locale)) {
-				if (ObjectUtils.nullSafeEquals(conceptName.isFullySpecifiedName(), true)) {
-					Locale nameLocale = conceptName.getLocale();
-					if (locale.getLanguage().equals(nameLocale.getLanguage())) {
-						return conceptName;
-					}
-					bestMatch = conceptName;
-				}
-			}
-			return bestMatch;
-			
+		if (locale != null) {
+			// if there are names in the locale, look for the fully specified name in it and then for a partially
+			// locale match - any language matches take precedence over country matches.
+			return getNameIndex().getFullySpecifiedName(locale);
 		}
 		return null;
 	}
@@ -747,26 +685,7 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	 * @return Collection of ConceptNames with the given locale
 	 */
 	public Collection<ConceptName> getNames(Locale locale) {
-		return getNames().stream()
-				.filter(n -> n.getLocale().equals(locale))
-				.collect(Collectors.toSet());
-	}
-	
-	/**
-	 * Returns all names available for locale language "or" country. <br>
-	 * <br>
-	 * 
-	 * @param locale locale for which names should be returned
-	 * @return Collection of ConceptNames with the given locale language or country
-	 */
-	private Collection<ConceptName> getPartiallyCompatibleNames(Locale locale) {
-		String language = locale.getLanguage();
-		String country = locale.getCountry();
-		
-		return getNames().stream()
-				.filter(n -> language.equals(n.getLocale().getLanguage()) || 
-							StringUtils.isNotBlank(country) && country.equals(n.getLocale().getCountry()))
-				.collect(Collectors.toSet());
+		return new HashSet<>(getNameIndex().getNames(locale));
 	}
 	
 	/**
@@ -801,6 +720,32 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 		return compatibleNames;
 	}
 	
+	/**
+	 * Gets the index of the names of this concept, rebuilding it if the names changed since it was
+	 * last built
+	 * 
+	 * @return the current name index
+	 */
+	private ConceptNameIndex getNameIndex() {
+		ConceptNameIndex index = nameIndex;
+		int changeStamp = nameChangeStamp;
+		if (index == null || !index.isCurrent(names, changeStamp)) {
+			index = new ConceptNameIndex(this, names, changeStamp);
+			nameIndex = index;
+		}
+		return index;
+	}
+	
+	/**
+	 * Discards the cached lookups of names, called whenever a name is added to or removed from this
+	 * concept and by {@link ConceptName} when one of the indexed names is changed
+	 */
+	void nameChanged() {
+		nameChangeStamp++;
+		// clear the locale cache, forcing it to be rebuilt
+		compatibleCache = null;
+	}
+	
 	/**
 	 * Sets the specified name as the fully specified name for the locale and the current fully
 	 * specified (if any) ceases to be the fully specified name for the locale.
@@ -865,23 +810,12 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	 * @return the short name, or null if none has been explicitly set
 	 */
 	public ConceptName getShortNameInLocale(Locale locale) {
-		ConceptName bestMatch = null;
-		if (locale != null && !getShortNames().isEmpty()) {
-			for (ConceptName shortName : getShortNames()) {
-				Locale nameLocale = shortName.getLocale();
-				if (nameLocale.equals(locale)) {
-					return shortName;
-				}
-				// test for partially locale match - any language matches takes precedence over country matches.
-				if (OpenmrsUtil.nullSafeEquals(locale.getLanguage(), nameLocale.getLanguage())) {
-					bestMatch = shortName;
-				} else if (bestMatch == null && StringUtils.isNotBlank(locale.getCountry())
-				        && locale.getCountry().equals(nameLocale.getCountry())) {
-					bestMatch = shortName;
-				}
-			}
+		if (locale != null) {
+			// test for partially locale match if there is no exact one - any language matches take precedence
+			// over country matches.
+			return getNameIndex().getShortName(locale);
 		}
-		return bestMatch;
+		return null;
 	}
 	
 	/**
@@ -929,17 +863,9 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 		ConceptName shortestNameForConcept = null;
 		
 		if (locale != null) {
-			for (ConceptName possibleName : getNames()) {
-				if (possibleName.getLocale().equals(locale)
-				        && ((shortestNameForLocale == null) || (possibleName.getName().length() < shortestNameForLocale
-				                .getName().length()))) {
-					shortestNameForLocale = possibleName;
-				}
-				if ((shortestNameForConcept == null)
-				        || (possibleName.getName().length() < shortestNameForConcept.getName().length())) {
-					shortestNameForConcept = possibleName;
-				}
-			}
+			ConceptNameIndex index = getNameIndex();
+			shortestNameForLocale = index.getShortestName(locale);
+			shortestNameForConcept = index.getShortestName();
 		}
 		
 		if (exact) {
@@ -981,9 +907,7 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	 * @since 1.7
 	 */
 	public Collection<ConceptName> getIndexTermsForLocale(Locale locale) {
-		return getIndexTerms().stream()
-				.filter(n -> n.getLocale().equals(locale))
-		        .collect(Collectors.toList());
+		return new ArrayList<>(getNameIndex().getIndexTerms(locale));
 	}
 	
 	/**
@@ -1012,6 +936,7 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	 */
 	public void setNames(Collection<ConceptName> names) {
 		this.names = names;
+		nameChanged();
 	}
 	
 	/**
@@ -1053,10 +978,7 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 					}
 				}
 				names.add(conceptName);
-				if (compatibleCache != null) {
-					// clear the locale cache, forcing it to be rebuilt
-					compatibleCache.clear();
-				}
+				nameChanged();
 			}
 		}
 	}
@@ -1069,7 +991,11 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	 */
 	public boolean removeName(ConceptName conceptName) {
 		if (names != null) {
-			return names.remove(conceptName);
+			boolean removed = names.remove(conceptName);
+			if (removed) {
+				nameChanged();
+			}
+			return removed;
 		} else {
 			return false;
 		}
@@ -75,6 +75,11 @@ public class ConceptName extends BaseOpenmrsObject implements Auditable, Voidabl
 	
 	private Date dateChanged;
 	
+	/**
+	 * The concept whose name index includes this name, notified when the name changes
+	 */
+	private transient Concept indexedBy;
+	
 	// Constructors
 	
 	/** default constructor */
@@ -114,6 +119,9 @@ public class ConceptName extends BaseOpenmrsObject implements Auditable, Voidabl
 	}
 	
 	public void setConcept(Concept concept) {
+		if (concept != this.concept) {
+			nameChanged();
+		}
 		this.concept = concept;
 	}
 	
@@ -127,6 +135,7 @@ public class ConceptName extends BaseOpenmrsObject implements Auditable, Voidabl
 			this.setVoided(true);
 		} else {
 			this.name = name;
+			nameChanged();
 		}
 	}
 	
@@ -136,6 +145,7 @@ public class ConceptName extends BaseOpenmrsObject implements Auditable, Voidabl
 	
 	public void setLocale(Locale locale) {
 		this.locale = locale;
+		nameChanged();
 	}
 
 	/**
@@ -202,6 +212,7 @@ public class ConceptName extends BaseOpenmrsObject implements Auditable, Voidabl
 	@Override
 	public void setVoided(Boolean voided) {
 		this.voided = voided;
+		nameChanged();
 	}
 	
 	/**
@@ -297,6 +308,7 @@ public class ConceptName extends BaseOpenmrsObject implements Auditable, Voidabl
 	 */
 	public void setConceptNameType(ConceptNameType conceptNameType) {
 		this.conceptNameType = conceptNameType;
+		nameChanged();
 	}
 	
 	/**
@@ -325,6 +337,24 @@ public class ConceptName extends BaseOpenmrsObject implements Auditable, Voidabl
 	 */
 	public void setLocalePreferred(Boolean localePreferred) {
 		this.localePreferred = localePreferred;
+		nameChanged();
+	}
+	
+	/**
+	 * Registers the concept whose name index includes this name so that the index is discarded when
+	 * this name changes
+	 * 
+	 * @param concept the concept that indexed this name
+	 * @since 3.0.0
+	 */
+	void setIndexedBy(Concept concept) {
+		this.indexedBy = concept;
+	}
+	
+	private void nameChanged() {
+		if (indexedBy != null) {
+			indexedBy.nameChanged();
+		}
 	}
 	
 	/**
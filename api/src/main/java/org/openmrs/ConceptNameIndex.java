@@ -0,0 +1,311 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * An immutable index of the non-voided names of a {@link Concept} by locale, language and country
+ * so that resolving the preferred, fully specified, short or shortest name of a concept in a locale
+ * does not scan all its names. Lookups follow the same locale matching rules the corresponding
+ * {@link Concept} methods used to apply to the names one by one: an exact locale match first, then
+ * a name with the same language and then one with the same country.
+ * <p>
+ * An index is built lazily by its concept and is discarded when a name is added or removed or when
+ * one of its names is changed, see {@link ConceptName#setIndexedBy(Concept)}.
+ *
+ * @since 3.0.0
+ */
+final class ConceptNameIndex {
+
+	private final Collection<ConceptName> indexedNames;
+
+	private final int indexedSize;
+
+	private final int changeStamp;
+
+	private int nameCount;
+
+	private final Map<Locale, List<ConceptName>> namesByLocale = new HashMap<>();
+
+	private final Map<String, Locale> languageOnlyLocales = new HashMap<>();
+
+	private final Map<Locale, ConceptName> preferredByLocale = new HashMap<>();
+
+	private final Map<String, ConceptName> preferredByLanguage = new HashMap<>();
+
+	private final Map<String, ConceptName> preferredByCountry = new HashMap<>();
+
+	private final Map<Locale, ConceptName> fullySpecifiedByLocale = new HashMap<>();
+
+	private final Map<String, ConceptName> fullySpecifiedByLanguage = new HashMap<>();
+
+	private final Map<String, ConceptName> fullySpecifiedByCountry = new HashMap<>();
+
+	private final Map<Locale, ConceptName> shortByLocale = new HashMap<>();
+
+	private final Map<String, ConceptName> shortByLanguage = new HashMap<>();
+
+	private final Map<String, ConceptName> shortByCountry = new HashMap<>();
+
+	private final Map<Locale, ConceptName> shortestByLocale = new HashMap<>();
+
+	private final Map<Locale, ConceptName> firstSynonymByLocale = new HashMap<>();
+
+	private final Map<Locale, List<ConceptName>> indexTermsByLocale = new HashMap<>();
+
+	private ConceptName shortest;
+
+	private ConceptName firstFullySpecified;
+
+	private ConceptName firstSynonym;
+
+	/**
+	 * Builds the index of the given names and registers the concept with each name so that changing
+	 * a name discards the index
+	 *
+	 * @param concept the concept owning the names
+	 * @param names the names of the concept including voided ones, may be null
+	 * @param changeStamp the change stamp of the concept's names when the index is built
+	 */
+	ConceptNameIndex(Concept concept, Collection<ConceptName> names, int changeStamp) {
+		this.indexedNames = names;
+		this.indexedSize = names == null ? 0 : names.size();
+		this.changeStamp = changeStamp;
+		if (names == null) {
+			return;
+		}
+
+		for (ConceptName name : names) {
+			name.setIndexedBy(concept);
+			if (!name.getVoided()) {
+				add(name);
+			}
+		}
+	}
+
+	private void add(ConceptName name) {
+		nameCount++;
+		Locale locale = name.getLocale();
+		namesByLocale.computeIfAbsent(locale, key -> new ArrayList<>()).add(name);
+		if (shortest == null || isShorter(name, shortest)) {
+			shortest = name;
+		}
+		if (locale == null) {
+			return;
+		}
+
+		String language = locale.getLanguage();
+		String country = locale.getCountry();
+		if (StringUtils.isBlank(country) && StringUtils.isBlank(locale.getVariant())) {
+			languageOnlyLocales.putIfAbsent(language, locale);
+		}
+
+		ConceptName shortestInLocale = shortestByLocale.get(locale);
+		if (shortestInLocale == null || isShorter(name, shortestInLocale)) {
+			shortestByLocale.put(locale, name);
+		}
+
+		if (Boolean.TRUE.equals(name.getLocalePreferred())) {
+			preferredByLocale.putIfAbsent(locale, name);
+			preferredByLanguage.putIfAbsent(language, name);
+			putIfCountry(preferredByCountry, country, name);
+		}
+
+		if (name.isFullySpecifiedName()) {
+			if (firstFullySpecified == null) {
+				firstFullySpecified = name;
+			}
+			fullySpecifiedByLocale.putIfAbsent(locale, name);
+			fullySpecifiedByLanguage.putIfAbsent(language, name);
+			putIfCountry(fullySpecifiedByCountry, country, name);
+		} else if (name.isShort()) {
+			shortByLocale.putIfAbsent(locale, name);
+			shortByLanguage.putIfAbsent(language, name);
+			putIfCountry(shortByCountry, country, name);
+		} else if (name.isIndexTerm()) {
+			indexTermsByLocale.computeIfAbsent(locale, key -> new ArrayList<>()).add(name);
+		} else if (name.isSynonym()) {
+			if (firstSynonym == null) {
+				firstSynonym = name;
+			}
+			// the preferred synonym of a locale takes precedence, like in Concept#getSynonyms(Locale)
+			if (name.isPreferred()) {
+				firstSynonymByLocale.put(locale, name);
+			} else {
+				firstSynonymByLocale.putIfAbsent(locale, name);
+			}
+		}
+	}
+
+	/**
+	 * Names without a value are only possible before a concept is validated, they are never shorter
+	 */
+	private static boolean isShorter(ConceptName name, ConceptName than) {
+		if (name.getName() == null) {
+			return false;
+		}
+		return than.getName() == null || name.getName().length() < than.getName().length();
+	}
+
+	private static void putIfCountry(Map<String, ConceptName> byCountry, String country, ConceptName name) {
+		if (StringUtils.isNotBlank(country)) {
+			byCountry.putIfAbsent(country, name);
+		}
+	}
+
+	/**
+	 * @param names the current names collection of the concept
+	 * @param currentChangeStamp the current change stamp of the concept's names
+	 * @return true if the index still reflects the names of the concept
+	 */
+	boolean isCurrent(Collection<ConceptName> names, int currentChangeStamp) {
+		return changeStamp == currentChangeStamp && indexedNames == names
+		        && indexedSize == (names == null ? 0 : names.size());
+	}
+
+	/**
+	 * @return true if the concept has no non-voided names
+	 */
+	boolean isEmpty() {
+		return nameCount == 0;
+	}
+
+	/**
+	 * @return the non-voided names in exactly the given locale
+	 */
+	List<ConceptName> getNames(Locale locale) {
+		List<ConceptName> namesInLocale = namesByLocale.get(locale);
+		return namesInLocale == null ? Collections.emptyList() : namesInLocale;
+	}
+
+	/**
+	 * @see Concept#getPreferredName(Locale, Boolean)
+	 */
+	ConceptName getPreferredName(Locale locale, boolean exact) {
+		ConceptName preferredName = preferredByLocale.get(locale);
+		if (preferredName != null || exact) {
+			return preferredName;
+		}
+
+		preferredName = preferredByLanguage.get(locale.getLanguage());
+		if (preferredName == null && StringUtils.isNotBlank(locale.getCountry())) {
+			preferredName = preferredByCountry.get(locale.getCountry());
+		}
+		return preferredName != null ? preferredName : getFullySpecifiedName(locale);
+	}
+
+	/**
+	 * @see Concept#getFullySpecifiedName(Locale)
+	 */
+	ConceptName getFullySpecifiedName(Locale locale) {
+		if (!namesByLocale.containsKey(locale)) {
+			return null;
+		}
+
+		ConceptName fullySpecifiedName = fullySpecifiedByLocale.get(locale);
+		if (fullySpecifiedName == null) {
+			fullySpecifiedName = fullySpecifiedByLanguage.get(locale.getLanguage());
+		}
+		if (fullySpecifiedName == null && StringUtils.isNotBlank(locale.getCountry())) {
+			fullySpecifiedName = fullySpecifiedByCountry.get(locale.getCountry());
+		}
+		return fullySpecifiedName;
+	}
+
+	/**
+	 * @see Concept#getShortNameInLocale(Locale)
+	 */
+	ConceptName getShortName(Locale locale) {
+		ConceptName shortName = shortByLocale.get(locale);
+		if (shortName == null) {
+			shortName = shortByLanguage.get(locale.getLanguage());
+		}
+		if (shortName == null && StringUtils.isNotBlank(locale.getCountry())) {
+			shortName = shortByCountry.get(locale.getCountry());
+		}
+		return shortName;
+	}
+
+	/**
+	 * Gets the best name in exactly the given locale: the preferred name, then the fully specified
+	 * name and then a synonym
+	 *
+	 * @param locale the locale
+	 * @return the best name or null if there is none
+	 */
+	ConceptName getBestName(Locale locale) {
+		ConceptName name = getPreferredName(locale, false);
+		if (name == null) {
+			name = firstSynonymByLocale.get(locale);
+		}
+		return name;
+	}
+
+	/**
+	 * Same as {@link #getBestName(Locale)} for the locale with just the given language and no
+	 * country, without creating the locale
+	 *
+	 * @param language the language of the locale
+	 * @return the best name or null if there is none
+	 */
+	ConceptName getBestNameInLanguage(String language) {
+		Locale languageOnlyLocale = languageOnlyLocales.get(language);
+		if (languageOnlyLocale != null) {
+			return getBestName(languageOnlyLocale);
+		}
+		// there are no names in this locale, so only a preferred name in the language can match
+		return preferredByLanguage.get(language);
+	}
+
+	/**
+	 * @return the shortest name in exactly the given locale or null if there is none
+	 */
+	ConceptName getShortestName(Locale locale) {
+		return shortestByLocale.get(locale);
+	}
+
+	/**
+	 * @return the shortest name in any locale or null if there are no names
+	 */
+	ConceptName getShortestName() {
+		return shortest;
+	}
+
+	/**
+	 * @return the first fully specified name in any locale or null if there is none
+	 */
+	ConceptName getFirstFullySpecifiedName() {
+		return firstFullySpecified;
+	}
+
+	/**
+	 * @return the first synonym in any locale or null if there is none
+	 */
+	ConceptName getFirstSynonym() {
+		return firstSynonym;
+	}
+
+	/**
+	 * @return the index terms in exactly the given locale
+	 */
+	List<ConceptName> getIndexTerms(Locale locale) {
+		List<ConceptName> indexTerms = indexTermsByLocale.get(locale);
+		return indexTerms == null ? Collections.emptyList() : indexTerms;
+	}
+}
@@ -57,7 +57,8 @@ public class PatientIdentifier extends BaseChangeableOpenmrsData implements java
 	@DocumentId
 	private Integer patientIdentifierId;
 
-	@IndexedEmbedded(includeEmbeddedObjectId = true)
+	// only the fields of the patient itself, not the objects embedded in the patient search index
+	@IndexedEmbedded(includeEmbeddedObjectId = true, includeDepth = 1)
 	@AssociationInverseSide(inversePath = @ObjectPath({
 		@PropertyValue(propertyName = "identifiers")
 	}))
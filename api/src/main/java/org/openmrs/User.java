@@ -47,6 +47,7 @@ import org.hibernate.annotations.LazyCollectionOption;
 import org.hibernate.annotations.Parameter;
 import org.hibernate.envers.Audited;
 import org.hibernate.envers.NotAudited;
+import org.openmrs.api.context.CompiledPrivileges;
 import org.openmrs.api.context.Context;
 import org.openmrs.util.LocaleUtility;
 import org.openmrs.util.OpenmrsConstants;
@@ -329,6 +330,7 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 	 */
 	public void setRoles(Set<Role> roles) {
 		this.roles = roles;
+		CompiledPrivileges.invalidateAll();
 	}
 	
 	/**
@@ -343,6 +345,7 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 		}
 		if (!roles.contains(role) && role != null) {
 			roles.add(role);
+			CompiledPrivileges.invalidateAll();
 		}
 		
 		return this;
@@ -355,8 +358,8 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 	 * @return this user with the given role removed
 	 */
 	public User removeRole(Role role) {
-		if (roles != null) {
-			roles.remove(role);
+		if (roles != null && roles.remove(role)) {
+			CompiledPrivileges.invalidateAll();
 		}
 		
 		return this;
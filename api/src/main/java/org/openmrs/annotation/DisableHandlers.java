@@ -30,9 +30,14 @@ import org.openmrs.api.handler.RequiredDataHandler;
  *      }
  *    </pre>
  *      You can disable all RequiredDataAdviceHandlers by specifying the parent class: {@literal @}DisableHandlers(handlerTypes = { RequiredDataHandler.class })
+ *    <p>
+ *    A service method can also be annotated, in which case RequiredDataAdvice leaves its arguments alone for the
+ *    specified handler(s) and, for save methods, does not validate them either. The method then becomes responsible
+ *    for handling and validating its arguments itself, see {@link org.openmrs.api.ObsService#saveObsBatch(java.util.List, String)}.
+ *    </p>
  **/
 
-@Target( { ElementType.FIELD })
+@Target( { ElementType.FIELD, ElementType.METHOD })
 @Retention(RetentionPolicy.RUNTIME)
 @Inherited
 @Documented
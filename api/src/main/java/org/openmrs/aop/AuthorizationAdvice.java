@@ -10,7 +10,10 @@
 package org.openmrs.aop;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.openmrs.User;
@@ -35,6 +38,13 @@ public class AuthorizationAdvice implements MethodBeforeAdvice {
 	private static final Logger log = LoggerFactory.getLogger(AuthorizationAdvice.class);
         private static final String USER_IS_NOT_AUTHORIZED_TO_ACCESS = "User {} is not authorized to access {}";
 	
+	/**
+	 * The authorization requirements of each advised method, read once from its {@link org.openmrs.annotation.Authorized}
+	 * annotation. A new advice instance is created whenever the application context is refreshed so
+	 * methods of unloaded module classes do not linger here.
+	 */
+	private final Map<Method, MethodAuthorization> methodAuthorizations = new ConcurrentHashMap<>();
+	
 	/**
 	 * Allows us to check whether a user is authorized to access a particular method.
 	 * 
@@ -60,50 +70,46 @@ public class AuthorizationAdvice implements MethodBeforeAdvice {
 			return;
 		}
 		
-		AuthorizedAnnotationAttributes attributes = new AuthorizedAnnotationAttributes();
-		Collection<String> privileges = attributes.getAttributes(method);
-		boolean requireAll = attributes.getRequireAll(method);
+		MethodAuthorization authorization = methodAuthorizations.computeIfAbsent(method, MethodAuthorization::new);
+		String[] privileges = authorization.privileges;
+		boolean requireAll = authorization.requireAll;
 		
 		// Only execute if the "secure" method has authorization attributes
 		// Iterate through required privileges and return only if the user has
 		// one of them
-		if (!privileges.isEmpty()) {
-			try {
-				Context.addProxyPrivilege(PrivilegeConstants.GET_ROLES);
-				for (String privilege : privileges) {
-					// skip null privileges
-					if (privilege == null || privilege.isEmpty()) {
+		if (privileges.length > 0) {
+			for (String privilege : privileges) {
+				// skip null privileges
+				if (privilege == null || privilege.isEmpty()) {
+					return;
+				}
+				// roles are always readable while checking authorization, since resolving privileges may need them
+				boolean hasPrivilege = PrivilegeConstants.GET_ROLES.equals(privilege) || Context.hasPrivilege(privilege);
+				log.debug("User has privilege {}? {}", privilege, hasPrivilege);
+				
+				if (hasPrivilege) {
+					if (!requireAll) {
+						// if not all required, the first one that they have
+						// causes them to "pass"
 						return;
 					}
-					boolean hasPrivilege  = Context.hasPrivilege(privilege);
-					log.debug("User has privilege {}? {}", privilege, hasPrivilege);
-
-					if (hasPrivilege) {
-						if (!requireAll) {
-							// if not all required, the first one that they have
-							// causes them to "pass"
-							return;
-						}
-					} else {
-						if (requireAll) {
-							// if all are required, the first miss causes them
-							// to "fail"
-							throwUnauthorized(Context.getAuthenticatedUser(), method, privilege);
-						}
+				} else {
+					if (requireAll) {
+						// if all are required, the first miss causes them
+						// to "fail"
+						throwUnauthorized(Context.getAuthenticatedUser(), method, privilege);
 					}
 				}
-			} finally {
-				Context.removeProxyPrivilege(PrivilegeConstants.GET_ROLES);
 			}
 			
 			if (!requireAll) {
 				// If there's no match, then we know there are privileges and
 				// that the user didn't have any of them. The user is not
 				// authorized to access the method
-				throwUnauthorized(Context.getAuthenticatedUser(), method, privileges);
+				throwUnauthorized(Context.getAuthenticatedUser(), method, Arrays.asList(privileges));
 			}
 			
-		} else if (attributes.hasAuthorizedAnnotation(method) && !Context.isAuthenticated()) {
+		} else if (authorization.hasAuthorizedAnnotation && !Context.isAuthenticated()) {
 			throwUnauthorized(Context.getAuthenticatedUser(), method);
 		}
 	}
@@ -144,4 +150,24 @@ public class AuthorizationAdvice implements MethodBeforeAdvice {
 		log.debug(USER_IS_NOT_AUTHORIZED_TO_ACCESS, user, method.getName());
 		throw new APIAuthenticationException(Context.getMessageSourceService().getMessage("error.aunthenticationRequired"));
 	}
+	
+	/**
+	 * The privileges required to invoke a method as declared by its Authorized annotation
+	 */
+	private static class MethodAuthorization {
+		
+		private final String[] privileges;
+		
+		private final boolean requireAll;
+		
+		private final boolean hasAuthorizedAnnotation;
+		
+		private MethodAuthorization(Method method) {
+			AuthorizedAnnotationAttributes attributes = new AuthorizedAnnotationAttributes();
+			Collection<String> privilegeNames = attributes.getAttributes(method);
+			this.privileges = privilegeNames.toArray(new String[0]);
+			this.requireAll = attributes.getRequireAll(method);
+			this.hasAuthorizedAnnotation = attributes.hasAuthorizedAnnotation(method);
+		}
+	}
 }
@@ -10,7 +10,6 @@
 package org.openmrs.aop;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -25,8 +24,6 @@ import org.openmrs.User;
 import org.openmrs.Voidable;
 import org.openmrs.annotation.AllowDirectAccess;
 import org.openmrs.annotation.DisableHandlers;
-import org.openmrs.annotation.Independent;
-import org.openmrs.api.APIException;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.handler.ConceptNameSaveHandler;
 import org.openmrs.api.handler.RequiredDataHandler;
@@ -40,7 +37,6 @@ import org.openmrs.util.Reflect;
 import org.openmrs.validator.ValidateUtil;
 import org.springframework.aop.MethodBeforeAdvice;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.StringUtils;
 
 /**
  * This class provides the AOP around each save, (un)void, and (un)retire method in the service
@@ -80,8 +76,6 @@ import org.springframework.util.StringUtils;
  */
 public class RequiredDataAdvice implements MethodBeforeAdvice {
 	
-	private static final String UNABLE_GETTER_METHOD = "unable.getter.method";
-	
 	/**
 	 * @see org.springframework.aop.MethodBeforeAdvice#before(java.lang.reflect.Method,
 	 *      java.lang.Object[], java.lang.Object)
@@ -110,6 +104,11 @@ public class RequiredDataAdvice implements MethodBeforeAdvice {
 		// not updating the primary argument. eg: ConceptService.updateConceptWord(Concept)
 		if (methodName.startsWith("save") || methodName.startsWith("create")) {
 			
+			// the method handles and validates its arguments itself
+			if (isHandlerMarkedAsDisabled(SaveHandler.class, method)) {
+				return;
+			}
+			
 			// if the first argument is an OpenmrsObject, handle it now
 			Reflect reflect = new Reflect(OpenmrsObject.class);
 			
@@ -269,6 +268,7 @@ public class RequiredDataAdvice implements MethodBeforeAdvice {
 	 *            not be processed again. this is intended to prevent infinite recursion when
 	 *            handling collection properties.
 	 * @see HandlerUtil#getHandlersForType(Class, Class)
+	 * @see RequiredDataTraversalPlan
 	 * 
 	 * @since 2.7.0
 	 */
@@ -284,38 +284,27 @@ public class RequiredDataAdvice implements MethodBeforeAdvice {
 			alreadyHandled = new HashSet<>();
 		}
 		
-		// fetch all handlers for the object being saved
-		List<H> handlers = HandlerUtil.getHandlersForType(handlerType, openmrsObjectClass);
+		// fetch the handlers and child collections for the class of the object being saved
+		RequiredDataTraversalPlan<H> plan = RequiredDataTraversalPlan.getPlan(handlerType, openmrsObjectClass);
 		
 		// loop over all handlers, calling onSave on each
-		for (H handler : handlers) {
+		for (H handler : plan.getHandlers()) {
 			handler.handle(openmrsObject, currentUser, currentDate, other);
 		}
 		
 		alreadyHandled.add(openmrsObject);
 		
-		Reflect reflect = new Reflect(OpenmrsObject.class);
-		List<Field> allInheritedFields = reflect.getInheritedFields(openmrsObjectClass);
-		
 		// loop over all child collections of OpenmrsObjects and recursively save on those
-		for (Field field : allInheritedFields) {
+		for (RequiredDataTraversalPlan.ChildCollection childCollectionField : plan.getChildCollections()) {
 			
-			// skip field if it's declared independent
-			if (Reflect.isAnnotationPresent(openmrsObjectClass, field.getName(), Independent.class)) {
-				continue;
-			}
+			// the collection we'll be looping over
+			Collection<OpenmrsObject> childCollection = childCollectionField.get(openmrsObject);
 			
-			if (reflect.isCollectionField(field) && !isHandlerMarkedAsDisabled(handlerType, field)) {
-				
-				// the collection we'll be looping over
-				Collection<OpenmrsObject> childCollection = getChildCollection(openmrsObject, field);
-				
-				if (childCollection != null) {
-					for (OpenmrsObject collectionElement : childCollection) {
-						if (!alreadyHandled.contains(collectionElement)) {
-							recursivelyHandle(handlerType, collectionElement, currentUser, currentDate,
-								other, alreadyHandled);
-						}
+			if (childCollection != null) {
+				for (OpenmrsObject collectionElement : childCollection) {
+					if (!alreadyHandled.contains(collectionElement)) {
+						recursivelyHandle(handlerType, collectionElement, currentUser, currentDate,
+							other, alreadyHandled);
 					}
 				}
 			}
@@ -333,48 +322,12 @@ public class RequiredDataAdvice implements MethodBeforeAdvice {
 	 * <strong>Should</strong> get value of given child collection on given field
 	 * <strong>Should</strong> should be able to get annotated private fields
 	 * <strong>Should</strong> throw APIException if getter method not found
+	 * @deprecated As of 3.0.0, child collections are read by
+	 *             {@link RequiredDataTraversalPlan.ChildCollection#get(OpenmrsObject)}
 	 */
-	@SuppressWarnings("unchecked")
+	@Deprecated
 	protected static Collection<OpenmrsObject> getChildCollection(OpenmrsObject openmrsObject, Field field) {
-		String fieldName = field.getName();
-		String getterName = "get" + StringUtils.capitalize(fieldName);
-		
-		try {
-			
-			// checks if direct access is allowed
-			if (field.isAnnotationPresent(AllowDirectAccess.class)) {
-				
-				boolean previousFieldAccessibility = field.isAccessible();
-				field.setAccessible(true);
-				Collection<OpenmrsObject> childCollection = (Collection<OpenmrsObject>) field.get(openmrsObject);
-				field.setAccessible(previousFieldAccessibility);
-				return childCollection;
-				
-			} else {
-				// access the field via its getter method
-				Class<? extends OpenmrsObject> openmrsObjectClass = openmrsObject.getClass();
-				
-				Method getterMethod = openmrsObjectClass.getMethod(getterName, (Class[]) null);
-				return (Collection<OpenmrsObject>) getterMethod.invoke(openmrsObject, new Object[] {});
-				
-			}
-		}
-		catch (IllegalAccessException e) {
-			if (field.isAnnotationPresent(AllowDirectAccess.class)) {
-				throw new APIException("unable.get.field", new Object[] { fieldName, openmrsObject.getClass() });
-			} else {
-				throw new APIException(UNABLE_GETTER_METHOD, new Object[] { "use", getterName, fieldName,
-					openmrsObject.getClass() });
-			}
-		}
-		catch (InvocationTargetException e) {
-			throw new APIException(UNABLE_GETTER_METHOD, new Object[] { "run", getterName, fieldName,
-				openmrsObject.getClass() });
-		}
-		catch (NoSuchMethodException e) {
-			throw new APIException(UNABLE_GETTER_METHOD, new Object[] { "find", getterName, fieldName,
-				openmrsObject.getClass() });
-		}
+		return new RequiredDataTraversalPlan.ChildCollection(openmrsObject.getClass(), field).get(openmrsObject);
 	}
 	
 	/**
@@ -405,13 +358,30 @@ public class RequiredDataAdvice implements MethodBeforeAdvice {
 	 * @return true if the handlerType has been marked as disabled, false otherwise
 	 */
 	protected static boolean isHandlerMarkedAsDisabled(Class<? extends RequiredDataHandler> handlerType, Field field) {
+		return isHandlerMarkedAsDisabled(handlerType, field.getAnnotation(DisableHandlers.class));
+	}
+	
+	/**
+	 * Checks if the given service method is annotated with a @DisableHandler annotation to specify
+	 * that the given handlerType should not be applied to its arguments
+	 *
+	 * @param handlerType
+	 * @param method
+	 * @return true if the handlerType has been marked as disabled, false otherwise
+	 */
+	protected static boolean isHandlerMarkedAsDisabled(Class<? extends RequiredDataHandler> handlerType, Method method) {
+		return isHandlerMarkedAsDisabled(handlerType, method.getAnnotation(DisableHandlers.class));
+	}
+	
+	private static boolean isHandlerMarkedAsDisabled(Class<? extends RequiredDataHandler> handlerType,
+		DisableHandlers disableHandlers) {
 		
 		// if the annotation isn't present, return false
-		if (!field.isAnnotationPresent(DisableHandlers.class)) {
+		if (disableHandlers == null) {
 			return false;
 		} else {
 			// otherwise we need to see if the handler type is one of the types specified in the annotation
-			for (Class<? extends RequiredDataHandler> h : field.getAnnotation(DisableHandlers.class).handlerTypes()) {
+			for (Class<? extends RequiredDataHandler> h : disableHandlers.handlerTypes()) {
 				if (h.isAssignableFrom(handlerType)) {
 					return true;
 				}
@@ -0,0 +1,210 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.aop;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openmrs.OpenmrsObject;
+import org.openmrs.annotation.AllowDirectAccess;
+import org.openmrs.annotation.Independent;
+import org.openmrs.api.APIException;
+import org.openmrs.api.handler.RequiredDataHandler;
+import org.openmrs.util.HandlerUtil;
+import org.openmrs.util.Reflect;
+import org.springframework.util.StringUtils;
+
+/**
+ * The precomputed work {@link RequiredDataAdvice} performs for one type of handler on one class of
+ * {@link OpenmrsObject}: the handlers to apply and the child collections to descend into. Plans are
+ * built on first use from the same reflective rules the advice has always applied (skipping
+ * {@link Independent} fields and fields whose handlers are disabled with
+ * {@link org.openmrs.annotation.DisableHandlers}) and are discarded together with the handlers
+ * cached by {@link HandlerUtil#clearCachedHandlers()} whenever the application context is refreshed.
+ *
+ * @since 3.0.0
+ */
+public final class RequiredDataTraversalPlan<H extends RequiredDataHandler<OpenmrsObject>> {
+
+	private static final String UNABLE_GETTER_METHOD = "unable.getter.method";
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private static final Map<Class<?>, Map<Class<?>, RequiredDataTraversalPlan<?>>> plans = new ConcurrentHashMap<>();
+
+	private final List<H> handlers;
+
+	private final List<ChildCollection> childCollections;
+
+	private RequiredDataTraversalPlan(List<H> handlers, List<ChildCollection> childCollections) {
+		this.handlers = handlers;
+		this.childCollections = childCollections;
+	}
+
+	/**
+	 * Gets the plan for handling objects of the given class with the given type of handler, building
+	 * it if necessary
+	 *
+	 * @param handlerType the type of handler being applied
+	 * @param openmrsObjectClass the runtime class of the object being handled
+	 * @return the traversal plan
+	 */
+	@SuppressWarnings("unchecked")
+	public static <H extends RequiredDataHandler<OpenmrsObject>> RequiredDataTraversalPlan<H> getPlan(
+	        Class<H> handlerType, Class<? extends OpenmrsObject> openmrsObjectClass) {
+		Map<Class<?>, RequiredDataTraversalPlan<?>> plansForHandlerType = plans.computeIfAbsent(handlerType,
+		    key -> new ConcurrentHashMap<>());
+		RequiredDataTraversalPlan<?> plan = plansForHandlerType.get(openmrsObjectClass);
+		if (plan == null) {
+			// built outside of computeIfAbsent since fetching the handlers may recursively need other plans
+			plan = buildPlan(handlerType, openmrsObjectClass);
+			plansForHandlerType.putIfAbsent(openmrsObjectClass, plan);
+		}
+		return (RequiredDataTraversalPlan<H>) plan;
+	}
+
+	/**
+	 * Discards all plans, this must be called whenever the registered handlers or the loaded classes
+	 * change
+	 */
+	public static void clearCachedPlans() {
+		plans.clear();
+	}
+
+	private static <H extends RequiredDataHandler<OpenmrsObject>> RequiredDataTraversalPlan<H> buildPlan(
+	        Class<H> handlerType, Class<? extends OpenmrsObject> openmrsObjectClass) {
+		List<H> handlers = HandlerUtil.getHandlersForType(handlerType, openmrsObjectClass);
+
+		List<ChildCollection> childCollections = new ArrayList<>();
+		Reflect reflect = new Reflect(OpenmrsObject.class);
+		for (Field field : reflect.getInheritedFields(openmrsObjectClass)) {
+
+			// skip field if it's declared independent
+			if (Reflect.isAnnotationPresent(openmrsObjectClass, field.getName(), Independent.class)) {
+				continue;
+			}
+
+			if (reflect.isCollectionField(field) && !RequiredDataAdvice.isHandlerMarkedAsDisabled(handlerType, field)) {
+				childCollections.add(new ChildCollection(openmrsObjectClass, field));
+			}
+		}
+
+		return new RequiredDataTraversalPlan<>(Collections.unmodifiableList(new ArrayList<>(handlers)),
+		        Collections.unmodifiableList(childCollections));
+	}
+
+	/**
+	 * @return the handlers to apply to the object itself, ordered by Handler#order
+	 */
+	public List<H> getHandlers() {
+		return handlers;
+	}
+
+	/**
+	 * @return the collections of child objects that should be handled recursively
+	 */
+	public List<ChildCollection> getChildCollections() {
+		return childCollections;
+	}
+
+	/**
+	 * A collection property of an {@link OpenmrsObject} read through its getter or, if the field is
+	 * annotated with {@link AllowDirectAccess}, directly from the field
+	 */
+	public static final class ChildCollection {
+
+		private final Class<?> openmrsObjectClass;
+
+		private final String fieldName;
+
+		private final String getterName;
+
+		private final boolean directAccess;
+
+		private final MethodHandle accessor;
+
+		/**
+		 * Why the accessor could not be resolved, reported when the collection is first read like the
+		 * reflective lookup used to
+		 */
+		private final String accessorProblem;
+
+		ChildCollection(Class<?> openmrsObjectClass, Field field) {
+			this.openmrsObjectClass = openmrsObjectClass;
+			this.fieldName = field.getName();
+			this.getterName = "get" + StringUtils.capitalize(fieldName);
+			this.directAccess = field.isAnnotationPresent(AllowDirectAccess.class);
+
+			MethodHandle handle = null;
+			String problem = null;
+			try {
+				if (directAccess) {
+					field.setAccessible(true);
+					handle = MethodHandles.lookup().unreflectGetter(field);
+				} else {
+					Method getterMethod = openmrsObjectClass.getMethod(getterName, (Class[]) null);
+					handle = MethodHandles.lookup().unreflect(getterMethod);
+				}
+				handle = handle.asType(GETTER_TYPE);
+			}
+			catch (NoSuchMethodException e) {
+				problem = "find";
+			}
+			catch (IllegalAccessException | RuntimeException e) {
+				problem = "use";
+			}
+			this.accessor = handle;
+			this.accessorProblem = problem;
+		}
+
+		/**
+		 * @return the name of the collection field
+		 */
+		public String getFieldName() {
+			return fieldName;
+		}
+
+		/**
+		 * Reads the child collection off the given object
+		 *
+		 * @param openmrsObject an instance of the class this plan was built for
+		 * @return the collection, may be null
+		 */
+		@SuppressWarnings("unchecked")
+		public Collection<OpenmrsObject> get(OpenmrsObject openmrsObject) {
+			if (accessor == null) {
+				throw accessFailure(accessorProblem);
+			}
+			try {
+				return (Collection<OpenmrsObject>) (Object) accessor.invokeExact((Object) openmrsObject);
+			}
+			catch (Throwable e) {
+				throw accessFailure("run");
+			}
+		}
+
+		private APIException accessFailure(String problem) {
+			if (directAccess) {
+				return new APIException("unable.get.field", new Object[] { fieldName, openmrsObjectClass });
+			}
+			return new APIException(UNABLE_GETTER_METHOD, new Object[] { problem, getterName, fieldName,
+			        openmrsObjectClass });
+		}
+	}
+}
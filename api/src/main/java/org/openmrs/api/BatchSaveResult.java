@@ -0,0 +1,72 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of saving a list of objects in one call, e.g. {@link ObsService#saveObsBatch(List, String)}.
+ * Items that could not be saved are reported with the exception that rejected them instead of
+ * aborting the whole batch.
+ *
+ * @param <T> the type of the saved objects
+ * @since 3.0.0
+ */
+public class BatchSaveResult<T> {
+
+	private final List<T> saved = new ArrayList<>();
+
+	private final Map<Integer, APIException> failures = new LinkedHashMap<>();
+
+	/**
+	 * Records an object that was saved
+	 *
+	 * @param item the object as returned by the save, which may differ from the one passed in
+	 */
+	public void addSaved(T item) {
+		saved.add(item);
+	}
+
+	/**
+	 * Records an object that was rejected
+	 *
+	 * @param index the position of the object in the list passed in
+	 * @param failure why it was not saved
+	 */
+	public void addFailure(int index, APIException failure) {
+		failures.put(index, failure);
+	}
+
+	/**
+	 * @return the saved objects in the order they were passed in
+	 */
+	public List<T> getSaved() {
+		return Collections.unmodifiableList(saved);
+	}
+
+	/**
+	 * @return the positions in the list passed in of the objects that were not saved mapped to the
+	 *         exception that rejected them, in ascending order
+	 */
+	public Map<Integer, APIException> getFailures() {
+		return Collections.unmodifiableMap(failures);
+	}
+
+	/**
+	 * @return true if any of the objects was not saved
+	 */
+	public boolean hasFailures() {
+		return !failures.isEmpty();
+	}
+}
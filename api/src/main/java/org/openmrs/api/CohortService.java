@@ -18,6 +18,7 @@ import org.openmrs.Patient;
 import org.openmrs.User;
 import org.openmrs.annotation.Authorized;
 import org.openmrs.api.db.CohortDAO;
+import org.openmrs.collection.PatientIdBitmap;
 import org.openmrs.util.PrivilegeConstants;
 
 /**
@@ -290,4 +291,18 @@ public interface CohortService extends OpenmrsService {
 	 */
 	@Authorized({ PrivilegeConstants.GET_PATIENT_COHORTS })
 	List<CohortMembership> getCohortMemberships(Integer patientId, Date activeOnDate, boolean includeVoided);
+	
+	/**
+	 * Gets the patient ids of the non voided members of a cohort as a compressed bitmap, reading them
+	 * from the database without loading the memberships of saved cohorts
+	 *
+	 * @since 3.0.0
+	 * @param cohort the cohort whose members to get
+	 * @param activeOnDate optional, only members whose membership is active on this date are included
+	 * @return the member ids
+	 * <strong>Should</strong> get the ids of the non voided members
+	 * <strong>Should</strong> only get the ids of memberships active on the given date
+	 */
+	@Authorized({ PrivilegeConstants.GET_PATIENT_COHORTS })
+	PatientIdBitmap getMemberBitmap(Cohort cohort, Date activeOnDate);
 }
@@ -0,0 +1,62 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api;
+
+import org.openmrs.Patient;
+import org.openmrs.patient.DuplicatePatientKeyGenerator;
+
+/**
+ * Two patients that may be the same person, see
+ * {@link PatientService#getDuplicatePatientCandidates(DuplicatePatientCandidate, int, int)}. The
+ * patient always has a lower id than its candidate duplicate.
+ *
+ * @since 3.0.0
+ */
+public class DuplicatePatientCandidate {
+	
+	private final Patient patient;
+	
+	private final Patient duplicate;
+	
+	private final int score;
+	
+	/**
+	 * @param patient the patient with the lower id
+	 * @param duplicate the patient with the higher id
+	 * @param score the likelihood of the patients being the same person, from 0 to 100
+	 */
+	public DuplicatePatientCandidate(Patient patient, Patient duplicate, int score) {
+		this.patient = patient;
+		this.duplicate = duplicate;
+		this.score = score;
+	}
+	
+	public Patient getPatient() {
+		return patient;
+	}
+	
+	public Patient getDuplicate() {
+		return duplicate;
+	}
+	
+	/**
+	 * @return the sum of the weights of the kinds of blocking keys the patients share, from 0 to 100
+	 * @see DuplicatePatientKeyGenerator
+	 */
+	public int getScore() {
+		return score;
+	}
+	
+	@Override
+	public String toString() {
+		return "DuplicatePatientCandidate[" + patient.getPatientId() + ", " + duplicate.getPatientId() + ", score="
+		        + score + "]";
+	}
+}
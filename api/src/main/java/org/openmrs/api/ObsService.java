@@ -12,6 +12,7 @@ package org.openmrs.api;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import org.openmrs.Concept;
 import org.openmrs.ConceptName;
@@ -22,8 +23,11 @@ import org.openmrs.ObsReferenceRange;
 import org.openmrs.Person;
 import org.openmrs.Visit;
 import org.openmrs.annotation.Authorized;
+import org.openmrs.annotation.DisableHandlers;
 import org.openmrs.api.db.ObsDAO;
+import org.openmrs.api.handler.SaveHandler;
 import org.openmrs.obs.ComplexObsHandler;
+import org.openmrs.parameter.ObsSearchCriteria;
 import org.openmrs.util.OpenmrsConstants.PERSON_TYPE;
 import org.openmrs.util.PrivilegeConstants;
 
@@ -129,6 +133,32 @@ public interface ObsService extends OpenmrsService {
 	@Authorized( { PrivilegeConstants.ADD_OBS, PrivilegeConstants.EDIT_OBS })
 	public Obs saveObs(Obs obs, String changeMessage) throws APIException;
 	
+	/**
+	 * Saves a list of observations in a single pass, intended for bulk loaders such as HL7 imports
+	 * and form migrations. Each obs is handled exactly as by {@link #saveObs(Obs, String)} but the
+	 * session is flushed and the saved obs are evicted from it at regular intervals so that memory
+	 * use does not grow with the size of the list.
+	 * <p>
+	 * An obs that is rejected before it is written, e.g. because it fails validation, is missing the
+	 * change message required for edits or the user lacks the privilege, is reported in the result by
+	 * its position in the list and the remaining obs are still saved. Errors raised while writing to the database are not
+	 * recoverable and are thrown as usual.
+	 * </p>
+	 *
+	 * @param obs the observations to save
+	 * @param changeMessage String explaining why existing observations are being changed, required if
+	 *            any of the observations has already been saved
+	 * @return the saved observations and the ones that were rejected
+	 * @throws APIException
+	 * @since 3.0.0
+	 * <strong>Should</strong> save all valid obs
+	 * <strong>Should</strong> report invalid obs and save the others
+	 * <strong>Should</strong> require change message for existing obs
+	 */
+	@Authorized( { PrivilegeConstants.ADD_OBS, PrivilegeConstants.EDIT_OBS })
+	@DisableHandlers(handlerTypes = { SaveHandler.class })
+	public BatchSaveResult<Obs> saveObsBatch(List<Obs> obs, String changeMessage) throws APIException;
+	
 	/**
 	 * Equivalent to deleting an observation
 	 * 
@@ -283,6 +313,42 @@ public interface ObsService extends OpenmrsService {
 	        Integer mostRecentN, Integer obsGroupId, Date fromDate, Date toDate, boolean includeVoidedObs,
 	        String accessionNumber) throws APIException;
 	
+	/**
+	 * Gets a page of the obs matching the given criteria ordered by obsDatetime and obsId. The page
+	 * holds at most {@link ObsSearchCriteria#getMaxResults()} obs following the cursor of the
+	 * criteria; the criteria for the next page are created with {@link ObsSearchCriteria#after(Obs)}
+	 * passing the last obs of the page. Unlike an offset, the cursor makes every page as cheap to read
+	 * as the first one.
+	 * 
+	 * @param searchCriteria the criteria the obs must match
+	 * @return the matching obs following the cursor
+	 * @throws APIException
+	 * @since 3.0.0
+	 * <strong>Should</strong> return the matching obs ordered by obsDatetime and obsId
+	 * <strong>Should</strong> return the obs following the cursor
+	 * <strong>Should</strong> page through all matching obs exactly once
+	 */
+	@Authorized(PrivilegeConstants.GET_OBS)
+	public List<Obs> getObservations(ObsSearchCriteria searchCriteria) throws APIException;
+	
+	/**
+	 * Streams all the obs matching the given criteria ordered by obsDatetime and obsId. The obs are
+	 * read lazily, in pages of {@link ObsSearchCriteria#getMaxResults()} obs or 1000 if it is not
+	 * set, with
+	 * {@link #getObservations(ObsSearchCriteria)}. The obs of a page are evicted from the session when
+	 * the next page is read, so the memory used does not grow with the number of obs streamed. Changes
+	 * made to a streamed obs must be saved before the next page is read.
+	 * 
+	 * @param searchCriteria the criteria the obs must match
+	 * @return the stream of matching obs
+	 * @throws APIException
+	 * @since 3.0.0
+	 * <strong>Should</strong> stream all matching obs across pages
+	 * <strong>Should</strong> evict the obs of a page when the next page is read
+	 */
+	@Authorized(PrivilegeConstants.GET_OBS)
+	public Stream<Obs> getObservationStream(ObsSearchCriteria searchCriteria) throws APIException;
+	
 	/**
 	 * This method fetches the count of observations according to the criteria in the given
 	 * arguments. All arguments are optional and nullable. If more than one argument is non-null,
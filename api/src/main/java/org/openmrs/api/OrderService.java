@@ -341,9 +341,14 @@ public interface OrderService extends OpenmrsService {
 	public List<Order> getOrderHistoryByConcept(Patient patient, Concept concept);
 	
 	/**
-	 * Gets the next available order number seed
+	 * Gets the next available order number seed. Seeds are reserved in the database in blocks, the
+	 * size of which is set by the {@link org.openmrs.util.OpenmrsConstants#GP_ORDER_NUMBER_SEED_BLOCK_SIZE}
+	 * global property, and handed out from memory, so seeds are unique but, with blocks larger than
+	 * the default of 1, not necessarily consecutive across servers or restarts.
 	 * 
 	 * @return the order number seed
+	 * <strong>Should</strong> reserve seeds in blocks of the configured size
+	 * <strong>Should</strong> return unique seeds when called concurrently
 	 */
 	@Authorized(PrivilegeConstants.ADD_ORDERS)
 	public Long getNextOrderNumberSeedSequenceValue();
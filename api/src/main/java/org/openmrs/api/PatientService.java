@@ -479,7 +479,8 @@ public interface PatientService extends OpenmrsService {
 	/**
 	 * Search the database for patients that both share the given attributes. Each attribute that is
 	 * passed in must be identical to what is stored for at least one other patient for both
-	 * patients to be returned.
+	 * patients to be returned. This compares every patient with every other one, on large databases
+	 * use {@link #getDuplicatePatientCandidates(DuplicatePatientCandidate, int, int)} instead.
 	 * 
 	 * @param attributes attributes on a Person or Patient object. similar to: [gender, givenName,
 	 *            middleName, familyName]
@@ -491,6 +492,46 @@ public interface PatientService extends OpenmrsService {
 	@Authorized( { PrivilegeConstants.GET_PATIENTS })
 	public List<Patient> getDuplicatePatientsByAttributes(List<String> attributes) throws APIException;
 	
+	/**
+	 * Gets pairs of patients that may be the same person, one page at a time. Patients are paired if
+	 * they share a blocking key, e.g. an identifier or the soundex codes of a name with the birthdate,
+	 * and scored by the kinds of keys they share, see
+	 * {@link org.openmrs.patient.DuplicatePatientKeyGenerator}. Unlike
+	 * {@link #getDuplicatePatientsByAttributes(List)} the work done grows linearly with the number of
+	 * patients.
+	 * <p>
+	 * The keys of a patient are updated when it is saved, voided or purged through this service. The
+	 * keys of existing patients are computed by {@link #updatePatientDuplicateKeys(Integer, int)}.
+	 * 
+	 * @param after the last candidate of the previous page, null for the first page
+	 * @param minimumScore the minimum score from 0 to 100 of the candidates to return
+	 * @param maxResults the maximum number of candidates to return
+	 * @return the candidates ordered by the id of the patient and then of the duplicate
+	 * @since 3.0.0
+	 * <strong>Should</strong> return patients sharing a blocking key
+	 * <strong>Should</strong> not return candidates below the minimum score
+	 * <strong>Should</strong> return the page after the given candidate
+	 */
+	@Authorized( { PrivilegeConstants.GET_PATIENTS })
+	public List<DuplicatePatientCandidate> getDuplicatePatientCandidates(DuplicatePatientCandidate after,
+	        int minimumScore, int maxResults) throws APIException;
+	
+	/**
+	 * Computes the duplicate detection blocking keys of the next non voided patients, in order of
+	 * their ids. Call it repeatedly with the returned id to compute the keys of all patients.
+	 * 
+	 * @param afterPatientId the id of the last patient processed by the previous call, null to start
+	 *            with the first patient
+	 * @param batchSize the maximum number of patients to process
+	 * @return the id of the last patient processed, null if there were none left
+	 * @see #getDuplicatePatientCandidates(DuplicatePatientCandidate, int, int)
+	 * @since 3.0.0
+	 * <strong>Should</strong> compute the keys of the next patients
+	 * <strong>Should</strong> return null when there are no patients left
+	 */
+	@Authorized( { PrivilegeConstants.EDIT_PATIENTS })
+	public Integer updatePatientDuplicateKeys(Integer afterPatientId, int batchSize) throws APIException;
+	
 	/**
 	 * Convenience method to join two patients' information into one record.
 	 * <ol>
@@ -500,6 +541,9 @@ public interface PatientService extends OpenmrsService {
 	 * <code>preferred</code> IFF the data is missing or null in <code>preferred</code></li>
 	 * <li><code>notPreferred</code> is marked as voided</li>
 	 * </ol>
+	 * When the {@link org.openmrs.util.OpenmrsConstants#GP_PATIENT_MERGE_BULK_MODE} global property is
+	 * true, visits, encounters, orders, diagnoses and observations are moved with set-based updates and
+	 * observations keep their identity instead of being voided and recreated for <code>preferred</code>.
 	 * 
 	 * @param preferred The Patient to merge to
 	 * @param notPreferred The Patient to merge from (and then void)
@@ -550,18 +594,22 @@ public interface PatientService extends OpenmrsService {
 	 * <strong>Should</strong> audit prior gender
 	 * <strong>Should</strong> not copy over duplicate patient identifiers
 	 * <strong>Should</strong> fail if not preferred patient has unvoided orders
+	 * <strong>Should</strong> move clinical data with set based updates in bulk mode
 	 */
 	@Authorized( { PrivilegeConstants.EDIT_PATIENTS })
 	public void mergePatients(Patient preferred, Patient notPreferred) throws APIException, SerializationException;
 	
 	/**
-	 * Convenience method to join multiple patients' information into one record.
+	 * Convenience method to join multiple patients' information into one record. In bulk mode, see
+	 * {@link #mergePatients(Patient, Patient)}, all patients are checked before anything is merged and
+	 * the clinical data of all of them is moved with one set of updates.
 	 * 
 	 * @param preferred
 	 * @param notPreferred
 	 * @throws APIException
 	 * @throws SerializationException
 	 * <strong>Should</strong> merge all non Preferred patients in the the notPreferred list to preferred patient
+	 * <strong>Should</strong> merge all non preferred patients and audit each of them in bulk mode
 	 */
 	public void mergePatients(Patient preferred, List<Patient> notPreferred) throws APIException, SerializationException;
 		
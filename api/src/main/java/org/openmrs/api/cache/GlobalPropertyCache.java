@@ -0,0 +1,221 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.cache;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.openmrs.GlobalProperty;
+import org.openmrs.api.GlobalPropertyListener;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * An in-process snapshot of global property values used by
+ * {@link org.openmrs.api.AdministrationService#getGlobalProperty(String)} and
+ * {@link org.openmrs.api.AdministrationService#getGlobalPropertyValue(String, Object)} so that the
+ * many callers reading global properties on hot paths do not query the database every time.
+ * <p>
+ * Entries are held in the {@value #CACHE_NAME} cache of the apiCacheManager, see {@link CacheConfig}.
+ * With the default local configuration this is a plain in-memory map, in a cluster it is an
+ * invalidation cache so entries stay local to each node and evicting a property on one node evicts it
+ * on all of them. Properties are evicted through the {@link GlobalPropertyListener} mechanism when they
+ * are saved or purged, once more when the transaction completes, and the whole cache is cleared
+ * whenever the database may have been changed behind the API's back, e.g. by running SQL.
+ * </p>
+ *
+ * @since 3.0.0
+ */
+public class GlobalPropertyCache implements GlobalPropertyListener {
+
+	public static final String CACHE_NAME = "globalProperties";
+
+	private CacheManager cacheManager;
+
+	public void setCacheManager(CacheManager cacheManager) {
+		this.cacheManager = cacheManager;
+	}
+
+	/**
+	 * Gets the cached snapshot of a global property, loading it if it is not cached yet
+	 *
+	 * @param propertyName the name of the property, not case sensitive
+	 * @param loader fetches the property from the database, may return null
+	 * @return the cached snapshot, which has a null value if the property does not exist
+	 */
+	public CachedGlobalProperty get(String propertyName, Function<String, GlobalProperty> loader) {
+		Cache cache = getCache();
+		if (cache == null) {
+			return new CachedGlobalProperty(loader.apply(propertyName));
+		}
+
+		String key = getKey(propertyName);
+		CachedGlobalProperty cached = cache.get(key, CachedGlobalProperty.class);
+		if (cached == null) {
+			cached = new CachedGlobalProperty(loader.apply(propertyName));
+			putForExternalRead(cache, key, cached);
+		}
+		return cached;
+	}
+
+	/**
+	 * Creates a snapshot of a global property that is not held in any cache
+	 *
+	 * @param globalProperty the property or null if it does not exist
+	 * @return the snapshot
+	 */
+	public static CachedGlobalProperty uncached(GlobalProperty globalProperty) {
+		return new CachedGlobalProperty(globalProperty);
+	}
+
+	/**
+	 * Evicts the given property from the cache on all nodes, now and again once the current
+	 * transaction completes so that values read by other threads before the change was committed are
+	 * not kept
+	 *
+	 * @param propertyName the name of the property
+	 */
+	public void evict(String propertyName) {
+		Cache cache = getCache();
+		if (cache == null) {
+			return;
+		}
+
+		String key = getKey(propertyName);
+		cache.evict(key);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+				@Override
+				public void afterCompletion(int status) {
+					cache.evict(key);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Evicts all global properties from the cache on all nodes
+	 */
+	public void clear() {
+		Cache cache = getCache();
+		if (cache != null) {
+			cache.clear();
+		}
+	}
+
+	/**
+	 * @see GlobalPropertyListener#supportsPropertyName(String)
+	 */
+	@Override
+	public boolean supportsPropertyName(String propertyName) {
+		return true;
+	}
+
+	/**
+	 * @see GlobalPropertyListener#globalPropertyChanged(GlobalProperty)
+	 */
+	@Override
+	public void globalPropertyChanged(GlobalProperty newValue) {
+		evict(newValue.getProperty());
+	}
+
+	/**
+	 * @see GlobalPropertyListener#globalPropertyDeleted(String)
+	 */
+	@Override
+	public void globalPropertyDeleted(String propertyName) {
+		evict(propertyName);
+	}
+
+	private Cache getCache() {
+		return cacheManager != null ? cacheManager.getCache(CACHE_NAME) : null;
+	}
+
+	private static String getKey(String propertyName) {
+		// global property names are not case sensitive
+		return propertyName.toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Stores a value that was read from the database without invalidating the key on the other nodes
+	 * of the cluster, since their copies are just as current
+	 */
+	@SuppressWarnings("unchecked")
+	private static void putForExternalRead(Cache cache, String key, CachedGlobalProperty value) {
+		Object nativeCache = cache.getNativeCache();
+		if (nativeCache instanceof org.infinispan.Cache) {
+			((org.infinispan.Cache<String, CachedGlobalProperty>) nativeCache).putForExternalRead(key, value);
+		} else {
+			cache.putIfAbsent(key, value);
+		}
+	}
+
+	/**
+	 * The value of a global property as last read from the database together with the privilege
+	 * required to view it and the typed values it has been converted to
+	 */
+	public static final class CachedGlobalProperty {
+
+		private final String propertyValue;
+
+		private final String viewPrivilege;
+
+		private final Map<Class<?>, Object> typedValues = new ConcurrentHashMap<>();
+
+		private CachedGlobalProperty(GlobalProperty globalProperty) {
+			if (globalProperty != null) {
+				propertyValue = globalProperty.getPropertyValue();
+				viewPrivilege = globalProperty.getViewPrivilege() != null ? globalProperty.getViewPrivilege()
+				        .getPrivilege() : null;
+			} else {
+				propertyValue = null;
+				viewPrivilege = null;
+			}
+		}
+
+		/**
+		 * @return the value of the property, null if the property does not exist
+		 */
+		public String getPropertyValue() {
+			return propertyValue;
+		}
+
+		/**
+		 * @return the name of the privilege required to view the property or null if there is none
+		 */
+		public String getViewPrivilege() {
+			return viewPrivilege;
+		}
+
+		/**
+		 * Gets the value of the property converted to the given type, converting it on first use
+		 *
+		 * @param type the type to convert to, should be immutable since the converted value is shared
+		 * @param converter converts the property value, returning null if it cannot be converted
+		 * @return the converted value or null if it cannot be converted
+		 */
+		@SuppressWarnings("unchecked")
+		public <T> T getTypedValue(Class<T> type, Function<String, T> converter) {
+			Object typedValue = typedValues.get(type);
+			if (typedValue == null) {
+				typedValue = converter.apply(propertyValue);
+				if (typedValue != null) {
+					typedValues.putIfAbsent(type, typedValue);
+				}
+			}
+			return (T) typedValue;
+		}
+	}
+}
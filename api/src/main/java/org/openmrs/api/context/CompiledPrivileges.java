@@ -0,0 +1,171 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.context;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.openmrs.Privilege;
+import org.openmrs.Role;
+import org.openmrs.User;
+import org.openmrs.util.RoleConstants;
+
+/**
+ * An immutable snapshot of the effective privileges of a user, i.e. the privileges of all the
+ * user's roles including inherited ones plus those of the anonymous and authenticated roles.
+ * Privilege names are interned to integer ids so that checking a privilege is a single bit test.
+ * <p>
+ * Snapshots are stamped with a global version which is incremented whenever users, roles or
+ * privileges are saved or purged and when roles or privileges are added to or removed from a user
+ * or role, a {@link UserContext} rebuilds its snapshot when the stamp no longer matches, see
+ * {@link #invalidateAll()}.
+ *
+ * @since 3.0.0
+ */
+public final class CompiledPrivileges {
+
+	private static final Map<String, Integer> privilegeIds = new ConcurrentHashMap<>();
+
+	private static final AtomicInteger nextPrivilegeId = new AtomicInteger();
+
+	private static final AtomicLong version = new AtomicLong();
+
+	private final User user;
+
+	private final BitSet privileges;
+
+	private final boolean superUser;
+
+	private final long compiledVersion;
+
+	private CompiledPrivileges(User user, BitSet privileges, boolean superUser, long compiledVersion) {
+		this.user = user;
+		this.privileges = privileges;
+		this.superUser = superUser;
+		this.compiledVersion = compiledVersion;
+	}
+
+	/**
+	 * Builds the privilege snapshot for the given user, the anonymous and authenticated roles are
+	 * only fetched if the user is not a superuser
+	 *
+	 * @param user the authenticated user or null
+	 * @param authenticatedRole supplies the role given to all authenticated users
+	 * @param anonymousRole supplies the role given to all users
+	 * @return the compiled privileges
+	 */
+	static CompiledPrivileges compile(User user, Supplier<Role> authenticatedRole, Supplier<Role> anonymousRole) {
+		// read the version first so that changes made while compiling trigger another rebuild
+		long currentVersion = version.get();
+		BitSet privileges = new BitSet();
+		
+		if (user != null) {
+			Set<Role> roles = user.getAllRoles();
+			for (Role role : roles) {
+				if (RoleConstants.SUPERUSER.equalsIgnoreCase(role.getRole())) {
+					return new CompiledPrivileges(user, privileges, true, currentVersion);
+				}
+			}
+			for (Role role : roles) {
+				addPrivileges(privileges, role);
+			}
+			if (addPrivileges(privileges, authenticatedRole.get())) {
+				return new CompiledPrivileges(user, privileges, true, currentVersion);
+			}
+		}
+		boolean superUser = addPrivileges(privileges, anonymousRole.get());
+		
+		return new CompiledPrivileges(user, privileges, superUser, currentVersion);
+	}
+	
+	/**
+	 * Adds the privileges of the given role to the bit set
+	 * 
+	 * @return true if the role is the superuser role which implicitly has all privileges
+	 */
+	private static boolean addPrivileges(BitSet bits, Role role) {
+		Collection<Privilege> rolePrivileges = role.getPrivileges();
+		if (rolePrivileges != null) {
+			for (Privilege privilege : rolePrivileges) {
+				bits.set(getPrivilegeId(privilege.getPrivilege()));
+			}
+		}
+		return RoleConstants.SUPERUSER.equals(role.getRole());
+	}
+
+	/**
+	 * Gets the interned id of a privilege name, privilege names are not case sensitive
+	 *
+	 * @param privilege the privilege name
+	 * @return the id of the privilege
+	 */
+	private static int getPrivilegeId(String privilege) {
+		Integer id = privilegeIds.get(privilege);
+		if (id == null) {
+			id = privilegeIds.computeIfAbsent(privilege.toLowerCase(Locale.ROOT),
+			    key -> nextPrivilegeId.getAndIncrement());
+			privilegeIds.putIfAbsent(privilege, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Marks all compiled privileges as stale, should be called whenever the roles of a user, the
+	 * privileges or inherited roles of a role or the privileges themselves change.
+	 */
+	public static void invalidateAll() {
+		version.incrementAndGet();
+	}
+
+	/**
+	 * Gets the current global version, state derived from the privileges of users can be stamped
+	 * with it and be considered stale once it changes
+	 *
+	 * @return the current version
+	 */
+	public static long getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * @param user the user currently authenticated in the calling context
+	 * @return true if this snapshot was compiled for the given user and is still current
+	 */
+	boolean isValidFor(User user) {
+		return this.user == user && compiledVersion == version.get();
+	}
+
+	/**
+	 * @param privilege the name of the privilege to check
+	 * @return true if the privilege is granted by any of the compiled roles
+	 */
+	boolean hasPrivilege(String privilege) {
+		if (superUser) {
+			return true;
+		}
+		Integer id = privilegeIds.get(privilege);
+		if (id == null) {
+			// privilege names that no role has ever been compiled with are not interned
+			id = privilegeIds.get(privilege.toLowerCase(Locale.ROOT));
+			if (id == null) {
+				return false;
+			}
+			privilegeIds.putIfAbsent(privilege, id);
+		}
+		return privileges.get(id);
+	}
+}
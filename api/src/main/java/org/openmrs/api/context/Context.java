@@ -42,6 +42,8 @@ import org.openmrs.api.SerializationService;
 import org.openmrs.api.UserService;
 import org.openmrs.api.VisitService;
 import org.openmrs.api.db.ContextDAO;
+import org.openmrs.api.db.SearchIndexProgress;
+import org.openmrs.api.db.SearchIndexUpdateOptions;
 import org.openmrs.hl7.HL7Service;
 import org.openmrs.logic.LogicService;
 import org.openmrs.messagesource.MessageSourceService;
@@ -63,6 +65,7 @@ import org.openmrs.util.InputRequiredException;
 import org.openmrs.util.LocaleUtility;
 import org.openmrs.util.OpenmrsClassLoader;
 import org.openmrs.util.OpenmrsConstants;
+import org.openmrs.util.OpenmrsThreadPoolHolder;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.util.PrivilegeConstants;
 import org.openmrs.validator.ValidateUtil;
@@ -1021,6 +1024,15 @@ public class Context {
 			log.warn("Error while shutting down module system", e);
 		}
 
+		log.debug("Draining the daemon tasks");
+		try {
+			// Needs to be done before Hibernate, running tasks still use their sessions
+			OpenmrsThreadPoolHolder.drain();
+		}
+		catch (Exception e) {
+			log.warn("Error while draining daemon tasks", e);
+		}
+
 		log.debug("Shutting down the context");
 		try {
 			ContextDAO dao = null;
@@ -1416,6 +1428,42 @@ public class Context {
 		return getContextDAO().updateSearchIndexAsync();
 	}
 
+	/**
+	 * Updates the search index with the given settings and waits for the update to finish. An
+	 * update that was interrupted is resumed after the last identifier range it completed unless
+	 * {@link SearchIndexUpdateOptions#isResume()} is false. If an update is already running, waits
+	 * for that one instead.
+	 *
+	 * @param options the settings of the update
+	 * @see #getSearchIndexProgress()
+	 * @since 3.0.0
+	 */
+	public static void updateSearchIndex(SearchIndexUpdateOptions options) {
+		getContextDAO().updateSearchIndex(options);
+	}
+
+	/**
+	 * Updates the search index with the given settings in a new thread. If an update is already
+	 * running, returns that one instead.
+	 *
+	 * @param options the settings of the update
+	 * @return object representing the result of the update, cancelling it interrupts the update
+	 * @see #getSearchIndexProgress()
+	 * @since 3.0.0
+	 */
+	public static Future<?> updateSearchIndexAsync(SearchIndexUpdateOptions options) {
+		return getContextDAO().updateSearchIndexAsync(options);
+	}
+
+	/**
+	 * @return the progress of the running search index update or of the last one, null if the index
+	 *         was not updated since OpenMRS started
+	 * @since 3.0.0
+	 */
+	public static SearchIndexProgress getSearchIndexProgress() {
+		return getContextDAO().getSearchIndexProgress();
+	}
+
 	/**
 	 * It should be used <b>IN TESTS ONLY</b>. See {@link #updateSearchIndex(Class[])} for normal use.
 	 * <p>
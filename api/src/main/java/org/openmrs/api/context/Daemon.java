@@ -28,6 +28,7 @@ import org.openmrs.module.Module;
 import org.openmrs.module.ModuleException;
 import org.openmrs.module.ModuleFactory;
 import org.openmrs.scheduler.Task;
+import org.openmrs.scheduler.executor.ExecutorSchedulerTask;
 import org.openmrs.scheduler.timer.TimerSchedulerTask;
 import org.openmrs.util.OpenmrsSecurityManager;
 import org.openmrs.util.OpenmrsThreadPoolHolder;
@@ -185,6 +186,35 @@ public final class Daemon {
 		}
 	}
 	
+	/**
+	 * Executes the given scheduler work, typically taking a task's lease and running the task, in a
+	 * new thread that is authenticated as the daemon user and waits for it to finish. <br>
+	 * <br>
+	 * This can only be called from {@link ExecutorSchedulerTask} during actual task execution
+	 *
+	 * @param work the work to run
+	 * @return the result of the work
+	 * @since 3.0.0
+	 */
+	public static <T> T executeScheduledTask(final Callable<T> work) throws Exception {
+		// quick check to make sure we're only being called by the scheduler
+		Class<?> callerClass = new OpenmrsSecurityManager().getCallerClass(0);
+		if (!ExecutorSchedulerTask.class.isAssignableFrom(callerClass)) {
+			throw new APIException("Scheduler.executor.task.only", new Object[] { callerClass.getName() });
+		}
+		
+		try {
+			return runInDaemonThreadInternal(work).get();
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			} else {
+				throw new RuntimeException(e.getCause());
+			}
+		}
+	}
+	
 	/**
 	 * Call this method if you are inside a Daemon thread (for example in a Module activator or a
 	 * scheduled task) and you want to start up a new parallel Daemon thread. You may only call this
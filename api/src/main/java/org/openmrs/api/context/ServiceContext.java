@@ -17,6 +17,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.aopalliance.aop.Advice;
 import org.openmrs.api.APIException;
@@ -60,6 +61,7 @@ import org.springframework.beans.BeansException;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ConfigurableApplicationContext;
 
 /**
  * Represents an OpenMRS <code>Service Context</code>, which returns the services represented
@@ -81,7 +83,11 @@ public class ServiceContext implements ApplicationContextAware {
 
 	private ApplicationContext applicationContext;
 	
-	private static boolean refreshingContext = false;
+	/**
+	 * Read without locking by every service lookup, readers only synchronize on
+	 * {@link #refreshingContextLock} while a refresh is actually in progress
+	 */
+	private static volatile boolean refreshingContext = false;
 	
 	private static final Object refreshingContextLock = new Object();
 	
@@ -91,8 +97,16 @@ public class ServiceContext implements ApplicationContextAware {
 	 */
 	private boolean useSystemClassLoader = false;
 	
-	// Cached service objects
-	Map<Class, Object> services = new HashMap<>();
+	/**
+	 * Cached service objects, an immutable snapshot that is replaced as a whole whenever a service is
+	 * set or the advice on a service changes so that looking up a service never needs a lock
+	 */
+	volatile ServiceRegistry services = ServiceRegistry.EMPTY;
+	
+	/**
+	 * Guards changes to the registered services and the advice added to them, only held by writers
+	 */
+	private final Object servicesLock = new Object();
 	
 	// Advisors added to services by this service
 	Map<Class, Set<Advisor>> addedAdvisors = new HashMap<>();
@@ -108,6 +122,14 @@ public class ServiceContext implements ApplicationContextAware {
 	 */
 	Map<String, OpenmrsService> moduleOpenmrsServices = new HashMap<>();
 	
+	/**
+	 * Child application contexts holding the beans of modules started without refreshing the
+	 * application context, keyed by module id
+	 *
+	 * @since 3.0.0
+	 */
+	Map<String, ConfigurableApplicationContext> moduleApplicationContexts = new ConcurrentHashMap<>();
+	
 	/**
 	 * The default constructor is private so as to keep only one instance per java vm.
 	 *
@@ -147,28 +169,28 @@ public class ServiceContext implements ApplicationContextAware {
 	 */
 	public static void destroyInstance() {
 		if (ServiceContextHolder.instance != null && ServiceContextHolder.instance.services != null) {
-			for (Map.Entry<Class, Object> entry : ServiceContextHolder.instance.services.entrySet()) {
-				log.debug("Service - {} : {}", entry.getKey().getName(), entry.getValue());
-			}
-			
-			// Remove advice and advisors that this service added
-			for (Class serviceClass : ServiceContextHolder.instance.services.keySet()) {
-				ServiceContextHolder.instance.removeAddedAOP(serviceClass);
-			}
-			
-			if (ServiceContextHolder.instance.services != null) {
-				ServiceContextHolder.instance.services.clear();
-				ServiceContextHolder.instance.services = null;
-			}
-			
-			if (ServiceContextHolder.instance.addedAdvisors != null) {
-				ServiceContextHolder.instance.addedAdvisors.clear();
-				ServiceContextHolder.instance.addedAdvisors = null;
-			}
-			
-			if (ServiceContextHolder.instance.addedAdvice != null) {
-				ServiceContextHolder.instance.addedAdvice.clear();
-				ServiceContextHolder.instance.addedAdvice = null;
+			ServiceContext instance = ServiceContextHolder.instance;
+			synchronized (instance.servicesLock) {
+				for (Map.Entry<Class, Object> entry : instance.services.getServices().entrySet()) {
+					log.debug("Service - {} : {}", entry.getKey().getName(), entry.getValue());
+				}
+				
+				// Remove advice and advisors that this service added
+				for (Class serviceClass : instance.services.getServices().keySet()) {
+					instance.removeAddedAOP(serviceClass);
+				}
+				
+				instance.services = null;
+				
+				if (instance.addedAdvisors != null) {
+					instance.addedAdvisors.clear();
+					instance.addedAdvisors = null;
+				}
+				
+				if (instance.addedAdvice != null) {
+					instance.addedAdvice.clear();
+					instance.addedAdvice = null;
+				}
 			}
 		}
 		
@@ -179,6 +201,8 @@ public class ServiceContext implements ApplicationContextAware {
 				ServiceContextHolder.instance.moduleOpenmrsServices.clear();
 				ServiceContextHolder.instance.moduleOpenmrsServices = null;
 			}
+			
+			ServiceContextHolder.instance.moduleApplicationContexts.clear();
 		}
 		log.debug("Destroying ServiceContext instance: {}", ServiceContextHolder.instance);
 		ServiceContextHolder.instance = null;
@@ -535,12 +559,14 @@ public class ServiceContext implements ApplicationContextAware {
 	 * @param advisor
 	 */
 	public void addAdvisor(Class cls, Advisor advisor) {
-		Advised advisedService = (Advised) services.get(cls);
-		if (advisedService.indexOf(advisor) < 0) {
-			advisedService.addAdvisor(advisor);
+		synchronized (servicesLock) {
+			Advised advisedService = (Advised) services.get(cls);
+			if (advisedService.indexOf(advisor) < 0) {
+				advisedService.addAdvisor(advisor);
+			}
+			addedAdvisors.computeIfAbsent(cls, k -> new HashSet<>());
+			getAddedAdvisors(cls).add(advisor);
 		}
-		addedAdvisors.computeIfAbsent(cls, k -> new HashSet<>());
-		getAddedAdvisors(cls).add(advisor);
 	}
 	
 	/**
@@ -548,12 +574,14 @@ public class ServiceContext implements ApplicationContextAware {
 	 * @param advice
 	 */
 	public void addAdvice(Class cls, Advice advice) {
-		Advised advisedService = (Advised) services.get(cls);
-		if (advisedService.indexOf(advice) < 0) {
-			advisedService.addAdvice(advice);
+		synchronized (servicesLock) {
+			Advised advisedService = (Advised) services.get(cls);
+			if (advisedService.indexOf(advice) < 0) {
+				advisedService.addAdvice(advice);
+			}
+			addedAdvice.computeIfAbsent(cls, k -> new HashSet<>());
+			getAddedAdvice(cls).add(advice);
 		}
-		addedAdvice.computeIfAbsent(cls, k -> new HashSet<>());
-		getAddedAdvice(cls).add(advice);
 	}
 	
 	/**
@@ -561,9 +589,11 @@ public class ServiceContext implements ApplicationContextAware {
 	 * @param advisor
 	 */
 	public void removeAdvisor(Class cls, Advisor advisor) {
-		Advised advisedService = (Advised) services.get(cls);
-		advisedService.removeAdvisor(advisor);
-		getAddedAdvisors(cls).remove(advisor);
+		synchronized (servicesLock) {
+			Advised advisedService = (Advised) services.get(cls);
+			advisedService.removeAdvisor(advisor);
+			getAddedAdvisors(cls).remove(advisor);
+		}
 	}
 	
 	/**
@@ -571,9 +601,11 @@ public class ServiceContext implements ApplicationContextAware {
 	 * @param advice
 	 */
 	public void removeAdvice(Class cls, Advice advice) {
-		Advised advisedService = (Advised) services.get(cls);
-		advisedService.removeAdvice(advice);
-		getAddedAdvice(cls).remove(advice);
+		synchronized (servicesLock) {
+			Advised advisedService = (Advised) services.get(cls);
+			advisedService.removeAdvice(advice);
+			getAddedAdvice(cls).remove(advice);
+		}
 	}
 	
 	/**
@@ -675,16 +707,9 @@ public class ServiceContext implements ApplicationContextAware {
 		
 		// if the context is refreshing, wait until it is
 		// done -- otherwise a null service might be returned
-		synchronized (refreshingContextLock) {
+		if (refreshingContext) {
 			try {
-				while (refreshingContext) {
-					log.debug("Waiting to get service: {} while the context is being refreshed", cls);
-					
-					refreshingContextLock.wait();
-					
-					log.debug("Finished waiting to get service {} while the context was being refreshed", cls);
-				}
-				
+				waitUntilContextRefreshed(cls);
 			}
 			catch (InterruptedException e) {
 				log.warn("Refresh lock was interrupted", e);
@@ -709,39 +734,44 @@ public class ServiceContext implements ApplicationContextAware {
 		log.debug("Setting service: {}", cls);
 		
 		if (cls != null && classInstance != null) {
-			try {
-				Advised cachedService = (Advised) services.get(cls);
-				boolean noExistingService = cachedService == null;
-				boolean replacingService = cachedService != null && cachedService != classInstance;
-				boolean serviceAdvised = classInstance instanceof Advised;
+			synchronized (servicesLock) {
+				setServiceInternal(cls, classInstance);
+			}
+		}
+	}
+	
+	private void setServiceInternal(Class<?> cls, Object classInstance) {
+		try {
+			Advised cachedService = (Advised) services.get(cls);
+			boolean noExistingService = cachedService == null;
+			boolean replacingService = cachedService != null && cachedService != classInstance;
+			boolean serviceAdvised = classInstance instanceof Advised;
+			
+			if (noExistingService || replacingService) {
 				
-				if (noExistingService || replacingService) {
-					
-					Advised advisedService;
-					
-					if (!serviceAdvised) {
-						// Adding a bare service, wrap with AOP proxy
-						Class[] interfaces = { cls };
-						ProxyFactory factory = new ProxyFactory(interfaces);
-						factory.setTarget(classInstance);
-						advisedService = (Advised) factory.getProxy(OpenmrsClassLoader.getInstance());
-					} else {
-						advisedService = (Advised) classInstance;
-					}
-					
-					if (replacingService) {
-						moveAddedAOP(cachedService, advisedService);
-					}
-					
-					services.put(cls, advisedService);
+				Advised advisedService;
+				
+				if (!serviceAdvised) {
+					// Adding a bare service, wrap with AOP proxy
+					Class[] interfaces = { cls };
+					ProxyFactory factory = new ProxyFactory(interfaces);
+					factory.setTarget(classInstance);
+					advisedService = (Advised) factory.getProxy(OpenmrsClassLoader.getInstance());
+				} else {
+					advisedService = (Advised) classInstance;
 				}
-				log.debug("Service: {} set successfully", cls);
-			}
-			catch (Exception e) {
-				throw new APIException("service.unable.create.proxy.factory", new Object[] { classInstance.getClass()
-				        .getName() }, e);
+				
+				if (replacingService) {
+					moveAddedAOP(cachedService, advisedService);
+				}
+				
+				services = services.withService(cls, advisedService);
 			}
-			
+			log.debug("Service: {} set successfully", cls);
+		}
+		catch (Exception e) {
+			throw new APIException("service.unable.create.proxy.factory", new Object[] { classInstance.getClass()
+			        .getName() }, e);
 		}
 	}
 	
@@ -808,6 +838,31 @@ public class ServiceContext implements ApplicationContextAware {
 		}
 	}
 	
+	/**
+	 * Removes the services of the given module, which were added with
+	 * {@link #setModuleService(List)}, along with the advice added to them. Used when a module that was
+	 * started in its own child application context is stopped, since the services are otherwise
+	 * discarded by refreshing the application context.
+	 *
+	 * @param modulePackage the module's package name
+	 * @since 3.0.0
+	 */
+	public void removeModuleServices(String modulePackage) {
+		String prefix = modulePackage + ".";
+		synchronized (servicesLock) {
+			for (Class serviceClass : new ArrayList<>(services.getServices().keySet())) {
+				if (serviceClass.getName().startsWith(prefix)) {
+					removeAddedAOP(serviceClass);
+					addedAdvisors.remove(serviceClass);
+					addedAdvice.remove(serviceClass);
+					services = services.withoutService(serviceClass);
+					log.debug("Removed service: {}", serviceClass);
+				}
+			}
+			moduleOpenmrsServices.keySet().removeIf(classString -> classString.startsWith(prefix));
+		}
+	}
+	
 	/**
 	 * Set this service context to use the system class loader if the
 	 * <code>useSystemClassLoader</code> is set to true. If false, the openmrs class loader is used
@@ -855,6 +910,24 @@ public class ServiceContext implements ApplicationContextAware {
 		}
 	}
 	
+	/**
+	 * Blocks until {@link #doneRefreshingContext()} is called if the context is being refreshed
+	 *
+	 * @param waitingFor what the caller is waiting for, used for logging
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 */
+	private static void waitUntilContextRefreshed(Object waitingFor) throws InterruptedException {
+		synchronized (refreshingContextLock) {
+			while (refreshingContext) {
+				log.debug("Waiting to get service: {} while the context is being refreshed", waitingFor);
+				
+				refreshingContextLock.wait();
+				
+				log.debug("Finished waiting to get service {} while the context was being refreshed", waitingFor);
+			}
+		}
+	}
+	
 	/**
 	 * Returns true/false whether startRefreshingContext() has been called without a subsequent call
 	 * to doneRefreshingContext() yet. All methods involved in starting/stopping a module should
@@ -864,9 +937,7 @@ public class ServiceContext implements ApplicationContextAware {
 	 *         doneRefreshingContext()
 	 */
 	public boolean isRefreshingContext() {
-		synchronized (refreshingContextLock) {
-			return refreshingContext;
-		}
+		return refreshingContext;
 	}
 	
 	/**
@@ -887,6 +958,9 @@ public class ServiceContext implements ApplicationContextAware {
 	
 	public <T> List<T> getRegisteredComponents(Class<T> type) {
 		Map<String, T> m = getRegisteredComponents(applicationContext, type);
+		for (ConfigurableApplicationContext moduleApplicationContext : moduleApplicationContexts.values()) {
+			m.putAll(moduleApplicationContext.getBeansOfType(type));
+		}
 		log.trace("getRegisteredComponents({}) = {}", type, m);
 		return new ArrayList<>(m.values());
 	}
@@ -905,6 +979,11 @@ public class ServiceContext implements ApplicationContextAware {
 			return applicationContext.getBean(beanName, type);
 		}
 		catch (BeansException beanException) {
+			for (ConfigurableApplicationContext moduleApplicationContext : moduleApplicationContexts.values()) {
+				if (moduleApplicationContext.containsLocalBean(beanName)) {
+					return moduleApplicationContext.getBean(beanName, type);
+				}
+			}
 			throw new APIException("Error during getting registered component", beanException);
 		}
 	}
@@ -939,6 +1018,46 @@ public class ServiceContext implements ApplicationContextAware {
 		return applicationContext;
 	}
 	
+	/**
+	 * Registers the child application context holding the beans of a module started without
+	 * refreshing the application context, so that its beans are returned by
+	 * {@link #getRegisteredComponents(Class)} and {@link #getRegisteredComponent(String, Class)}.
+	 *
+	 * @param moduleId the id of the module
+	 * @param moduleApplicationContext the child application context of the module
+	 * @since 3.0.0
+	 */
+	public void addModuleApplicationContext(String moduleId, ConfigurableApplicationContext moduleApplicationContext) {
+		moduleApplicationContexts.put(moduleId, moduleApplicationContext);
+	}
+	
+	/**
+	 * @param moduleId the id of the module
+	 * @return the child application context of the module, or null if the module's beans are in the
+	 *         application context
+	 * @since 3.0.0
+	 */
+	public ConfigurableApplicationContext getModuleApplicationContext(String moduleId) {
+		return moduleApplicationContexts.get(moduleId);
+	}
+	
+	/**
+	 * @param moduleId the id of the module
+	 * @return the removed child application context of the module, or null if there was none
+	 * @since 3.0.0
+	 */
+	public ConfigurableApplicationContext removeModuleApplicationContext(String moduleId) {
+		return moduleApplicationContexts.remove(moduleId);
+	}
+	
+	/**
+	 * @return the child application contexts of modules keyed by module id
+	 * @since 3.0.0
+	 */
+	public Map<String, ConfigurableApplicationContext> getModuleApplicationContexts() {
+		return new HashMap<>(moduleApplicationContexts);
+	}
+	
 	/**
 	 * Calls the {@link OpenmrsService#onStartup()} method for an instance implementing the
 	 * {@link OpenmrsService} interface.
@@ -950,16 +1069,8 @@ public class ServiceContext implements ApplicationContextAware {
 	private void runOpenmrsServiceOnStartup(final OpenmrsService openmrsService, final String classString) {
 		OpenmrsThreadPoolHolder.threadExecutor.execute(() -> {
 			try {
-				synchronized (refreshingContextLock) {
-					//Need to wait for application context to finish refreshing otherwise we get into trouble.
-					while (refreshingContext) {
-						log.debug("Waiting to get service: {} while the context is being refreshed", classString);
-	
-						refreshingContextLock.wait();
-	
-						log.debug("Finished waiting to get service {} while the context was being refreshed", classString);
-					}
-				}
+				//Need to wait for application context to finish refreshing otherwise we get into trouble.
+				waitUntilContextRefreshed(classString);
 	
 				Daemon.runStartupForService(openmrsService);
 			}
@@ -1060,4 +1171,44 @@ public class ServiceContext implements ApplicationContextAware {
 		CacheManager apiCacheManager = getRegisteredComponent("apiCacheManager", CacheManager.class);
 		apiCacheManager.getCacheNames().forEach(cacheName -> apiCacheManager.getCache(cacheName).invalidate());
 	}
+	
+	/**
+	 * An immutable snapshot of the registered services
+	 */
+	static final class ServiceRegistry {
+		
+		static final ServiceRegistry EMPTY = new ServiceRegistry(Collections.emptyMap());
+		
+		private final Map<Class, Object> services;
+		
+		private ServiceRegistry(Map<Class, Object> services) {
+			this.services = services;
+		}
+		
+		Object get(Class cls) {
+			return services.get(cls);
+		}
+		
+		Map<Class, Object> getServices() {
+			return services;
+		}
+		
+		/**
+		 * @return a copy of this snapshot with the given service added or replaced
+		 */
+		ServiceRegistry withService(Class cls, Object service) {
+			Map<Class, Object> copy = new HashMap<>(services);
+			copy.put(cls, service);
+			return new ServiceRegistry(Collections.unmodifiableMap(copy));
+		}
+		
+		/**
+		 * @return a copy of this snapshot without the given service
+		 */
+		ServiceRegistry withoutService(Class cls) {
+			Map<Class, Object> copy = new HashMap<>(services);
+			copy.remove(cls);
+			return new ServiceRegistry(Collections.unmodifiableMap(copy));
+		}
+	}
 }
@@ -29,6 +29,7 @@ import org.openmrs.api.APIAuthenticationException;
 import org.openmrs.api.LocationService;
 import org.openmrs.util.LocaleUtility;
 import org.openmrs.util.OpenmrsConstants;
+import org.openmrs.util.PrivilegeConstants;
 import org.openmrs.util.RoleConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -76,6 +77,12 @@ public class UserContext implements Serializable {
 	 */
 	private Role anonymousRole = null;
 	
+	/**
+	 * Snapshot of the effective privileges of the authenticated user, rebuilt whenever the user or
+	 * any role or privilege changes
+	 */
+	private transient volatile CompiledPrivileges compiledPrivileges = null;
+	
 	/**
 	 * User's defined location
 	 */
@@ -338,17 +345,15 @@ public class UserContext implements Serializable {
 			}
 		}
 		
-		// if a user has logged in, check their privileges
-		if (isAuthenticated()
-			&& (getAuthenticatedUser().hasPrivilege(privilege) || getAuthenticatedRole().hasPrivilege(privilege))) {
-			
-			// check user's privileges
-			notifyPrivilegeListeners(getAuthenticatedUser(), privilege, true);
-			return true;
-			
+		// all authenticated users have the "" (empty) privilege
+		if (StringUtils.isEmpty(privilege)) {
+			boolean authenticated = isAuthenticated();
+			notifyPrivilegeListeners(getAuthenticatedUser(), privilege, authenticated);
+			return authenticated;
 		}
 		
-		if (getAnonymousRole().hasPrivilege(privilege)) {
+		// check the privileges of the user's roles, the authenticated role and the anonymous role
+		if (getCompiledPrivileges().hasPrivilege(privilege)) {
 			notifyPrivilegeListeners(getAuthenticatedUser(), privilege, true);
 			return true;
 		}
@@ -358,6 +363,31 @@ public class UserContext implements Serializable {
 		return false;
 	}
 	
+	/**
+	 * Gets the privilege snapshot of the authenticated user, compiling it if the user has changed or
+	 * any user, role or privilege has been saved since it was built
+	 *
+	 * @return the compiled privileges
+	 */
+	private CompiledPrivileges getCompiledPrivileges() {
+		User authenticatedUser = this.user;
+		CompiledPrivileges compiled = compiledPrivileges;
+		if (compiled != null && compiled.isValidFor(authenticatedUser)) {
+			return compiled;
+		}
+		
+		try {
+			// fetching the anonymous and authenticated roles requires this privilege
+			addProxyPrivilege(PrivilegeConstants.GET_ROLES);
+			compiled = CompiledPrivileges.compile(authenticatedUser, this::getAuthenticatedRole, this::getAnonymousRole);
+		}
+		finally {
+			removeProxyPrivilege(PrivilegeConstants.GET_ROLES);
+		}
+		compiledPrivileges = compiled;
+		return compiled;
+	}
+	
 	/**
 	 * Convenience method to get the Role in the system designed to be given to all users
 	 *
@@ -14,6 +14,7 @@ import java.util.List;
 
 import org.openmrs.Cohort;
 import org.openmrs.CohortMembership;
+import org.openmrs.collection.PatientIdBitmap;
 
 /**
  * Database methods for cohort objects.
@@ -113,4 +114,13 @@ public interface CohortDAO {
 	 * @since 2.1.0
 	 */
 	CohortMembership saveCohortMembership(CohortMembership cohortMembership);
+	
+	/**
+	 * @param cohortId the id of the cohort
+	 * @param activeOnDate optional
+	 * @return the patient ids of the non voided members of the cohort (optionally active on a given
+	 *         date)
+	 * @since 3.0.0
+	 */
+	PatientIdBitmap getMemberBitmap(Integer cohortId, Date activeOnDate);
 }
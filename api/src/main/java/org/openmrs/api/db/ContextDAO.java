@@ -194,6 +194,24 @@ public interface ContextDAO {
 	 */
 	public Future<?> updateSearchIndexAsync();
 	
+	/**
+	 * @see Context#updateSearchIndex(SearchIndexUpdateOptions)
+	 * @since 3.0.0
+	 */
+	public void updateSearchIndex(SearchIndexUpdateOptions options);
+	
+	/**
+	 * @see Context#updateSearchIndexAsync(SearchIndexUpdateOptions)
+	 * @since 3.0.0
+	 */
+	public Future<?> updateSearchIndexAsync(SearchIndexUpdateOptions options);
+	
+	/**
+	 * @see Context#getSearchIndexProgress()
+	 * @since 3.0.0
+	 */
+	public SearchIndexProgress getSearchIndexProgress();
+	
 	/**
 	 * @see Context#updateSearchIndexForObject(Object)
 	 */
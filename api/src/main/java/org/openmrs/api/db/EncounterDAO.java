@@ -9,6 +9,7 @@
  */
 package org.openmrs.api.db;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -64,6 +65,14 @@ public interface EncounterDAO {
 	 */
 	public List<Encounter> getEncounters(EncounterSearchCriteria encounterSearchCriteria);
 	
+	/**
+	 * @param viewableEncounterTypeIds ids of the encounter types to match, null to match all
+	 * @see org.openmrs.api.EncounterService#getEncounters(org.openmrs.parameter.EncounterSearchCriteria)
+	 * @since 3.0.0
+	 */
+	public List<Encounter> getEncounters(EncounterSearchCriteria encounterSearchCriteria,
+	        Collection<Integer> viewableEncounterTypeIds);
+	
 	/**
 	 * Save an Encounter Type
 	 * 
@@ -155,6 +164,23 @@ public interface EncounterDAO {
 	 */
 	List<Encounter> getEncounters(String query, Integer patientId, Integer start, Integer length, boolean includeVoided);
 	
+	/**
+	 * Get a list of {@link Encounter} by Patient name or identifier based on batch settings, only
+	 * encounters of the given encounter types are matched so that batches are filled with encounters
+	 * the user may view
+	 * 
+	 * @param query patient name or identifier
+	 * @param patientId the patient id
+	 * @param start beginning index for the batch
+	 * @param length number of encounters to return in the batch
+	 * @param includeVoided Specifies whether voided encounters should be included
+	 * @param viewableEncounterTypeIds ids of the encounter types to match, null to match all
+	 * @return list of {@link Encounter} based on batch settings
+	 * @since 3.0.0
+	 */
+	List<Encounter> getEncounters(String query, Integer patientId, Integer start, Integer length, boolean includeVoided,
+	        Collection<Integer> viewableEncounterTypeIds);
+	
 	/**
 	 * Gets the location of the encounter
 	 * 
@@ -179,6 +205,20 @@ public interface EncounterDAO {
 	 */
 	public Long getCountOfEncounters(String query, Integer patientId, boolean includeVoided);
 	
+	/**
+	 * Return the number of encounters of the given encounter types matching a patient name or patient
+	 * identifier
+	 * 
+	 * @param query patient name or identifier
+	 * @param patientId the patient id
+	 * @param includeVoided Specifies whether voided encounters should be included
+	 * @param viewableEncounterTypeIds ids of the encounter types to count, null to count all
+	 * @return the number of encounters matching the given search phrase
+	 * @since 3.0.0
+	 */
+	public Long getCountOfEncounters(String query, Integer patientId, boolean includeVoided,
+	        Collection<Integer> viewableEncounterTypeIds);
+	
 	/**
 	 * @see EncounterService#getEncountersByVisit(Visit, boolean)
 	 */
@@ -247,6 +287,22 @@ public interface EncounterDAO {
 	 */
 	Integer getEncountersByVisitsAndPatientCount(Patient patient, boolean includeVoided, String query);
 	
+	/**
+	 * @param viewableEncounterTypeIds ids of the encounter types to match, null to match all
+	 * @see org.openmrs.api.EncounterService#getEncountersByVisitsAndPatient(org.openmrs.Patient, boolean, java.lang.String, java.lang.Integer, java.lang.Integer)
+	 * @since 3.0.0
+	 */
+	List<Encounter> getEncountersByVisitsAndPatient(Patient patient, boolean includeVoided, String query, Integer start,
+	        Integer length, Collection<Integer> viewableEncounterTypeIds);
+	
+	/**
+	 * @param viewableEncounterTypeIds ids of the encounter types to count, null to count all
+	 * @see EncounterService#getEncountersByVisitsAndPatientCount(Patient, boolean, String)
+	 * @since 3.0.0
+	 */
+	Integer getEncountersByVisitsAndPatientCount(Patient patient, boolean includeVoided, String query,
+	        Collection<Integer> viewableEncounterTypeIds);
+	
 	/**
 	 * Get encounter roles by name
 	 * 
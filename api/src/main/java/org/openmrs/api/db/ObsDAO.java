@@ -21,6 +21,7 @@ import org.openmrs.ObsReferenceRange;
 import org.openmrs.Person;
 import org.openmrs.Visit;
 import org.openmrs.api.ObsService;
+import org.openmrs.parameter.ObsSearchCriteria;
 import org.openmrs.util.OpenmrsConstants.PERSON_TYPE;
 
 /**
@@ -67,6 +68,11 @@ public interface ObsDAO {
 	        Date fromDate, Date toDate, List<ConceptName> valueCodedNameAnswers, boolean includeVoidedObs,
 	        String accessionNumber) throws DAOException;
 	
+	/**
+	 * @see org.openmrs.api.ObsService#getObservations(ObsSearchCriteria)
+	 */
+	public List<Obs> getObservations(ObsSearchCriteria searchCriteria) throws DAOException;
+	
 	/**
 	 * @param uuid
 	 * @return obs or null
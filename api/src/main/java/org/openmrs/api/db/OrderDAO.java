@@ -99,12 +99,24 @@ public interface OrderDAO {
 	public Order getOrderByOrderNumber(String orderNumber);
 	
 	/**
-	 * Gets the next available order number seed
+	 * Gets the next available order number seed, in a transaction of its own committed before this
+	 * method returns
 	 * 
 	 * @return the order number seed
 	 */
 	public Long getNextOrderNumberSeedSequenceValue();
 	
+	/**
+	 * Reserves a block of consecutive order number seeds by advancing the stored seed by the size of
+	 * the block. The block is reserved in a transaction of its own, committed before this method
+	 * returns
+	 * 
+	 * @param blockSize the number of seeds to reserve
+	 * @return the first seed of the block
+	 * @since 3.0.0
+	 */
+	public Long getNextOrderNumberSeedSequenceValues(int blockSize);
+	
 	/**
 	 * @see org.openmrs.api.OrderService#getActiveOrders(org.openmrs.Patient, org.openmrs.OrderType,
 	 *      org.openmrs.CareSetting, java.util.Date)
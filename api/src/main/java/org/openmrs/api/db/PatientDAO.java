@@ -9,7 +9,9 @@
  */
 package org.openmrs.api.db;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import org.openmrs.Allergies;
 import org.openmrs.Allergy;
@@ -18,7 +20,10 @@ import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
 import org.openmrs.PatientProgram;
+import org.openmrs.User;
+import org.openmrs.api.DuplicatePatientCandidate;
 import org.openmrs.api.PatientService;
+import org.openmrs.person.PersonMergeLogData;
 
 /**
  * Database methods for the PatientService
@@ -305,4 +310,55 @@ public interface PatientDAO {
 	 */
 	public List getPatientIdentifierByProgram(PatientProgram patientProgram);
 	
+/**
+	 * Moves the visits and encounters of the given patients, including voided ones, together with the
+	 * observations, orders and diagnoses in those encounters and the non-voided observations that are
+	 * not contained in an encounter to the preferred patient. Each kind of data is moved with one
+	 * set-based update instead of loading and saving the objects one by one, the uuids of the moved
+	 * visits, encounters and independent observations are streamed from the database into the merge
+	 * log data of the patient they were moved from.
+	 * <p>
+	 * Pending changes are flushed before the updates and instances of the moved objects held by the
+	 * current session are evicted afterwards, they must be loaded again to see the new patient.
+	 * 
+	 * @param preferred the patient to move the data to
+	 * @param mergedData the merge log data of each patient to move the data from, keyed by patient id
+	 * @param changedBy the user to record as having changed the moved visits, encounters and diagnoses
+	 * @param dateChanged the date to record as the date the moved visits, encounters and diagnoses
+	 *            were changed
+	 * @since 3.0.0
+	 */
+	public void moveClinicalData(Patient preferred, Map<Integer, PersonMergeLogData> mergedData, User changedBy,
+	        Date dateChanged);
+	
+	/**
+	 * Replaces the duplicate detection blocking keys of a patient
+	 * 
+	 * @param patientId the patient the keys belong to
+	 * @param keys the new keys of the patient, none to only delete the existing ones
+	 * @since 3.0.0
+	 */
+	public void savePatientDuplicateKeys(Integer patientId, List<PatientDuplicateKey> keys);
+	
+	/**
+	 * Gets the non voided patients with an id greater than the given one, ordered by id
+	 * 
+	 * @param afterPatientId the id to start after, null to start with the first patient
+	 * @param maxResults the maximum number of patients to return
+	 * @return the patients
+	 * @since 3.0.0
+	 */
+	public List<Patient> getPatientsAfter(Integer afterPatientId, int maxResults);
+	
+	/**
+	 * @see org.openmrs.api.PatientService#getDuplicatePatientCandidates(DuplicatePatientCandidate,
+	 *      int, int)
+	 * @param afterPatientId the id of the patient of the last candidate of the previous page, null for
+	 *            the first page
+	 * @param afterDuplicateId the id of the duplicate of the last candidate of the previous page
+	 * @since 3.0.0
+	 */
+	public List<DuplicatePatientCandidate> getDuplicatePatientCandidates(Integer afterPatientId,
+	        Integer afterDuplicateId, int minimumScore, int maxResults);
+	
 }
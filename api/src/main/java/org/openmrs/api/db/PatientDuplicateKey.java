@@ -0,0 +1,104 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import org.openmrs.patient.DuplicatePatientKeyGenerator;
+
+/**
+ * A blocking key of a patient, patients sharing a key are candidate duplicates of each other. This
+ * should never be used by anything except for PatientDAO and PatientService methods that detect
+ * duplicate patients.
+ *
+ * @see DuplicatePatientKeyGenerator
+ * @since 3.0.0
+ */
+@Entity
+@Table(name = "patient_duplicate_key", indexes = {
+        @Index(name = "patient_duplicate_key_value", columnList = "key_type, key_value"),
+        @Index(name = "patient_duplicate_key_patient", columnList = "patient_id") })
+public class PatientDuplicateKey implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "patient_duplicate_key_id")
+	private Integer patientDuplicateKeyId;
+	
+	@Column(name = "patient_id", nullable = false)
+	private Integer patientId;
+	
+	@Column(name = "key_type", nullable = false, length = 50)
+	private String keyType;
+	
+	@Column(name = "key_value", nullable = false)
+	private String keyValue;
+	
+	public PatientDuplicateKey() {
+	}
+	
+	/**
+	 * @param patientId the patient the key belongs to
+	 * @param keyType the kind of key, one of the constants of {@link DuplicatePatientKeyGenerator}
+	 * @param keyValue the value of the key
+	 */
+	public PatientDuplicateKey(Integer patientId, String keyType, String keyValue) {
+		this.patientId = patientId;
+		this.keyType = keyType;
+		this.keyValue = keyValue;
+	}
+	
+	public Integer getPatientDuplicateKeyId() {
+		return patientDuplicateKeyId;
+	}
+	
+	public void setPatientDuplicateKeyId(Integer patientDuplicateKeyId) {
+		this.patientDuplicateKeyId = patientDuplicateKeyId;
+	}
+	
+	public Integer getPatientId() {
+		return patientId;
+	}
+	
+	public void setPatientId(Integer patientId) {
+		this.patientId = patientId;
+	}
+	
+	public String getKeyType() {
+		return keyType;
+	}
+	
+	public void setKeyType(String keyType) {
+		this.keyType = keyType;
+	}
+	
+	public String getKeyValue() {
+		return keyValue;
+	}
+	
+	public void setKeyValue(String keyValue) {
+		this.keyValue = keyValue;
+	}
+	
+	@Override
+	public String toString() {
+		return "PatientDuplicateKey[" + patientId + " " + keyType + "=" + keyValue + "]";
+	}
+}
@@ -0,0 +1,171 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.openmrs.api.context.Context;
+
+/**
+ * The state of the current or last search index update at one point in time.
+ *
+ * @see Context#getSearchIndexProgress()
+ * @since 3.0.0
+ */
+public class SearchIndexProgress implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public enum Status {
+		RUNNING,
+		COMPLETED,
+		FAILED,
+		INTERRUPTED
+	}
+	
+	private final Status status;
+	
+	private final Date startTime;
+	
+	private final Date endTime;
+	
+	private final String error;
+	
+	private final List<TypeProgress> types;
+	
+	/**
+	 * @param status the state of the update
+	 * @param startTime the time the update started
+	 * @param endTime the time the update finished, null while it runs
+	 * @param error the message of the exception the update failed with
+	 * @param types the progress of each entity type
+	 */
+	public SearchIndexProgress(Status status, Date startTime, Date endTime, String error, List<TypeProgress> types) {
+		this.status = status;
+		this.startTime = startTime;
+		this.endTime = endTime;
+		this.error = error;
+		this.types = Collections.unmodifiableList(new ArrayList<>(types));
+	}
+	
+	public Status getStatus() {
+		return status;
+	}
+	
+	public Date getStartTime() {
+		return startTime;
+	}
+	
+	public Date getEndTime() {
+		return endTime;
+	}
+	
+	public String getError() {
+		return error;
+	}
+	
+	public List<TypeProgress> getTypes() {
+		return types;
+	}
+	
+	/**
+	 * @return the number of entities to reindex over all types
+	 */
+	public long getTotalCount() {
+		return types.stream().mapToLong(TypeProgress::getTotalCount).sum();
+	}
+	
+	/**
+	 * @return the number of entities reindexed so far over all types
+	 */
+	public long getIndexedCount() {
+		return types.stream().mapToLong(TypeProgress::getIndexedCount).sum();
+	}
+	
+	/**
+	 * @return the share of the entities reindexed so far, between 0 and 1
+	 */
+	public double getFractionDone() {
+		long total = getTotalCount();
+		return total == 0 ? (status == Status.COMPLETED ? 1 : 0) : Math.min(1, (double) getIndexedCount() / total);
+	}
+	
+	@Override
+	public String toString() {
+		return "[SearchIndexProgress status=" + status + " indexed=" + getIndexedCount() + "/" + getTotalCount() + "]";
+	}
+	
+	/**
+	 * The progress of reindexing one entity type.
+	 */
+	public static class TypeProgress implements Serializable {
+	
+		private static final long serialVersionUID = 1L;
+	
+		private final String type;
+	
+		private final long totalCount;
+	
+		private final long indexedCount;
+	
+		private final int completedPartitions;
+	
+		private final int partitionCount;
+	
+		private final boolean completed;
+	
+		/**
+		 * @param type the name of the entity class
+		 * @param totalCount the number of entities of the type
+		 * @param indexedCount the number of entities reindexed so far, including those reindexed by an
+		 *            earlier interrupted update that was resumed
+		 * @param completedPartitions the number of identifier ranges reindexed so far
+		 * @param partitionCount the number of identifier ranges
+		 * @param completed true if the type was fully reindexed
+		 */
+		public TypeProgress(String type, long totalCount, long indexedCount, int completedPartitions,
+		    int partitionCount, boolean completed) {
+			this.type = type;
+			this.totalCount = totalCount;
+			this.indexedCount = indexedCount;
+			this.completedPartitions = completedPartitions;
+			this.partitionCount = partitionCount;
+			this.completed = completed;
+		}
+	
+		public String getType() {
+			return type;
+		}
+	
+		public long getTotalCount() {
+			return totalCount;
+		}
+	
+		public long getIndexedCount() {
+			return indexedCount;
+		}
+	
+		public int getCompletedPartitions() {
+			return completedPartitions;
+		}
+	
+		public int getPartitionCount() {
+			return partitionCount;
+		}
+	
+		public boolean isCompleted() {
+			return completed;
+		}
+	}
+}
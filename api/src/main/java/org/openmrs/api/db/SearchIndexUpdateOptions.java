@@ -0,0 +1,130 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openmrs.api.context.Context;
+import org.openmrs.util.OpenmrsConstants;
+
+/**
+ * Settings of a search index update. Settings left null fall back to the corresponding
+ * <code>search.index.*</code> runtime property and then to a built in default.
+ *
+ * @see Context#updateSearchIndex(SearchIndexUpdateOptions)
+ * @see OpenmrsConstants#SEARCH_INDEX_PARTITION_SIZE_RUNTIME_PROPERTY
+ * @since 3.0.0
+ */
+public class SearchIndexUpdateOptions {
+	
+	private List<Class<?>> types = new ArrayList<>();
+	
+	private Integer typesToIndexInParallel;
+	
+	private Integer threadsToLoadObjects;
+	
+	private Integer batchSizeToLoadObjects;
+	
+	private Integer idFetchSize;
+	
+	private Integer partitionSize;
+	
+	private boolean resume = true;
+	
+	public SearchIndexUpdateOptions() {
+	}
+	
+	/**
+	 * @param types the entity types to reindex, all indexed types if none
+	 */
+	public SearchIndexUpdateOptions(Class<?>... types) {
+		this.types = new ArrayList<>(Arrays.asList(types));
+	}
+	
+	/**
+	 * @return the entity types to reindex, all indexed types if empty
+	 */
+	public List<Class<?>> getTypes() {
+		return types;
+	}
+	
+	public void setTypes(List<Class<?>> types) {
+		this.types = types != null ? types : new ArrayList<>();
+	}
+	
+	/**
+	 * @return the number of entity types reindexed at the same time
+	 */
+	public Integer getTypesToIndexInParallel() {
+		return typesToIndexInParallel;
+	}
+	
+	public void setTypesToIndexInParallel(Integer typesToIndexInParallel) {
+		this.typesToIndexInParallel = typesToIndexInParallel;
+	}
+	
+	/**
+	 * @return the number of threads loading the entities of each type
+	 */
+	public Integer getThreadsToLoadObjects() {
+		return threadsToLoadObjects;
+	}
+	
+	public void setThreadsToLoadObjects(Integer threadsToLoadObjects) {
+		this.threadsToLoadObjects = threadsToLoadObjects;
+	}
+	
+	/**
+	 * @return the number of entities loaded in one batch
+	 */
+	public Integer getBatchSizeToLoadObjects() {
+		return batchSizeToLoadObjects;
+	}
+	
+	public void setBatchSizeToLoadObjects(Integer batchSizeToLoadObjects) {
+		this.batchSizeToLoadObjects = batchSizeToLoadObjects;
+	}
+	
+	/**
+	 * @return the JDBC fetch size used to read the identifiers of the entities to reindex
+	 */
+	public Integer getIdFetchSize() {
+		return idFetchSize;
+	}
+	
+	public void setIdFetchSize(Integer idFetchSize) {
+		this.idFetchSize = idFetchSize;
+	}
+	
+	/**
+	 * @return the size of the identifier ranges each entity type is reindexed in
+	 */
+	public Integer getPartitionSize() {
+		return partitionSize;
+	}
+	
+	public void setPartitionSize(Integer partitionSize) {
+		this.partitionSize = partitionSize;
+	}
+	
+	/**
+	 * @return true if an interrupted update is continued after its last completed identifier range,
+	 *         false to reindex everything from scratch
+	 */
+	public boolean isResume() {
+		return resume;
+	}
+	
+	public void setResume(boolean resume) {
+		this.resume = resume;
+	}
+}
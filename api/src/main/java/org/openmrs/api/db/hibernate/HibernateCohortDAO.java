@@ -17,6 +17,7 @@ import jakarta.persistence.criteria.Root;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
@@ -24,6 +25,7 @@ import org.openmrs.Cohort;
 import org.openmrs.CohortMembership;
 import org.openmrs.api.db.CohortDAO;
 import org.openmrs.api.db.DAOException;
+import org.openmrs.collection.PatientIdBitmap;
 
 /**
  * Hibernate implementation of the CohortDAO
@@ -206,4 +208,33 @@ public class HibernateCohortDAO implements CohortDAO {
 		sessionFactory.getCurrentSession().saveOrUpdate(cohortMembership);
 		return cohortMembership;
 	}
+	
+	/**
+	 * @see org.openmrs.api.db.CohortDAO#getMemberBitmap(java.lang.Integer, java.util.Date)
+	 */
+	@Override
+	public PatientIdBitmap getMemberBitmap(Integer cohortId, Date activeOnDate) {
+		Session session = sessionFactory.getCurrentSession();
+		CriteriaBuilder cb = session.getCriteriaBuilder();
+		CriteriaQuery<Integer> cq = cb.createQuery(Integer.class);
+		Root<CohortMembership> root = cq.from(CohortMembership.class);
+
+		List<Predicate> predicates = new ArrayList<>();
+		predicates.add(cb.equal(root.get("cohort").get("cohortId"), cohortId));
+		predicates.add(cb.isFalse(root.get(VOIDED)));
+
+		if (activeOnDate != null) {
+			predicates.add(cb.lessThanOrEqualTo(root.get("startDate"), activeOnDate));
+			predicates.add(cb.or(cb.isNull(root.get("endDate")), cb.greaterThanOrEqualTo(root.get("endDate"), activeOnDate)));
+		}
+
+		cq.select(root.get("patientId")).where(predicates.toArray(new Predicate[]{}));
+
+		// the ids are streamed into the bitmap so that no list of boxed ids is built for large cohorts
+		PatientIdBitmap members = new PatientIdBitmap();
+		try (Stream<Integer> patientIds = session.createQuery(cq).getResultStream()) {
+			patientIds.forEach(members::add);
+		}
+		return members;
+	}
 }
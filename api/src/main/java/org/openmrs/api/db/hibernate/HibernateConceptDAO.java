@@ -73,6 +73,7 @@ import org.openmrs.api.ConceptService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.ConceptDAO;
 import org.openmrs.api.db.DAOException;
+import org.openmrs.api.db.hibernate.search.SearchEntityLoader;
 import org.openmrs.api.db.hibernate.search.SearchQueryUnique;
 import org.openmrs.api.db.hibernate.search.session.SearchSessionFactory;
 import org.openmrs.util.ConceptMapTypeComparator;
@@ -114,6 +115,13 @@ public class HibernateConceptDAO implements ConceptDAO {
 		this.searchSessionFactory = searchSessionFactory;
 	}
 
+	/**
+	 * @return the loader of the concepts found by name, along with their names
+	 */
+	private SearchEntityLoader<Concept> newConceptLoader() {
+		return SearchEntityLoader.newLoader(Concept.class, "concept.conceptId", "names");
+	}
+
 	/**
 	 * @see org.openmrs.api.db.ConceptDAO#getConceptComplex(java.lang.Integer)
 	 */
@@ -608,7 +616,7 @@ public class HibernateConceptDAO implements ConceptDAO {
 		return SearchQueryUnique.search(searchSessionFactory, SearchQueryUnique.newQuery(ConceptName.class, f -> 
 			newConceptNamePredicate(f, name, !searchOnPhrase, Collections.singletonList(locale),
 				false, false, classes, null, datatypes, null, null),
-			"concept.conceptId", ConceptName::getConcept));
+			"concept.conceptId", newConceptLoader()));
 	}
 	
 	private LinkedHashSet<Concept> transformNamesToConcepts(List<ConceptName> names) {
@@ -1967,7 +1975,7 @@ public class HibernateConceptDAO implements ConceptDAO {
 		return SearchQueryUnique.search(searchSessionFactory, SearchQueryUnique.newQuery(ConceptName.class, f -> 
 			newConceptNamePredicate(f, name, true, locales, searchExactLocale, false,
 			null, null, null, null, null), 
-			"concept.conceptId", ConceptName::getConcept));
+			"concept.conceptId", newConceptLoader()));
 	}
 	
 	/**
@@ -41,7 +41,10 @@ import org.openmrs.api.context.Context;
 import org.openmrs.api.context.ContextAuthenticationException;
 import org.openmrs.api.context.Daemon;
 import org.openmrs.api.db.ContextDAO;
+import org.openmrs.api.db.SearchIndexProgress;
+import org.openmrs.api.db.SearchIndexUpdateOptions;
 import org.openmrs.api.db.UserDAO;
+import org.openmrs.api.db.hibernate.search.SearchIndexUpdater;
 import org.openmrs.api.db.hibernate.search.session.SearchSessionFactory;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
@@ -67,6 +70,8 @@ public class HibernateContextDAO implements ContextDAO {
 	
 	private static final Long DEFAULT_UNLOCK_ACCOUNT_WAITING_TIME = TimeUnit.MILLISECONDS.convert(5L, TimeUnit.MINUTES);
 	
+	private static final String SEARCH_INDEX_CHECKPOINT_FILE = "search-index-checkpoint.properties";
+	
 	/**
 	 * Hibernate session factory
 	 */
@@ -75,6 +80,8 @@ public class HibernateContextDAO implements ContextDAO {
 	@Autowired
 	private SearchSessionFactory searchSessionFactory;
 	
+	private SearchIndexUpdater searchIndexUpdater;
+	
 	private UserDAO userDao;
 	
 	/**
@@ -600,8 +607,7 @@ public class HibernateContextDAO implements ContextDAO {
 	@Override
 	public void updateSearchIndex() {
 		try {
-			log.info("Updating the search index... It may take a few minutes.");
-			searchSessionFactory.getSearchSession().massIndexer().startAndWait();
+			getSearchIndexUpdater().update(new SearchIndexUpdateOptions());
 			GlobalProperty gp = Context.getAdministrationService().getGlobalPropertyObject(
 			    OpenmrsConstants.GP_SEARCH_INDEX_VERSION);
 			if (gp == null) {
@@ -609,7 +615,6 @@ public class HibernateContextDAO implements ContextDAO {
 			}
 			gp.setPropertyValue(OpenmrsConstants.SEARCH_INDEX_VERSION.toString());
 			Context.getAdministrationService().saveGlobalProperty(gp);
-			log.info("Finished updating the search index");
 		}
 		catch (Exception e) {
 			throw new RuntimeException("Failed to update the search index", e);
@@ -621,13 +626,41 @@ public class HibernateContextDAO implements ContextDAO {
 	 */
 	@Override
 	public Future<?> updateSearchIndexAsync() {
-		try {
-			log.info("Started asynchronously updating the search index...");
-			return searchSessionFactory.getSearchSession().massIndexer().start().toCompletableFuture();
-		}
-		catch (Exception e) {
-			throw new RuntimeException("Failed to start asynchronous search index update", e);
+		return updateSearchIndexAsync(new SearchIndexUpdateOptions());
+	}
+	
+	/**
+	 * @see ContextDAO#updateSearchIndex(SearchIndexUpdateOptions)
+	 */
+	@Override
+	public void updateSearchIndex(SearchIndexUpdateOptions options) {
+		getSearchIndexUpdater().update(options);
+	}
+	
+	/**
+	 * @see ContextDAO#updateSearchIndexAsync(SearchIndexUpdateOptions)
+	 */
+	@Override
+	public Future<?> updateSearchIndexAsync(SearchIndexUpdateOptions options) {
+		log.info("Started asynchronously updating the search index...");
+		return getSearchIndexUpdater().updateAsync(options);
+	}
+	
+	/**
+	 * @see ContextDAO#getSearchIndexProgress()
+	 */
+	@Override
+	public SearchIndexProgress getSearchIndexProgress() {
+		return getSearchIndexUpdater().getProgress();
+	}
+	
+	private synchronized SearchIndexUpdater getSearchIndexUpdater() {
+		if (searchIndexUpdater == null) {
+			File checkpointFile = new File(OpenmrsUtil.getDirectoryInApplicationDataDirectory("lucene"),
+			        SEARCH_INDEX_CHECKPOINT_FILE);
+			searchIndexUpdater = new SearchIndexUpdater(sessionFactory, Context.getRuntimeProperties(), checkpointFile);
 		}
+		return searchIndexUpdater;
 	}
 
 	/**
@@ -19,6 +19,7 @@ import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -123,6 +124,16 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	 */
 	@Override
 	public List<Encounter> getEncounters(EncounterSearchCriteria searchCriteria) {
+		return getEncounters(searchCriteria, null);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.EncounterDAO#getEncounters(org.openmrs.parameter.EncounterSearchCriteria,
+	 *      java.util.Collection)
+	 */
+	@Override
+	public List<Encounter> getEncounters(EncounterSearchCriteria searchCriteria,
+	        Collection<Integer> viewableEncounterTypeIds) {
 		Session session = sessionFactory.getCurrentSession();
 		CriteriaBuilder cb = session.getCriteriaBuilder();
 		CriteriaQuery<Encounter> cq = cb.createQuery(Encounter.class);
@@ -171,6 +182,7 @@ public class HibernateEncounterDAO implements EncounterDAO {
 		if (!searchCriteria.getIncludeVoided()) {
 			predicates.add(cb.isFalse(encounter.get("voided")));
 		}
+		addViewableEncounterTypesPredicate(cb, encounter, viewableEncounterTypeIds, predicates);
 
 		cq.select(encounter).where(predicates.toArray(new Predicate[]{}))
 			.orderBy(cb.asc(encounter.get("encounterDatetime")));
@@ -301,6 +313,16 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	@Override
 	public List<Encounter> getEncounters(String query, Integer patientId, Integer start, Integer length,
 	        boolean includeVoided) {
+		return getEncounters(query, patientId, start, length, includeVoided, null);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.EncounterDAO#getEncounters(String, Integer, Integer, Integer,
+	 *      boolean, Collection)
+	 */
+	@Override
+	public List<Encounter> getEncounters(String query, Integer patientId, Integer start, Integer length,
+	        boolean includeVoided, Collection<Integer> viewableEncounterTypeIds) {
 		if (StringUtils.isBlank(query) && patientId == null) {
 			return Collections.emptyList();
 		}
@@ -311,6 +333,7 @@ public class HibernateEncounterDAO implements EncounterDAO {
 		Root<Encounter> root = cq.from(Encounter.class);
 
 		QueryResult queryResult = createEncounterByQueryPredicates(cb, root, query, patientId, includeVoided, true);
+		addViewableEncounterTypesPredicate(cb, root, viewableEncounterTypeIds, queryResult.getPredicates());
 		
 		cq.where(queryResult.getPredicates().toArray(new Predicate[]{}))
 			.orderBy(queryResult.getOrders());
@@ -406,18 +429,48 @@ public class HibernateEncounterDAO implements EncounterDAO {
 		return predicates;
 	}
 
+	/**
+	 * Restricts the matched encounters to those of the given encounter types
+	 *
+	 * @param viewableEncounterTypeIds ids of the encounter types that may be returned, null means all
+	 *            encounter types
+	 * @param predicates the predicates to add the restriction to
+	 */
+	private void addViewableEncounterTypesPredicate(CriteriaBuilder cb, Root<Encounter> root,
+	        Collection<Integer> viewableEncounterTypeIds, List<Predicate> predicates) {
+		if (viewableEncounterTypeIds == null) {
+			return;
+		}
+		if (viewableEncounterTypeIds.isEmpty()) {
+			predicates.add(cb.disjunction());
+		} else {
+			predicates.add(root.get("encounterType").get("encounterTypeId").in(viewableEncounterTypeIds));
+		}
+	}
+
 	/**
 	 * @see org.openmrs.api.db.EncounterDAO#getCountOfEncounters(java.lang.String,
 	 *      java.lang.Integer, boolean)
 	 */
 	@Override
 	public Long getCountOfEncounters(String query, Integer patientId, boolean includeVoided) {
+		return getCountOfEncounters(query, patientId, includeVoided, null);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.EncounterDAO#getCountOfEncounters(java.lang.String,
+	 *      java.lang.Integer, boolean, java.util.Collection)
+	 */
+	@Override
+	public Long getCountOfEncounters(String query, Integer patientId, boolean includeVoided,
+	        Collection<Integer> viewableEncounterTypeIds) {
 		Session session = sessionFactory.getCurrentSession();
 		CriteriaBuilder cb = session.getCriteriaBuilder();
 		CriteriaQuery<Long> cq = cb.createQuery(Long.class);
 		Root<Encounter> root = cq.from(Encounter.class);
 
 		QueryResult queryResult = createEncounterByQueryPredicates(cb, root, query, patientId, includeVoided, false);
+		addViewableEncounterTypesPredicate(cb, root, viewableEncounterTypeIds, queryResult.getPredicates());
 		cq.select(cb.countDistinct(root.get("encounterId")))
 			.where(queryResult.getPredicates().toArray(new Predicate[]{}));
 
@@ -633,6 +686,16 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	@Override
 	public List<Encounter> getEncountersByVisitsAndPatient(Patient patient, boolean includeVoided, String query,
 														   Integer start, Integer length) {
+		return getEncountersByVisitsAndPatient(patient, includeVoided, query, start, length, null);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.EncounterDAO#getEncountersByVisitsAndPatient(org.openmrs.Patient,
+	 *      boolean, java.lang.String, java.lang.Integer, java.lang.Integer, java.util.Collection)
+	 */
+	@Override
+	public List<Encounter> getEncountersByVisitsAndPatient(Patient patient, boolean includeVoided, String query,
+	        Integer start, Integer length, Collection<Integer> viewableEncounterTypeIds) {
 		Session session = sessionFactory.getCurrentSession();
 		CriteriaBuilder cb = session.getCriteriaBuilder();
 
@@ -641,8 +704,10 @@ public class HibernateEncounterDAO implements EncounterDAO {
 		Root<Encounter> encounterRoot = encounterQuery.from(Encounter.class);
 		Join<Encounter, Visit> visitJoin = encounterRoot.join("visit", JoinType.LEFT);
 
-		encounterQuery.where(createEncountersByPatientPredicates(cb, encounterRoot, patient, includeVoided, query)
-			.toArray(new Predicate[]{}));
+		List<Predicate> encounterPredicates = createEncountersByPatientPredicates(cb, encounterRoot, patient, includeVoided,
+		    query);
+		addViewableEncounterTypesPredicate(cb, encounterRoot, viewableEncounterTypeIds, encounterPredicates);
+		encounterQuery.where(encounterPredicates.toArray(new Predicate[]{}));
 		encounterQuery.orderBy(
 			cb.desc(visitJoin.get("startDatetime")),
 			cb.desc(visitJoin.get("visitId")),
@@ -696,6 +761,16 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	 */
 	@Override
 	public Integer getEncountersByVisitsAndPatientCount(Patient patient, boolean includeVoided, String query) {
+		return getEncountersByVisitsAndPatientCount(patient, includeVoided, query, null);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.EncounterDAO#getEncountersByVisitsAndPatientCount(org.openmrs.Patient,
+	 *      boolean, java.lang.String, java.util.Collection)
+	 */
+	@Override
+	public Integer getEncountersByVisitsAndPatientCount(Patient patient, boolean includeVoided, String query,
+	        Collection<Integer> viewableEncounterTypeIds) {
 		Session session = sessionFactory.getCurrentSession();
 		CriteriaBuilder cb = session.getCriteriaBuilder();
 		CriteriaQuery<Long> visitQuery = cb.createQuery(Long.class);
@@ -713,6 +788,7 @@ public class HibernateEncounterDAO implements EncounterDAO {
 		encounterQuery.select(cb.count(encounterRoot));
 
 		List<Predicate> encounterPredicates = createEncountersByPatientPredicates(cb, encounterRoot, patient, includeVoided, query);
+		addViewableEncounterTypesPredicate(cb, encounterRoot, viewableEncounterTypeIds, encounterPredicates);
 		encounterQuery.where(encounterPredicates.toArray(new Predicate[]{}));
 
 		Long encounterCount = session.createQuery(encounterQuery).getSingleResult();
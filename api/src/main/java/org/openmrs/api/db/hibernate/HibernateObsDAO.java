@@ -10,6 +10,7 @@
 package org.openmrs.api.db.hibernate;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -38,6 +39,7 @@ import org.openmrs.User;
 import org.openmrs.Visit;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.ObsDAO;
+import org.openmrs.parameter.ObsSearchCriteria;
 import org.openmrs.util.OpenmrsConstants.PERSON_TYPE;
 
 /**
@@ -141,6 +143,39 @@ public class HibernateObsDAO implements ObsDAO {
 		return query.getResultList();
 	}
 						
+	/**
+	 * @see org.openmrs.api.db.ObsDAO#getObservations(ObsSearchCriteria)
+	 */
+	@Override
+	public List<Obs> getObservations(ObsSearchCriteria searchCriteria) throws DAOException {
+		Session session = sessionFactory.getCurrentSession();
+		CriteriaBuilder cb = session.getCriteriaBuilder();
+		CriteriaQuery<Obs> cq = cb.createQuery(Obs.class);
+		Root<Obs> root = cq.from(Obs.class);
+		
+		List<Predicate> predicates = createGetObservationsCriteria(cb, root, searchCriteria.getPersons(),
+		    searchCriteria.getEncounters(), searchCriteria.getConcepts(), searchCriteria.getValueCodedAnswers(), null,
+		    searchCriteria.getLocations(), null, searchCriteria.getFromDate(), searchCriteria.getToDate(), null,
+		    searchCriteria.getVisits(), searchCriteria.getIncludeVoided(), null);
+		
+		// keyset pagination: only the obs after the last one of the previous page
+		if (searchCriteria.getAfterObsDatetime() != null) {
+			Date afterObsDatetime = searchCriteria.getAfterObsDatetime();
+			predicates.add(cb.or(cb.greaterThan(root.get("obsDatetime"), afterObsDatetime), cb.and(
+			    cb.equal(root.get("obsDatetime"), afterObsDatetime),
+			    cb.greaterThan(root.get("obsId"), searchCriteria.getAfterObsId()))));
+		}
+		
+		cq.where(predicates.toArray(new Predicate[] {}));
+		cq.orderBy(cb.asc(root.get("obsDatetime")), cb.asc(root.get("obsId")));
+		
+		TypedQuery<Obs> query = session.createQuery(cq);
+		if (searchCriteria.getMaxResults() != null && searchCriteria.getMaxResults() > 0) {
+			query.setMaxResults(searchCriteria.getMaxResults());
+		}
+		return query.getResultList();
+	}
+	
 	/**
 	 * @see org.openmrs.api.db.ObsDAO#getObservationCount(List, List, List, List, List, List, Integer, Date, Date, List, boolean, String)
 	 */
@@ -196,9 +231,9 @@ public class HibernateObsDAO implements ObsDAO {
 	 * @param accessionNumber
 	 * @return a list of predicates that can form part of a query
 	 */
-	private List<Predicate> createGetObservationsCriteria(CriteriaBuilder cb, Root<Obs> root, List<Person> whom, List<Encounter> encounters, List<Concept> questions,
-	        List<Concept> answers, List<PERSON_TYPE> personTypes, List<Location> locations, Integer obsGroupId, Date fromDate, Date toDate, List<ConceptName> valueCodedNameAnswers,
-	        List<Visit> visits, boolean includeVoidedObs, String accessionNumber) {
+	private List<Predicate> createGetObservationsCriteria(CriteriaBuilder cb, Root<Obs> root, Collection<Person> whom, Collection<Encounter> encounters, Collection<Concept> questions,
+	        Collection<Concept> answers, List<PERSON_TYPE> personTypes, Collection<Location> locations, Integer obsGroupId, Date fromDate, Date toDate, List<ConceptName> valueCodedNameAnswers,
+	        Collection<Visit> visits, boolean includeVoidedObs, String accessionNumber) {
 		
 		List<Predicate> predicates = new ArrayList<>();
 
@@ -15,10 +15,13 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 
 import jakarta.persistence.TemporalType;
@@ -30,18 +33,30 @@ import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.EntityEntry;
 import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.graph.GraphSemantic;
+import org.hibernate.graph.RootGraph;
 import org.hibernate.persister.entity.AbstractEntityPersister;
 import org.hibernate.query.MutationQuery;
 import org.hibernate.query.NativeQuery;
 import org.hibernate.query.Query;
 import org.hibernate.search.engine.search.predicate.SearchPredicate;
 import org.hibernate.search.engine.search.predicate.dsl.SearchPredicateFactory;
+import org.hibernate.search.engine.search.query.SearchQuery;
+import org.hibernate.search.mapper.orm.scope.SearchScope;
+import org.hibernate.search.mapper.orm.session.SearchSession;
 import org.openmrs.Allergies;
 import org.openmrs.Allergy;
+import org.openmrs.Diagnosis;
+import org.openmrs.Encounter;
 import org.openmrs.Location;
+import org.openmrs.Obs;
 import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
@@ -50,11 +65,19 @@ import org.openmrs.PatientProgram;
 import org.openmrs.Person;
 import org.openmrs.PersonAttribute;
 import org.openmrs.PersonName;
+import org.openmrs.User;
+import org.openmrs.Visit;
+import org.openmrs.api.DuplicatePatientCandidate;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.PatientDAO;
+import org.openmrs.api.db.PatientDuplicateKey;
+import org.openmrs.api.db.hibernate.search.PatientIndexMappingConfigurer;
+import org.openmrs.api.db.hibernate.search.SearchEntityLoader;
 import org.openmrs.api.db.hibernate.search.SearchQueryUnique;
 import org.openmrs.api.db.hibernate.search.session.SearchSessionFactory;
+import org.openmrs.patient.DuplicatePatientKeyGenerator;
+import org.openmrs.person.PersonMergeLogData;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.slf4j.Logger;
@@ -71,6 +94,16 @@ public class HibernatePatientDAO implements PatientDAO {
 	
 	private static final Logger log = LoggerFactory.getLogger(HibernatePatientDAO.class);
 	
+	/**
+	 * The maximum number of patients sharing a blocking key for it to be used to find duplicates
+	 */
+	private static final int MAX_DUPLICATE_KEY_BLOCK_SIZE = 100;
+	
+	/**
+	 * The associations of patients fetched along with them when they are found by a search
+	 */
+	private static final String[] PATIENT_SEARCH_FETCH_ATTRIBUTES = { "names", "identifiers" };
+	
 	/**
 	 * Hibernate session factory
 	 */
@@ -78,6 +111,8 @@ public class HibernatePatientDAO implements PatientDAO {
 	
 	private SearchSessionFactory searchSessionFactory;
 	
+	private volatile Boolean patientIndexMapped;
+	
 	/**
 	 * Set session factory
 	 *
@@ -749,17 +784,33 @@ public class HibernatePatientDAO implements PatientDAO {
 
 		PersonQuery personQuery = new PersonQuery();
 
-		return SearchQueryUnique.searchCount(searchSessionFactory,
-			SearchQueryUnique.newQuery(PatientIdentifier.class, f ->
+		if (isPatientIndexMapped()) {
+			return newPatientIndexQuery(f -> getPatientIndexSearchPredicate(f, personQuery, query, includeVoided))
+			        .fetchTotalHitCount();
+		}
+
+		return SearchQueryUnique.searchCount(searchSessionFactory, newPatientSearchQuery(personQuery, query, includeVoided));
+	}
+	
+	/**
+	 * Searches patients by identifier, then by name and then by searchable attribute. The ids of the
+	 * patients are read from the index and each page of patients is loaded with a single query.
+	 */
+	private SearchQueryUnique<?, Patient> newPatientSearchQuery(PersonQuery personQuery, String query,
+	        boolean includeVoided) {
+		return SearchQueryUnique.newQuery(PatientIdentifier.class, f ->
 					newPatientIdentifierSearchPredicate(f, query, includeVoided, false),
-				 "patient.personId", PatientIdentifier::getPatient).join(
+				 "patient.personId", newPatientLoader("patient.personId")).join(
 					 SearchQueryUnique.newQuery(PersonName.class, f ->
 						personQuery.getPatientNameQuery(f, query, includeVoided),
-					 "person.personId", pN -> getPatient(pN.getPerson().getId())).join(
+					 "person.personId", newPatientLoader("person.personId")).join(
 						 SearchQueryUnique.newQuery(PersonAttribute.class,
 						f -> personQuery.getPatientAttributeQuery(f, query, includeVoided),
-						 "person.personId", pA -> getPatient(pA.getPerson().getId())
-					))));
+						 "person.personId", newPatientLoader("person.personId"))));
+	}
+	
+	private SearchEntityLoader<Patient> newPatientLoader(String idField) {
+		return SearchEntityLoader.newLoader(Patient.class, idField, PATIENT_SEARCH_FETCH_ATTRIBUTES);
 	}
 
     private List<Patient> findPatients(String query, boolean includeVoided) {
@@ -789,16 +840,25 @@ public class HibernatePatientDAO implements PatientDAO {
 			return patients;
 		}
 		
+		List<Integer> identifierTypeIds = new ArrayList<Integer>();
+		for(PatientIdentifierType identifierType : identifierTypes) {
+			identifierTypeIds.add(identifierType.getId());
+		}
+		
+		if (isPatientIndexMapped()) {
+			String prefix = PatientIndexMappingConfigurer.IDENTIFIERS + ".";
+			return newPatientIndexQuery(f -> f.nested(PatientIndexMappingConfigurer.IDENTIFIERS).add(f.bool().with(b -> {
+				b.must(getPatientIdentifierSearchPredicate(f, prefix, query, matchExactly));
+				b.filter(f.terms().field(prefix + "identifierType.patientIdentifierTypeId").matchingAny(identifierTypeIds));
+			})).toPredicate()).fetchHits(tmpStart, tmpLength);
+		}
+		
 		return SearchQueryUnique.search(searchSessionFactory, SearchQueryUnique.newQuery(PatientIdentifier.class, 
 			f -> f.bool().with(b -> {
-			b.must(getPatientIdentifierSearchPredicate(f, query, matchExactly));
-			List<Integer> identifierTypeIds = new ArrayList<Integer>();
-			for(PatientIdentifierType identifierType : identifierTypes) {
-				identifierTypeIds.add(identifierType.getId());
-			}
+			b.must(getPatientIdentifierSearchPredicate(f, "", query, matchExactly));
 			b.filter(f.terms().field("identifierType.patientIdentifierTypeId").matchingAny(identifierTypeIds));
 			b.filter(f.match().field("patient.isPatient").matching(true));
-		}).toPredicate(), "patient.personId", PatientIdentifier::getPatient), tmpStart, tmpLength);
+		}).toPredicate(), "patient.personId", newPatientLoader("patient.personId")), tmpStart, tmpLength);
 	}
 	
 	public List<Patient> findPatients(String query, boolean includeVoided, Integer start, Integer length) {
@@ -826,47 +886,96 @@ public class HibernatePatientDAO implements PatientDAO {
 
 		PersonQuery personQuery = new PersonQuery();
 
-		patients = SearchQueryUnique.search(searchSessionFactory,
-			SearchQueryUnique.newQuery(PatientIdentifier.class, f -> 
-					newPatientIdentifierSearchPredicate(f, query, includeVoided, false), 
-				 "patient.personId", PatientIdentifier::getPatient).join(
-					 SearchQueryUnique.newQuery(PersonName.class, f -> 
-					personQuery.getPatientNameQuery(f, query, includeVoided),
-					 "person.personId", pN -> getPatient(pN.getPerson().getId())).join(
-						 SearchQueryUnique.newQuery(PersonAttribute.class,
-						f -> personQuery.getPatientAttributeQuery(f, query, includeVoided), 
-						"person.personId", pA -> getPatient(pA.getPerson().getId())
-						))), start, length);
+		if (isPatientIndexMapped()) {
+			return newPatientIndexQuery(f -> getPatientIndexSearchPredicate(f, personQuery, query, includeVoided))
+			        .fetchHits(tmpStart, tmpLength);
+		}
+
+		patients = SearchQueryUnique.search(searchSessionFactory, newPatientSearchQuery(personQuery, query, includeVoided),
+			start, length);
 
 		return patients;
 	}
 	
-	private SearchPredicate getPatientIdentifierSearchPredicate(SearchPredicateFactory f, String paramQuery, boolean matchExactly) {
+	/**
+	 * Matches all the patients found by the identifier, name and attribute queries, which are run one
+	 * after another otherwise, in a single query on the patient search index. The hits are ordered by
+	 * score rather than by the kind of match: identifier matches are boosted above name matches, and
+	 * name matches above attribute matches, so that they usually come first, but a weak identifier
+	 * match may rank below a strong name match.
+	 * 
+	 * @see PatientIndexMappingConfigurer
+	 */
+	private SearchPredicate getPatientIndexSearchPredicate(SearchPredicateFactory f, PersonQuery personQuery,
+	        String query, boolean includeVoided) {
+		String prefix = PatientIndexMappingConfigurer.IDENTIFIERS + ".";
+		SearchPredicate identifierQuery = f.nested(PatientIndexMappingConfigurer.IDENTIFIERS).add(f.bool().with(b -> {
+			b.must(getPatientIdentifierSearchPredicate(f, prefix, query, false));
+			if (!includeVoided) {
+				b.filter(f.match().field(prefix + "voided").matching(false));
+			}
+		})).toPredicate();
+		return f.bool().with(b -> {
+			b.minimumShouldMatchNumber(1);
+			b.should(f.bool().must(identifierQuery).boost(16f));
+			b.should(f.bool().must(personQuery.getPatientIndexNameQuery(f, query, includeVoided)).boost(4f));
+			b.should(personQuery.getPatientIndexAttributeQuery(f, query, includeVoided));
+			if (!includeVoided) {
+				b.filter(f.match().field("voided").matching(false));
+			}
+		}).toPredicate();
+	}
+	
+	private SearchPredicate getPatientIdentifierSearchPredicate(SearchPredicateFactory f, String fieldPrefix,
+	        String paramQuery, boolean matchExactly) {
 		List<String> tokens = tokenizeIdentifierQuery(removeIdentifierPadding(paramQuery));
 		final String query = StringUtils.join(tokens, " | ");
 		//TODO: hibernate search identifierType?
 		//fields.add("identifierType");
 		return f.bool().with(b -> {
 			b.minimumShouldMatchNumber(1);
-			b.should(f.simpleQueryString().field("identifierPhrase").matching(query).boost(8f));
+			b.should(f.simpleQueryString().field(fieldPrefix + "identifierPhrase").matching(query).boost(8f));
 			String matchMode = Context.getAdministrationService()
 				.getGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_PATIENT_IDENTIFIER_SEARCH_MATCH_MODE);
 			if (matchExactly) {
-				b.should(f.simpleQueryString().field("identifierExact").matching(query).boost(4f));
+				b.should(f.simpleQueryString().field(fieldPrefix + "identifierExact").matching(query).boost(4f));
 			}
 			else if (OpenmrsConstants.GLOBAL_PROPERTY_PATIENT_SEARCH_MATCH_START.equals(matchMode)) {
-				b.should(f.simpleQueryString().field("identifierStart").matching(query).boost(2f));
+				b.should(f.simpleQueryString().field(fieldPrefix + "identifierStart").matching(query).boost(2f));
 			}
 			else  {
-				b.should(f.simpleQueryString().field("identifierAnywhere").matching(query));
+				b.should(f.simpleQueryString().field(fieldPrefix + "identifierAnywhere").matching(query));
 			}
 		}).toPredicate();
 	
 	}
+	
+	/**
+	 * Creates a query on the patient search index, whose hits are patients loaded in batches
+	 */
+	private SearchQuery<Patient> newPatientIndexQuery(Function<SearchPredicateFactory, SearchPredicate> predicate) {
+		SearchSession searchSession = searchSessionFactory.getSearchSession();
+		SearchScope<Patient> scope = searchSession.scope(Patient.class);
+		RootGraph<Patient> graph = searchSession.toOrmSession().createEntityGraph(Patient.class);
+		graph.addAttributeNodes(PATIENT_SEARCH_FETCH_ATTRIBUTES);
+		return searchSession.search(scope).where(predicate.apply(scope.predicate()))
+		        .loading(o -> o.graph(graph, GraphSemantic.FETCH)).toQuery();
+	}
+	
+	/**
+	 * @return true if patients are searched in the patient search index
+	 * @see PatientIndexMappingConfigurer
+	 */
+	private boolean isPatientIndexMapped() {
+		if (patientIndexMapped == null) {
+			patientIndexMapped = PatientIndexMappingConfigurer.isMapped(sessionFactory);
+		}
+		return patientIndexMapped;
+	}
 
 	private SearchPredicate newPatientIdentifierSearchPredicate(SearchPredicateFactory predicateFactory, String query, boolean includeVoided, boolean matchExactly) {
 		return predicateFactory.bool().with(b -> {
-			b.must(getPatientIdentifierSearchPredicate(predicateFactory, query, matchExactly));
+			b.must(getPatientIdentifierSearchPredicate(predicateFactory, "", query, matchExactly));
 
 			if (!includeVoided) {
 				b.filter(predicateFactory.match().field("voided").matching(false));
@@ -1038,4 +1147,193 @@ public class HibernatePatientDAO implements PatientDAO {
 		
         return session.createQuery(query).getResultList();
     }
+
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#savePatientDuplicateKeys(Integer, List)
+	 */
+	@Override
+	public void savePatientDuplicateKeys(Integer patientId, List<PatientDuplicateKey> keys) {
+		Session session = sessionFactory.getCurrentSession();
+		session.createMutationQuery("delete from PatientDuplicateKey where patientId = :patientId")
+		        .setParameter("patientId", patientId).executeUpdate();
+		for (PatientDuplicateKey key : keys) {
+			session.persist(key);
+		}
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#getPatientsAfter(Integer, int)
+	 */
+	@Override
+	public List<Patient> getPatientsAfter(Integer afterPatientId, int maxResults) {
+		return sessionFactory.getCurrentSession()
+		        .createQuery("from Patient p where p.patientId > :after and p.voided = false order by p.patientId",
+		            Patient.class)
+		        .setParameter("after", afterPatientId != null ? afterPatientId : 0).setMaxResults(maxResults).list();
+	}
+	
+	/**
+	 * Candidate pairs are found with a self join of the blocking keys on their kind and value. Keys
+	 * shared by more than {@link #MAX_DUPLICATE_KEY_BLOCK_SIZE} patients, like a common name with a
+	 * default birthdate, are ignored so that the number of pairs stays proportional to the number of
+	 * patients. The blocks small enough to be joined are computed once by grouping the keys, and the
+	 * pairs are reduced to one row per kind of key they share before the weights are added up, so
+	 * that a pair sharing several keys of the same kind is only scored once for it.
+	 * 
+	 * @see org.openmrs.api.db.PatientDAO#getDuplicatePatientCandidates(Integer, Integer, int, int)
+	 */
+	@Override
+	public List<DuplicatePatientCandidate> getDuplicatePatientCandidates(Integer afterPatientId,
+	        Integer afterDuplicateId, int minimumScore, int maxResults) {
+		StringBuilder weight = new StringBuilder("case p.keyType");
+		for (String keyType : DuplicatePatientKeyGenerator.KEY_TYPES) {
+			weight.append(" when '").append(keyType).append("' then ")
+			        .append(DuplicatePatientKeyGenerator.getWeight(keyType));
+		}
+		weight.append(" else 0 end");
+		
+		StringBuilder hql = new StringBuilder("select p.patientId, p.duplicateId, sum(").append(weight)
+		        .append(") from (select distinct k1.patientId as patientId, k2.patientId as duplicateId,")
+		        .append(" k1.keyType as keyType from PatientDuplicateKey k1")
+		        .append(" join (select b.keyType as keyType, b.keyValue as keyValue from PatientDuplicateKey b")
+		        .append(" group by b.keyType, b.keyValue having count(*) <= :maxBlockSize) blocks")
+		        .append(" on blocks.keyType = k1.keyType and blocks.keyValue = k1.keyValue")
+		        .append(" join PatientDuplicateKey k2 on k2.keyType = k1.keyType and k2.keyValue = k1.keyValue")
+		        .append(" and k2.patientId > k1.patientId");
+		if (afterPatientId != null) {
+			hql.append(" where (k1.patientId > :afterPatientId")
+			        .append(" or (k1.patientId = :afterPatientId and k2.patientId > :afterDuplicateId))");
+		}
+		hql.append(") p group by p.patientId, p.duplicateId having sum(").append(weight)
+		        .append(") >= :minimumScore order by p.patientId, p.duplicateId");
+		
+		Query<Object[]> query = sessionFactory.getCurrentSession().createQuery(hql.toString(), Object[].class)
+		        .setParameter("maxBlockSize", (long) MAX_DUPLICATE_KEY_BLOCK_SIZE)
+		        .setParameter("minimumScore", (long) minimumScore).setMaxResults(maxResults);
+		if (afterPatientId != null) {
+			query.setParameter("afterPatientId", afterPatientId).setParameter("afterDuplicateId",
+			    afterDuplicateId != null ? afterDuplicateId : afterPatientId);
+		}
+		List<Object[]> rows = query.list();
+		if (rows.isEmpty()) {
+			return new ArrayList<>();
+		}
+		
+		Set<Integer> patientIds = new HashSet<>();
+		for (Object[] row : rows) {
+			patientIds.add((Integer) row[0]);
+			patientIds.add((Integer) row[1]);
+		}
+		Map<Integer, Patient> patients = new HashMap<>();
+		for (Patient patient : sessionFactory.getCurrentSession()
+		        .createQuery("from Patient p where p.patientId in (:ids)", Patient.class)
+		        .setParameterList("ids", patientIds).list()) {
+			patients.put(patient.getPatientId(), patient);
+		}
+		
+		List<DuplicatePatientCandidate> candidates = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			Patient patient = patients.get(row[0]);
+			Patient duplicate = patients.get(row[1]);
+			if (patient != null && duplicate != null) {
+				candidates.add(new DuplicatePatientCandidate(patient, duplicate, ((Number) row[2]).intValue()));
+			}
+		}
+		return candidates;
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#moveClinicalData(Patient, Map, User, Date)
+	 */
+	@Override
+	public void moveClinicalData(Patient preferred, Map<Integer, PersonMergeLogData> mergedData, User changedBy,
+	        Date dateChanged) {
+		if (mergedData.isEmpty()) {
+			return;
+		}
+		Session session = sessionFactory.getCurrentSession();
+		session.flush();
+		
+		List<Integer> patientIds = new ArrayList<>(mergedData.keySet());
+		streamUuids("select v.patient.id, v.uuid from Visit v where v.patient.id in (:patientIds)", patientIds,
+		    (patientId, uuid) -> mergedData.get(patientId).addMovedVisit(uuid));
+		streamUuids("select e.patient.id, e.uuid from Encounter e where e.patient.id in (:patientIds)", patientIds,
+		    (patientId, uuid) -> mergedData.get(patientId).addMovedEncounter(uuid));
+		streamUuids("select o.person.id, o.uuid from Obs o where o.person.id in (:patientIds) and o.encounter is null"
+		        + " and o.voided = false", patientIds,
+		    (patientId, uuid) -> mergedData.get(patientId).addMovedIndependentObservation(uuid));
+		
+		int visits = session.createMutationQuery("update Visit v set v.patient = :preferred, v.changedBy = :changedBy,"
+		        + " v.dateChanged = :dateChanged where v.patient.id in (:patientIds)").setParameter("preferred", preferred)
+		        .setParameter("changedBy", changedBy).setParameter("dateChanged", dateChanged)
+		        .setParameterList("patientIds", patientIds).executeUpdate();
+		int encounters = session.createMutationQuery("update Encounter e set e.patient = :preferred,"
+		        + " e.changedBy = :changedBy, e.dateChanged = :dateChanged where e.patient.id in (:patientIds)")
+		        .setParameter("preferred", preferred).setParameter("changedBy", changedBy)
+		        .setParameter("dateChanged", dateChanged).setParameterList("patientIds", patientIds).executeUpdate();
+		// voided independent obs stay with the voided patient like they did when obs were moved one by one
+		int obs = session.createMutationQuery("update Obs o set o.person = :preferred where o.person.id in (:patientIds)"
+		        + " and (o.encounter is not null or o.voided = false)").setParameter("preferred", preferred)
+		        .setParameterList("patientIds", patientIds).executeUpdate();
+		int diagnoses = session.createMutationQuery("update Diagnosis d set d.patient = :preferred,"
+		        + " d.changedBy = :changedBy, d.dateChanged = :dateChanged where d.patient.id in (:patientIds)")
+		        .setParameter("preferred", preferred).setParameter("changedBy", changedBy)
+		        .setParameter("dateChanged", dateChanged).setParameterList("patientIds", patientIds).executeUpdate();
+		// orders are mapped with joined subclasses, only the orders table holds the patient
+		NativeQuery<?> orderUpdate = session.createNativeQuery("update orders set patient_id = :preferred where"
+		        + " patient_id in (:patientIds)", Object.class);
+		int orders = orderUpdate.addSynchronizedEntityClass(org.openmrs.Order.class)
+		        .setParameter("preferred", preferred.getPatientId()).setParameterList("patientIds", patientIds)
+		        .executeUpdate();
+		log.debug("Moved {} visits, {} encounters, {} obs, {} diagnoses and {} orders of patients {} to {}", visits,
+		    encounters, obs, diagnoses, orders, patientIds, preferred.getPatientId());
+		
+		evictMovedObjects(session, mergedData.keySet());
+	}
+	
+	/**
+	 * Streams the patient id and uuid pairs returned by the given query without loading the objects
+	 */
+	private void streamUuids(String hql, List<Integer> patientIds, BiConsumer<Integer, String> consumer) {
+		try (ScrollableResults<Object[]> results = sessionFactory.getCurrentSession().createQuery(hql, Object[].class)
+		        .setParameterList("patientIds", patientIds).setFetchSize(1000).scroll(ScrollMode.FORWARD_ONLY)) {
+			while (results.next()) {
+				Object[] row = results.get();
+				consumer.accept((Integer) row[0], (String) row[1]);
+			}
+		}
+	}
+	
+	/**
+	 * Evicts the instances of moved objects that are still held by the session, they were loaded
+	 * before the set-based updates and would otherwise be returned, or even written back, with their
+	 * old patient
+	 */
+	private void evictMovedObjects(Session session, Set<Integer> patientIds) {
+		List<Object> moved = new ArrayList<>();
+		for (Map.Entry<Object, EntityEntry> entry : ((SessionImplementor) session).getPersistenceContextInternal()
+		        .reentrantSafeEntityEntries()) {
+			Object entity = entry.getKey();
+			Person person = null;
+			if (entity instanceof Visit) {
+				person = ((Visit) entity).getPatient();
+			} else if (entity instanceof Encounter) {
+				person = ((Encounter) entity).getPatient();
+			} else if (entity instanceof Obs) {
+				person = ((Obs) entity).getPerson();
+			} else if (entity instanceof Diagnosis) {
+				person = ((Diagnosis) entity).getPatient();
+			} else if (entity instanceof org.openmrs.Order) {
+				person = ((org.openmrs.Order) entity).getPatient();
+			}
+			if (person != null && patientIds.contains(person.getPersonId())) {
+				moved.add(entity);
+			}
+		}
+		for (Object entity : moved) {
+			if (session.contains(entity)) {
+				session.evict(entity);
+			}
+		}
+	}
 }
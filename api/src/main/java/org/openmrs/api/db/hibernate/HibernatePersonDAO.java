@@ -34,6 +34,7 @@ import org.openmrs.RelationshipType;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.PersonDAO;
+import org.openmrs.api.db.hibernate.search.SearchEntityLoader;
 import org.openmrs.api.db.hibernate.search.SearchQueryUnique;
 import org.openmrs.api.db.hibernate.search.session.SearchSessionFactory;
 import org.openmrs.person.PersonMergeLog;
@@ -77,6 +78,13 @@ public class HibernatePersonDAO implements PersonDAO {
 	public void setSearchSessionFactory(SearchSessionFactory searchSessionFactory) {
 		this.searchSessionFactory = searchSessionFactory;
 	}
+	
+	/**
+	 * @return the loader of the persons found by name or attribute, along with their names
+	 */
+	private SearchEntityLoader<Person> newPersonLoader() {
+		return SearchEntityLoader.newLoader(Person.class, "person.personId", "names");
+	}
 
 	/**
 	 * This method executes a Lucene search on persons based on the soundex filter with one search name given
@@ -92,7 +100,7 @@ public class HibernatePersonDAO implements PersonDAO {
 
 		List<Person> results = SearchQueryUnique.search(searchSessionFactory, SearchQueryUnique.newQuery(PersonName.class,
 				f -> personQuery.getSoundexPersonNameQuery(f, name, birthyear, includeVoided,
-					gender), "person.personId", PersonName::getPerson), null,
+					gender), "person.personId", newPersonLoader()), null,
 			HibernatePersonDAO.getMaximumSearchResults());
 		
 		return new LinkedHashSet<>(results);
@@ -116,7 +124,7 @@ public class HibernatePersonDAO implements PersonDAO {
 
 		List<Person> results = SearchQueryUnique.search(searchSessionFactory, SearchQueryUnique.newQuery(PersonName.class,
 				f -> personQuery.getSoundexPersonNameSearchOnThreeNames(f, name1, name2, name3,
-					birthyear, includeVoided, gender), "person.personId",  PersonName::getPerson),
+					birthyear, includeVoided, gender), "person.personId", newPersonLoader()),
 			null, HibernatePersonDAO.getMaximumSearchResults());
 		
 		return new LinkedHashSet<>(results);
@@ -138,7 +146,7 @@ public class HibernatePersonDAO implements PersonDAO {
 
 		List<Person> results = SearchQueryUnique.search(searchSessionFactory, SearchQueryUnique.newQuery(PersonName.class,
 				f -> personQuery.getSoundexPersonNameSearchOnTwoNames(f, searchName1, searchName2,
-					birthyear, includeVoided, gender), "person.personId", PersonName::getPerson), null,
+					birthyear, includeVoided, gender), "person.personId", newPersonLoader()), null,
 			HibernatePersonDAO.getMaximumSearchResults());
 		
 		return new LinkedHashSet<>(results);
@@ -159,7 +167,7 @@ public class HibernatePersonDAO implements PersonDAO {
 
 		List<Person> results = SearchQueryUnique.search(searchSessionFactory, SearchQueryUnique.newQuery(PersonName.class,
 				f -> personQuery.getSoundexPersonNameSearchOnNNames(f, searchNames, birthyear,
-					includeVoided, gender), "person.personId",  PersonName::getPerson), null, 
+					includeVoided, gender), "person.personId", newPersonLoader()), null, 
 			HibernatePersonDAO.getMaximumSearchResults());
 		
 		return new LinkedHashSet<>(results);
@@ -268,9 +276,9 @@ public class HibernatePersonDAO implements PersonDAO {
 
 		return SearchQueryUnique.search(searchSessionFactory, SearchQueryUnique.newQuery(PersonName.class,
 				f -> personQuery.getPersonNameQueryWithOrParser(f, searchString, includeVoided, dead),
-				"person.personId", PersonName::getPerson).join(SearchQueryUnique.newQuery(PersonAttribute.class,
+				"person.personId", newPersonLoader()).join(SearchQueryUnique.newQuery(PersonAttribute.class,
 				f -> personQuery.getPersonAttributeQueryWithOrParser(f, searchString, includeVoided), 
-				"person.personId", PersonAttribute::getPerson)), null,
+				"person.personId", newPersonLoader())), null,
 			HibernatePersonDAO.getMaximumSearchResults());
 	}
 	
@@ -23,6 +23,7 @@ import org.hibernate.search.engine.search.predicate.dsl.BooleanPredicateOptionsC
 import org.hibernate.search.engine.search.predicate.dsl.SearchPredicateFactory;
 import org.hibernate.search.util.common.data.RangeBoundInclusion;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.db.hibernate.search.PatientIndexMappingConfigurer;
 import org.openmrs.util.OpenmrsConstants;
 
 /**
@@ -163,6 +164,11 @@ public class PersonQuery {
 	
 	private SearchPredicate getPersonNameQuery(SearchPredicateFactory predicateFactory, String query, boolean orQueryParser,
 	        boolean includeVoided, boolean patientsOnly, Boolean dead) {
+		return newPersonNameSearchQuery(predicateFactory, getPersonNameFields(""), query, orQueryParser, includeVoided,
+		    patientsOnly, dead, null, null);
+	}
+	
+	private List<String> getPersonNameFields(String prefix) {
 		List<String> fields = new ArrayList<>(Arrays.asList("givenNameExact", "middleNameExact", "familyNameExact",
 		    "familyName2Exact", "givenNameStart", "middleNameStart", "familyNameStart", "familyName2Start"));
 		
@@ -172,9 +178,28 @@ public class PersonQuery {
 			fields.addAll(
 			    Arrays.asList("givenNameAnywhere", "middleNameAnywhere", "familyNameAnywhere", "familyName2Anywhere"));
 		}
-		
-		return newPersonNameSearchQuery(predicateFactory, fields, query, orQueryParser, includeVoided, patientsOnly, dead,
-		    null, null);
+		fields.replaceAll(field -> prefix + field);
+		return fields;
+	}
+	
+	/**
+	 * Creates a query on the names nested in the patient search index, matching the same fields as
+	 * {@link #getPatientNameQuery(SearchPredicateFactory, String, boolean)}.
+	 * 
+	 * @see PatientIndexMappingConfigurer
+	 * @since 3.0.0
+	 */
+	public SearchPredicate getPatientIndexNameQuery(SearchPredicateFactory predicateFactory, String query,
+	        boolean includeVoided) {
+		String prefix = PatientIndexMappingConfigurer.NAMES + ".";
+		List<String> fields = getPersonNameFields(prefix);
+		return predicateFactory.nested(PatientIndexMappingConfigurer.NAMES).add(predicateFactory.bool().with(b -> {
+			b.must(predicateFactory.simpleQueryString().fields(fields.toArray(new String[0])).matching(query)
+			        .defaultOperator(BooleanOperator.AND));
+			if (!includeVoided) {
+				b.filter(predicateFactory.match().field(prefix + "voided").matching(false));
+			}
+		})).toPredicate();
 	}
 	
 	private SearchPredicate newPersonNameSearchQuery(SearchPredicateFactory predicateFactory, List<String> fields,
@@ -228,15 +253,7 @@ public class PersonQuery {
 	
 	private SearchPredicate getPersonAttributeQuery(SearchPredicateFactory predicateFactory, String query,
 	        boolean orQueryParser, boolean includeVoided, boolean patientsOnly) {
-		List<String> fields = new ArrayList<>();
-		fields.add("valuePhrase"); //will position whole phrase match higher
-		fields.add("valueExact");
-		String matchMode = Context.getAdministrationService()
-		        .getGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_PERSON_ATTRIBUTE_SEARCH_MATCH_MODE);
-		if (OpenmrsConstants.GLOBAL_PROPERTY_PERSON_ATTRIBUTE_SEARCH_MATCH_ANYWHERE.equals(matchMode)) {
-			fields.add("valueStart"); //will position "starts with" match higher
-			fields.add("valueAnywhere");
-		}
+		List<String> fields = getPersonAttributeFields("");
 		
 		return predicateFactory.bool().with(b -> {
 			b.must(predicateFactory.simpleQueryString().fields(fields.toArray(new String[0])).matching(query)
@@ -254,4 +271,38 @@ public class PersonQuery {
 			}
 		}).toPredicate();
 	}
+	
+	/**
+	 * Creates a query on the searchable attributes nested in the patient search index, matching the
+	 * same fields as {@link #getPatientAttributeQuery(SearchPredicateFactory, String, boolean)}.
+	 * 
+	 * @see PatientIndexMappingConfigurer
+	 * @since 3.0.0
+	 */
+	public SearchPredicate getPatientIndexAttributeQuery(SearchPredicateFactory predicateFactory, String query,
+	        boolean includeVoided) {
+		String prefix = PatientIndexMappingConfigurer.ATTRIBUTES + ".";
+		List<String> fields = getPersonAttributeFields(prefix);
+		return predicateFactory.nested(PatientIndexMappingConfigurer.ATTRIBUTES).add(predicateFactory.bool().with(b -> {
+			b.must(predicateFactory.simpleQueryString().fields(fields.toArray(new String[0])).matching(query)
+			        .defaultOperator(BooleanOperator.AND));
+			if (!includeVoided) {
+				b.filter(predicateFactory.match().field(prefix + "voided").matching(false));
+			}
+			b.filter(predicateFactory.match().field(prefix + "attributeType.searchable").matching(true));
+		})).toPredicate();
+	}
+	
+	private List<String> getPersonAttributeFields(String prefix) {
+		List<String> fields = new ArrayList<>();
+		fields.add(prefix + "valuePhrase"); //will position whole phrase match higher
+		fields.add(prefix + "valueExact");
+		String matchMode = Context.getAdministrationService()
+		        .getGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_PERSON_ATTRIBUTE_SEARCH_MATCH_MODE);
+		if (OpenmrsConstants.GLOBAL_PROPERTY_PERSON_ATTRIBUTE_SEARCH_MATCH_ANYWHERE.equals(matchMode)) {
+			fields.add(prefix + "valueStart"); //will position "starts with" match higher
+			fields.add(prefix + "valueAnywhere");
+		}
+		return fields;
+	}
 }
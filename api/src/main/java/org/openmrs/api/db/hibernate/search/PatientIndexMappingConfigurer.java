@@ -0,0 +1,85 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import java.util.Properties;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.search.engine.backend.types.ObjectStructure;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.mapping.HibernateOrmMappingConfigurationContext;
+import org.hibernate.search.mapper.orm.mapping.HibernateOrmSearchMappingConfigurer;
+import org.hibernate.search.mapper.pojo.mapping.definition.programmatic.TypeMappingStep;
+import org.openmrs.Patient;
+import org.openmrs.api.context.Context;
+import org.openmrs.util.OpenmrsConstants;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps an optional search index with one document per patient. The document holds the identifiers,
+ * names and attributes of the patient as nested objects, along with the fields of the patient itself
+ * such as gender, birthdate and voided, so that a single query returns each matching patient once.
+ * <p>
+ * The index is mapped only if the {@link OpenmrsConstants#SEARCH_PATIENT_INDEX_ENABLED_RUNTIME_PROPERTY}
+ * runtime property is true. Otherwise patients are found by searching the identifier, name and
+ * attribute indexes one after another.
+ *
+ * @since 3.0.0
+ */
+@Component("patientIndexMappingConfigurer")
+public class PatientIndexMappingConfigurer implements HibernateOrmSearchMappingConfigurer {
+	
+	public static final String IDENTIFIERS = "identifiers";
+	
+	public static final String NAMES = "names";
+	
+	public static final String ATTRIBUTES = "attributes";
+	
+	private static final String[] IDENTIFIER_FIELDS = { "identifierPhrase", "identifierExact", "identifierStart",
+	        "identifierAnywhere", "identifierType.patientIdentifierTypeId", "voided" };
+	
+	private static final String[] NAME_FIELDS = { "givenNameExact", "givenNameStart", "givenNameAnywhere",
+	        "middleNameExact", "middleNameStart", "middleNameAnywhere", "familyNameExact", "familyNameStart",
+	        "familyNameAnywhere", "familyName2Exact", "familyName2Start", "familyName2Anywhere", "voided" };
+	
+	private static final String[] ATTRIBUTE_FIELDS = { "valuePhrase", "valueExact", "valueStart", "valueAnywhere",
+	        "attributeType.searchable", "voided" };
+	
+	@Override
+	public void configure(HibernateOrmMappingConfigurationContext context) {
+		if (!isEnabled(Context.getRuntimeProperties())) {
+			return;
+		}
+	
+		TypeMappingStep patient = context.programmaticMapping().type(Patient.class);
+		patient.indexed();
+		patient.property(IDENTIFIERS).indexedEmbedded().structure(ObjectStructure.NESTED).includePaths(IDENTIFIER_FIELDS);
+		patient.property(NAMES).indexedEmbedded().structure(ObjectStructure.NESTED).includePaths(NAME_FIELDS);
+		patient.property(ATTRIBUTES).indexedEmbedded().structure(ObjectStructure.NESTED).includePaths(ATTRIBUTE_FIELDS);
+	}
+	
+	/**
+	 * @param runtimeProperties the runtime properties
+	 * @return true if the patient search index should be mapped
+	 */
+	public static boolean isEnabled(Properties runtimeProperties) {
+		return Boolean.parseBoolean(
+		    runtimeProperties.getProperty(OpenmrsConstants.SEARCH_PATIENT_INDEX_ENABLED_RUNTIME_PROPERTY, "false").trim());
+	}
+	
+	/**
+	 * @param sessionFactory the session factory
+	 * @return true if the patient search index was mapped when the session factory was built
+	 */
+	public static boolean isMapped(SessionFactory sessionFactory) {
+		return Search.mapping(sessionFactory).allIndexedEntities().stream()
+		        .anyMatch(entity -> Patient.class.equals(entity.javaClass()));
+	}
+}
@@ -0,0 +1,98 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.hibernate.MultiIdentifierLoadAccess;
+import org.hibernate.Session;
+import org.hibernate.graph.GraphSemantic;
+import org.hibernate.graph.RootGraph;
+
+/**
+ * Loads the entities a search returns from ids projected from the index, instead of loading each hit
+ * and mapping it to an entity one by one. The entities of a page of hits are loaded with a single
+ * query, fetching the given associations along with them.
+ * <p>
+ * For example, patients found by name are loaded with:
+ *
+ * <pre>
+ * SearchEntityLoader.newLoader(Patient.class, "person.personId", "names", "identifiers")
+ * </pre>
+ *
+ * @param <R> the type of the loaded entities
+ * @see SearchQueryUnique#newQuery(Class, java.util.function.Function, String, SearchEntityLoader)
+ * @since 3.0.0
+ */
+public class SearchEntityLoader<R> {
+
+	private final Class<R> entityType;
+
+	private final String idField;
+
+	private final String[] fetchAttributes;
+
+	private SearchEntityLoader(Class<R> entityType, String idField, String[] fetchAttributes) {
+		this.entityType = entityType;
+		this.idField = idField;
+		this.fetchAttributes = fetchAttributes;
+	}
+
+	/**
+	 * @param entityType the type of the entities to load
+	 * @param idField the projectable index field holding the ids of the entities to load, or
+	 *            <code>null</code> to load the hits themselves
+	 * @param fetchAttributes the associations of the entities to fetch along with them
+	 * @return the loader
+	 * @param <R> the type of the entities to load
+	 */
+	public static <R> SearchEntityLoader<R> newLoader(Class<R> entityType, String idField, String... fetchAttributes) {
+		return new SearchEntityLoader<>(entityType, idField, fetchAttributes);
+	}
+
+	public Class<R> getEntityType() {
+		return entityType;
+	}
+
+	public String getIdField() {
+		return idField;
+	}
+
+	public String[] getFetchAttributes() {
+		return fetchAttributes;
+	}
+
+	/**
+	 * Loads the entities with the given ids, in the order of the ids. Ids of entities that no longer
+	 * exist are skipped.
+	 *
+	 * @param session the session to load the entities in
+	 * @param ids the ids of the entities
+	 * @return the entities
+	 */
+	public List<R> load(Session session, List<?> ids) {
+		if (ids.isEmpty()) {
+			return new ArrayList<>();
+		}
+
+		MultiIdentifierLoadAccess<R> loadAccess = session.byMultipleIds(entityType);
+		if (fetchAttributes.length > 0) {
+			RootGraph<R> graph = session.createEntityGraph(entityType);
+			graph.addAttributeNodes(fetchAttributes);
+			loadAccess.with(graph, GraphSemantic.FETCH);
+		}
+
+		List<R> entities = new ArrayList<>(loadAccess.multiLoad(ids));
+		entities.removeIf(Objects::isNull);
+		return entities;
+	}
+}
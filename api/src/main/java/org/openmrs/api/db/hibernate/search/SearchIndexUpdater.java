@@ -0,0 +1,522 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.persistence.metamodel.EntityType;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.entity.SearchIndexedEntity;
+import org.hibernate.search.mapper.orm.mapping.SearchMapping;
+import org.hibernate.search.mapper.orm.massindexing.MassIndexer;
+import org.hibernate.search.mapper.pojo.massindexing.MassIndexingMonitor;
+import org.openmrs.api.APIException;
+import org.openmrs.api.db.SearchIndexProgress;
+import org.openmrs.api.db.SearchIndexUpdateOptions;
+import org.openmrs.util.OpenmrsConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rebuilds the search index one entity type and one range of identifiers at a time.
+ * <p>
+ * Each type is purged and then reindexed by a mass indexer per identifier range. The last completed
+ * range of each type is recorded in a checkpoint file next to the index, so an update that was
+ * interrupted, for instance by a restart, continues where it stopped instead of starting over. The
+ * checkpoint is discarded when the update completes or when {@link OpenmrsConstants#SEARCH_INDEX_VERSION}
+ * changed since it was written.
+ * <p>
+ * Only one update runs at a time, starting an update while one is running returns the running one.
+ *
+ * @since 3.0.0
+ */
+public class SearchIndexUpdater {
+	
+	private static final Logger log = LoggerFactory.getLogger(SearchIndexUpdater.class);
+	
+	private static final int DEFAULT_TYPES_TO_INDEX_IN_PARALLEL = 1;
+	
+	private static final int DEFAULT_THREADS_TO_LOAD_OBJECTS = 4;
+	
+	private static final int DEFAULT_BATCH_SIZE_TO_LOAD_OBJECTS = 25;
+	
+	private static final int DEFAULT_ID_FETCH_SIZE = 1000;
+	
+	private static final int DEFAULT_PARTITION_SIZE = 100000;
+	
+	private static final String CHECKPOINT_VERSION = "version";
+	
+	private static final String CHECKPOINT_COMPLETE = "complete";
+	
+	private final SessionFactory sessionFactory;
+	
+	private final Properties runtimeProperties;
+	
+	private final File checkpointFile;
+	
+	private final Properties checkpoint = new Properties();
+	
+	private Update currentUpdate;
+	
+	/**
+	 * @param sessionFactory the session factory the search mapping belongs to
+	 * @param runtimeProperties the runtime properties holding the default settings
+	 * @param checkpointFile the file recording the progress of an update
+	 */
+	public SearchIndexUpdater(SessionFactory sessionFactory, Properties runtimeProperties, File checkpointFile) {
+		this.sessionFactory = sessionFactory;
+		this.runtimeProperties = runtimeProperties;
+		this.checkpointFile = checkpointFile;
+	}
+	
+	/**
+	 * Updates the search index and waits for the update to finish.
+	 *
+	 * @param options the settings of the update
+	 * @throws APIException if the update failed
+	 */
+	public void update(SearchIndexUpdateOptions options) {
+		Update update = startUpdate(options);
+		try {
+			update.future.get();
+		}
+		catch (InterruptedException e) {
+			update.interrupt();
+			Thread.currentThread().interrupt();
+			throw new APIException("Interrupted while updating the search index", e);
+		}
+		catch (ExecutionException e) {
+			throw new APIException("Failed to update the search index", e.getCause());
+		}
+	}
+	
+	/**
+	 * Starts updating the search index in a new thread.
+	 *
+	 * @param options the settings of the update
+	 * @return the result of the update, cancelling it interrupts the update
+	 */
+	public Future<?> updateAsync(SearchIndexUpdateOptions options) {
+		return startUpdate(options).future;
+	}
+	
+	/**
+	 * @return the progress of the running update or of the last one, null if there was none
+	 */
+	public synchronized SearchIndexProgress getProgress() {
+		return currentUpdate != null ? currentUpdate.getProgress() : null;
+	}
+	
+	private synchronized Update startUpdate(SearchIndexUpdateOptions options) {
+		if (currentUpdate != null && !currentUpdate.future.isDone()) {
+			log.info("The search index is already being updated");
+			return currentUpdate;
+		}
+		currentUpdate = new Update(options);
+		currentUpdate.start();
+		return currentUpdate;
+	}
+	
+	private int getSetting(Integer value, String runtimeProperty, int defaultValue) {
+		if (value != null && value > 0) {
+			return value;
+		}
+		String property = StringUtils.trimToNull(runtimeProperties.getProperty(runtimeProperty));
+		if (property != null) {
+			try {
+				int parsed = Integer.parseInt(property);
+				if (parsed > 0) {
+					return parsed;
+				}
+			}
+			catch (NumberFormatException e) {
+				log.warn("Invalid value '{}' for runtime property {}, using {}", property, runtimeProperty, defaultValue);
+			}
+		}
+		return defaultValue;
+	}
+	
+	/**
+	 * @return the indexed entity types, without those whose superclass is indexed too as they are
+	 *         reindexed along with it
+	 */
+	private List<Class<?>> getTypesToIndex(SearchMapping mapping, List<Class<?>> requested) {
+		List<Class<?>> types = new ArrayList<>();
+		if (requested.isEmpty()) {
+			for (SearchIndexedEntity<?> entity : mapping.allIndexedEntities()) {
+				types.add(entity.javaClass());
+			}
+		} else {
+			types.addAll(requested);
+		}
+		List<Class<?>> rootTypes = new ArrayList<>();
+		for (Class<?> type : types) {
+			if (types.stream().noneMatch(other -> other != type && other.isAssignableFrom(type))) {
+				rootTypes.add(type);
+			}
+		}
+		return rootTypes;
+	}
+	
+	private void loadCheckpoint(boolean resume) {
+		synchronized (checkpoint) {
+			checkpoint.clear();
+			if (resume && checkpointFile.exists()) {
+				try (InputStream in = new FileInputStream(checkpointFile)) {
+					checkpoint.load(in);
+				}
+				catch (IOException e) {
+					log.warn("Unable to read the search index checkpoint " + checkpointFile + ", reindexing everything", e);
+					checkpoint.clear();
+				}
+				if (!OpenmrsConstants.SEARCH_INDEX_VERSION.toString().equals(checkpoint.getProperty(CHECKPOINT_VERSION))) {
+					checkpoint.clear();
+				}
+			}
+			checkpoint.setProperty(CHECKPOINT_VERSION, OpenmrsConstants.SEARCH_INDEX_VERSION.toString());
+		}
+	}
+	
+	private String getCheckpoint(Class<?> type) {
+		synchronized (checkpoint) {
+			return checkpoint.getProperty(type.getName());
+		}
+	}
+	
+	private void saveCheckpoint(Class<?> type, String value) {
+		synchronized (checkpoint) {
+			if (value != null) {
+				checkpoint.setProperty(type.getName(), value);
+			} else {
+				checkpoint.remove(type.getName());
+			}
+			try {
+				if (checkpoint.size() == 1) {
+					Files.deleteIfExists(checkpointFile.toPath());
+					return;
+				}
+				File parent = checkpointFile.getAbsoluteFile().getParentFile();
+				if (!parent.exists() && !parent.mkdirs()) {
+					throw new IOException("Unable to create " + parent);
+				}
+				File tmp = new File(parent, checkpointFile.getName() + ".tmp");
+				try (OutputStream out = new FileOutputStream(tmp)) {
+					checkpoint.store(out, "Search index update checkpoint");
+				}
+				Files.move(tmp.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				    StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (IOException e) {
+				log.warn("Unable to write the search index checkpoint " + checkpointFile, e);
+			}
+		}
+	}
+	
+	/**
+	 * @return the identifier converted to the type of the identifier property
+	 */
+	private static Object toIdentifier(long value, Class<?> idType) {
+		if (Integer.class.equals(idType) || int.class.equals(idType)) {
+			return (int) value;
+		}
+		return value;
+	}
+	
+	/**
+	 * One run of the search index update
+	 */
+	private class Update {
+	
+		private final SearchIndexUpdateOptions options;
+	
+		private final Map<Class<?>, TypeTracker> trackers = new LinkedHashMap<>();
+	
+		private final CompletableFuture<Void> future = new CompletableFuture<Void>() {
+	
+			@Override
+			public boolean cancel(boolean mayInterruptIfRunning) {
+				interrupt();
+				return super.cancel(mayInterruptIfRunning);
+			}
+		};
+	
+		private volatile SearchIndexProgress.Status status = SearchIndexProgress.Status.RUNNING;
+	
+		private volatile Date startTime;
+	
+		private volatile Date endTime;
+	
+		private volatile String error;
+	
+		private volatile Thread thread;
+	
+		private volatile ExecutorService typeExecutor;
+	
+		Update(SearchIndexUpdateOptions options) {
+			this.options = options;
+		}
+	
+		void start() {
+			startTime = new Date();
+			thread = new Thread(this::run, "OpenMRS-Search-Index-Update");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	
+		void interrupt() {
+			ExecutorService executor = typeExecutor;
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+			Thread t = thread;
+			if (t != null) {
+				t.interrupt();
+			}
+		}
+	
+		private void run() {
+			try {
+				SearchMapping mapping = Search.mapping(sessionFactory);
+				List<Class<?>> types = getTypesToIndex(mapping, options.getTypes());
+				synchronized (trackers) {
+					for (Class<?> type : types) {
+						trackers.put(type, new TypeTracker(type));
+					}
+				}
+				loadCheckpoint(options.isResume());
+				log.info("Updating the search index of {} types... It may take a few minutes.", types.size());
+	
+				int typesInParallel = getSetting(options.getTypesToIndexInParallel(),
+				    OpenmrsConstants.SEARCH_INDEX_TYPES_IN_PARALLEL_RUNTIME_PROPERTY, DEFAULT_TYPES_TO_INDEX_IN_PARALLEL);
+				if (typesInParallel == 1 || types.size() == 1) {
+					for (Class<?> type : types) {
+						indexType(mapping, trackers.get(type));
+					}
+				} else {
+					indexTypesInParallel(mapping, types, typesInParallel);
+				}
+	
+				for (Class<?> type : types) {
+					saveCheckpoint(type, null);
+				}
+				status = SearchIndexProgress.Status.COMPLETED;
+				log.info("Finished updating the search index");
+				future.complete(null);
+			}
+			catch (InterruptedException e) {
+				status = SearchIndexProgress.Status.INTERRUPTED;
+				log.info("Search index update interrupted, it will resume from its checkpoint");
+				future.completeExceptionally(e);
+			}
+			catch (Exception e) {
+				status = SearchIndexProgress.Status.FAILED;
+				error = e.getClass().getName() + ": " + e.getMessage();
+				log.error("Failed to update the search index", e);
+				future.completeExceptionally(e);
+			}
+			finally {
+				endTime = new Date();
+				thread = null;
+			}
+		}
+	
+		private void indexTypesInParallel(SearchMapping mapping, List<Class<?>> types, int typesInParallel)
+		        throws Exception {
+			AtomicInteger threadNumber = new AtomicInteger();
+			typeExecutor = Executors.newFixedThreadPool(Math.min(typesInParallel, types.size()), runnable -> {
+				Thread t = new Thread(runnable, "OpenMRS-Search-Index-Update-" + threadNumber.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			});
+			try {
+				List<Future<?>> futures = new ArrayList<>();
+				for (Class<?> type : types) {
+					futures.add(typeExecutor.submit(() -> {
+						indexType(mapping, trackers.get(type));
+						return null;
+					}));
+				}
+				for (Future<?> typeFuture : futures) {
+					try {
+						typeFuture.get();
+					}
+					catch (ExecutionException e) {
+						if (e.getCause() instanceof Exception) {
+							throw (Exception) e.getCause();
+						}
+						throw e;
+					}
+				}
+			}
+			finally {
+				typeExecutor.shutdownNow();
+			}
+		}
+	
+		private void indexType(SearchMapping mapping, TypeTracker tracker) throws InterruptedException {
+			Class<?> type = tracker.type;
+			EntityType<?> entityType = sessionFactory.getMetamodel().entity(type);
+			Class<?> idType = entityType.getIdType().getJavaType();
+			String idName = entityType.getId(idType).getName();
+	
+			Number min;
+			Number max;
+			try (Session session = sessionFactory.openSession()) {
+				Object[] row = session.createQuery("select min(e." + idName + "), max(e." + idName + "), count(e) from "
+				        + type.getName() + " e", Object[].class).uniqueResult();
+				min = (Number) row[0];
+				max = (Number) row[1];
+				tracker.totalCount = ((Number) row[2]).longValue();
+			}
+	
+			String entry = getCheckpoint(type);
+			if (CHECKPOINT_COMPLETE.equals(entry)) {
+				log.info("Skipping {}, it was reindexed before the update was interrupted", type.getName());
+				tracker.indexedCount.set(tracker.totalCount);
+				tracker.completed = true;
+				return;
+			}
+	
+			int partitionSize = getSetting(options.getPartitionSize(),
+			    OpenmrsConstants.SEARCH_INDEX_PARTITION_SIZE_RUNTIME_PROPERTY, DEFAULT_PARTITION_SIZE);
+			long lower;
+			if (entry != null && min != null) {
+				lower = Long.parseLong(entry);
+				try (Session session = sessionFactory.openSession()) {
+					tracker.indexedCount.set(session.createQuery("select count(e) from " + type.getName() + " e where e."
+					        + idName + " <= :lower", Long.class).setParameter("lower", toIdentifier(lower, idType))
+					        .uniqueResult());
+				}
+				log.info("Resuming the reindexing of {} after identifier {}", type.getName(), lower);
+			} else {
+				mapping.scope(type).workspace().purge();
+				lower = min != null ? min.longValue() - 1 : 0;
+			}
+			if (min != null) {
+				long first = min.longValue() - 1;
+				tracker.partitionCount = (int) ((max.longValue() - first + partitionSize - 1) / partitionSize);
+				tracker.completedPartitions.set((int) ((lower - first) / partitionSize));
+			}
+	
+			while (max != null && lower < max.longValue()) {
+				if (Thread.currentThread().isInterrupted()) {
+					throw new InterruptedException();
+				}
+				long upper = Math.min(lower + partitionSize, max.longValue());
+				MassIndexer indexer = mapping.scope(type).massIndexer()
+				        .typesToIndexInParallel(1)
+				        .threadsToLoadObjects(getSetting(options.getThreadsToLoadObjects(),
+				            OpenmrsConstants.SEARCH_INDEX_THREADS_TO_LOAD_OBJECTS_RUNTIME_PROPERTY,
+				            DEFAULT_THREADS_TO_LOAD_OBJECTS))
+				        .batchSizeToLoadObjects(getSetting(options.getBatchSizeToLoadObjects(),
+				            OpenmrsConstants.SEARCH_INDEX_BATCH_SIZE_RUNTIME_PROPERTY, DEFAULT_BATCH_SIZE_TO_LOAD_OBJECTS))
+				        .idFetchSize(getSetting(options.getIdFetchSize(),
+				            OpenmrsConstants.SEARCH_INDEX_ID_FETCH_SIZE_RUNTIME_PROPERTY, DEFAULT_ID_FETCH_SIZE))
+				        .purgeAllOnStart(false)
+				        .mergeSegmentsOnFinish(false)
+				        .monitor(tracker);
+				indexer.type(type).reindexOnly("e." + idName + " > :lower and e." + idName + " <= :upper")
+				        .param("lower", toIdentifier(lower, idType)).param("upper", toIdentifier(upper, idType));
+				indexer.startAndWait();
+	
+				lower = upper;
+				tracker.completedPartitions.incrementAndGet();
+				saveCheckpoint(type, String.valueOf(upper));
+				log.info("Reindexed {} up to identifier {}, {} of {} entities done", type.getName(), upper,
+				    tracker.indexedCount.get(), tracker.totalCount);
+			}
+	
+			saveCheckpoint(type, CHECKPOINT_COMPLETE);
+			tracker.completed = true;
+		}
+	
+		SearchIndexProgress getProgress() {
+			List<SearchIndexProgress.TypeProgress> types = new ArrayList<>();
+			synchronized (trackers) {
+				for (TypeTracker tracker : trackers.values()) {
+					types.add(tracker.getProgress());
+				}
+			}
+			return new SearchIndexProgress(status, startTime, endTime, error, types);
+		}
+	}
+	
+	/**
+	 * Counts the entities of one type the mass indexers added to the index
+	 */
+	private static class TypeTracker implements MassIndexingMonitor {
+	
+		private final Class<?> type;
+	
+		private final AtomicLong indexedCount = new AtomicLong();
+	
+		private final AtomicInteger completedPartitions = new AtomicInteger();
+	
+		private volatile long totalCount;
+	
+		private volatile int partitionCount;
+	
+		private volatile boolean completed;
+	
+		TypeTracker(Class<?> type) {
+			this.type = type;
+		}
+	
+		@Override
+		public void documentsAdded(long increment) {
+			indexedCount.addAndGet(increment);
+		}
+	
+		@Override
+		public void documentsBuilt(long increment) {
+		}
+	
+		@Override
+		public void entitiesLoaded(long increment) {
+		}
+	
+		@Override
+		public void addToTotalCount(long increment) {
+		}
+	
+		@Override
+		public void indexingCompleted() {
+		}
+	
+		SearchIndexProgress.TypeProgress getProgress() {
+			return new SearchIndexProgress.TypeProgress(type.getName(), totalCount, indexedCount.get(),
+			        completedPartitions.get(), partitionCount, completed);
+		}
+	}
+}
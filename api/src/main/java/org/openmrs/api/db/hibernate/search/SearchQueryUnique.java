@@ -46,6 +46,7 @@ public class SearchQueryUnique<T, R> {
 	Function<T, R> mapper;
 	String uniqueKey;
 	SearchQueryUnique<?, R> joinedQuery;
+	SearchEntityLoader<R> loader;
 
 	public SearchQueryUnique(Class<? extends T> scope, Function<SearchPredicateFactory, SearchPredicate> search,
 							 String uniqueKey, Function<T, R> mapper,
@@ -77,6 +78,13 @@ public class SearchQueryUnique<T, R> {
 		return joinedQuery;
 	}
 
+	/**
+	 * @since 3.0.0
+	 */
+	public SearchEntityLoader<R> getLoader() {
+		return loader;
+	}
+
 	/**
 	 * When joining a query, the algorithm will use the unique key values from the previous query (if any) to
 	 * filter out items using its unique key.
@@ -105,6 +113,29 @@ public class SearchQueryUnique<T, R> {
 		return new SearchQueryUnique<>(scope, search, uniqueKey, mapper, null);
 	}
 
+	/**
+	 * Creates a new query for {@link #search(SearchSessionFactory, SearchQueryUnique)}, which projects
+	 * the ids of the results from the index and loads the results of each page with a single query.
+	 * Prefer it to {@link #newQuery(Class, Function, String, Function)} with a mapper that loads an
+	 * associated entity, which runs at least one query per hit.
+	 * 
+	 * @param scope the index type to be searched
+	 * @param search the search predicate
+	 * @param uniqueKey the field to use as unique key, or <code>null</code> if none
+	 * @param loader the loader of the results from the ids projected from the index
+	 * @return the search
+	 * @param <T> the index type
+	 * @param <R> the result type
+	 * @since 3.0.0
+	 */
+	public static <T,R> SearchQueryUnique<T,R> newQuery(Class<? extends T> scope,
+														Function<SearchPredicateFactory, SearchPredicate> search,
+														String uniqueKey, SearchEntityLoader<R> loader) {
+		SearchQueryUnique<T, R> query = new SearchQueryUnique<>(scope, search, uniqueKey, null, null);
+		query.loader = loader;
+		return query;
+	}
+
 	/**
 	 * See {@link #newQuery(Class, Function, String, Function)}.
 	 * 
@@ -224,7 +255,7 @@ public class SearchQueryUnique<T, R> {
 			SearchScope<?> scope = searchSession.scope(nextQuery.getScope());
 			SearchPredicateFactory predicateFactory = scope.predicate();
 			SearchPredicate searchPredicate = nextQuery.getSearch().apply(predicateFactory);
-			SearchQuery<?> query;
+			SearchPredicate uniquePredicate;
 
 			final Collection<Object> previousQueryUniqueKeys = new ArrayList<>(uniqueKeys);
 			
@@ -263,18 +294,31 @@ public class SearchQueryUnique<T, R> {
 					uniqueKeys = new ArrayList<>(uniqueKeys).subList(0, maxClauseCount);
 				}
 				
-				query = searchSession.search(scope).where(f -> f.bool().with(b -> {
+				uniquePredicate = predicateFactory.bool().with(b -> {
 					b.must(searchPredicate);
 					if (!duplicateIds.isEmpty()) {
-						b.filter(f.not(f.id().matchingAny(duplicateIds)));
+						b.filter(predicateFactory.not(predicateFactory.id().matchingAny(duplicateIds)));
 					}
 					// Get rid of unique keys that were added to results in a previous query
 					if (!previousQueryUniqueKeys.isEmpty()) {
-						b.filter(f.not(f.terms().field(uniqueKey).matchingAny(previousQueryUniqueKeys)));
+						b.filter(predicateFactory.not(predicateFactory.terms().field(uniqueKey)
+							.matchingAny(previousQueryUniqueKeys)));
 					}
-				})).toQuery();
+				}).toPredicate();
 			} else {
-				query = searchSession.search(scope).where(searchPredicate).toQuery();
+				uniquePredicate = searchPredicate;
+			}
+
+			final SearchEntityLoader<?> loader = nextQuery.getLoader();
+			SearchQuery<?> query;
+			if (loader == null) {
+				query = searchSession.search(scope).where(uniquePredicate).toQuery();
+			} else if (loader.getIdField() != null) {
+				// Only ids are read from the index, the results are loaded from them below
+				query = searchSession.search(scope).select(f -> f.field(loader.getIdField())).where(uniquePredicate)
+					.toQuery();
+			} else {
+				query = searchSession.search(scope).select(f -> f.id()).where(uniquePredicate).toQuery();
 			}
 
 			List<?> partialResults;
@@ -287,7 +331,10 @@ public class SearchQueryUnique<T, R> {
 			}
 
 			if (!partialResults.isEmpty()) {
-				if (nextQuery.getMapper() != null) {
+				if (loader != null) {
+					//noinspection unchecked
+					results.addAll((Collection<? extends T>) loader.load(searchSession.toOrmSession(), partialResults));
+				} else if (nextQuery.getMapper() != null) {
 					//noinspection unchecked
 					results.addAll(partialResults.stream().map((Function<Object, T>) nextQuery.getMapper()).collect(Collectors.toList()));
 				} else {
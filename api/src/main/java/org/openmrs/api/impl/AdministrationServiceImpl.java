@@ -43,6 +43,8 @@ import org.openmrs.api.APIException;
 import org.openmrs.api.AdministrationService;
 import org.openmrs.api.EventListeners;
 import org.openmrs.api.GlobalPropertyListener;
+import org.openmrs.api.cache.GlobalPropertyCache;
+import org.openmrs.api.cache.GlobalPropertyCache.CachedGlobalProperty;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.AdministrationDAO;
 import org.openmrs.customdatatype.CustomDatatype;
@@ -50,6 +52,7 @@ import org.openmrs.customdatatype.CustomDatatypeUtil;
 import org.openmrs.customdatatype.CustomValueDescriptor;
 import org.openmrs.customdatatype.Customizable;
 import org.openmrs.customdatatype.SingleCustomValue;
+import org.openmrs.hl7.HL7ResolutionCache;
 import org.openmrs.layout.LayoutSupport;
 import org.openmrs.layout.LayoutTemplate;
 import org.openmrs.messagesource.PresentationMessage;
@@ -91,6 +94,10 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 	
 	private HttpClient implementationIdHttpClient;
 	
+	private GlobalPropertyCache globalPropertyCache;
+	
+	private HL7ResolutionCache hl7ResolutionCache;
+	
 	/**
 	 * Default empty constructor
 	 */
@@ -108,6 +115,23 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 	public void setEventListeners(EventListeners eventListeners) {
 		this.eventListeners = eventListeners;
 	}
+	
+	/**
+	 * @param globalPropertyCache the cache of global property values, which must also be registered
+	 *            as a {@link GlobalPropertyListener} to be kept up to date
+	 * @since 3.0.0
+	 */
+	public void setGlobalPropertyCache(GlobalPropertyCache globalPropertyCache) {
+		this.globalPropertyCache = globalPropertyCache;
+	}
+	
+	/**
+	 * @param hl7ResolutionCache the cache of ids resolved for HL7 messages
+	 * @since 3.0.0
+	 */
+	public void setHl7ResolutionCache(HL7ResolutionCache hl7ResolutionCache) {
+		this.hl7ResolutionCache = hl7ResolutionCache;
+	}
 		
 	/**
 	 * Static-ish variable used to cache the system variables. This is not static so that every time
@@ -164,17 +188,33 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 			return null;
 		}
 		
-		GlobalProperty gp = dao.getGlobalPropertyObject(propertyName);
-		if (gp != null) {
-			if (canViewGlobalProperty(gp)) {
-				return gp.getPropertyValue();
-			} else {
-				throw new APIException("GlobalProperty.error.privilege.required.view", new Object[] {
-					gp.getViewPrivilege().getPrivilege(), propertyName });
-			}
+		CachedGlobalProperty gp = getCachedGlobalProperty(propertyName);
+		return gp != null ? gp.getPropertyValue() : null;
+	}
+	
+	/**
+	 * Gets the cached snapshot of the given global property, checking that the authenticated user
+	 * may view it
+	 * 
+	 * @param propertyName the name of the property
+	 * @return the snapshot or null if the property does not exist
+	 */
+	private CachedGlobalProperty getCachedGlobalProperty(String propertyName) {
+		CachedGlobalProperty gp;
+		if (globalPropertyCache != null) {
+			gp = globalPropertyCache.get(propertyName, dao::getGlobalPropertyObject);
 		} else {
+			gp = GlobalPropertyCache.uncached(dao.getGlobalPropertyObject(propertyName));
+		}
+		
+		if (gp.getPropertyValue() == null && gp.getViewPrivilege() == null) {
 			return null;
 		}
+		if (gp.getViewPrivilege() != null && !Context.getAuthenticatedUser().hasPrivilege(gp.getViewPrivilege())) {
+			throw new APIException("GlobalProperty.error.privilege.required.view", new Object[] { gp.getViewPrivilege(),
+			        propertyName });
+		}
+		return gp;
 	}
 	
 	private boolean canViewGlobalProperty(GlobalProperty property) {
@@ -280,6 +320,9 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 		
 		gp.setPropertyValue(propertyValue);
 		dao.saveGlobalProperty(gp);
+		if (globalPropertyCache != null) {
+			globalPropertyCache.evict(propertyName);
+		}
 	}
 	
 	/**
@@ -400,7 +443,15 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 			return null;
 		}
 		
-		return dao.executeSQL(sql, selectOnly);
+		List<List<Object>> result = dao.executeSQL(sql, selectOnly);
+		// the statement may have changed global properties or metadata without going through the API
+		if (!selectOnly && globalPropertyCache != null) {
+			globalPropertyCache.clear();
+		}
+		if (!selectOnly && hl7ResolutionCache != null) {
+			hl7ResolutionCache.clear();
+		}
+		return result;
 	}
 	
 	/**
@@ -731,24 +782,51 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 			throw new IllegalArgumentException("The defaultValue argument cannot be null");
 		}
 		
-		String propVal = Context.getAdministrationService().getGlobalProperty(propertyName);
-		if (StringUtils.isEmpty(propVal)) {
+		if (propertyName == null) {
 			return defaultValue;
 		}
 		
+		CachedGlobalProperty gp = getCachedGlobalProperty(propertyName);
+		if (gp == null || StringUtils.isEmpty(gp.getPropertyValue())) {
+			return defaultValue;
+		}
+		
+		Class<T> type = (Class<T>) defaultValue.getClass();
+		T value;
+		if (isImmutableValueType(type)) {
+			value = gp.getTypedValue(type, propVal -> convertGlobalPropertyValue(type, propVal));
+		} else {
+			value = convertGlobalPropertyValue(type, gp.getPropertyValue());
+		}
+		return value != null ? value : defaultValue;
+	}
+	
+	/**
+	 * Converted values are only cached for types whose instances cannot be modified by the caller
+	 */
+	private static boolean isImmutableValueType(Class<?> type) {
+		return String.class.equals(type) || Boolean.class.equals(type) || Character.class.equals(type)
+		        || (Number.class.isAssignableFrom(type) && (type.getName().startsWith("java.lang.")
+		        || type.getName().startsWith("java.math.")));
+	}
+	
+	/**
+	 * @return the value converted with the String constructor of the type or null if it could not be
+	 *         converted
+	 */
+	private <T> T convertGlobalPropertyValue(Class<T> type, String propVal) {
 		try {
-			return (T) defaultValue.getClass().getDeclaredConstructor(String.class).newInstance(propVal);
+			return type.getDeclaredConstructor(String.class).newInstance(propVal);
 		}
 		catch (InstantiationException e) {
-			throw new APIException("is.not.able.instantiated", new Object[] { defaultValue.getClass().getName(), propVal },
-			        e);
+			throw new APIException("is.not.able.instantiated", new Object[] { type.getName(), propVal }, e);
 		}
 		catch (NoSuchMethodException e) {
-			throw new APIException("does.not.have.string.constructor", new Object[] { defaultValue.getClass().getName() }, e);
+			throw new APIException("does.not.have.string.constructor", new Object[] { type.getName() }, e);
 		}
 		catch (Exception e) {
-			log.error("Unable to turn value '" + propVal + "' into type " + defaultValue.getClass().getName(), e);
-			return defaultValue;
+			log.error("Unable to turn value '" + propVal + "' into type " + type.getName(), e);
+			return null;
 		}
 	}
 	
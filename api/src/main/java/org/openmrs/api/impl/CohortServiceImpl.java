@@ -23,6 +23,7 @@ import org.openmrs.api.APIException;
 import org.openmrs.api.CohortService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.CohortDAO;
+import org.openmrs.collection.PatientIdBitmap;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.util.PrivilegeConstants;
 import org.slf4j.Logger;
@@ -279,4 +280,24 @@ public class CohortServiceImpl extends BaseOpenmrsService implements CohortServi
 		}
 		return dao.getCohortMemberships(patientId, activeOnDate, includeVoided);
 	}
+	
+	/**
+	 * @see org.openmrs.api.CohortService#getMemberBitmap(org.openmrs.Cohort, java.util.Date)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public PatientIdBitmap getMemberBitmap(Cohort cohort, Date activeOnDate) {
+		if (cohort == null) {
+			throw new IllegalArgumentException("cohort is required");
+		}
+		if (cohort.getCohortId() != null) {
+			return dao.getMemberBitmap(cohort.getCohortId(), activeOnDate);
+		}
+		if (activeOnDate == null) {
+			return cohort.getMemberBitmap();
+		}
+		PatientIdBitmap members = new PatientIdBitmap();
+		cohort.getActiveMemberships(activeOnDate).forEach(m -> members.add(m.getPatientId()));
+		return members;
+	}
 }
@@ -66,6 +66,7 @@ import org.openmrs.api.context.Context;
 import org.openmrs.api.db.ConceptDAO;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.customdatatype.CustomDatatypeUtil;
+import org.openmrs.util.ConceptReferenceRangeUtility;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.validator.ObsValidator;
@@ -185,6 +186,8 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 		if (!concept.getSet() && (!concept.getSetMembers().isEmpty())) {
 			concept.setSet(true);
 		}
+		
+		ConceptReferenceRangeUtility.clearCompiledCriteria(concept);
 
 		return dao.saveConcept(concept);
 	}
@@ -282,6 +285,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 			}
 		}
 		
+		ConceptReferenceRangeUtility.clearCompiledCriteria(concept);
 		dao.purgeConcept(concept);
 	}
 	
@@ -2070,6 +2074,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 */
 	@Override
 	public ConceptReferenceRange saveConceptReferenceRange(ConceptReferenceRange conceptReferenceRange) {
+		ConceptReferenceRangeUtility.clearCompiledCriteria(conceptReferenceRange);
 		return dao.saveConceptReferenceRange(conceptReferenceRange);
 	}
 
@@ -2150,6 +2155,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	@Override
 	public void purgeConceptReferenceRange(ConceptReferenceRange conceptReferenceRange) {
 		checkIfLocked();
+		ConceptReferenceRangeUtility.clearCompiledCriteria(conceptReferenceRange);
 		dao.purgeConceptReferenceRange(conceptReferenceRange);
 	}
 }
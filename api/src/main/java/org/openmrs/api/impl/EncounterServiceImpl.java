@@ -12,10 +12,13 @@ package org.openmrs.api.impl;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -40,6 +43,7 @@ import org.openmrs.api.EncounterService;
 import org.openmrs.api.EncounterTypeLockedException;
 import org.openmrs.api.ObsService;
 import org.openmrs.api.OrderService;
+import org.openmrs.api.context.CompiledPrivileges;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.EncounterDAO;
 import org.openmrs.api.handler.EncounterVisitHandler;
@@ -51,6 +55,8 @@ import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.util.PrivilegeConstants;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Default implementation of the {@link EncounterService}
@@ -66,6 +72,18 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	
 	private EncounterDAO dao;
 	
+	/**
+	 * The encounter types each user may view keyed by user id, entries are rebuilt once any user, role,
+	 * privilege or encounter type has changed
+	 */
+	private final Map<Integer, ViewableEncounterTypes> viewableEncounterTypesCache = new ConcurrentHashMap<>();
+	
+	/**
+	 * Incremented whenever an encounter type is saved or purged and again once the transaction doing
+	 * so completes
+	 */
+	private final AtomicLong encounterTypesVersion = new AtomicLong();
+	
 	/**
 	 * @see org.openmrs.api.EncounterService#setEncounterDAO(org.openmrs.api.db.EncounterDAO)
 	 */
@@ -84,8 +102,7 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 			throw new IllegalArgumentException("The 'query' parameter is required and cannot be null");
 		}
 		
-		return Context.getEncounterService().filterEncountersByViewPermissions(
-		    dao.getEncounters(query, null, null, null, includeVoided), null);
+		return dao.getEncounters(query, null, null, null, includeVoided, getViewableEncounterTypeIds());
 	}
 	
 	/**
@@ -397,9 +414,8 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	 */
 	@Override
 	public List<Encounter> getEncounters(EncounterSearchCriteria encounterSearchCriteria) {
-		// the second search parameter is null as it defaults to authenticated user from context
-		return Context.getEncounterService().filterEncountersByViewPermissions(dao.getEncounters(encounterSearchCriteria),
-		    null);
+		// encounters of types the authenticated user may not view are excluded by the query
+		return dao.getEncounters(encounterSearchCriteria, getViewableEncounterTypeIds());
 	}
 	
 	/**
@@ -535,6 +551,7 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 		Context.getEncounterService().checkIfEncounterTypesAreLocked();
 		
 		dao.saveEncounterType(encounterType);
+		encounterTypesChanged();
 		return encounterType;
 	}
 	
@@ -620,6 +637,7 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 		Context.getEncounterService().checkIfEncounterTypesAreLocked();
 		
 		dao.deleteEncounterType(encounterType);
+		encounterTypesChanged();
 	}
 	
 	/**
@@ -657,8 +675,7 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	@Transactional(readOnly = true)
 	public List<Encounter> getEncounters(String query, Integer start, Integer length, boolean includeVoided)
 	    throws APIException {
-		return Context.getEncounterService().filterEncountersByViewPermissions(
-		    dao.getEncounters(query, null, start, length, includeVoided), null);
+		return dao.getEncounters(query, null, start, length, includeVoided, getViewableEncounterTypeIds());
 	}
 	
 	/**
@@ -669,8 +686,7 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	@Transactional(readOnly = true)
 	public List<Encounter> getEncounters(String query, Integer patientId, Integer start, Integer length,
 	                                     boolean includeVoided) throws APIException {
-		return Context.getEncounterService().filterEncountersByViewPermissions(
-		    dao.getEncounters(query, patientId, start, length, includeVoided), null);
+		return dao.getEncounters(query, patientId, start, length, includeVoided, getViewableEncounterTypeIds());
 	}
 	
 	/**
@@ -679,7 +695,8 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	@Override
 	@Transactional(readOnly = true)
 	public Integer getCountOfEncounters(String query, boolean includeVoided) {
-		return OpenmrsUtil.convertToInteger(dao.getCountOfEncounters(query, null, includeVoided));
+		return OpenmrsUtil.convertToInteger(dao.getCountOfEncounters(query, null, includeVoided,
+		    getViewableEncounterTypeIds()));
 	}
 	
 	/**
@@ -831,8 +848,8 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	@Transactional(readOnly = true)
 	public List<Encounter> getEncountersByVisitsAndPatient(Patient patient, boolean includeVoided, String query,
 	                                                       Integer start, Integer length) throws APIException {
-		return Context.getEncounterService().filterEncountersByViewPermissions(
-		    dao.getEncountersByVisitsAndPatient(patient, includeVoided, query, start, length), null);
+		return dao.getEncountersByVisitsAndPatient(patient, includeVoided, query, start, length,
+		    getViewableEncounterTypeIds());
 	}
 	
 	/**
@@ -843,7 +860,7 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	@Transactional(readOnly = true)
 	public Integer getEncountersByVisitsAndPatientCount(Patient patient, boolean includeVoided, String query)
 	    throws APIException {
-		return dao.getEncountersByVisitsAndPatientCount(patient, includeVoided, query);
+		return dao.getEncountersByVisitsAndPatientCount(patient, includeVoided, query, getViewableEncounterTypeIds());
 	}
 	
 	/**
@@ -948,6 +965,64 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 		return userHasEncounterPrivilege(encounter.getEncounterType().getViewPrivilege(), user);
 	}
 	
+	/**
+	 * Marks the cached viewable encounter types as stale, now so that the current transaction sees
+	 * its own changes and again once it completes so that entries other threads built from the data
+	 * before the commit are not kept
+	 */
+	private void encounterTypesChanged() {
+		encounterTypesVersion.incrementAndGet();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				
+				@Override
+				public void afterCompletion(int status) {
+					encounterTypesVersion.incrementAndGet();
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Gets the ids of the encounter types whose encounters the authenticated user may view so that
+	 * queries can exclude the others, the result is cached per user until any user, role, privilege or
+	 * encounter type changes
+	 * 
+	 * @return the ids of the viewable encounter types or null if the user may view all of them
+	 */
+	private Set<Integer> getViewableEncounterTypeIds() {
+		User user = Context.getAuthenticatedUser();
+		
+		// read the versions first so that changes made while building trigger another rebuild
+		long privilegesVersion = CompiledPrivileges.getVersion();
+		long typesVersion = encounterTypesVersion.get();
+		
+		Integer userId = user != null ? user.getUserId() : null;
+		if (userId != null) {
+			ViewableEncounterTypes cached = viewableEncounterTypesCache.get(userId);
+			if (cached != null && cached.isValidFor(privilegesVersion, typesVersion)) {
+				return cached.encounterTypeIds;
+			}
+		}
+		
+		Set<Integer> encounterTypeIds = new HashSet<>();
+		boolean canViewAll = true;
+		for (EncounterType et : dao.getAllEncounterTypes(true)) {
+			if (et.getViewPrivilege() == null || (user != null && userHasEncounterPrivilege(et.getViewPrivilege(), user))) {
+				encounterTypeIds.add(et.getEncounterTypeId());
+			} else {
+				canViewAll = false;
+			}
+		}
+		
+		ViewableEncounterTypes viewable = new ViewableEncounterTypes(canViewAll ? null : encounterTypeIds,
+		        privilegesVersion, typesVersion);
+		if (userId != null) {
+			viewableEncounterTypesCache.put(userId, viewable);
+		}
+		return viewable.encounterTypeIds;
+	}
+	
 	/**
 	 * Convenient method that safely checks if user has given encounter privilege
 	 * 
@@ -1000,4 +1075,27 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 		
 		return saveEncounter(encounterCopy);
 	}
+	
+	/**
+	 * The encounter types a user may view, stamped with the versions it was built from
+	 */
+	private static class ViewableEncounterTypes {
+		
+		private final Set<Integer> encounterTypeIds;
+		
+		private final long privilegesVersion;
+		
+		private final long encounterTypesVersion;
+		
+		ViewableEncounterTypes(Set<Integer> encounterTypeIds, long privilegesVersion, long encounterTypesVersion) {
+			this.encounterTypeIds = encounterTypeIds;
+			this.privilegesVersion = privilegesVersion;
+			this.encounterTypesVersion = encounterTypesVersion;
+		}
+		
+		boolean isValidFor(long privilegesVersion, long encounterTypesVersion) {
+			return this.privilegesVersion == privilegesVersion
+			        && this.encounterTypesVersion == encounterTypesVersion;
+		}
+	}
 }
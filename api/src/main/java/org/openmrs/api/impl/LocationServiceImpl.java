@@ -25,6 +25,7 @@ import org.openmrs.api.LocationService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.LocationDAO;
 import org.openmrs.customdatatype.CustomDatatypeUtil;
+import org.openmrs.hl7.HL7ResolutionCache;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.springframework.transaction.annotation.Transactional;
@@ -45,6 +46,8 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 	
 	private LocationDAO dao;
 	
+	private HL7ResolutionCache hl7ResolutionCache;
+	
 	/**
 	 * @see org.openmrs.api.LocationService#setLocationDAO(org.openmrs.api.db.LocationDAO)
 	 */
@@ -53,11 +56,30 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 		this.dao = dao;
 	}
 	
+	/**
+	 * @param hl7ResolutionCache the cache of ids resolved for HL7 messages
+	 * @since 3.0.0
+	 */
+	public void setHl7ResolutionCache(HL7ResolutionCache hl7ResolutionCache) {
+		this.hl7ResolutionCache = hl7ResolutionCache;
+	}
+	
+	/**
+	 * Evicts the ids cached for HL7 messages, now and again once the current transaction completes,
+	 * see {@link HL7ResolutionCache#evict(String)}
+	 */
+	private void evictHl7Ids() {
+		if (hl7ResolutionCache != null) {
+			hl7ResolutionCache.evict(HL7ResolutionCache.LOCATION_IDS);
+		}
+	}
+	
 	/**
 	 * @see org.openmrs.api.LocationService#saveLocation(org.openmrs.Location)
 	 */
 	@Override
 	public Location saveLocation(Location location) throws APIException {
+		evictHl7Ids();
 		if (location.getName() == null) {
 			throw new APIException("Location.name.required", (Object[]) null);
 		}
@@ -248,6 +270,7 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 	 */
 	@Override
 	public Location retireLocation(Location location, String reason) throws APIException {
+		evictHl7Ids();
 		location.setRetired(true);
 		location.setRetireReason(reason);
 		return Context.getLocationService().saveLocation(location);
@@ -258,6 +281,7 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 	 */
 	@Override
 	public Location unretireLocation(Location location) throws APIException {
+		evictHl7Ids();
 		location.setRetired(false);
 		return Context.getLocationService().saveLocation(location);
 	}
@@ -267,6 +291,7 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 	 */
 	@Override
 	public void purgeLocation(Location location) throws APIException {
+		evictHl7Ids();
 		dao.deleteLocation(location);
 	}
 	
@@ -10,10 +10,17 @@
 package org.openmrs.api.impl;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.openmrs.Concept;
 import org.openmrs.ConceptName;
@@ -25,6 +32,7 @@ import org.openmrs.Person;
 import org.openmrs.Visit;
 import org.openmrs.aop.RequiredDataAdvice;
 import org.openmrs.api.APIException;
+import org.openmrs.api.BatchSaveResult;
 import org.openmrs.api.EncounterService;
 import org.openmrs.api.ObsService;
 import org.openmrs.api.PatientService;
@@ -33,10 +41,12 @@ import org.openmrs.api.db.ObsDAO;
 import org.openmrs.api.handler.SaveHandler;
 import org.openmrs.obs.ComplexData;
 import org.openmrs.obs.ComplexObsHandler;
+import org.openmrs.parameter.ObsSearchCriteria;
 import org.openmrs.util.OpenmrsClassLoader;
 import org.openmrs.util.OpenmrsConstants.PERSON_TYPE;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.util.PrivilegeConstants;
+import org.openmrs.validator.ValidateUtil;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -58,6 +68,18 @@ public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 	 */
 	private static Map<String, ComplexObsHandler> handlers = null;
 	
+	/**
+	 * The number of obs saved by {@link #saveObsBatch(List, String)} between flushes of the session, matches
+	 * the hibernate.jdbc.batch_size so that each flush can be sent as a single JDBC batch
+	 */
+	private static final int BATCH_SAVE_FLUSH_SIZE = 50;
+	
+	/**
+	 * The number of obs read at once by {@link #getObservationStream(ObsSearchCriteria)} if the
+	 * criteria do not set a maximum number of results
+	 */
+	private static final int OBS_STREAM_PAGE_SIZE = 1000;
+	
 	/**
 	 * Default empty constructor for this obs service
 	 */
@@ -88,6 +110,67 @@ public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 	 */
 	@Override
 	public Obs saveObs(Obs obs, String changeMessage) throws APIException {
+		checkObsCanBeSaved(obs, changeMessage);
+
+		return saveCheckedObs(obs, changeMessage);
+	}
+	
+	/**
+	 * @see org.openmrs.api.ObsService#saveObsBatch(List, String)
+	 */
+	@Override
+	public BatchSaveResult<Obs> saveObsBatch(List<Obs> obs, String changeMessage) throws APIException {
+		BatchSaveResult<Obs> result = new BatchSaveResult<>();
+		List<Obs> savedSinceFlush = new ArrayList<>(BATCH_SAVE_FLUSH_SIZE);
+		int index = 0;
+		for (Obs o : obs) {
+			int i = index++;
+			// the required data handlers and validation are skipped by RequiredDataAdvice for this method
+			// so that a rejected obs can be reported without aborting the whole batch
+			try {
+				if (o != null) {
+					RequiredDataAdvice.recursivelyHandle(SaveHandler.class, o, changeMessage);
+					ValidateUtil.validate(o);
+				}
+				checkObsCanBeSaved(o, changeMessage);
+			}
+			catch (APIException e) {
+				result.addFailure(i, e);
+				// the save handlers may already have changed a rejected obs which is managed by the
+				// session, make sure those changes are not flushed with the obs saved after it
+				if (o != null) {
+					evictObsAndChildren(o);
+				}
+				continue;
+			}
+			
+			Obs saved = saveCheckedObs(o, changeMessage);
+			result.addSaved(saved);
+			savedSinceFlush.add(saved);
+			
+			// write out the pending statements in batches and stop tracking the saved obs so that the
+			// session does not grow with the size of the list
+			if (savedSinceFlush.size() == BATCH_SAVE_FLUSH_SIZE) {
+				flushAndEvict(savedSinceFlush);
+			}
+		}
+		flushAndEvict(savedSinceFlush);
+		
+		return result;
+	}
+	
+	private void flushAndEvict(List<Obs> savedObs) {
+		if (savedObs.isEmpty()) {
+			return;
+		}
+		Context.flushSession();
+		for (Obs o : savedObs) {
+			evictObsAndChildren(o);
+		}
+		savedObs.clear();
+	}
+	
+	private void checkObsCanBeSaved(Obs obs, String changeMessage) {
 		if(obs == null){
 			throw new APIException("Obs.error.cannot.be.null", (Object[]) null);
 		}
@@ -96,9 +179,11 @@ public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 			throw new APIException("Obs.error.ChangeMessage.required", (Object[]) null);
 		}
 
-		handleExistingObsWithComplexConcept(obs);
-
 		ensureRequirePrivilege(obs);
+	}
+	
+	private Obs saveCheckedObs(Obs obs, String changeMessage) {
+		handleExistingObsWithComplexConcept(obs);
 
 		//Should allow updating a voided Obs, it seems to be pointless to restrict it,
 		//otherwise operations like merge patients won't be possible when to moving voided obs
@@ -365,6 +450,72 @@ public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 				mostRecentN, obsGroupId, fromDate, toDate, includeVoidedObs, accessionNumber);
 	}
 	
+	/**
+	 * @see org.openmrs.api.ObsService#getObservations(ObsSearchCriteria)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<Obs> getObservations(ObsSearchCriteria searchCriteria) throws APIException {
+		return dao.getObservations(searchCriteria);
+	}
+	
+	/**
+	 * @see org.openmrs.api.ObsService#getObservationStream(ObsSearchCriteria)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Stream<Obs> getObservationStream(ObsSearchCriteria searchCriteria) throws APIException {
+		Integer maxResults = searchCriteria.getMaxResults();
+		int pageSize = maxResults != null && maxResults > 0 ? maxResults : OBS_STREAM_PAGE_SIZE;
+		ObsSearchCriteria firstPage = new ObsSearchCriteria(searchCriteria.getPersons(), searchCriteria.getEncounters(),
+		        searchCriteria.getConcepts(), searchCriteria.getValueCodedAnswers(), searchCriteria.getLocations(),
+		        searchCriteria.getVisits(), searchCriteria.getFromDate(), searchCriteria.getToDate(),
+		        searchCriteria.getIncludeVoided(), searchCriteria.getAfterObsDatetime(), searchCriteria.getAfterObsId(),
+		        pageSize);
+		
+		Iterator<Obs> pages = new Iterator<Obs>() {
+			
+			private ObsSearchCriteria nextPage = firstPage;
+			
+			private List<Obs> page = Collections.emptyList();
+			
+			private int position;
+			
+			private boolean lastPage;
+			
+			@Override
+			public boolean hasNext() {
+				if (position < page.size()) {
+					return true;
+				}
+				if (lastPage) {
+					return false;
+				}
+				for (Obs obs : page) {
+					Context.evictFromSession(obs);
+				}
+				// each page is read in its own transaction unless the stream is consumed within one
+				page = Context.getObsService().getObservations(nextPage);
+				position = 0;
+				lastPage = page.size() < pageSize;
+				if (!page.isEmpty()) {
+					nextPage = nextPage.after(page.get(page.size() - 1));
+				}
+				return !page.isEmpty();
+			}
+			
+			@Override
+			public Obs next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return page.get(position++);
+			}
+		};
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED | Spliterator.NONNULL),
+		    false);
+	}
+	
 	/**
 	 * @see org.openmrs.api.ObsService#getObservations(java.util.List, java.util.List,
 	 *      java.util.List, java.util.List, List, List, java.util.List, java.util.List, java.lang.Integer,
@@ -46,6 +46,7 @@ import org.openmrs.api.OrderEntryException;
 import org.openmrs.api.OrderNumberGenerator;
 import org.openmrs.api.OrderService;
 import org.openmrs.api.UnchangeableObjectException;
+import org.openmrs.api.cache.GlobalPropertyCache;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.OrderDAO;
 import org.openmrs.customdatatype.CustomDatatypeUtil;
@@ -53,6 +54,7 @@ import org.openmrs.order.OrderUtil;
 import org.openmrs.parameter.OrderSearchCriteria;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
+import org.openmrs.util.PrivilegeConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.transaction.annotation.Propagation;
@@ -68,6 +70,9 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static org.openmrs.Order.Action.DISCONTINUE;
 import static org.openmrs.Order.Action.REVISE;
@@ -90,8 +95,28 @@ public class OrderServiceImpl extends BaseOpenmrsService implements OrderService
 	protected OrderDAO dao;
 	
 	private static OrderNumberGenerator orderNumberGenerator = null;
+	
+	/**
+	 * Saving an order checks and changes the active orders of the patient, so saves for the same
+	 * patient are serialized while saves for different patients are not
+	 */
+	private static final int PATIENT_LOCK_STRIPES = 64;
+	
+	private final Lock[] patientLocks = new Lock[PATIENT_LOCK_STRIPES];
+	
+	/**
+	 * The order number seeds reserved by this server that have not been handed out yet
+	 */
+	private volatile OrderNumberSeedBlock orderNumberSeedBlock = new OrderNumberSeedBlock(0, 0);
+	
+	private final Object orderNumberSeedBlockLock = new Object();
+	
+	private GlobalPropertyCache globalPropertyCache;
 
 	public OrderServiceImpl() {
+		for (int i = 0; i < PATIENT_LOCK_STRIPES; i++) {
+			patientLocks[i] = new ReentrantLock();
+		}
 	}
 	
 	/**
@@ -102,12 +127,20 @@ public class OrderServiceImpl extends BaseOpenmrsService implements OrderService
 		this.dao = dao;
 	}
 	
+	/**
+	 * @param globalPropertyCache the cache of global property values
+	 * @since 3.0.0
+	 */
+	public void setGlobalPropertyCache(GlobalPropertyCache globalPropertyCache) {
+		this.globalPropertyCache = globalPropertyCache;
+	}
+	
 	/**
 	 * @see org.openmrs.api.OrderService#saveOrder(org.openmrs.Order, org.openmrs.api.OrderContext)
 	 */
 	@Override
-	public synchronized Order saveOrder(Order order, OrderContext orderContext) throws APIException {
-		return saveOrder(order, orderContext, false);
+	public Order saveOrder(Order order, OrderContext orderContext) throws APIException {
+		return saveOrderLockingPatient(order, orderContext, false);
 	}
 	
 	/**
@@ -151,8 +184,25 @@ public class OrderServiceImpl extends BaseOpenmrsService implements OrderService
 	 * @see org.openmrs.api.OrderService#saveOrder(org.openmrs.Order, org.openmrs.api.OrderContext)
 	 */
 	@Override
-	public synchronized Order saveRetrospectiveOrder(Order order, OrderContext orderContext) {
-		return saveOrder(order, orderContext, true);
+	public Order saveRetrospectiveOrder(Order order, OrderContext orderContext) {
+		return saveOrderLockingPatient(order, orderContext, true);
+	}
+	
+	private Order saveOrderLockingPatient(Order order, OrderContext orderContext, boolean isRetrospective) {
+		Lock lock = getPatientLock(order.getPatient());
+		lock.lock();
+		try {
+			return saveOrder(order, orderContext, isRetrospective);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+	
+	private Lock getPatientLock(Patient patient) {
+		// orders without a patient are rejected by the validator, they just share a stripe until then
+		int hash = patient != null && patient.getUuid() != null ? patient.getUuid().hashCode() : 0;
+		return patientLocks[Math.floorMod(hash, PATIENT_LOCK_STRIPES)];
 	}
 
 	private Order saveOrder(Order order, OrderContext orderContext, boolean isRetrospective) {
@@ -674,9 +724,68 @@ public class OrderServiceImpl extends BaseOpenmrsService implements OrderService
 	 * @see org.openmrs.api.OrderService#getNextOrderNumberSeedSequenceValue()
 	 */
 	@Override
-	@Transactional(propagation = Propagation.REQUIRES_NEW)
-	public synchronized Long getNextOrderNumberSeedSequenceValue() {
-		return dao.getNextOrderNumberSeedSequenceValue();
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public Long getNextOrderNumberSeedSequenceValue() {
+		Long seed = orderNumberSeedBlock.next();
+		if (seed != null) {
+			return seed;
+		}
+		
+		// only one thread at a time reserves a block, the others take their seed from it once it is
+		// available. The block is reserved in a transaction of its own which is committed by the time
+		// the dao returns, so a block is only published once it can no longer be rolled back
+		synchronized (orderNumberSeedBlockLock) {
+			seed = orderNumberSeedBlock.next();
+			if (seed != null) {
+				return seed;
+			}
+			
+			int blockSize = getOrderNumberSeedBlockSize();
+			long first = dao.getNextOrderNumberSeedSequenceValues(blockSize);
+			OrderNumberSeedBlock reserved = new OrderNumberSeedBlock(first, first + blockSize);
+			seed = reserved.next();
+			orderNumberSeedBlock = reserved;
+			
+			// the seed is advanced directly in the database
+			if (globalPropertyCache != null) {
+				globalPropertyCache.evict(OpenmrsConstants.GP_NEXT_ORDER_NUMBER_SEED);
+			}
+			return seed;
+		}
+	}
+	
+	private int getOrderNumberSeedBlockSize() {
+		try {
+			Context.addProxyPrivilege(PrivilegeConstants.GET_GLOBAL_PROPERTIES);
+			return Math.max(1, Context.getAdministrationService().getGlobalPropertyValue(
+			    OpenmrsConstants.GP_ORDER_NUMBER_SEED_BLOCK_SIZE, 1));
+		}
+		finally {
+			Context.removeProxyPrivilege(PrivilegeConstants.GET_GLOBAL_PROPERTIES);
+		}
+	}
+	
+	/**
+	 * A range of order number seeds reserved in the database, handed out without locking
+	 */
+	private static final class OrderNumberSeedBlock {
+		
+		private final AtomicLong next;
+		
+		private final long end;
+		
+		private OrderNumberSeedBlock(long first, long end) {
+			this.next = new AtomicLong(first);
+			this.end = end;
+		}
+		
+		/**
+		 * @return the next seed or null if the block is used up
+		 */
+		private Long next() {
+			long seed = next.getAndIncrement();
+			return seed < end ? seed : null;
+		}
 	}
 	
 	/**
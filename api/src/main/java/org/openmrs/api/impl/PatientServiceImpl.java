@@ -45,6 +45,7 @@ import org.openmrs.Visit;
 import org.openmrs.api.APIException;
 import org.openmrs.api.BlankIdentifierException;
 import org.openmrs.api.DuplicateIdentifierException;
+import org.openmrs.api.DuplicatePatientCandidate;
 import org.openmrs.api.EncounterService;
 import org.openmrs.api.InsufficientIdentifiersException;
 import org.openmrs.api.MissingRequiredIdentifierException;
@@ -59,8 +60,10 @@ import org.openmrs.api.VisitService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.PatientDAO;
 import org.openmrs.api.db.hibernate.HibernateUtil;
+import org.openmrs.hl7.HL7ResolutionCache;
 import org.openmrs.parameter.EncounterSearchCriteria;
 import org.openmrs.parameter.EncounterSearchCriteriaBuilder;
+import org.openmrs.patient.DuplicatePatientKeyGenerator;
 import org.openmrs.patient.IdentifierValidator;
 import org.openmrs.patient.impl.LuhnIdentifierValidator;
 import org.openmrs.person.PersonMergeLog;
@@ -90,6 +93,8 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	
 	private PatientDAO dao;
 	
+	private HL7ResolutionCache hl7ResolutionCache;
+	
 	/**
 	 * PatientIdentifierValidators registered through spring's applicationContext-service.xml
 	 */
@@ -103,6 +108,24 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 		this.dao = dao;
 	}
 	
+	/**
+	 * @param hl7ResolutionCache the cache of ids resolved for HL7 messages
+	 * @since 3.0.0
+	 */
+	public void setHl7ResolutionCache(HL7ResolutionCache hl7ResolutionCache) {
+		this.hl7ResolutionCache = hl7ResolutionCache;
+	}
+	
+	/**
+	 * Evicts the ids cached for HL7 messages, now and again once the current transaction completes,
+	 * see {@link HL7ResolutionCache#evict(String)}
+	 */
+	private void evictHl7Ids() {
+		if (hl7ResolutionCache != null) {
+			hl7ResolutionCache.evict(HL7ResolutionCache.PATIENT_IDENTIFIER_TYPE_IDS);
+		}
+	}
+	
 	/**
 	 * Clean up after this class. Set the static var to null so that the classloader can reclaim the
 	 * space.
@@ -133,7 +156,18 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 		setPreferredPatientName(patient);
 		setPreferredPatientAddress(patient);
 
-		return dao.savePatient(patient);
+		Patient savedPatient = dao.savePatient(patient);
+		updateDuplicateKeys(patient);
+		return savedPatient;
+	}
+	
+	/**
+	 * Replaces the duplicate detection keys of the patient, removing them if it is voided
+	 */
+	private void updateDuplicateKeys(Patient patient) {
+		if (patient.getPatientId() != null) {
+			dao.savePatientDuplicateKeys(patient.getPatientId(), DuplicatePatientKeyGenerator.getKeys(patient));
+		}
 	}
 
 	private void requireAppropriatePatientModificationPrivilege(Patient patient) {
@@ -332,7 +366,9 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 		
 		// patient and patientidentifier attributes taken care of by the BaseVoidHandler
 		//call the DAO layer directly to avoid any further AOP around save*
-		return dao.savePatient(patient);
+		Patient voidedPatient = dao.savePatient(patient);
+		updateDuplicateKeys(patient);
+		return voidedPatient;
 	}
 	
 	/**
@@ -354,6 +390,9 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	 */
 	@Override
 	public void purgePatient(Patient patient) throws APIException {
+		if (patient.getPatientId() != null) {
+			dao.savePatientDuplicateKeys(patient.getPatientId(), Collections.emptyList());
+		}
 		dao.deletePatient(patient);
 	}
 	
@@ -393,6 +432,7 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	 */
 	@Override
 	public PatientIdentifierType savePatientIdentifierType(PatientIdentifierType patientIdentifierType) throws APIException {
+		evictHl7Ids();
 		checkIfPatientIdentifierTypesAreLocked();
 		return dao.savePatientIdentifierType(patientIdentifierType);
 	}
@@ -461,6 +501,7 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	@Override
 	public PatientIdentifierType retirePatientIdentifierType(PatientIdentifierType patientIdentifierType, String reason)
 	        throws APIException {
+		evictHl7Ids();
 		checkIfPatientIdentifierTypesAreLocked();
 		if (reason == null || reason.length() < 1) {
 			throw new APIException("Patient.identifier.retire.reason", (Object[]) null);
@@ -479,6 +520,7 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	@Override
 	public PatientIdentifierType unretirePatientIdentifierType(PatientIdentifierType patientIdentifierType)
 	        throws APIException {
+		evictHl7Ids();
 		checkIfPatientIdentifierTypesAreLocked();
 		patientIdentifierType.setRetired(false);
 		patientIdentifierType.setRetiredBy(null);
@@ -492,6 +534,7 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	 */
 	@Override
 	public void purgePatientIdentifierType(PatientIdentifierType patientIdentifierType) throws APIException {
+		evictHl7Ids();
 		checkIfPatientIdentifierTypesAreLocked();
 		dao.deletePatientIdentifierType(patientIdentifierType);
 	}
@@ -538,6 +581,34 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 		return dao.getDuplicatePatientsByAttributes(attributes);
 	}
 	
+	/**
+	 * @see org.openmrs.api.PatientService#getDuplicatePatientCandidates(DuplicatePatientCandidate,
+	 *      int, int)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<DuplicatePatientCandidate> getDuplicatePatientCandidates(DuplicatePatientCandidate after,
+	        int minimumScore, int maxResults) throws APIException {
+		if (after == null) {
+			return dao.getDuplicatePatientCandidates(null, null, minimumScore, maxResults);
+		}
+		return dao.getDuplicatePatientCandidates(after.getPatient().getPatientId(), after.getDuplicate().getPatientId(),
+		    minimumScore, maxResults);
+	}
+	
+	/**
+	 * @see org.openmrs.api.PatientService#updatePatientDuplicateKeys(Integer, int)
+	 */
+	@Override
+	public Integer updatePatientDuplicateKeys(Integer afterPatientId, int batchSize) throws APIException {
+		Integer lastPatientId = null;
+		for (Patient patient : dao.getPatientsAfter(afterPatientId, batchSize)) {
+			updateDuplicateKeys(patient);
+			lastPatientId = patient.getPatientId();
+		}
+		return lastPatientId;
+	}
+	
 	/**
 	 * generate a relationship hash for use in mergePatients; follows the convention:
 	 * [relationshipType][A|B][relativeId]
@@ -567,17 +638,30 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	public void mergePatients(Patient preferred, Patient notPreferred) throws APIException, SerializationException {
 		log.debug("Merging patients: (preferred)" + preferred.getPatientId() + ", (notPreferred) "
 		        + notPreferred.getPatientId());
-		if (preferred.getPatientId().equals(notPreferred.getPatientId())) {
-			log.debug("Merge operation cancelled: Cannot merge user" + preferred.getPatientId() + " to self");
-			throw new APIException("Patient.merge.cancelled", new Object[] { preferred.getPatientId() });
-		}
+		requireNotSamePatient(preferred, notPreferred);
 		requireNoActiveOrderOfSameType(preferred,notPreferred);
 		PersonMergeLogData mergedData = new PersonMergeLogData();
-		mergeVisits(preferred, notPreferred, mergedData);
-		mergeEncounters(preferred, notPreferred, mergedData);
+		if (isBulkMergeMode()) {
+			dao.moveClinicalData(preferred, Collections.singletonMap(notPreferred.getPatientId(), mergedData),
+			    Context.getAuthenticatedUser(), new Date());
+		} else {
+			mergeVisits(preferred, notPreferred, mergedData);
+			mergeEncounters(preferred, notPreferred, mergedData);
+		}
 		mergeProgramEnrolments(preferred, notPreferred, mergedData);
 		mergeRelationships(preferred, notPreferred, mergedData);
-		mergeObservationsNotContainedInEncounters(preferred, notPreferred, mergedData);
+		if (!isBulkMergeMode()) {
+			mergeObservationsNotContainedInEncounters(preferred, notPreferred, mergedData);
+		}
+		mergePersonData(preferred, notPreferred, mergedData);
+	}
+	
+	/**
+	 * Merges the identifiers, names and other person data of the not preferred patient, voids it and
+	 * saves the merge log, this is the last step of merging a patient
+	 */
+	private void mergePersonData(Patient preferred, Patient notPreferred, PersonMergeLogData mergedData)
+	        throws SerializationException {
 		mergeIdentifiers(preferred, notPreferred, mergedData);
 		
 		mergeNames(preferred, notPreferred, mergedData);
@@ -610,12 +694,27 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 		Context.getPersonService().savePersonMergeLog(personMergeLog);
 	}
 	
+	private boolean isBulkMergeMode() {
+		return Context.getAdministrationService().getGlobalPropertyValue(OpenmrsConstants.GP_PATIENT_MERGE_BULK_MODE,
+		    Boolean.FALSE);
+	}
+	
+	private void requireNotSamePatient(Patient preferred, Patient notPreferred) {
+		if (preferred.getPatientId().equals(notPreferred.getPatientId())) {
+			log.debug("Merge operation cancelled: Cannot merge user" + preferred.getPatientId() + " to self");
+			throw new APIException("Patient.merge.cancelled", new Object[] { preferred.getPatientId() });
+		}
+	}
+	
 	private void requireNoActiveOrderOfSameType(Patient patient1, Patient patient2) {
+		requireNoActiveOrderOfSameType(patient1, getActiveOrders(patient1), patient2, getActiveOrders(patient2));
+	}
+	
+	private void requireNoActiveOrderOfSameType(Patient patient1, List<Order> activeOrdersByPatient1, Patient patient2,
+	        List<Order> activeOrdersByPatient2) {
 		String messageKey = "Patient.merge.cannotHaveSameTypeActiveOrders";
-		List<Order> ordersByPatient1 = Context.getOrderService().getAllOrdersByPatient(patient1);
-		List<Order> ordersByPatient2 = Context.getOrderService().getAllOrdersByPatient(patient2);
-		ordersByPatient1.forEach((Order order1) -> ordersByPatient2.forEach((Order order2) -> {
-			if (order1.isActive() && order2.isActive() && order1.getOrderType().equals(order2.getOrderType())) {
+		activeOrdersByPatient1.forEach((Order order1) -> activeOrdersByPatient2.forEach((Order order2) -> {
+			if (order1.getOrderType().equals(order2.getOrderType())) {
 				Object[] parameters = { patient1.getPatientId(), patient2.getPatientId(), order1.getOrderType() };
 				String message = Context.getMessageSourceService().getMessage(messageKey, parameters,
 						Context.getLocale());
@@ -624,6 +723,11 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 			}
 		}));
 	}
+	
+	private List<Order> getActiveOrders(Patient patient) {
+		return Context.getOrderService().getAllOrdersByPatient(patient).stream().filter(Order::isActive)
+		        .collect(Collectors.toList());
+	}
 
 	private void mergeProgramEnrolments(Patient preferred, Patient notPreferred, PersonMergeLogData mergedData) {
 		// copy all program enrollments
@@ -1358,9 +1462,33 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	 */
 	@Override
 	public void mergePatients(Patient preferred, List<Patient> notPreferred) throws APIException, SerializationException {
+		if (!isBulkMergeMode()) {
+			for (Patient nonPreferred : notPreferred) {
+				mergePatients(preferred, nonPreferred);
+			}
+			return;
+		}
+		
+		// check all patients up front, orders of patients merged before another one belong to the preferred patient
+		List<Order> activeOrders = getActiveOrders(preferred);
+		Map<Integer, PersonMergeLogData> mergedData = new LinkedHashMap<>();
+		for (Patient nonPreferred : notPreferred) {
+			requireNotSamePatient(preferred, nonPreferred);
+			List<Order> activeOrdersOfNonPreferred = getActiveOrders(nonPreferred);
+			requireNoActiveOrderOfSameType(preferred, activeOrders, nonPreferred, activeOrdersOfNonPreferred);
+			activeOrders.addAll(activeOrdersOfNonPreferred);
+			mergedData.put(nonPreferred.getPatientId(), new PersonMergeLogData());
+		}
 		
+		// move the clinical data of all patients at once, then merge them one by one
+		dao.moveClinicalData(preferred, mergedData, Context.getAuthenticatedUser(), new Date());
 		for (Patient nonPreferred : notPreferred) {
-			mergePatients(preferred, nonPreferred);
+			log.debug("Merging patients: (preferred) {}, (notPreferred) {}", preferred.getPatientId(),
+			    nonPreferred.getPatientId());
+			PersonMergeLogData nonPreferredMergedData = mergedData.get(nonPreferred.getPatientId());
+			mergeProgramEnrolments(preferred, nonPreferred, nonPreferredMergedData);
+			mergeRelationships(preferred, nonPreferred, nonPreferredMergedData);
+			mergePersonData(preferred, nonPreferred, nonPreferredMergedData);
 		}
 	}
 	
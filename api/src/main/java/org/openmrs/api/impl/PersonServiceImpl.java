@@ -24,6 +24,7 @@ import org.openmrs.api.PersonAttributeTypeLockedException;
 import org.openmrs.api.PersonService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.PersonDAO;
+import org.openmrs.hl7.HL7ResolutionCache;
 import org.openmrs.person.PersonMergeLog;
 import org.openmrs.person.PersonMergeLogData;
 import org.openmrs.serialization.SerializationException;
@@ -59,6 +60,8 @@ public class PersonServiceImpl extends BaseOpenmrsService implements PersonServi
 	
 	private PersonDAO dao;
 	
+	private HL7ResolutionCache hl7ResolutionCache;
+	
 	/**
 	 * @see org.openmrs.api.PersonService#setPersonDAO(org.openmrs.api.db.PersonDAO)
 	 */
@@ -67,6 +70,24 @@ public class PersonServiceImpl extends BaseOpenmrsService implements PersonServi
 		this.dao = dao;
 	}
 	
+	/**
+	 * @param hl7ResolutionCache the cache of ids resolved for HL7 messages
+	 * @since 3.0.0
+	 */
+	public void setHl7ResolutionCache(HL7ResolutionCache hl7ResolutionCache) {
+		this.hl7ResolutionCache = hl7ResolutionCache;
+	}
+	
+	/**
+	 * Evicts the ids cached for HL7 messages, now and again once the current transaction completes,
+	 * see {@link HL7ResolutionCache#evict(String)}
+	 */
+	private void evictHl7Ids() {
+		if (hl7ResolutionCache != null) {
+			hl7ResolutionCache.evict(HL7ResolutionCache.USER_IDS);
+		}
+	}
+	
 	/**
 	 * @see org.openmrs.api.PersonService#getSimilarPeople(java.lang.String, java.lang.Integer,
 	 *      java.lang.String)
@@ -290,6 +311,7 @@ public class PersonServiceImpl extends BaseOpenmrsService implements PersonServi
 	 */
 	@Override
 	public void purgePerson(Person person) throws APIException {
+		evictHl7Ids();
 		dao.deletePerson(person);
 	}
 	
@@ -298,6 +320,7 @@ public class PersonServiceImpl extends BaseOpenmrsService implements PersonServi
 	 */
 	@Override
 	public Person savePerson(Person person) throws APIException {
+		evictHl7Ids();
 		setPreferredPersonName(person);
 		setPreferredPersonAddress(person);
 		return dao.savePerson(person);
@@ -349,6 +372,7 @@ public class PersonServiceImpl extends BaseOpenmrsService implements PersonServi
 	 */
 	@Override
 	public Person voidPerson(Person person, String reason) throws APIException {
+		evictHl7Ids();
 		if (person == null) {
 			return null;
 		}
@@ -725,6 +749,7 @@ public class PersonServiceImpl extends BaseOpenmrsService implements PersonServi
 	 */
 	@Override
 	public PersonName savePersonName(PersonName personName) throws APIException {
+		evictHl7Ids();
 		ValidateUtil.validate(personName.getPerson());
 		return dao.savePersonName(personName);
 	}
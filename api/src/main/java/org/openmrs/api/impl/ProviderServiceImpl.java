@@ -23,6 +23,7 @@ import org.openmrs.api.ProviderService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.ProviderDAO;
 import org.openmrs.customdatatype.CustomDatatypeUtil;
+import org.openmrs.hl7.HL7ResolutionCache;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.springframework.transaction.annotation.Transactional;
@@ -38,6 +39,8 @@ public class ProviderServiceImpl extends BaseOpenmrsService implements ProviderS
 	
 	private ProviderDAO dao;
 	
+	private HL7ResolutionCache hl7ResolutionCache;
+	
 	/**
 	 * Sets the data access object for Concepts. The dao is used for saving and getting concepts
 	 * to/from the database
@@ -48,6 +51,24 @@ public class ProviderServiceImpl extends BaseOpenmrsService implements ProviderS
 		this.dao = dao;
 	}
 	
+	/**
+	 * @param hl7ResolutionCache the cache of ids resolved for HL7 messages
+	 * @since 3.0.0
+	 */
+	public void setHl7ResolutionCache(HL7ResolutionCache hl7ResolutionCache) {
+		this.hl7ResolutionCache = hl7ResolutionCache;
+	}
+	
+	/**
+	 * Evicts the ids cached for HL7 messages, now and again once the current transaction completes,
+	 * see {@link HL7ResolutionCache#evict(String)}
+	 */
+	private void evictHl7Ids() {
+		if (hl7ResolutionCache != null) {
+			hl7ResolutionCache.evict(HL7ResolutionCache.PROVIDER_IDS);
+		}
+	}
+	
 	/**
 	 * @see org.openmrs.api.ProviderService#getAllProviders()
 	 */
@@ -71,6 +92,7 @@ public class ProviderServiceImpl extends BaseOpenmrsService implements ProviderS
 	 */
 	@Override
 	public void retireProvider(Provider provider, String reason) {
+		evictHl7Ids();
 		dao.saveProvider(provider);
 	}
 	
@@ -79,6 +101,7 @@ public class ProviderServiceImpl extends BaseOpenmrsService implements ProviderS
 	 */
 	@Override
 	public Provider unretireProvider(Provider provider) {
+		evictHl7Ids();
 		return Context.getProviderService().saveProvider(provider);
 	}
 	
@@ -87,6 +110,7 @@ public class ProviderServiceImpl extends BaseOpenmrsService implements ProviderS
 	 */
 	@Override
 	public void purgeProvider(Provider provider) {
+		evictHl7Ids();
 		dao.deleteProvider(provider);
 	}
 	
@@ -104,6 +128,7 @@ public class ProviderServiceImpl extends BaseOpenmrsService implements ProviderS
 	 */
 	@Override
 	public Provider saveProvider(Provider provider) {
+		evictHl7Ids();
 		CustomDatatypeUtil.saveAttributesIfNecessary(provider);
 		return dao.saveProvider(provider);
 	}
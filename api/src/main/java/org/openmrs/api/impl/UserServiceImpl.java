@@ -35,10 +35,12 @@ import org.openmrs.api.AdministrationService;
 import org.openmrs.api.CannotDeleteRoleWithChildrenException;
 import org.openmrs.api.InvalidActivationKeyException;
 import org.openmrs.api.UserService;
+import org.openmrs.api.context.CompiledPrivileges;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.LoginCredential;
 import org.openmrs.api.db.UserDAO;
+import org.openmrs.hl7.HL7ResolutionCache;
 import org.openmrs.messagesource.MessageSourceService;
 import org.openmrs.notification.MessageException;
 import org.openmrs.patient.impl.LuhnIdentifierValidator;
@@ -52,6 +54,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Default implementation of the user service. This class should not be used on its own. The current
@@ -67,6 +71,8 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 	
 	protected UserDAO dao;
 	
+	private HL7ResolutionCache hl7ResolutionCache;
+	
 	private static final int MAX_VALID_TIME = 12 * 60 * 60 * 1000; //Period of 12 hours
 	
 	private static final int MIN_VALID_TIME = 60 * 1000; //Period of 1 minute
@@ -80,6 +86,24 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 		this.dao = dao;
 	}
 	
+	/**
+	 * @param hl7ResolutionCache the cache of ids resolved for HL7 messages
+	 * @since 3.0.0
+	 */
+	public void setHl7ResolutionCache(HL7ResolutionCache hl7ResolutionCache) {
+		this.hl7ResolutionCache = hl7ResolutionCache;
+	}
+	
+	/**
+	 * Evicts the ids cached for HL7 messages, now and again once the current transaction completes,
+	 * see {@link HL7ResolutionCache#evict(String)}
+	 */
+	private void evictHl7Ids() {
+		if (hl7ResolutionCache != null) {
+			hl7ResolutionCache.evict(HL7ResolutionCache.USER_IDS);
+		}
+	}
+	
 	/**
 	 * @return the validTime for which the password reset activation key will be valid
 	 */
@@ -96,6 +120,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 	 */
 	@Override
 	public User createUser(User user, String password) throws APIException {
+		evictHl7Ids();
 		if (user.getUserId() != null) {
 			throw new APIException("This method can be used for only creating new users");
 		}
@@ -117,6 +142,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 		// TODO Check required fields for user!!
 		OpenmrsUtil.validatePassword(user.getUsername(), password, user.getSystemId());
 		
+		privilegesChanged();
 		return dao.saveUser(user, password);
 	}
 	
@@ -165,6 +191,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 	@Override
 	@CacheEvict(value = "userSearchLocales", allEntries = true)
 	public User saveUser(User user) throws APIException {
+		evictHl7Ids();
 		if (user.getUserId() == null) {
 			throw new APIException("This method can be called only to update existing users");
 		}
@@ -178,6 +205,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 				+ " is already in use.");
 		}
 		
+		privilegesChanged();
 		return dao.saveUser(user, null);
 	}
 	
@@ -190,6 +218,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 	 */
 	@Override
 	public User retireUser(User user, String reason) throws APIException {
+		evictHl7Ids();
 		user.setRetired(true);
 		user.setRetireReason(reason);
 		user.setRetiredBy(Context.getAuthenticatedUser());
@@ -207,6 +236,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 	 */
 	@Override
 	public User unretireUser(User user) throws APIException {
+		evictHl7Ids();
 		user.setRetired(false);
 		user.setRetireReason(null);
 		user.setRetiredBy(null);
@@ -251,6 +281,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 			throw new APIException("Privilege.cannot.delete.core", (Object[]) null);
 		}
 		
+		privilegesChanged();
 		dao.deletePrivilege(privilege);
 	}
 	
@@ -259,6 +290,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 	 */
 	@Override
 	public Privilege savePrivilege(Privilege privilege) throws APIException {
+		privilegesChanged();
 		return dao.savePrivilege(privilege);
 	}
 	
@@ -297,6 +329,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 			throw new CannotDeleteRoleWithChildrenException();
 		}
 		
+		privilegesChanged();
 		dao.deleteRole(role);
 	}
 	
@@ -313,6 +346,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 		
 		checkPrivileges(role);
 		
+		privilegesChanged();
 		return dao.saveRole(role);
 	}
 	
@@ -499,6 +533,8 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 	 */
 	@Override
 	public void purgeUser(User user) throws APIException {
+		evictHl7Ids();
+		privilegesChanged();
 		dao.deleteUser(user);
 	}
 	
@@ -507,10 +543,12 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 	 */
 	@Override
 	public void purgeUser(User user, boolean cascade) throws APIException {
+		evictHl7Ids();
 		if (cascade) {
 			throw new APIException("cascade.do.not.think", (Object[]) null);
 		}
 		
+		privilegesChanged();
 		dao.deleteUser(user);
 	}
 	
@@ -531,6 +569,24 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 			});
 	}
 	
+	/**
+	 * Marks all compiled privileges as stale, now so that the current transaction sees its own changes
+	 * and again once it completes so that snapshots other threads compiled from the data before the
+	 * commit are not kept
+	 */
+	private void privilegesChanged() {
+		CompiledPrivileges.invalidateAll();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				
+				@Override
+				public void afterCompletion(int status) {
+					CompiledPrivileges.invalidateAll();
+				}
+			});
+		}
+	}
+	
 	/**
 	 * @see org.openmrs.api.UserService#getPrivilegeByUuid(java.lang.String)
 	 */
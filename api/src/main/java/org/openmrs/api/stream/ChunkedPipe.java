@@ -0,0 +1,420 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A pipe between one writing and one reading thread built on a bounded ring of reusable byte
+ * chunks.
+ * <p>
+ * The writer fills the chunk at the tail of the ring and hands it to the reader once it is full,
+ * flushed or the output stream is closed, or right away when the reader is waiting for data. The
+ * reader drains the chunk at the head of the ring and hands it back. Bytes are copied in bulk and
+ * the lock is only taken when a chunk changes hands, not for every byte. When all chunks are waiting
+ * to be read the writer blocks, which applies backpressure to it.
+ * <p>
+ * An exception propagated with {@link #propagateStreamException(IOException)} is thrown by all
+ * following reads and writes and wakes up a blocked reader or writer. Waiting for data longer than
+ * the timeout ends the input stream, waiting for a free chunk longer than the timeout fails the
+ * output stream and is propagated to the reader.
+ *
+ * @since 3.0.0
+ */
+class ChunkedPipe {
+
+	private final byte[][] chunks;
+
+	private final int[] chunkLengths;
+
+	private final int chunkSize;
+
+	private final long timeoutNanos;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition notEmpty = lock.newCondition();
+
+	private final Condition notFull = lock.newCondition();
+
+	private final PipeInputStream inputStream = new PipeInputStream();
+
+	private final PipeOutputStream outputStream = new PipeOutputStream();
+
+	/**
+	 * The slot read by the reader, guarded by the lock
+	 */
+	private int head;
+
+	/**
+	 * The number of chunks handed to the reader and not given back yet, guarded by the lock
+	 */
+	private int count;
+
+	/**
+	 * Whether the output stream was closed, guarded by the lock
+	 */
+	private boolean closed;
+
+	private volatile IOException streamException;
+
+	/**
+	 * Set while the reader waits for data so that the writer hands over partially filled chunks
+	 * instead of keeping the reader waiting until a chunk is full
+	 */
+	private volatile boolean readerWaiting;
+
+	/**
+	 * @param capacity the number of bytes that can be written before the writer blocks, it is rounded
+	 *            up to a whole number of chunks
+	 * @param chunkSize the size of the chunks
+	 * @param timeout how long to wait for data or a free chunk
+	 * @param unit the unit of the timeout
+	 */
+	ChunkedPipe(int capacity, int chunkSize, long timeout, TimeUnit unit) {
+		if (chunkSize <= 0 || capacity <= 0) {
+			throw new IllegalArgumentException("The capacity and chunk size must be greater than 0");
+		}
+		int chunkCount = Math.max(2, (capacity + chunkSize - 1) / chunkSize);
+		this.chunks = new byte[chunkCount][];
+		this.chunkLengths = new int[chunkCount];
+		this.chunkSize = chunkSize;
+		this.timeoutNanos = unit.toNanos(timeout);
+	}
+
+	/**
+	 * @return the stream to read the data from, to be used by a single thread
+	 */
+	InputStream getInputStream() {
+		return inputStream;
+	}
+
+	/**
+	 * @return the stream to write the data to, to be used by a single thread
+	 */
+	OutputStream getOutputStream() {
+		return outputStream;
+	}
+
+	/**
+	 * Propagate exception from a writing thread to a reading thread so that processing is stopped.
+	 *
+	 * @param streamException exception
+	 */
+	void propagateStreamException(IOException streamException) {
+		this.streamException = streamException;
+		lock.lock();
+		try {
+			notEmpty.signalAll();
+			notFull.signalAll();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	void checkStreamException() throws IOException {
+		if (streamException != null) {
+			throw streamException;
+		}
+	}
+
+	private static InterruptedIOException interrupted(InterruptedException e) {
+		Thread.currentThread().interrupt();
+		InterruptedIOException interruptedIoException = new InterruptedIOException();
+		interruptedIoException.initCause(e);
+		return interruptedIoException;
+	}
+
+	private class PipeInputStream extends InputStream {
+
+		/**
+		 * The position in the chunk at the head of the ring, only used by the reader
+		 */
+		private int position;
+
+		/**
+		 * Whether the reader holds the chunk at the head of the ring, only used by the reader
+		 */
+		private boolean holdsChunk;
+
+		private boolean endOfStream;
+
+		@Override
+		public int read() throws IOException {
+			checkStreamException();
+			if (!awaitChunk()) {
+				return -1;
+			}
+			int result = 255 & chunks[head][position++];
+			releaseChunkIfDrained();
+			checkStreamException();
+			return result;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			Objects.checkFromIndexSize(off, len, b.length);
+			if (len == 0) {
+				return 0;
+			}
+			checkStreamException();
+			if (!awaitChunk()) {
+				return -1;
+			}
+			int read = 0;
+			do {
+				int length = Math.min(len - read, chunkLengths[head] - position);
+				System.arraycopy(chunks[head], position, b, off + read, length);
+				position += length;
+				read += length;
+				releaseChunkIfDrained();
+			} while (read < len && tryTakeChunk());
+			checkStreamException();
+			return read;
+		}
+
+		@Override
+		public int available() throws IOException {
+			checkStreamException();
+			return holdsChunk ? chunkLengths[head] - position : 0;
+		}
+
+		@Override
+		public void close() throws IOException {
+			checkStreamException();
+			super.close();
+		}
+
+		/**
+		 * Waits until there is a chunk to read
+		 *
+		 * @return false if the end of the stream was reached or waiting timed out
+		 */
+		private boolean awaitChunk() throws IOException {
+			if (holdsChunk) {
+				return true;
+			}
+			if (endOfStream) {
+				return false;
+			}
+			lock.lock();
+			try {
+				long nanos = timeoutNanos;
+				while (count == 0 && !closed) {
+					checkStreamException();
+					if (nanos <= 0) {
+						// Timeout
+						return false;
+					}
+					readerWaiting = true;
+					nanos = notEmpty.awaitNanos(nanos);
+				}
+				if (count == 0) {
+					endOfStream = true;
+					return false;
+				}
+				holdsChunk = true;
+				position = 0;
+				return true;
+			}
+			catch (InterruptedException e) {
+				throw interrupted(e);
+			}
+			finally {
+				readerWaiting = false;
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * Takes the next chunk if one is ready without waiting
+		 */
+		private boolean tryTakeChunk() {
+			if (holdsChunk) {
+				return true;
+			}
+			lock.lock();
+			try {
+				if (count == 0) {
+					return false;
+				}
+				holdsChunk = true;
+				position = 0;
+				return true;
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		private void releaseChunkIfDrained() {
+			if (position < chunkLengths[head]) {
+				return;
+			}
+			lock.lock();
+			try {
+				head = (head + 1) % chunks.length;
+				count--;
+				holdsChunk = false;
+				notFull.signal();
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	private class PipeOutputStream extends OutputStream {
+
+		/**
+		 * The chunk filled by the writer or null if it holds none, only used by the writer
+		 */
+		private byte[] chunk;
+
+		private int slot;
+
+		private int length;
+
+		private boolean writerClosed;
+
+		/**
+		 * @param b the <code>byte</code>.
+		 * @throws IOException when the pipe is full for longer than the timeout or interrupted
+		 */
+		@Override
+		public void write(int b) throws IOException {
+			checkStreamException();
+			if (writerClosed) {
+				return;
+			}
+			if (chunk == null) {
+				acquireChunk();
+			}
+			chunk[length++] = (byte) b;
+			if (length == chunkSize || readerWaiting) {
+				publishChunk();
+			}
+		}
+
+		/**
+		 * @throws IOException when the pipe is full for longer than the timeout or interrupted
+		 */
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			Objects.checkFromIndexSize(off, len, b.length);
+			checkStreamException();
+			if (writerClosed) {
+				return;
+			}
+			int written = 0;
+			while (written < len) {
+				if (chunk == null) {
+					acquireChunk();
+				}
+				int copied = Math.min(len - written, chunkSize - length);
+				System.arraycopy(b, off + written, chunk, length, copied);
+				length += copied;
+				written += copied;
+				if (length == chunkSize) {
+					publishChunk();
+				}
+			}
+			if (chunk != null && readerWaiting) {
+				publishChunk();
+			}
+		}
+
+		/**
+		 * Hands the bytes written so far to the reader
+		 */
+		@Override
+		public void flush() throws IOException {
+			checkStreamException();
+			if (chunk != null && length > 0) {
+				publishChunk();
+			}
+		}
+
+		/**
+		 * Closing the stream doesn't fail any following writes, but effectively only data up to closing
+		 * the stream is read.
+		 *
+		 * @throws IOException when the pipe is full for longer than the timeout or interrupted
+		 */
+		@Override
+		public void close() throws IOException {
+			if (writerClosed) {
+				return;
+			}
+			flush();
+			writerClosed = true;
+			lock.lock();
+			try {
+				// Indicate the end of stream
+				closed = true;
+				notEmpty.signalAll();
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		private void acquireChunk() throws IOException {
+			lock.lock();
+			try {
+				long nanos = timeoutNanos;
+				while (count == chunks.length) {
+					checkStreamException();
+					if (nanos <= 0) {
+						IOException exception = new IOException("Failed to write to full queue");
+						propagateStreamException(exception);
+						throw exception;
+					}
+					nanos = notFull.awaitNanos(nanos);
+				}
+				checkStreamException();
+				slot = (head + count) % chunks.length;
+			}
+			catch (InterruptedException e) {
+				throw interrupted(e);
+			}
+			finally {
+				lock.unlock();
+			}
+			if (chunks[slot] == null) {
+				chunks[slot] = new byte[chunkSize];
+			}
+			chunk = chunks[slot];
+			length = 0;
+		}
+
+		private void publishChunk() {
+			lock.lock();
+			try {
+				chunkLengths[slot] = length;
+				count++;
+				notEmpty.signal();
+			}
+			finally {
+				lock.unlock();
+			}
+			chunk = null;
+			length = 0;
+		}
+	}
+}
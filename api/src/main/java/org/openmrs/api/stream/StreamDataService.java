@@ -13,13 +13,8 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InterruptedIOException;
 import java.io.OutputStream;
-import java.io.UncheckedIOException;
 import java.time.Duration;
-import java.util.Objects;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.IOUtils;
@@ -37,7 +32,8 @@ import org.springframework.util.unit.DataSize;
  * separate thread using {@link TaskExecutor}.
  * <p>
  * It's providing the {@link java.io.PipedInputStream}/{@link java.io.PipedOutputStream} mechanism in a thread safe way 
- * with the use of {@link BlockingQueue}.
+ * with the use of a {@link ChunkedPipe}, which passes the data in reusable chunks of {@link #CHUNK_SIZE} bytes and holds
+ * up to {@link #BUFFER_SIZE} bytes before the writing thread has to wait for the reading thread.
  * 
  * @since 2.8.0, 2.7.5, 2.6.16, 2.5.15
  */
@@ -45,6 +41,10 @@ import org.springframework.util.unit.DataSize;
 public class StreamDataService {
 	public static final int BUFFER_SIZE = (int) DataSize.ofKilobytes(128).toBytes();
 	
+	static final int CHUNK_SIZE = (int) DataSize.ofKilobytes(8).toBytes();
+	
+	static final Duration TIMEOUT = Duration.ofSeconds(30);
+	
 	private static final Logger log = LoggerFactory.getLogger(StreamDataService.class);
 	private final TaskExecutor taskExecutor;
 	
@@ -52,132 +52,6 @@ public class StreamDataService {
 		this.taskExecutor = taskExecutor;
 	}
 	
-	private static class QueueInputStream extends InputStream {
-		private final BlockingQueue<Integer> blockingQueue;
-		private final long timeoutNanos;
-		private volatile IOException streamException;
-
-		public QueueInputStream() {
-			this.blockingQueue = new LinkedBlockingQueue<>(BUFFER_SIZE);
-			this.timeoutNanos = Duration.ofSeconds(30).toNanos();
-		}
-
-		public QueueOutputStream newQueueOutputStream() {
-			return new QueueOutputStream(this);
-		}
-
-		@Override
-		public int read() throws IOException {
-			try {
-				checkStreamException();
-				
-				int result;
-				Integer peek = this.blockingQueue.peek();
-				if (Integer.valueOf(-1).equals(peek)) {
-					result = -1;
-				} else {
-					Integer value = this.blockingQueue.poll(this.timeoutNanos, TimeUnit.NANOSECONDS);
-					if (value == null) {
-						// Timeout
-						result = -1;
-					} else if (value == -1) {
-						// End of stream. Put the end of stream back in the queue for consistency.
-						this.blockingQueue.clear();
-						if (!this.blockingQueue.offer(-1, timeoutNanos, TimeUnit.NANOSECONDS)) {
-							throw new IOException("Failed to write to full queue");
-						}
-						result = -1;
-					} else {
-						result = 255 & value;
-					}
-				}
-
-				checkStreamException();
-				return result;
-			} catch (InterruptedException e) {
-				Thread.currentThread().interrupt();
-				InterruptedIOException interruptedIoException = new InterruptedIOException();
-				interruptedIoException.initCause(e);
-				throw interruptedIoException;
-			}
-		}
-
-		@Override
-		public void close() throws IOException {
-			checkStreamException();
-			super.close();
-		}
-
-		/**
-		 * Propagate exception from a writing thread to a reading thread so that processing is stopped.
-		 * 
-		 * @param streamException exception
-		 * @throws UncheckedIOException rethrows e
-		 */
-		public void propagateStreamException(IOException streamException) {
-			this.streamException = streamException;
-		}
-		
-		public void checkStreamException() throws IOException {
-			if (streamException != null) {
-				throw streamException;
-			}
-		}
-	}
-	
-	private static class QueueOutputStream extends OutputStream {
-		private final QueueInputStream queueInputStream;
-		
-		public QueueOutputStream(QueueInputStream queueInputStream) {
-			this.queueInputStream = queueInputStream;
-		}
-
-		/**
-		 * @param b   the <code>byte</code>.
-		 * @throws IOException when queue full or interrupted
-		 */
-		@Override
-		public void write(int b) throws IOException {
-			try {
-				queueInputStream.checkStreamException();
-				
-				if (!queueInputStream.blockingQueue.offer(255 & b, queueInputStream.timeoutNanos, TimeUnit.NANOSECONDS)) {
-					IOException streamException = new IOException("Failed to write to full queue");
-					queueInputStream.propagateStreamException(streamException);
-				}
-			} catch (InterruptedException e) {
-				Thread.currentThread().interrupt();
-				InterruptedIOException interruptedIoException = new InterruptedIOException();
-				interruptedIoException.initCause(e);
-				throw interruptedIoException;
-			}
-		}
-
-		/**
-		 * Closing the stream doesn't fail any following writes, but effectively only data up to closing the stream
-		 * is read.
-		 * 
-		 * @throws IOException when queue full or interrupted
-		 */
-		@Override
-		public void close() throws IOException {
-			try {
-				queueInputStream.checkStreamException();
-				
-				// Indicate the end of stream
-				if (!this.queueInputStream.blockingQueue.offer(-1, queueInputStream.timeoutNanos, TimeUnit.NANOSECONDS)) {
-					IOException streamException = new IOException("Failed to write to full queue");
-					queueInputStream.propagateStreamException(streamException);
-				}
-			} catch (InterruptedException e) {
-				Thread.currentThread().interrupt();
-				InterruptedIOException interruptedIoException = new InterruptedIOException();
-				interruptedIoException.initCause(e);
-				throw interruptedIoException;
-			}
-		}
-	}
-
 	/**
 	 * Runs {@link StreamDataWriter#write(OutputStream)} in a separate thread using {@link TaskExecutor} or copies 
 	 * in-memory if the length is smaller than {@link #BUFFER_SIZE}.
@@ -200,22 +74,22 @@ public class StreamDataService {
 			}
 			return new ByteArrayInputStream(out.toByteArray());
 		} else {
-			QueueInputStream in = new QueueInputStream();
+			ChunkedPipe pipe = new ChunkedPipe(BUFFER_SIZE, CHUNK_SIZE, TIMEOUT.toNanos(), TimeUnit.NANOSECONDS);
 
 			taskExecutor.execute(() -> {
-				QueueOutputStream out = in.newQueueOutputStream();
+				OutputStream out = pipe.getOutputStream();
 				try {
 					writer.write(out);
 				} catch (Exception e) {
 					log.error("Failed to write data in parallel", e);
-					in.propagateStreamException(new IOException("Failed to write data in parallel", e));
+					pipe.propagateStreamException(new IOException("Failed to write data in parallel", e));
 				} finally {
-					// Closing quietly as any exceptions in QueueOutputStream.close() are propagated
+					// Closing quietly as any exceptions in ChunkedPipe's output stream close() are propagated
 					IOUtils.closeQuietly(out);
 				}
 			});
 
-			return in;
+			return pipe.getInputStream();
 		}
 	}
 }
@@ -0,0 +1,895 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.collection;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A compressed set of patient ids laid out like a Roaring bitmap. Ids are split into their high and
+ * low 16 bits, the low bits of all ids sharing the same high bits are kept in one container which is
+ * a sorted array while it holds up to 4096 values and a 65536 bit bitmap beyond that. A set of
+ * consecutive patient ids therefore costs about one bit per patient instead of a boxed Integer and a
+ * hash set entry, and {@link #union}, {@link #intersect} and {@link #subtract} work container by
+ * container on words and sorted arrays.
+ * <p>
+ * Bitmaps can be written to and read from a compact byte representation with {@link #toByteArray()}
+ * and {@link #fromByteArray(byte[])}. Instances are not thread safe.
+ *
+ * @since 3.0.0
+ */
+public final class PatientIdBitmap implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Identifies the byte representation, the last byte is the format version
+	 */
+	private static final int SERIAL_COOKIE = 0x4f504201;
+
+	/**
+	 * The maximum number of values an array container holds before it is converted to a bitmap
+	 */
+	private static final int ARRAY_CONTAINER_MAX_SIZE = 4096;
+
+	private static final int BITMAP_WORDS = 1 << 10;
+
+	private char[] keys;
+
+	private Container[] containers;
+
+	private int containerCount;
+
+	public PatientIdBitmap() {
+		this(4);
+	}
+
+	private PatientIdBitmap(int initialCapacity) {
+		keys = new char[initialCapacity];
+		containers = new Container[initialCapacity];
+	}
+
+	/**
+	 * Creates a bitmap holding the given patient ids
+	 *
+	 * @param patientIds the ids to add
+	 * @return the bitmap
+	 */
+	public static PatientIdBitmap of(int... patientIds) {
+		PatientIdBitmap bitmap = new PatientIdBitmap();
+		for (int patientId : patientIds) {
+			bitmap.add(patientId);
+		}
+		return bitmap;
+	}
+
+	/**
+	 * Creates a bitmap holding the given patient ids, null elements are ignored
+	 *
+	 * @param patientIds the ids to add
+	 * @return the bitmap
+	 */
+	public static PatientIdBitmap of(Collection<Integer> patientIds) {
+		PatientIdBitmap bitmap = new PatientIdBitmap();
+		if (patientIds != null) {
+			for (Integer patientId : patientIds) {
+				if (patientId != null) {
+					bitmap.add(patientId);
+				}
+			}
+		}
+		return bitmap;
+	}
+
+	/**
+	 * Adds a patient id
+	 *
+	 * @param patientId the id to add
+	 * @return true if the id was not yet in this bitmap
+	 * @throws IllegalArgumentException if the id is negative
+	 */
+	public boolean add(int patientId) {
+		if (patientId < 0) {
+			throw new IllegalArgumentException("Patient ids cannot be negative: " + patientId);
+		}
+		char key = highBits(patientId);
+		int index = indexOf(key);
+		if (index >= 0) {
+			Container container = containers[index];
+			int before = container.cardinality();
+			containers[index] = container.add(lowBits(patientId));
+			return containers[index].cardinality() > before;
+		}
+		insertContainer(-index - 1, key, new ArrayContainer().add(lowBits(patientId)));
+		return true;
+	}
+
+	/**
+	 * Removes a patient id
+	 *
+	 * @param patientId the id to remove
+	 * @return true if the id was in this bitmap
+	 */
+	public boolean remove(int patientId) {
+		if (patientId < 0) {
+			return false;
+		}
+		int index = indexOf(highBits(patientId));
+		if (index < 0) {
+			return false;
+		}
+		Container container = containers[index];
+		int before = container.cardinality();
+		container = container.remove(lowBits(patientId));
+		if (container.cardinality() == 0) {
+			removeContainer(index);
+		} else {
+			containers[index] = container;
+		}
+		return container.cardinality() < before;
+	}
+
+	/**
+	 * @param patientId the id to look for
+	 * @return true if the id is in this bitmap
+	 */
+	public boolean contains(int patientId) {
+		if (patientId < 0) {
+			return false;
+		}
+		int index = indexOf(highBits(patientId));
+		return index >= 0 && containers[index].contains(lowBits(patientId));
+	}
+
+	/**
+	 * @return the number of patient ids in this bitmap
+	 */
+	public int size() {
+		int size = 0;
+		for (int i = 0; i < containerCount; i++) {
+			size += containers[i].cardinality();
+		}
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return containerCount == 0;
+	}
+
+	/**
+	 * @return an independent copy of this bitmap
+	 */
+	public PatientIdBitmap copy() {
+		PatientIdBitmap copy = new PatientIdBitmap(Math.max(containerCount, 1));
+		for (int i = 0; i < containerCount; i++) {
+			copy.appendContainer(keys[i], containers[i].copy());
+		}
+		return copy;
+	}
+
+	/**
+	 * Passes every patient id in ascending order to the given consumer without boxing them
+	 *
+	 * @param consumer the consumer of the ids
+	 */
+	public void forEach(IntConsumer consumer) {
+		for (int i = 0; i < containerCount; i++) {
+			containers[i].forEach(keys[i] << 16, consumer);
+		}
+	}
+
+	/**
+	 * @return an iterator over the patient ids in ascending order
+	 */
+	public PrimitiveIterator.OfInt iterator() {
+		return new BitmapIterator();
+	}
+
+	/**
+	 * @return the patient ids in ascending order
+	 */
+	public IntStream stream() {
+		return StreamSupport.intStream(Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED
+		        | Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.SIZED | Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * @return the patient ids in ascending order
+	 */
+	public int[] toArray() {
+		int[] patientIds = new int[size()];
+		int[] position = new int[1];
+		forEach(patientId -> patientIds[position[0]++] = patientId);
+		return patientIds;
+	}
+
+	/**
+	 * Returns the patient ids that are in either of the bitmaps, treating null as an empty bitmap
+	 *
+	 * @param a the first bitmap
+	 * @param b the second bitmap
+	 * @return a new bitmap
+	 */
+	public static PatientIdBitmap union(PatientIdBitmap a, PatientIdBitmap b) {
+		if (a == null || b == null) {
+			return a == null ? (b == null ? new PatientIdBitmap() : b.copy()) : a.copy();
+		}
+		PatientIdBitmap result = new PatientIdBitmap(Math.max(a.containerCount + b.containerCount, 1));
+		int i = 0;
+		int j = 0;
+		while (i < a.containerCount && j < b.containerCount) {
+			char keyA = a.keys[i];
+			char keyB = b.keys[j];
+			if (keyA < keyB) {
+				result.appendContainer(keyA, a.containers[i++].copy());
+			} else if (keyA > keyB) {
+				result.appendContainer(keyB, b.containers[j++].copy());
+			} else {
+				result.appendContainer(keyA, a.containers[i++].or(b.containers[j++]));
+			}
+		}
+		for (; i < a.containerCount; i++) {
+			result.appendContainer(a.keys[i], a.containers[i].copy());
+		}
+		for (; j < b.containerCount; j++) {
+			result.appendContainer(b.keys[j], b.containers[j].copy());
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the patient ids that are in both bitmaps, treating null as an empty bitmap
+	 *
+	 * @param a the first bitmap
+	 * @param b the second bitmap
+	 * @return a new bitmap
+	 */
+	public static PatientIdBitmap intersect(PatientIdBitmap a, PatientIdBitmap b) {
+		PatientIdBitmap result = new PatientIdBitmap();
+		if (a == null || b == null) {
+			return result;
+		}
+		int i = 0;
+		int j = 0;
+		while (i < a.containerCount && j < b.containerCount) {
+			char keyA = a.keys[i];
+			char keyB = b.keys[j];
+			if (keyA < keyB) {
+				i++;
+			} else if (keyA > keyB) {
+				j++;
+			} else {
+				Container container = a.containers[i++].and(b.containers[j++]);
+				if (container.cardinality() > 0) {
+					result.appendContainer(keyA, container);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the patient ids of the first bitmap that are not in the second one, treating null as an
+	 * empty bitmap
+	 *
+	 * @param a the bitmap to subtract from
+	 * @param b the bitmap to subtract
+	 * @return a new bitmap
+	 */
+	public static PatientIdBitmap subtract(PatientIdBitmap a, PatientIdBitmap b) {
+		if (a == null) {
+			return new PatientIdBitmap();
+		}
+		if (b == null) {
+			return a.copy();
+		}
+		PatientIdBitmap result = new PatientIdBitmap(Math.max(a.containerCount, 1));
+		int j = 0;
+		for (int i = 0; i < a.containerCount; i++) {
+			char key = a.keys[i];
+			while (j < b.containerCount && b.keys[j] < key) {
+				j++;
+			}
+			if (j < b.containerCount && b.keys[j] == key) {
+				Container container = a.containers[i].andNot(b.containers[j]);
+				if (container.cardinality() > 0) {
+					result.appendContainer(key, container);
+				}
+			} else {
+				result.appendContainer(key, a.containers[i].copy());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Writes this bitmap to its compact byte representation
+	 *
+	 * @return the bytes
+	 * @see #fromByteArray(byte[])
+	 */
+	public byte[] toByteArray() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(SERIAL_COOKIE);
+			out.writeInt(containerCount);
+			for (int i = 0; i < containerCount; i++) {
+				out.writeChar(keys[i]);
+				containers[i].write(out);
+			}
+		}
+		catch (IOException e) {
+			// cannot happen when writing to memory
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Reads a bitmap written by {@link #toByteArray()}
+	 *
+	 * @param bytes the bytes to read
+	 * @return the bitmap
+	 * @throws IllegalArgumentException if the bytes are not a valid bitmap
+	 */
+	public static PatientIdBitmap fromByteArray(byte[] bytes) {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+			if (in.readInt() != SERIAL_COOKIE) {
+				throw new IllegalArgumentException("The bytes are not a serialized patient id bitmap");
+			}
+			int count = in.readInt();
+			PatientIdBitmap bitmap = new PatientIdBitmap(Math.max(count, 1));
+			int previousKey = -1;
+			for (int i = 0; i < count; i++) {
+				char key = in.readChar();
+				if (key <= previousKey) {
+					throw new IllegalArgumentException("The containers of the bitmap are not in ascending order");
+				}
+				previousKey = key;
+				bitmap.appendContainer(key, readContainer(in));
+			}
+			return bitmap;
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("The bytes are not a serialized patient id bitmap", e);
+		}
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PatientIdBitmap)) {
+			return false;
+		}
+		PatientIdBitmap other = (PatientIdBitmap) obj;
+		if (containerCount != other.containerCount) {
+			return false;
+		}
+		for (int i = 0; i < containerCount; i++) {
+			if (keys[i] != other.keys[i] || !containers[i].sameValues(other.containers[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int[] hash = { 1 };
+		forEach(patientId -> hash[0] = 31 * hash[0] + patientId);
+		return hash[0];
+	}
+
+	@Override
+	public String toString() {
+		return "PatientIdBitmap size=" + size();
+	}
+
+	private static char highBits(int value) {
+		return (char) (value >>> 16);
+	}
+
+	private static char lowBits(int value) {
+		return (char) value;
+	}
+
+	private int indexOf(char key) {
+		// most ids are added in ascending order so check the last container first
+		if (containerCount > 0 && keys[containerCount - 1] == key) {
+			return containerCount - 1;
+		}
+		return Arrays.binarySearch(keys, 0, containerCount, key);
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > keys.length) {
+			int newCapacity = Math.max(capacity, keys.length * 2);
+			keys = Arrays.copyOf(keys, newCapacity);
+			containers = Arrays.copyOf(containers, newCapacity);
+		}
+	}
+
+	private void insertContainer(int index, char key, Container container) {
+		ensureCapacity(containerCount + 1);
+		System.arraycopy(keys, index, keys, index + 1, containerCount - index);
+		System.arraycopy(containers, index, containers, index + 1, containerCount - index);
+		keys[index] = key;
+		containers[index] = container;
+		containerCount++;
+	}
+
+	private void appendContainer(char key, Container container) {
+		insertContainer(containerCount, key, container);
+	}
+
+	private void removeContainer(int index) {
+		System.arraycopy(keys, index + 1, keys, index, containerCount - index - 1);
+		System.arraycopy(containers, index + 1, containers, index, containerCount - index - 1);
+		containers[--containerCount] = null;
+	}
+
+	private static Container readContainer(DataInputStream in) throws IOException {
+		boolean bitmap = in.readBoolean();
+		int cardinality = in.readInt();
+		if (bitmap) {
+			long[] words = new long[BITMAP_WORDS];
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				words[i] = in.readLong();
+			}
+			BitmapContainer container = new BitmapContainer(words);
+			if (container.cardinality() != cardinality) {
+				throw new IllegalArgumentException("The cardinality of a bitmap container does not match its bits");
+			}
+			return container;
+		}
+		if (cardinality <= 0 || cardinality > ARRAY_CONTAINER_MAX_SIZE) {
+			throw new IllegalArgumentException("Invalid array container cardinality: " + cardinality);
+		}
+		char[] values = new char[cardinality];
+		for (int i = 0; i < cardinality; i++) {
+			values[i] = in.readChar();
+			if (i > 0 && values[i] <= values[i - 1]) {
+				throw new IllegalArgumentException("The values of an array container are not in ascending order");
+			}
+		}
+		return new ArrayContainer(values, cardinality);
+	}
+
+	/**
+	 * Iterates over the containers in key order and over the values of each container in ascending
+	 * order
+	 */
+	private class BitmapIterator implements PrimitiveIterator.OfInt {
+
+		private int containerIndex = 0;
+
+		private int nextLow = -1;
+
+		BitmapIterator() {
+			advance(0);
+		}
+
+		private void advance(int fromLow) {
+			while (containerIndex < containerCount) {
+				nextLow = fromLow > Character.MAX_VALUE ? -1 : containers[containerIndex].nextValue(fromLow);
+				if (nextLow >= 0) {
+					return;
+				}
+				containerIndex++;
+				fromLow = 0;
+			}
+			nextLow = -1;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return nextLow >= 0;
+		}
+
+		@Override
+		public int nextInt() {
+			if (nextLow < 0) {
+				throw new NoSuchElementException();
+			}
+			int value = (keys[containerIndex] << 16) | nextLow;
+			advance(nextLow + 1);
+			return value;
+		}
+	}
+
+	/**
+	 * Holds the low 16 bits of all values sharing the same high 16 bits. Mutating operations return
+	 * the container to use from then on since a container may convert itself to the other kind.
+	 */
+	private abstract static class Container implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		abstract int cardinality();
+
+		abstract boolean contains(char value);
+
+		abstract Container add(char value);
+
+		abstract Container remove(char value);
+
+		/**
+		 * @return the smallest value greater than or equal to fromValue or -1 if there is none
+		 */
+		abstract int nextValue(int fromValue);
+
+		abstract void forEach(int high, IntConsumer consumer);
+
+		abstract Container copy();
+
+		abstract Container or(Container other);
+
+		abstract Container and(Container other);
+
+		abstract Container andNot(Container other);
+
+		abstract void write(DataOutputStream out) throws IOException;
+
+		boolean sameValues(Container other) {
+			if (cardinality() != other.cardinality()) {
+				return false;
+			}
+			int value = nextValue(0);
+			while (value >= 0) {
+				if (!other.contains((char) value)) {
+					return false;
+				}
+				value = value == Character.MAX_VALUE ? -1 : nextValue(value + 1);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * A container holding its values in a sorted array, used for sparse containers
+	 */
+	private static final class ArrayContainer extends Container {
+
+		private static final long serialVersionUID = 1L;
+
+		private char[] values;
+
+		private int cardinality;
+
+		ArrayContainer() {
+			this(new char[4], 0);
+		}
+
+		ArrayContainer(char[] values, int cardinality) {
+			this.values = values;
+			this.cardinality = cardinality;
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		boolean contains(char value) {
+			return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+		}
+
+		@Override
+		Container add(char value) {
+			int index = cardinality > 0 && values[cardinality - 1] < value ? -cardinality - 1 : Arrays.binarySearch(
+			    values, 0, cardinality, value);
+			if (index >= 0) {
+				return this;
+			}
+			if (cardinality == ARRAY_CONTAINER_MAX_SIZE) {
+				return toBitmap().add(value);
+			}
+			index = -index - 1;
+			if (cardinality == values.length) {
+				values = Arrays.copyOf(values, Math.min(values.length * 2, ARRAY_CONTAINER_MAX_SIZE));
+			}
+			System.arraycopy(values, index, values, index + 1, cardinality - index);
+			values[index] = value;
+			cardinality++;
+			return this;
+		}
+
+		@Override
+		Container remove(char value) {
+			int index = Arrays.binarySearch(values, 0, cardinality, value);
+			if (index >= 0) {
+				System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+				cardinality--;
+			}
+			return this;
+		}
+
+		@Override
+		int nextValue(int fromValue) {
+			int index = Arrays.binarySearch(values, 0, cardinality, (char) fromValue);
+			if (index < 0) {
+				index = -index - 1;
+			}
+			return index < cardinality ? values[index] : -1;
+		}
+
+		@Override
+		void forEach(int high, IntConsumer consumer) {
+			for (int i = 0; i < cardinality; i++) {
+				consumer.accept(high | values[i]);
+			}
+		}
+
+		@Override
+		Container copy() {
+			return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+		}
+
+		BitmapContainer toBitmap() {
+			long[] words = new long[BITMAP_WORDS];
+			for (int i = 0; i < cardinality; i++) {
+				words[values[i] >>> 6] |= 1L << values[i];
+			}
+			return new BitmapContainer(words, cardinality);
+		}
+
+		@Override
+		Container or(Container other) {
+			if (other instanceof BitmapContainer) {
+				return other.or(this);
+			}
+			ArrayContainer otherArray = (ArrayContainer) other;
+			if (cardinality + otherArray.cardinality > ARRAY_CONTAINER_MAX_SIZE) {
+				return toBitmap().or(other);
+			}
+			char[] merged = new char[Math.max(cardinality + otherArray.cardinality, 1)];
+			int i = 0;
+			int j = 0;
+			int k = 0;
+			while (i < cardinality && j < otherArray.cardinality) {
+				char a = values[i];
+				char b = otherArray.values[j];
+				if (a < b) {
+					merged[k++] = a;
+					i++;
+				} else if (a > b) {
+					merged[k++] = b;
+					j++;
+				} else {
+					merged[k++] = a;
+					i++;
+					j++;
+				}
+			}
+			while (i < cardinality) {
+				merged[k++] = values[i++];
+			}
+			while (j < otherArray.cardinality) {
+				merged[k++] = otherArray.values[j++];
+			}
+			return new ArrayContainer(merged, k);
+		}
+
+		@Override
+		Container and(Container other) {
+			char[] result = new char[Math.max(cardinality, 1)];
+			int k = 0;
+			for (int i = 0; i < cardinality; i++) {
+				if (other.contains(values[i])) {
+					result[k++] = values[i];
+				}
+			}
+			return new ArrayContainer(result, k);
+		}
+
+		@Override
+		Container andNot(Container other) {
+			char[] result = new char[Math.max(cardinality, 1)];
+			int k = 0;
+			for (int i = 0; i < cardinality; i++) {
+				if (!other.contains(values[i])) {
+					result[k++] = values[i];
+				}
+			}
+			return new ArrayContainer(result, k);
+		}
+
+		@Override
+		void write(DataOutputStream out) throws IOException {
+			out.writeBoolean(false);
+			out.writeInt(cardinality);
+			for (int i = 0; i < cardinality; i++) {
+				out.writeChar(values[i]);
+			}
+		}
+	}
+
+	/**
+	 * A container holding its values as 65536 bits, used for dense containers
+	 */
+	private static final class BitmapContainer extends Container {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long[] words;
+
+		private int cardinality;
+
+		BitmapContainer(long[] words) {
+			this(words, countBits(words));
+		}
+
+		BitmapContainer(long[] words, int cardinality) {
+			this.words = words;
+			this.cardinality = cardinality;
+		}
+
+		private static int countBits(long[] words) {
+			int count = 0;
+			for (long word : words) {
+				count += Long.bitCount(word);
+			}
+			return count;
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		boolean contains(char value) {
+			return (words[value >>> 6] & (1L << value)) != 0;
+		}
+
+		@Override
+		Container add(char value) {
+			long word = words[value >>> 6];
+			long newWord = word | (1L << value);
+			if (newWord != word) {
+				words[value >>> 6] = newWord;
+				cardinality++;
+			}
+			return this;
+		}
+
+		@Override
+		Container remove(char value) {
+			long word = words[value >>> 6];
+			long newWord = word & ~(1L << value);
+			if (newWord != word) {
+				words[value >>> 6] = newWord;
+				cardinality--;
+			}
+			return shrink();
+		}
+
+		@Override
+		int nextValue(int fromValue) {
+			int wordIndex = fromValue >>> 6;
+			if (wordIndex >= BITMAP_WORDS) {
+				return -1;
+			}
+			long word = words[wordIndex] & (-1L << fromValue);
+			while (true) {
+				if (word != 0) {
+					return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+				}
+				if (++wordIndex == BITMAP_WORDS) {
+					return -1;
+				}
+				word = words[wordIndex];
+			}
+		}
+
+		@Override
+		void forEach(int high, IntConsumer consumer) {
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				long word = words[i];
+				while (word != 0) {
+					consumer.accept(high | (i << 6) + Long.numberOfTrailingZeros(word));
+					word &= word - 1;
+				}
+			}
+		}
+
+		@Override
+		Container copy() {
+			return new BitmapContainer(words.clone(), cardinality);
+		}
+
+		/**
+		 * @return this container or an array container if it has become sparse
+		 */
+		private Container shrink() {
+			if (cardinality > ARRAY_CONTAINER_MAX_SIZE) {
+				return this;
+			}
+			char[] values = new char[Math.max(cardinality, 1)];
+			int[] k = new int[1];
+			forEach(0, value -> values[k[0]++] = (char) value);
+			return new ArrayContainer(values, cardinality);
+		}
+
+		@Override
+		Container or(Container other) {
+			long[] result = words.clone();
+			if (other instanceof BitmapContainer) {
+				long[] otherWords = ((BitmapContainer) other).words;
+				for (int i = 0; i < BITMAP_WORDS; i++) {
+					result[i] |= otherWords[i];
+				}
+			} else {
+				ArrayContainer otherArray = (ArrayContainer) other;
+				for (int i = 0; i < otherArray.cardinality; i++) {
+					char value = otherArray.values[i];
+					result[value >>> 6] |= 1L << value;
+				}
+			}
+			return new BitmapContainer(result);
+		}
+
+		@Override
+		Container and(Container other) {
+			if (other instanceof ArrayContainer) {
+				return other.and(this);
+			}
+			long[] otherWords = ((BitmapContainer) other).words;
+			long[] result = new long[BITMAP_WORDS];
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				result[i] = words[i] & otherWords[i];
+			}
+			return new BitmapContainer(result).shrink();
+		}
+
+		@Override
+		Container andNot(Container other) {
+			long[] result = words.clone();
+			if (other instanceof BitmapContainer) {
+				long[] otherWords = ((BitmapContainer) other).words;
+				for (int i = 0; i < BITMAP_WORDS; i++) {
+					result[i] &= ~otherWords[i];
+				}
+			} else {
+				ArrayContainer otherArray = (ArrayContainer) other;
+				for (int i = 0; i < otherArray.cardinality; i++) {
+					char value = otherArray.values[i];
+					result[value >>> 6] &= ~(1L << value);
+				}
+			}
+			return new BitmapContainer(result).shrink();
+		}
+
+		@Override
+		void write(DataOutputStream out) throws IOException {
+			out.writeBoolean(true);
+			out.writeInt(cardinality);
+			for (long word : words) {
+				out.writeLong(word);
+			}
+		}
+	}
+}
@@ -9,7 +9,10 @@
  */
 package org.openmrs.hl7;
 
+import java.util.Date;
+
 import org.hibernate.envers.Audited;
+import org.hibernate.envers.NotAudited;
 
 /**
  * Represents an hl7 message that has yet to be processed.
@@ -27,6 +30,10 @@ public class HL7InQueue extends HL7QueueItem {
 	
 	private Integer messageState;
 	
+	// only written when the entry is claimed through HL7Service#claimHL7InQueues
+	@NotAudited
+	private Date dateClaimed;
+	
 	/**
 	 * Default constructor
 	 */
@@ -109,6 +116,26 @@ public class HL7InQueue extends HL7QueueItem {
 		this.messageState = messageState;
 	}
 	
+	/**
+	 * Gets the time the entry was last claimed for processing, as loaded from the database.
+	 * 
+	 * @since 3.0.0
+	 */
+	public Date getDateClaimed() {
+		return dateClaimed;
+	}
+	
+	/**
+	 * Sets the time the entry was last claimed for processing. The value is never saved, claims are
+	 * only changed by {@link HL7Service#claimHL7InQueues(int)} and
+	 * {@link HL7Service#releaseHL7InQueues(java.util.List)}.
+	 * 
+	 * @since 3.0.0
+	 */
+	public void setDateClaimed(Date dateClaimed) {
+		this.dateClaimed = dateClaimed;
+	}
+	
 	/**
 	 * @see org.openmrs.OpenmrsObject#getId()
 	 * @since 1.5
@@ -9,7 +9,20 @@
  */
 package org.openmrs.hl7;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.context.Daemon;
+import org.openmrs.api.context.UserContext;
+import org.openmrs.util.OpenmrsConstants;
+import org.openmrs.util.OpenmrsThreadPoolHolder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,6 +34,14 @@ import ca.uhn.hl7v2.HL7Exception;
  * table depending on success or failure of the processing. You may, however, set a global property
  * that causes the processor to ignore messages regarding unknown patients from a non-local HL7
  * source. (i.e. those messages neither go to the archive or the error table.)
+ * <p>
+ * By default the messages are processed one by one. When the
+ * {@link OpenmrsConstants#GP_HL7_PROCESSOR_WORKER_THREADS} global property is greater than 1, the
+ * processor claims batches of pending messages with {@link HL7Service#claimHL7InQueues(int)} and
+ * processes them with that many tasks on the daemon executor. The messages of a batch are
+ * partitioned by the patient identifier in their PID segment so that the messages of one patient
+ * are processed by the same worker in the order they were queued. Because messages are claimed atomically, processors
+ * on several servers sharing the database can work on the same queue.
  *
  * @version 1.0
  */
@@ -35,6 +56,22 @@ public class HL7InQueueProcessor /* implements Runnable */{
 	
 	private static Integer count = 0;
 	
+	private static final int GARBAGE_COLLECT_INTERVAL = 25;
+	
+	private static final AtomicLong processedCount = new AtomicLong();
+	
+	private static final AtomicLong failedCount = new AtomicLong();
+	
+	private static final Object statisticsLock = new Object();
+	
+	private static volatile long lagMillis;
+	
+	private static volatile long runStartNanos;
+	
+	private static volatile long runProcessedCount;
+	
+	private static volatile double messagesPerSecond;
+	
 	// processor per JVM
 	
 	/**
@@ -64,16 +101,13 @@ public class HL7InQueueProcessor /* implements Runnable */{
 		catch (HL7Exception e) {
 			log.error("Unable to process hl7 in queue", e);
 		}
+		recordProcessed(hl7InQueue);
 		setCount(count + 1);
-		if (count > 25) {
+		if (count > GARBAGE_COLLECT_INTERVAL) {
 			// clean up memory after processing each queue entry (otherwise, the
 			// memory-intensive process may crash or eat up all our memory)
-			try {
-				Context.getHL7Service().garbageCollect();
-			}
-			catch (Exception e) {
-				log.error("Exception while performing garbagecollect in hl7 inbound processor", e);
-			}
+			garbageCollect();
+			setCount(0);
 		}
 		
 	}
@@ -108,8 +142,16 @@ public class HL7InQueueProcessor /* implements Runnable */{
 		}
 		try {
 			log.debug("Start processing hl7 in queue");
-			while (processNextHL7InQueue()) {
-				// loop until queue is empty
+			runStartNanos = System.nanoTime();
+			runProcessedCount = 0;
+			int workerThreads = getIntegerGlobalProperty(OpenmrsConstants.GP_HL7_PROCESSOR_WORKER_THREADS, 1);
+			if (workerThreads > 1) {
+				processClaimedBatches(workerThreads,
+				    getIntegerGlobalProperty(OpenmrsConstants.GP_HL7_PROCESSOR_CLAIM_BATCH_SIZE, 100));
+			} else {
+				while (processNextHL7InQueue()) {
+					// loop until queue is empty
+				}
 			}
 			log.debug("Done processing hl7 in queue");
 		}
@@ -118,4 +160,238 @@ public class HL7InQueueProcessor /* implements Runnable */{
 		}
 	}
 	
+	/**
+	 * Claims batches of pending queue entries and processes each batch with the given number of
+	 * workers on the daemon executor until the queue is empty. A batch is processed completely before
+	 * the next one is claimed, so the messages of a patient are never processed concurrently. Entries
+	 * of a batch that no worker started, e.g. because the run was interrupted, are released right
+	 * away, entries whose processing failed are claimed again once their claim expires.
+	 *
+	 * @param workerThreads the number of workers
+	 * @param batchSize the number of entries to claim at once
+	 */
+	private void processClaimedBatches(int workerThreads, int batchSize) throws HL7Exception {
+		HL7Service hl7Service = Context.getHL7Service();
+		UserContext userContext = Context.getUserContext();
+		boolean daemon = Daemon.isDaemonThread();
+		List<HL7InQueue> batch;
+		while (!(batch = hl7Service.claimHL7InQueues(Math.max(batchSize, workerThreads))).isEmpty()) {
+			log.debug("Processing {} claimed hl7 in queue entries with {} workers", batch.size(), workerThreads);
+			Set<Integer> unstartedIds = ConcurrentHashMap.newKeySet();
+			for (HL7InQueue hl7InQueue : batch) {
+				unstartedIds.add(hl7InQueue.getHL7InQueueId());
+			}
+			List<Future<?>> futures = new ArrayList<>(workerThreads);
+			try {
+				for (List<Integer> partition : partition(batch, workerThreads)) {
+					Runnable worker = () -> processClaimedPartition(partition, unstartedIds);
+					if (daemon) {
+						futures.add(Daemon.runNewDaemonTask(worker));
+					} else {
+						futures.add(OpenmrsThreadPoolHolder.threadExecutor.submit(() -> {
+							Context.openSession();
+							try {
+								Context.setUserContext(userContext);
+								worker.run();
+							}
+							finally {
+								Context.closeSession();
+							}
+						}));
+					}
+				}
+				// the entries are processed in other sessions
+				hl7Service.garbageCollect();
+				for (Future<?> future : futures) {
+					try {
+						future.get();
+					}
+					catch (ExecutionException e) {
+						log.error("Unable to process hl7 in queue", e.getCause());
+					}
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new HL7Exception("Interrupted while processing the hl7 in queue", e);
+			}
+			finally {
+				for (Future<?> future : futures) {
+					future.cancel(true);
+				}
+				releaseUnstarted(hl7Service, unstartedIds);
+			}
+		}
+	}
+	
+	/**
+	 * Moves the claimed entries no worker has started back to the pending state
+	 *
+	 * @param unstartedIds the ids of the entries no worker has started, shared with the workers
+	 */
+	private void releaseUnstarted(HL7Service hl7Service, Set<Integer> unstartedIds) {
+		List<Integer> releasedIds = new ArrayList<>();
+		for (Integer hl7InQueueId : new ArrayList<>(unstartedIds)) {
+			// an entry is either started by a worker or released, never both
+			if (unstartedIds.remove(hl7InQueueId)) {
+				releasedIds.add(hl7InQueueId);
+			}
+		}
+		if (releasedIds.isEmpty()) {
+			return;
+		}
+		log.debug("Releasing {} claimed hl7 in queue entries that were not processed", releasedIds.size());
+		try {
+			hl7Service.releaseHL7InQueues(releasedIds);
+		}
+		catch (Exception e) {
+			log.error("Unable to release claimed hl7 in queue entries, they are claimed again once their claim expires", e);
+		}
+	}
+	
+	/**
+	 * Splits the claimed entries into at most the given number of partitions keeping the order of the
+	 * entries, all the entries about the same patient end up in the same partition
+	 *
+	 * @param batch the claimed entries ordered by id
+	 * @param partitionCount the maximum number of partitions
+	 * @return the ids of the entries of each non-empty partition
+	 */
+	static List<List<Integer>> partition(List<HL7InQueue> batch, int partitionCount) {
+		List<List<Integer>> partitions = new ArrayList<>(partitionCount);
+		for (int i = 0; i < partitionCount; i++) {
+			partitions.add(new ArrayList<>());
+		}
+		for (HL7InQueue hl7InQueue : batch) {
+			String patientKey = getPatientKey(hl7InQueue.getHL7Data());
+			int hash = patientKey != null ? patientKey.hashCode() : hl7InQueue.getHL7InQueueId();
+			partitions.get(Math.floorMod(hash, partitionCount)).add(hl7InQueue.getHL7InQueueId());
+		}
+		partitions.removeIf(List::isEmpty);
+		return partitions;
+	}
+	
+	/**
+	 * Gets the first patient identifier, including its identifier type and assigning authority, from
+	 * the PID segment of the given message without parsing the whole message
+	 *
+	 * @param hl7Data the message
+	 * @return the identifier or null if the message has no PID segment with an identifier
+	 */
+	static String getPatientKey(String hl7Data) {
+		if (hl7Data == null || hl7Data.length() < 8 || !hl7Data.startsWith("MSH")) {
+			return null;
+		}
+		char fieldSeparator = hl7Data.charAt(3);
+		char repetitionSeparator = hl7Data.charAt(5);
+		String pidSegmentStart = "PID" + fieldSeparator;
+		for (String segment : StringUtils.split(hl7Data, "\r\n")) {
+			if (segment.startsWith(pidSegmentStart)) {
+				String[] fields = StringUtils.splitPreserveAllTokens(segment, fieldSeparator);
+				if (fields.length < 4) {
+					return null;
+				}
+				String identifier = StringUtils.substringBefore(fields[3], String.valueOf(repetitionSeparator));
+				return StringUtils.isBlank(identifier) ? null : identifier;
+			}
+		}
+		return null;
+	}
+	
+	private void processClaimedPartition(List<Integer> hl7InQueueIds, Set<Integer> unstartedIds) {
+		HL7Service hl7Service = Context.getHL7Service();
+		int processed = 0;
+		for (Integer hl7InQueueId : hl7InQueueIds) {
+			// stop once the run is interrupted or the remaining entries have been released
+			if (Thread.currentThread().isInterrupted() || !unstartedIds.remove(hl7InQueueId)) {
+				return;
+			}
+			HL7InQueue hl7InQueue = hl7Service.getHL7InQueue(hl7InQueueId);
+			if (hl7InQueue == null) {
+				continue;
+			}
+			log.debug("Processing claimed HL7 inbound queue (id={} ,key={})", hl7InQueueId, hl7InQueue.getHL7SourceKey());
+			try {
+				hl7Service.processClaimedHL7InQueue(hl7InQueue);
+				recordProcessed(hl7InQueue);
+			}
+			catch (Exception e) {
+				failedCount.incrementAndGet();
+				log.error("Unable to process hl7 in queue", e);
+			}
+			if (++processed % GARBAGE_COLLECT_INTERVAL == 0) {
+				garbageCollect();
+			}
+		}
+	}
+	
+	private static void recordProcessed(HL7InQueue hl7InQueue) {
+		processedCount.incrementAndGet();
+		if (hl7InQueue.getDateCreated() != null) {
+			lagMillis = Math.max(0, System.currentTimeMillis() - hl7InQueue.getDateCreated().getTime());
+		}
+		synchronized (statisticsLock) {
+			runProcessedCount++;
+			long elapsedNanos = System.nanoTime() - runStartNanos;
+			if (elapsedNanos > 0) {
+				messagesPerSecond = runProcessedCount * 1e9 / elapsedNanos;
+			}
+		}
+	}
+	
+	private static void garbageCollect() {
+		try {
+			Context.getHL7Service().garbageCollect();
+		}
+		catch (Exception e) {
+			log.error("Exception while performing garbagecollect in hl7 inbound processor", e);
+		}
+	}
+	
+	private static int getIntegerGlobalProperty(String property, int defaultValue) {
+		String value = Context.getAdministrationService().getGlobalProperty(property);
+		try {
+			return StringUtils.isBlank(value) ? defaultValue : Integer.parseInt(value.trim());
+		}
+		catch (NumberFormatException e) {
+			log.warn("Invalid value '{}' of global property {}, using {}", value, property, defaultValue);
+			return defaultValue;
+		}
+	}
+	
+	/**
+	 * @return the number of queue entries processed by this JVM, successfully or moved to the error
+	 *         table
+	 * @since 3.0.0
+	 */
+	public static long getProcessedCount() {
+		return processedCount.get();
+	}
+	
+	/**
+	 * @return the number of claimed queue entries that failed with an exception and were left in the
+	 *         processing state until their claim expires
+	 * @since 3.0.0
+	 */
+	public static long getFailedCount() {
+		return failedCount.get();
+	}
+	
+	/**
+	 * @return the number of queue entries processed per second by the current or last run
+	 * @since 3.0.0
+	 */
+	public static double getMessagesPerSecond() {
+		return messagesPerSecond;
+	}
+	
+	/**
+	 * @return the time in milliseconds between the last processed queue entry being queued and
+	 *         processed
+	 * @since 3.0.0
+	 */
+	public static long getLagMillis() {
+		return lagMillis;
+	}
+	
 }
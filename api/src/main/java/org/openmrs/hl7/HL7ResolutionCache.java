@@ -0,0 +1,148 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.hl7;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import ca.uhn.hl7v2.HL7Exception;
+
+/**
+ * Caches the internal ids that the locations, patient identifier types, users and providers
+ * referenced by HL7 messages resolve to, so that processing a batch of messages does not query the
+ * same metadata for every message. Concepts are not cached here since their lookup by mapping is
+ * already cached by the {@link org.openmrs.api.ConceptService}.
+ * <p>
+ * The ids are held in caches of the apiCacheManager, see {@link org.openmrs.api.cache.CacheConfig},
+ * which are bounded and evict entries that were not used for a while. The services evict a cache
+ * when the metadata it holds is saved, retired or purged, and again once their transaction
+ * completes so that an id resolved by another thread before the change was committed is not kept.
+ * All caches are cleared whenever the database may have been changed behind the API's back, e.g. by
+ * running SQL. Lookups that find nothing are not cached.
+ *
+ * @since 3.0.0
+ */
+public class HL7ResolutionCache {
+
+	public static final String LOCATION_IDS = "hl7LocationIds";
+
+	public static final String PATIENT_IDENTIFIER_TYPE_IDS = "hl7PatientIdentifierTypeIds";
+
+	public static final String USER_IDS = "hl7UserIds";
+
+	public static final String PROVIDER_IDS = "hl7ProviderIds";
+
+	private static final List<String> CACHE_NAMES = Arrays.asList(LOCATION_IDS, PATIENT_IDENTIFIER_TYPE_IDS, USER_IDS,
+	    PROVIDER_IDS);
+
+	private CacheManager cacheManager;
+
+	public void setCacheManager(CacheManager cacheManager) {
+		this.cacheManager = cacheManager;
+	}
+
+	/**
+	 * Resolves the id of an object, looking it up in the given cache first
+	 *
+	 * @param cacheName one of the cache names of this class
+	 * @param key the values from the message identifying the object
+	 * @param resolver looks up the id in the database
+	 * @return the id or null if the object could not be resolved
+	 * @throws HL7Exception if the resolver fails
+	 */
+	public Integer resolve(String cacheName, String key, Resolver resolver) throws HL7Exception {
+		Cache cache = cacheManager != null ? cacheManager.getCache(cacheName) : null;
+		if (cache == null) {
+			return resolver.resolve();
+		}
+
+		Integer id = cache.get(key, Integer.class);
+		if (id == null) {
+			id = resolver.resolve();
+			if (id != null) {
+				cache.putIfAbsent(key, id);
+			}
+		}
+		return id;
+	}
+
+	/**
+	 * Builds the key of a cache entry from the values identifying an object in a message
+	 *
+	 * @param values the values, may be null
+	 * @return the key
+	 */
+	public static String key(String... values) {
+		StringBuilder key = new StringBuilder();
+		for (String value : values) {
+			// the length prefix keeps values containing the separator apart
+			String part = value == null ? "" : value;
+			key.append(part.length()).append(':').append(part).append('|');
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Evicts all ids from the given cache, now and again once the current transaction completes so
+	 * that ids resolved by other threads before the change was committed are not kept
+	 *
+	 * @param cacheName one of the cache names of this class
+	 */
+	public void evict(String cacheName) {
+		Cache cache = cacheManager != null ? cacheManager.getCache(cacheName) : null;
+		if (cache == null) {
+			return;
+		}
+
+		cache.clear();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+				@Override
+				public void afterCompletion(int status) {
+					cache.clear();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Evicts all resolved ids
+	 */
+	public void clear() {
+		if (cacheManager == null) {
+			return;
+		}
+		for (String cacheName : CACHE_NAMES) {
+			Cache cache = cacheManager.getCache(cacheName);
+			if (cache != null) {
+				cache.clear();
+			}
+		}
+	}
+
+	/**
+	 * Looks up the id of an object referenced by a message
+	 */
+	@FunctionalInterface
+	public interface Resolver {
+
+		/**
+		 * @return the id or null if the object could not be resolved
+		 * @throws HL7Exception if the message references the object in an invalid way
+		 */
+		Integer resolve() throws HL7Exception;
+	}
+}
@@ -218,6 +218,37 @@ public interface HL7Service extends OpenmrsService {
 	@Authorized(PrivilegeConstants.GET_HL7_IN_QUEUE)
 	public HL7InQueue getNextHL7InQueue() throws APIException;
 	
+	/**
+	 * Claims up to the given number of pending queue items in the order they were queued by marking
+	 * them as processing and recording the time of the claim. The state of each item is changed with
+	 * a conditional update, so an item is only ever claimed by one of several processors running at
+	 * the same time, even when they run on different servers sharing the database. Claimed items are
+	 * processed with {@link #processClaimedHL7InQueue(HL7InQueue)}. Items claimed longer ago than the
+	 * {@link org.openmrs.util.OpenmrsConstants#GP_HL7_PROCESSOR_CLAIM_TIMEOUT} global property are
+	 * claimed again, so that items of a processor that stopped without finishing them are not stuck.
+	 * 
+	 * @param batchSize the maximum number of items to claim
+	 * @return the claimed queue items ordered by id, an empty list if there are no pending items
+	 * @since 3.0.0
+	 * <strong>Should</strong> mark the claimed queue items as processing
+	 * <strong>Should</strong> not claim queue items that are already claimed
+	 * <strong>Should</strong> claim queue items whose claim has expired
+	 */
+	@Authorized(value = { PrivilegeConstants.GET_HL7_IN_QUEUE, PrivilegeConstants.PRIV_UPDATE_HL7_IN_QUEUE }, requireAll = true)
+	public List<HL7InQueue> claimHL7InQueues(int batchSize) throws APIException;
+	
+	/**
+	 * Moves queue items claimed with {@link #claimHL7InQueues(int)} that were not processed back to
+	 * the pending state so that they can be claimed again right away. Items that are no longer
+	 * processing are left alone.
+	 * 
+	 * @param hl7InQueueIds the ids of the claimed queue items
+	 * @since 3.0.0
+	 * <strong>Should</strong> move claimed queue items back to pending
+	 */
+	@Authorized(PrivilegeConstants.PRIV_UPDATE_HL7_IN_QUEUE)
+	public void releaseHL7InQueues(List<Integer> hl7InQueueIds) throws APIException;
+	
 	/**
 	 * Completely delete the hl7 in queue item from the database.
 	 * 
@@ -421,6 +452,19 @@ public interface HL7Service extends OpenmrsService {
 	 */
 	public HL7InQueue processHL7InQueue(HL7InQueue inQueue) throws HL7Exception;
 	
+	/**
+	 * Same as {@link #processHL7InQueue(HL7InQueue)} for a queue item claimed with
+	 * {@link #claimHL7InQueues(int)}, which is already marked as processing.
+	 * 
+	 * @param inQueue the claimed {@link HL7InQueue} to parse and save all encounters/obs to the db
+	 * @return the processed {@link HL7InQueue}
+	 * @throws HL7Exception
+	 * @since 3.0.0
+	 * <strong>Should</strong> create HL7InArchive after successful parsing
+	 * <strong>Should</strong> fail if given inQueue is not marked as processing
+	 */
+	public HL7InQueue processClaimedHL7InQueue(HL7InQueue inQueue) throws HL7Exception;
+	
 	/**
 	 * Parses the given string and returns the resulting {@link Message}
 	 * 
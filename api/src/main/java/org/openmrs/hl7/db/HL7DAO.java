@@ -9,6 +9,7 @@
  */
 package org.openmrs.hl7.db;
 
+import java.util.Date;
 import java.util.List;
 
 import org.openmrs.api.db.DAOException;
@@ -80,6 +81,22 @@ public interface HL7DAO {
 	 */
 	public HL7InQueue getNextHL7InQueue() throws DAOException;
 	
+	/**
+	 * Claims up to the given number of queue items that are pending or whose claim has expired
+	 * 
+	 * @param batchSize the maximum number of items to claim
+	 * @param now the time recorded as the time of the claim
+	 * @param expiredBefore items claimed before this time may be claimed again
+	 * @return the claimed queue items ordered by id
+	 * @see org.openmrs.hl7.HL7Service#claimHL7InQueues(int)
+	 */
+	public List<HL7InQueue> claimHL7InQueues(int batchSize, Date now, Date expiredBefore) throws DAOException;
+	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#releaseHL7InQueues(List)
+	 */
+	public void releaseHL7InQueues(List<Integer> hl7InQueueIds) throws DAOException;
+	
 	/**
 	 * @see org.openmrs.hl7.HL7Service#purgeHL7InQueue(org.openmrs.hl7.HL7InQueue)
 	 */
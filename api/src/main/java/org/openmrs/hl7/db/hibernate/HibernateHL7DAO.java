@@ -17,8 +17,10 @@ import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Date;
 import java.util.List;
 
+import org.hibernate.Hibernate;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.type.StandardBasicTypes;
@@ -235,6 +237,76 @@ public class HibernateHL7DAO implements HL7DAO {
 		return JpaUtils.getSingleResultOrNull(query);
 	}
 	
+	/**
+	 * Every entry is claimed with a conditional update of its state and claim time so that processors
+	 * running concurrently, in this or in other JVMs, never claim the same entry. Entries claimed by
+	 * another processor between reading the candidates and updating them are skipped. The claim
+	 * columns are not updatable through the mapping, they are only changed here and in
+	 * {@link #releaseHL7InQueues(List)}.
+	 * 
+	 * @see org.openmrs.hl7.db.HL7DAO#claimHL7InQueues(int, Date, Date)
+	 */
+	@Override
+	public List<HL7InQueue> claimHL7InQueues(int batchSize, Date now, Date expiredBefore) throws DAOException {
+		Session session = sessionFactory.getCurrentSession();
+		List<Integer> candidateIds = session.createQuery(
+		    "select hiq.HL7InQueueId from HL7InQueue hiq where hiq.messageState = :pending"
+		            + " or (hiq.messageState = :processing and hiq.dateClaimed < :expiredBefore) order by hiq.HL7InQueueId",
+		    Integer.class).setParameter("pending", HL7Constants.HL7_STATUS_PENDING)
+		        .setParameter("processing", HL7Constants.HL7_STATUS_PROCESSING).setParameter("expiredBefore", expiredBefore)
+		        .setMaxResults(batchSize).getResultList();
+		
+		List<Integer> claimedIds = new ArrayList<>(candidateIds.size());
+		for (Integer id : candidateIds) {
+			int updated = session.createNativeMutationQuery(
+			    "update hl7_in_queue set message_state = :processing, date_claimed = :now where hl7_in_queue_id = :id"
+			            + " and (message_state = :pending or (message_state = :processing and date_claimed < :expiredBefore))")
+			        .setParameter("processing", HL7Constants.HL7_STATUS_PROCESSING).setParameter("now", now)
+			        .setParameter("id", id).setParameter("pending", HL7Constants.HL7_STATUS_PENDING)
+			        .setParameter("expiredBefore", expiredBefore).executeUpdate();
+			if (updated == 1) {
+				claimedIds.add(id);
+			}
+		}
+		if (claimedIds.isEmpty()) {
+			return new ArrayList<>();
+		}
+		
+		// entries loaded before the update would still be in the pending state
+		for (Integer id : claimedIds) {
+			HL7InQueue loaded = session.getReference(HL7InQueue.class, id);
+			if (Hibernate.isInitialized(loaded)) {
+				session.refresh(loaded);
+			}
+		}
+		return session.createQuery("from HL7InQueue hiq where hiq.HL7InQueueId in (:ids) order by hiq.HL7InQueueId",
+		    HL7InQueue.class).setParameterList("ids", claimedIds).getResultList();
+	}
+	
+	/**
+	 * @see org.openmrs.hl7.db.HL7DAO#releaseHL7InQueues(List)
+	 */
+	@Override
+	public void releaseHL7InQueues(List<Integer> hl7InQueueIds) throws DAOException {
+		if (hl7InQueueIds.isEmpty()) {
+			return;
+		}
+		Session session = sessionFactory.getCurrentSession();
+		session.createNativeMutationQuery(
+		    "update hl7_in_queue set message_state = :pending, date_claimed = null where hl7_in_queue_id in (:ids)"
+		            + " and message_state = :processing")
+		        .setParameter("pending", HL7Constants.HL7_STATUS_PENDING).setParameterList("ids", hl7InQueueIds)
+		        .setParameter("processing", HL7Constants.HL7_STATUS_PROCESSING).executeUpdate();
+		
+		// entries loaded before the update would still be in the processing state
+		for (Integer id : hl7InQueueIds) {
+			HL7InQueue loaded = session.getReference(HL7InQueue.class, id);
+			if (Hibernate.isInitialized(loaded)) {
+				session.refresh(loaded);
+			}
+		}
+	}
+	
 	/**
 	 * @see org.openmrs.hl7.db.HL7DAO#deleteHL7InQueue(org.openmrs.hl7.HL7InQueue)
 	 */
@@ -40,6 +40,7 @@ import org.openmrs.User;
 import org.openmrs.api.context.Context;
 import org.openmrs.hl7.HL7Constants;
 import org.openmrs.hl7.HL7InQueueProcessor;
+import org.openmrs.hl7.HL7ResolutionCache;
 import org.openmrs.obs.ComplexData;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
@@ -99,6 +100,18 @@ public class ORUR01Handler implements Application {
 	
 	private static EncounterRole unknownRole = null;
 	
+	private HL7ResolutionCache resolutionCache;
+	
+	/**
+	 * Used by spring to inject the cache of resolved providers
+	 *
+	 * @param resolutionCache the cache to use
+	 * @since 3.0.0
+	 */
+	public void setResolutionCache(HL7ResolutionCache resolutionCache) {
+		this.resolutionCache = resolutionCache;
+	}
+	
 	/**
 	 * Always returns true, assuming that the router calling this handler will only call this
 	 * handler with ORU_R01 messages.
@@ -1022,10 +1035,20 @@ public class ORUR01Handler implements Application {
 	
 	private Provider getProvider(PV1 pv1) throws HL7Exception {
 		XCN hl7Provider = pv1.getAttendingDoctor(0);
-		Provider provider = null;
 		String id = hl7Provider.getIDNumber().getValue();
 		String assignAuth = hl7Provider.getAssigningAuthority().getUniversalID().getValue();
 		String type = hl7Provider.getAssigningAuthority().getUniversalIDType().getValue();
+		if (resolutionCache == null) {
+			return getProvider(id, assignAuth, type);
+		}
+		
+		Integer providerId = resolutionCache.resolve(HL7ResolutionCache.PROVIDER_IDS, HL7ResolutionCache.key(id,
+		    assignAuth, type), () -> getProvider(id, assignAuth, type).getProviderId());
+		return Context.getProviderService().getProvider(providerId);
+	}
+	
+	private Provider getProvider(String id, String assignAuth, String type) throws HL7Exception {
+		Provider provider = null;
 		String errorMessage;
 		if (StringUtils.hasText(id)) {
 			String specificErrorMsg = "";
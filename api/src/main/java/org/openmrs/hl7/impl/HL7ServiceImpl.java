@@ -61,6 +61,7 @@ import org.openmrs.hl7.HL7InArchive;
 import org.openmrs.hl7.HL7InError;
 import org.openmrs.hl7.HL7InQueue;
 import org.openmrs.hl7.HL7QueueItem;
+import org.openmrs.hl7.HL7ResolutionCache;
 import org.openmrs.hl7.HL7Service;
 import org.openmrs.hl7.HL7Source;
 import org.openmrs.hl7.HL7Util;
@@ -91,6 +92,8 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 	private GenericParser parser;
 	
 	private MessageTypeRouter router;
+	
+	private HL7ResolutionCache resolutionCache;
 
 	/**
 	 * @see org.openmrs.hl7.HL7Service#setHL7DAO(org.openmrs.hl7.db.HL7DAO)
@@ -118,6 +121,16 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 		this.router = router;
 	}
 	
+	/**
+	 * Used by spring to inject the cache of resolved locations, patient identifier types and users
+	 *
+	 * @param resolutionCache the cache to use
+	 * @since 3.0.0
+	 */
+	public void setResolutionCache(HL7ResolutionCache resolutionCache) {
+		this.resolutionCache = resolutionCache;
+	}
+	
 	/**
 	 * @see org.openmrs.hl7.HL7Service#saveHL7Source(org.openmrs.hl7.HL7Source)
 	 */
@@ -288,6 +301,25 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 		return dao.getNextHL7InQueue();
 	}
 	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#claimHL7InQueues(int)
+	 */
+	@Override
+	public List<HL7InQueue> claimHL7InQueues(int batchSize) throws APIException {
+		Integer claimTimeout = Context.getAdministrationService().getGlobalPropertyValue(
+		    OpenmrsConstants.GP_HL7_PROCESSOR_CLAIM_TIMEOUT, 3600);
+		Date now = new Date();
+		return dao.claimHL7InQueues(batchSize, now, new Date(now.getTime() - claimTimeout * 1000L));
+	}
+	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#releaseHL7InQueues(List)
+	 */
+	@Override
+	public void releaseHL7InQueues(List<Integer> hl7InQueueIds) throws APIException {
+		dao.releaseHL7InQueues(hl7InQueueIds);
+	}
+	
 	/**
 	 * @see org.openmrs.hl7.HL7Service#getHL7InArchiveByState(java.lang.Integer)
 	 */
@@ -419,6 +451,11 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 		String familyName = xcn.getFamilyName().getSurname().getValue();
 		String givenName = xcn.getGivenName().getValue();
 		
+		return resolve(HL7ResolutionCache.USER_IDS, HL7ResolutionCache.key(idNumber, familyName, givenName),
+		    () -> resolveUserId(idNumber, familyName, givenName));
+	}
+	
+	private Integer resolveUserId(String idNumber, String familyName, String givenName) {
 		if (idNumber != null && idNumber.length() > 0) {
 			try {
 				Integer userId = Integer.valueOf(idNumber);
@@ -509,10 +546,16 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 	@Override
 	@Transactional(readOnly = true)
 	public Integer resolveLocationId(PL pl) throws HL7Exception {
-		// TODO: Get rid of hack that allows first component to be an integer
-		// location.location_id
 		String pointOfCare = pl.getPointOfCare().getValue();
 		String facility = pl.getFacility().getUniversalID().getValue();
+		
+		return resolve(HL7ResolutionCache.LOCATION_IDS, HL7ResolutionCache.key(pointOfCare, facility),
+		    () -> resolveLocationId(pointOfCare, facility));
+	}
+	
+	private Integer resolveLocationId(String pointOfCare, String facility) throws HL7Exception {
+		// TODO: Get rid of hack that allows first component to be an integer
+		// location.location_id
 		// HACK: try to treat the first component (which should be "Point of
 		// Care" as an internal openmrs location_id
 		try {
@@ -591,8 +634,7 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 			if (StringUtils.isNotBlank(assigningAuthority)) {
 				// Assigning authority defined
 				try {
-					PatientIdentifierType pit = Context.getPatientService().getPatientIdentifierTypeByName(
-					    assigningAuthority);
+					PatientIdentifierType pit = getPatientIdentifierTypeByName(assigningAuthority);
 					if (pit == null) {
 						// there is no matching PatientIdentifierType
 						if (assigningAuthority.equals(HL7Constants.HL7_AUTHORITY_UUID)) {
@@ -665,6 +707,21 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 		return null;
 	}
 	
+	private PatientIdentifierType getPatientIdentifierTypeByName(String name) throws HL7Exception {
+		Integer patientIdentifierTypeId = resolve(HL7ResolutionCache.PATIENT_IDENTIFIER_TYPE_IDS,
+		    HL7ResolutionCache.key(name), () -> {
+			    PatientIdentifierType patientIdentifierType = Context.getPatientService().getPatientIdentifierTypeByName(
+			        name);
+			    return patientIdentifierType == null ? null : patientIdentifierType.getPatientIdentifierTypeId();
+		    });
+		return patientIdentifierTypeId == null ? null : Context.getPatientService().getPatientIdentifierType(
+		    patientIdentifierTypeId);
+	}
+	
+	private Integer resolve(String cacheName, String key, HL7ResolutionCache.Resolver resolver) throws HL7Exception {
+		return resolutionCache != null ? resolutionCache.resolve(cacheName, key, resolver) : resolver.resolve();
+	}
+	
 	/**
 	 * @see org.openmrs.hl7.HL7Service#garbageCollect()
 	 */
@@ -691,6 +748,33 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 			hl7InQueue.setMessageState(HL7Constants.HL7_STATUS_PROCESSING);
 		}
 		
+		return process(hl7InQueue);
+	}
+	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#processClaimedHL7InQueue(org.openmrs.hl7.HL7InQueue)
+	 */
+	@Override
+	public HL7InQueue processClaimedHL7InQueue(HL7InQueue hl7InQueue) throws HL7Exception {
+		
+		if (hl7InQueue == null) {
+			throw new HL7Exception("hl7InQueue argument cannot be null");
+		}
+		
+		if (!OpenmrsUtil.nullSafeEquals(HL7Constants.HL7_STATUS_PROCESSING, hl7InQueue.getMessageState())) {
+			throw new HL7Exception("The hl7InQueue message with id: " + hl7InQueue.getHL7InQueueId()
+			        + " has not been claimed for processing (key=" + hl7InQueue.getHL7SourceKey() + ")");
+		}
+		
+		return process(hl7InQueue);
+	}
+	
+	/**
+	 * Parses and saves the given queue entry, which is marked as processing, and moves it into the
+	 * archive or error table
+	 */
+	private HL7InQueue process(HL7InQueue hl7InQueue) {
+		
 		log.debug("Processing HL7 inbound queue (id={},key={})", hl7InQueue.getHL7InQueueId(), hl7InQueue.getHL7SourceKey());
 		
 		// Parse the HL7 into an HL7Message or abort with failure
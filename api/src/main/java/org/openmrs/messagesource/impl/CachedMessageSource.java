@@ -10,34 +10,88 @@
 package org.openmrs.messagesource.impl;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.openmrs.messagesource.MutableMessageSource;
 import org.openmrs.messagesource.PresentationMessage;
-import org.openmrs.messagesource.PresentationMessageMap;
 import org.springframework.context.support.AbstractMessageSource;
 
 /**
- * A MutableMessageSource backed by a localized map of PresentationMessageCollections, providing
- * in-memory storage of PresentationMessages. Useful for temporary storage, as a cache for other
- * sources, and for testing.
+ * A MutableMessageSource providing in-memory storage of PresentationMessages. Useful for temporary
+ * storage, as a cache for other sources, and for testing.
+ * <p>
+ * Message codes are interned to integer slots and the messages of each locale are kept in a
+ * {@link CompiledMessageTable} indexed by slot, which also caches the parsed {@link MessageFormat}
+ * of each message. Messages are only resolved in the requested locale, and like
+ * {@link MutableResourceBundleMessageSource} formats them, they are formatted with the conventions
+ * of that locale. All tables are published together as an immutable snapshot that is replaced
+ * whenever messages are added or removed, so lookups never lock.
  */
 public class CachedMessageSource extends AbstractMessageSource implements MutableMessageSource {
 	
-	Map<Locale, PresentationMessageMap> localizedMap = new HashMap<>();
+	/**
+	 * The slots of all message codes ever added, codes keep their slot when their messages are
+	 * removed
+	 */
+	private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+	
+	private volatile MessageTables tables = new MessageTables(Collections.emptyMap());
 	
 	/* (non-Javadoc)
 	 * @see org.openmrs.messagesource.MutableMessageSource#addPresentation(org.openmrs.api.PresentationMessage)
 	 */
 	@Override
 	public void addPresentation(PresentationMessage message) {
-		PresentationMessageMap codeMessageMap = localizedMap
-				.computeIfAbsent(message.getLocale(), k -> new PresentationMessageMap(message.getLocale()));
-		codeMessageMap.put(message.getCode(), message);
+		addPresentations(Collections.singletonList(message));
+	}
+	
+	/**
+	 * Adds the given messages replacing existing messages with the same code and locale, each
+	 * affected locale table is rebuilt once
+	 * 
+	 * @param messages the messages to add
+	 */
+	private synchronized void addPresentations(Collection<PresentationMessage> messages) {
+		Map<Locale, List<PresentationMessage>> messagesByLocale = new LinkedHashMap<>();
+		for (PresentationMessage message : messages) {
+			messagesByLocale.computeIfAbsent(message.getLocale(), k -> new ArrayList<>()).add(message);
+		}
+		
+		Map<Locale, CompiledMessageTable> newTables = new HashMap<>(tables.byLocale);
+		for (Map.Entry<Locale, List<PresentationMessage>> entry : messagesByLocale.entrySet()) {
+			List<PresentationMessage> localeMessages = entry.getValue();
+			int[] messageSlots = new int[localeMessages.size()];
+			String[] patterns = new String[localeMessages.size()];
+			String[] descriptions = new String[localeMessages.size()];
+			for (int i = 0; i < localeMessages.size(); i++) {
+				PresentationMessage message = localeMessages.get(i);
+				messageSlots[i] = getOrCreateSlot(message.getCode());
+				patterns[i] = message.getMessage();
+				descriptions[i] = message.getDescription();
+			}
+			CompiledMessageTable table = newTables.getOrDefault(entry.getKey(),
+			    new CompiledMessageTable(entry.getKey()));
+			newTables.put(entry.getKey(), table.with(messageSlots, patterns, descriptions));
+		}
+		tables = new MessageTables(newTables);
+	}
+	
+	private int getOrCreateSlot(String code) {
+		// only called by writers holding the lock on this source
+		Integer slot = slots.get(code);
+		if (slot == null) {
+			slot = slots.size();
+			slots.put(code, slot);
+		}
+		return slot;
 	}
 	
 	/**
@@ -46,7 +100,7 @@ public class CachedMessageSource extends AbstractMessageSource implements Mutabl
 	 */
 	@Override
 	public Collection<Locale> getLocales() {
-		return localizedMap.keySet();
+		return tables.byLocale.keySet();
 	}
 	
 	/* (non-Javadoc)
@@ -56,29 +110,52 @@ public class CachedMessageSource extends AbstractMessageSource implements Mutabl
 	public Collection<PresentationMessage> getPresentations() {
 		Collection<PresentationMessage> allMessages = new ArrayList<>();
 		
-		for (PresentationMessageMap codeMessageMap : localizedMap.values()) {
-			allMessages.addAll(codeMessageMap.values());
+		for (CompiledMessageTable table : tables.byLocale.values()) {
+			addPresentations(allMessages, table);
 		}
 		
 		return allMessages;
 	}
 	
+	private void addPresentations(Collection<PresentationMessage> presentations, CompiledMessageTable table) {
+		for (Map.Entry<String, Integer> codeSlot : slots.entrySet()) {
+			PresentationMessage presentation = toPresentation(codeSlot.getKey(), codeSlot.getValue(), table);
+			if (presentation != null) {
+				presentations.add(presentation);
+			}
+		}
+	}
+	
+	private static PresentationMessage toPresentation(String code, int slot, CompiledMessageTable table) {
+		String message = table.getMessage(slot);
+		if (message == null) {
+			return null;
+		}
+		return new PresentationMessage(code, table.getLocale(), message, table.getDescription(slot));
+	}
+	
 	/* (non-Javadoc)
 	 * @see org.openmrs.messagesource.MutableMessageSource#removePresentation(org.openmrs.api.PresentationMessage)
 	 */
 	@Override
-	public void removePresentation(PresentationMessage message) {
-		PresentationMessageMap codeMessageMap = localizedMap.get(message.getLocale());
-		if ((codeMessageMap != null) && codeMessageMap.containsKey(message.getCode())) {
-			codeMessageMap.remove(message.getCode());
+	public synchronized void removePresentation(PresentationMessage message) {
+		CompiledMessageTable table = tables.byLocale.get(message.getLocale());
+		Integer slot = slots.get(message.getCode());
+		if (table != null && slot != null && table.getMessage(slot) != null) {
+			Map<Locale, CompiledMessageTable> newTables = new HashMap<>(tables.byLocale);
+			CompiledMessageTable newTable = table.without(slot);
+			if (newTable.size() == 0) {
+				newTables.remove(message.getLocale());
+			} else {
+				newTables.put(message.getLocale(), newTable);
+			}
+			tables = new MessageTables(newTables);
 		}
 	}
 	
 	@Override
 	public void merge(MutableMessageSource fromSource, boolean overwrite) {
-		for (PresentationMessage message : fromSource.getPresentations()) {
-			addPresentation(message);
-		}
+		addPresentations(fromSource.getPresentations());
 	}
 	
 	/**
@@ -88,12 +165,12 @@ public class CachedMessageSource extends AbstractMessageSource implements Mutabl
 	 */
 	@Override
 	public PresentationMessage getPresentation(String key, Locale forLocale) {
-		PresentationMessage foundPM = null;
-		PresentationMessageMap codeMessageMap = localizedMap.get(forLocale);
-		if ((codeMessageMap != null) && codeMessageMap.containsKey(key)) {
-			foundPM = codeMessageMap.get(key);
+		CompiledMessageTable table = tables.byLocale.get(forLocale);
+		Integer slot = key != null ? slots.get(key) : null;
+		if (table == null || slot == null) {
+			return null;
 		}
-		return foundPM;
+		return toPresentation(key, slot, table);
 	}
 	
 	/**
@@ -102,9 +179,10 @@ public class CachedMessageSource extends AbstractMessageSource implements Mutabl
 	@Override
 	public Collection<PresentationMessage> getPresentationsInLocale(Locale locale) {
 		Collection<PresentationMessage> foundPresentations = null;
-		PresentationMessageMap codeMessageMap = localizedMap.get(locale);
-		if (codeMessageMap != null) {
-			foundPresentations = codeMessageMap.values();
+		CompiledMessageTable table = tables.byLocale.get(locale);
+		if (table != null) {
+			foundPresentations = new ArrayList<>(table.size());
+			addPresentations(foundPresentations, table);
 		}
 		return foundPresentations;
 	}
@@ -115,13 +193,37 @@ public class CachedMessageSource extends AbstractMessageSource implements Mutabl
 	 */
 	@Override
 	protected MessageFormat resolveCode(String code, Locale locale) {
-		MessageFormat resolvedMessageFormatForCode = null;
-		
-		PresentationMessage pmForCode = getPresentation(code, locale);
-		if (pmForCode != null) {
-			resolvedMessageFormatForCode = new MessageFormat(pmForCode.getMessage());
+		CompiledMessageTable table = tables.byLocale.get(locale);
+		Integer slot = slots.get(code);
+		if (table == null || slot == null) {
+			return null;
+		}
+		return table.getMessageFormat(slot);
+	}
+	
+	/**
+	 * @see org.springframework.context.support.AbstractMessageSource#resolveCodeWithoutArguments(java.lang.String,
+	 *      java.util.Locale)
+	 */
+	@Override
+	protected String resolveCodeWithoutArguments(String code, Locale locale) {
+		CompiledMessageTable table = tables.byLocale.get(locale);
+		Integer slot = slots.get(code);
+		if (table == null || slot == null) {
+			return null;
 		}
-		return resolvedMessageFormatForCode;
+		return table.getMessageWithoutArguments(slot);
 	}
 	
+	/**
+	 * The message tables of all locales as published together
+	 */
+	private static final class MessageTables {
+		
+		private final Map<Locale, CompiledMessageTable> byLocale;
+		
+		private MessageTables(Map<Locale, CompiledMessageTable> byLocale) {
+			this.byLocale = Collections.unmodifiableMap(byLocale);
+		}
+	}
 }
@@ -0,0 +1,173 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.messagesource.impl;
+
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The messages of one locale stored in arrays indexed by the slot their code was interned to by
+ * {@link CachedMessageSource} or {@link MutableResourceBundleMessageSource}. A table is never changed once it is published, adding or removing
+ * messages creates a new table. The parsed {@link MessageFormat} of a message and the message
+ * formatted without arguments are created on first use and shared by all threads, callers must
+ * synchronize on a shared MessageFormat when formatting with it like
+ * {@link org.springframework.context.support.AbstractMessageSource} does.
+ *
+ * @since 3.0.0
+ */
+final class CompiledMessageTable {
+
+	private final Locale locale;
+
+	private final String[] messages;
+
+	private final String[] descriptions;
+
+	private final int size;
+
+	private final AtomicReferenceArray<MessageFormat> messageFormats;
+
+	private final AtomicReferenceArray<String> messagesWithoutArguments;
+
+	CompiledMessageTable(Locale locale) {
+		this(locale, new String[0], new String[0], 0);
+	}
+
+	private CompiledMessageTable(Locale locale, String[] messages, String[] descriptions, int size) {
+		this.locale = locale;
+		this.messages = messages;
+		this.descriptions = descriptions;
+		this.size = size;
+		this.messageFormats = new AtomicReferenceArray<>(messages.length);
+		this.messagesWithoutArguments = new AtomicReferenceArray<>(messages.length);
+	}
+
+	/**
+	 * @return the locale of the messages in this table
+	 */
+	Locale getLocale() {
+		return locale;
+	}
+
+	/**
+	 * @return the number of messages in this table
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @param slot the slot of the message code
+	 * @return the message pattern or null if there is no message for the code in this locale
+	 */
+	String getMessage(int slot) {
+		return slot < messages.length ? messages[slot] : null;
+	}
+
+	/**
+	 * @param slot the slot of the message code
+	 * @return the description of the message or null if it has none
+	 */
+	String getDescription(int slot) {
+		return slot < descriptions.length ? descriptions[slot] : null;
+	}
+
+	/**
+	 * Gets the parsed message, parsing it on first use
+	 *
+	 * @param slot the slot of the message code
+	 * @return the shared message format or null if there is no message for the code in this locale
+	 */
+	MessageFormat getMessageFormat(int slot) {
+		String message = getMessage(slot);
+		if (message == null) {
+			return null;
+		}
+		MessageFormat messageFormat = messageFormats.get(slot);
+		if (messageFormat == null) {
+			messageFormat = new MessageFormat(message, locale);
+			if (!messageFormats.compareAndSet(slot, null, messageFormat)) {
+				messageFormat = messageFormats.get(slot);
+			}
+		}
+		return messageFormat;
+	}
+
+	/**
+	 * Gets the message formatted without arguments, which resolves quoted text, formatting it on first
+	 * use
+	 *
+	 * @param slot the slot of the message code
+	 * @return the formatted message or null if there is no message for the code in this locale
+	 */
+	String getMessageWithoutArguments(int slot) {
+		String message = getMessage(slot);
+		if (message == null) {
+			return null;
+		}
+		String formatted = messagesWithoutArguments.get(slot);
+		if (formatted == null) {
+			MessageFormat messageFormat = getMessageFormat(slot);
+			synchronized (messageFormat) {
+				formatted = messageFormat.format(new Object[0]);
+			}
+			messagesWithoutArguments.compareAndSet(slot, null, formatted);
+		}
+		return formatted;
+	}
+
+	/**
+	 * Creates a table with the given messages added or replaced. The slots and all three arrays must
+	 * have the same length.
+	 *
+	 * @param slots the slots of the message codes
+	 * @param newMessages the message patterns
+	 * @param newDescriptions the descriptions, elements may be null
+	 * @return the new table
+	 */
+	CompiledMessageTable with(int[] slots, String[] newMessages, String[] newDescriptions) {
+		int length = messages.length;
+		for (int slot : slots) {
+			length = Math.max(length, slot + 1);
+		}
+		String[] copiedMessages = Arrays.copyOf(messages, length);
+		String[] copiedDescriptions = Arrays.copyOf(descriptions, length);
+		int newSize = size;
+		for (int i = 0; i < slots.length; i++) {
+			if (copiedMessages[slots[i]] == null && newMessages[i] != null) {
+				newSize++;
+			} else if (copiedMessages[slots[i]] != null && newMessages[i] == null) {
+				newSize--;
+			}
+			copiedMessages[slots[i]] = newMessages[i];
+			copiedDescriptions[slots[i]] = newDescriptions[i];
+		}
+		return new CompiledMessageTable(locale, copiedMessages, copiedDescriptions, newSize);
+	}
+
+	/**
+	 * Creates a table without the message in the given slot
+	 *
+	 * @param slot the slot of the message code
+	 * @return the new table or this table if it has no message in the slot
+	 */
+	CompiledMessageTable without(int slot) {
+		if (getMessage(slot) == null) {
+			return this;
+		}
+		String[] copiedMessages = Arrays.copyOf(messages, messages.length);
+		String[] copiedDescriptions = Arrays.copyOf(descriptions, descriptions.length);
+		copiedMessages[slot] = null;
+		copiedDescriptions[slot] = null;
+		return new CompiledMessageTable(locale, copiedMessages, copiedDescriptions, size - 1);
+	}
+}
@@ -45,7 +45,7 @@ public class MessageSourceServiceImpl implements MessageSourceService {
 	 */
 	@Override
 	public String getMessage(String s) {
-		return Context.getMessageSourceService().getMessage(s, null, Context.getLocale());
+		return getMessage(s, null, Context.getLocale());
 	}
 	
 	/**
@@ -98,11 +98,11 @@ public class MessageSourceServiceImpl implements MessageSourceService {
 	 */
 	@Override
 	public String getMessage(MessageSourceResolvable resolvable, Locale locale) {
-		if((resolvable.getCodes()[0]).equals((activeMessageSource.getMessage(resolvable, locale)))){
+		String message = activeMessageSource.getMessage(resolvable, locale);
+		if ((resolvable.getCodes()[0]).equals(message)) {
 			return (resolvable.getCodes()[(resolvable.getCodes().length) - 1]);
-		}
-		else{
-			return activeMessageSource.getMessage(resolvable, locale);
+		} else {
+			return message;
 		}
 	}
 	
@@ -10,6 +10,7 @@
 package org.openmrs.messagesource.impl;
 
 import java.io.IOException;
+import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -21,6 +22,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.openmrs.messagesource.MutableMessageSource;
 import org.openmrs.messagesource.PresentationMessage;
@@ -40,6 +42,10 @@ import org.springframework.core.io.support.ResourcePatternResolver;
 /**
  * ResourceBundleMessageSource extends ReloadableResourceBundleMessageSource to provide the
  * additional features of a MutableMessageSource.
+ * <p>
+ * Messages are resolved from a {@link CompiledMessageTable} per requested locale, compiled from the
+ * same properties files, in the same order, as the superclass merges them. A table is compiled again
+ * once it is older than the cache seconds, which reloads the properties files that changed.
  */
 public class MutableResourceBundleMessageSource extends ReloadableResourceBundleMessageSource implements MutableMessageSource {
 
@@ -57,6 +63,15 @@ public class MutableResourceBundleMessageSource extends ReloadableResourceBundle
 	/** Cached list of available locales. */
 	private Collection<Locale> locales;
 	
+	/**
+	 * The slots of all message codes ever compiled, codes keep their slot when tables are compiled
+	 * again
+	 */
+	private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+	
+	/** The compiled messages of each requested locale */
+	private final Map<Locale, CompiledMessages> compiledMessages = new ConcurrentHashMap<>();
+	
 	/**
 	 * @see org.openmrs.messagesource.MessageSourceService#getLocales()
 	 */
@@ -352,6 +367,102 @@ public class MutableResourceBundleMessageSource extends ReloadableResourceBundle
 		}
 	}
 	
+	/**
+	 * @see org.springframework.context.support.ReloadableResourceBundleMessageSource#resolveCodeWithoutArguments(java.lang.String,
+	 *      java.util.Locale)
+	 */
+	@Override
+	protected String resolveCodeWithoutArguments(String code, Locale locale) {
+		if (cacheMilliseconds == 0) {
+			// the properties files are checked for changes on every lookup
+			return super.resolveCodeWithoutArguments(code, locale);
+		}
+		CompiledMessageTable table = getCompiledMessages(locale);
+		Integer slot = slots.get(code);
+		return slot != null ? table.getMessage(slot) : null;
+	}
+	
+	/**
+	 * @see org.springframework.context.support.ReloadableResourceBundleMessageSource#resolveCode(java.lang.String,
+	 *      java.util.Locale)
+	 */
+	@Override
+	protected MessageFormat resolveCode(String code, Locale locale) {
+		if (cacheMilliseconds == 0) {
+			return super.resolveCode(code, locale);
+		}
+		CompiledMessageTable table = getCompiledMessages(locale);
+		Integer slot = slots.get(code);
+		return slot != null ? table.getMessageFormat(slot) : null;
+	}
+	
+	/**
+	 * @see org.springframework.context.support.ReloadableResourceBundleMessageSource#clearCache()
+	 */
+	@Override
+	public void clearCache() {
+		super.clearCache();
+		compiledMessages.clear();
+	}
+	
+	private CompiledMessageTable getCompiledMessages(Locale locale) {
+		CompiledMessages compiled = compiledMessages.get(locale);
+		if (compiled == null || compiled.isExpired(cacheMilliseconds)) {
+			compiled = compileMessages(locale);
+		}
+		return compiled.table;
+	}
+	
+	/**
+	 * Compiles the messages of the given locale, merging the properties files like
+	 * {@link #getMergedProperties(Locale)} does: the files of earlier basenames take precedence over
+	 * the ones of later basenames, and for each basename the more specific locale takes precedence.
+	 */
+	private synchronized CompiledMessages compileMessages(Locale locale) {
+		CompiledMessages compiled = compiledMessages.get(locale);
+		if (compiled != null && !compiled.isExpired(cacheMilliseconds)) {
+			return compiled;
+		}
+		
+		Properties merged = new Properties();
+		List<String> basenameList = new ArrayList<>(getBasenameSet());
+		for (int i = basenameList.size() - 1; i >= 0; i--) {
+			List<String> filenames = calculateAllFilenames(basenameList.get(i), locale);
+			for (int j = filenames.size() - 1; j >= 0; j--) {
+				// only reloads the file if it changed since the cache seconds passed
+				Properties props = getProperties(filenames.get(j)).getProperties();
+				if (props != null) {
+					merged.putAll(props);
+				}
+			}
+		}
+		
+		int[] messageSlots = new int[merged.size()];
+		String[] messages = new String[merged.size()];
+		int index = 0;
+		for (Map.Entry<Object, Object> message : merged.entrySet()) {
+			messageSlots[index] = getOrCreateSlot(message.getKey().toString());
+			messages[index] = message.getValue().toString();
+			index++;
+		}
+		CompiledMessageTable table = new CompiledMessageTable(locale).with(messageSlots, messages,
+		    new String[messages.length]);
+		
+		compiled = new CompiledMessages(table, System.currentTimeMillis());
+		compiledMessages.put(locale, compiled);
+		return compiled;
+	}
+	
+	private int getOrCreateSlot(String code) {
+		// only called while compiling, which holds the lock on this source
+		Integer slot = slots.get(code);
+		if (slot == null) {
+			slot = slots.size();
+			slots.put(code, slot);
+		}
+		return slot;
+	}
+	
 	/**
 	 * @see org.openmrs.messagesource.MutableMessageSource#getPresentation(java.lang.String,
 	 *      java.util.Locale)
@@ -371,4 +482,22 @@ public class MutableResourceBundleMessageSource extends ReloadableResourceBundle
 		return null;
 	}
 	
+	/**
+	 * The compiled messages of a locale and when they were compiled
+	 */
+	private static final class CompiledMessages {
+		
+		private final CompiledMessageTable table;
+		
+		private final long compiledAt;
+		
+		private CompiledMessages(CompiledMessageTable table, long compiledAt) {
+			this.table = table;
+			this.compiledAt = compiledAt;
+		}
+		
+		private boolean isExpired(long cacheMilliseconds) {
+			return cacheMilliseconds > 0 && System.currentTimeMillis() - compiledAt > cacheMilliseconds;
+		}
+	}
 }
@@ -0,0 +1,63 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the names of classes a class loader failed to load, so that repeated lookups of missing
+ * classes, such as the ones made while compiling JSPs or scanning for optional Spring and Hibernate
+ * integrations, fail without searching every module and the web container again.
+ * <p>
+ * A missing class is remembered along with the {@link ModuleFactory#getProvidedPackagesVersion()}
+ * read before looking it up, and is forgotten as soon as a module is started or stopped.
+ *
+ * @since 3.0.0
+ */
+public class MissingClassCache {
+	
+	private static final int MAX_SIZE = 10000;
+	
+	private final Map<String, Long> missingClasses = new ConcurrentHashMap<>();
+	
+	/**
+	 * @param name the binary name of the class
+	 * @return true if the class could not be loaded and no module was started or stopped since
+	 */
+	public boolean isMissing(String name) {
+		Long version = missingClasses.get(name);
+		if (version == null) {
+			return false;
+		}
+		if (version != ModuleFactory.getProvidedPackagesVersion()) {
+			missingClasses.remove(name, version);
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * @param name the binary name of the class which could not be loaded
+	 * @param version the {@link ModuleFactory#getProvidedPackagesVersion()} read before looking up
+	 *            the class
+	 */
+	public void addMissing(String name, long version) {
+		if (missingClasses.size() >= MAX_SIZE) {
+			// missing classes are looked up again, rather than tracking which ones are used the most
+			missingClasses.clear();
+		}
+		missingClasses.put(name, version);
+	}
+	
+	public void clear() {
+		missingClasses.clear();
+	}
+}
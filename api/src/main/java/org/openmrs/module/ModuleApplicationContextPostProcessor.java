@@ -0,0 +1,133 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module;
+
+import org.openmrs.annotation.Handler;
+import org.openmrs.annotation.OpenmrsProfileExcludeFilter;
+import org.openmrs.annotation.OpenmrsProfileIncludeFilter;
+import org.openmrs.api.context.ServiceContext;
+import org.openmrs.util.TestTypeFilter;
+import org.springframework.aop.framework.autoproxy.AbstractAdvisorAutoProxyCreator;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.annotation.AnnotationConfigUtils;
+import org.springframework.context.annotation.ClassPathBeanDefinitionScanner;
+import org.springframework.context.support.AbstractRefreshableConfigApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+/**
+ * Sets up the child application context of a module the way the application context is set up for
+ * the beans of modules it loads itself:
+ * <ul>
+ * <li>annotation driven injection is enabled</li>
+ * <li>the components in the module's package are scanned with the same filters as in
+ * applicationContext-service.xml</li>
+ * <li>transactional and cacheable beans are proxied with the transaction and cache advisors of the
+ * parent application context</li>
+ * <li>the beans registering module services, which are defined with the serviceContext bean as their
+ * parent, do not destroy the {@link ServiceContext} when the child application context is closed</li>
+ * </ul>
+ *
+ * @see ModuleUtil#startModuleApplicationContext(AbstractRefreshableConfigApplicationContext,
+ *      org.springframework.context.ApplicationContext, Module)
+ * @since 3.0.0
+ */
+class ModuleApplicationContextPostProcessor implements BeanDefinitionRegistryPostProcessor {
+	
+	private static final String AUTO_PROXY_CREATOR_BEAN_NAME = "org.openmrs.module.internalModuleAutoProxyCreator";
+	
+	private final AbstractRefreshableConfigApplicationContext moduleApplicationContext;
+	
+	private final Module module;
+	
+	ModuleApplicationContextPostProcessor(AbstractRefreshableConfigApplicationContext moduleApplicationContext,
+	    Module module) {
+		this.moduleApplicationContext = moduleApplicationContext;
+		this.module = module;
+	}
+	
+	@Override
+	public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) throws BeansException {
+		AnnotationConfigUtils.registerAnnotationConfigProcessors(registry);
+	
+		scanComponents(registry, moduleApplicationContext.getEnvironment(), moduleApplicationContext, module);
+	
+		if (!registry.containsBeanDefinition(AUTO_PROXY_CREATOR_BEAN_NAME)) {
+			RootBeanDefinition autoProxyCreator = new RootBeanDefinition(ParentAdvisorAutoProxyCreator.class);
+			autoProxyCreator.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+			autoProxyCreator.getPropertyValues().add("proxyTargetClass", true);
+			registry.registerBeanDefinition(AUTO_PROXY_CREATOR_BEAN_NAME, autoProxyCreator);
+		}
+	}
+	
+	@Override
+	public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+			String beanClassName = beanFactory.getMergedBeanDefinition(beanName).getBeanClassName();
+			if (beanDefinition instanceof AbstractBeanDefinition && ServiceContext.class.getName().equals(beanClassName)) {
+				// the destroy method inherited from the serviceContext bean would remove all services
+				((AbstractBeanDefinition) beanDefinition).setDestroyMethodName("");
+			}
+		}
+	}
+	
+	/**
+	 * Registers the definitions of the components in the module's package with the same filters as
+	 * in applicationContext-service.xml
+	 */
+	static void scanComponents(BeanDefinitionRegistry registry, Environment environment, ResourceLoader resourceLoader,
+	        Module module) {
+		ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(registry, true, environment,
+		        resourceLoader);
+		scanner.addIncludeFilter(new AnnotationTypeFilter(Handler.class));
+		scanner.addIncludeFilter(new OpenmrsProfileIncludeFilter());
+		scanner.addExcludeFilter(new TestTypeFilter());
+		scanner.addExcludeFilter(new OpenmrsProfileExcludeFilter());
+		scanner.scan(module.getPackageName());
+	}
+	
+	/**
+	 * Applies the infrastructure advisors, such as the ones registered by
+	 * <code>tx:annotation-driven</code> and <code>cache:annotation-driven</code>, of this application
+	 * context and its ancestors to the beans of this application context.
+	 */
+	static class ParentAdvisorAutoProxyCreator extends AbstractAdvisorAutoProxyCreator {
+	
+		private transient ConfigurableListableBeanFactory beanFactory;
+	
+		@Override
+		public void setBeanFactory(BeanFactory beanFactory) {
+			super.setBeanFactory(beanFactory);
+			this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+		}
+	
+		@Override
+		protected boolean isEligibleAdvisorBean(String beanName) {
+			BeanFactory factory = beanFactory;
+			while (factory instanceof ConfigurableListableBeanFactory) {
+				ConfigurableListableBeanFactory listableFactory = (ConfigurableListableBeanFactory) factory;
+				if (listableFactory.containsBeanDefinition(beanName)) {
+					return listableFactory.getBeanDefinition(beanName).getRole() == BeanDefinition.ROLE_INFRASTRUCTURE;
+				}
+				factory = listableFactory.getParentBeanFactory();
+			}
+			return false;
+		}
+	}
+}
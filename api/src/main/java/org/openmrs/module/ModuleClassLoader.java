@@ -74,6 +74,16 @@ public class ModuleClassLoader extends URLClassLoader {
 	
 	private boolean disposed = false;
 	
+	// the packages of the libraries of modules in development mode are not known
+	private boolean developmentMode = false;
+	
+	private final MissingClassCache missingClasses = new MissingClassCache();
+	
+	private volatile ImportedModuleClassLoaders importedModuleClassLoaders;
+	
+	static {
+		ClassLoader.registerAsParallelCapable();
+	}
 	
 	/**
 	 * @param module Module
@@ -111,6 +121,7 @@ public class ModuleClassLoader extends URLClassLoader {
 		
 		File devDir = ModuleUtil.getDevelopmentDirectory(module.getModuleId());
 		if (devDir != null) {
+			developmentMode = true;
 			File[] fileList = devDir.listFiles();
 			if (fileList == null) {
 				return;
@@ -540,6 +551,8 @@ public class ModuleClassLoader extends URLClassLoader {
 		}
 		requiredModules = collectRequiredModuleImports(getModule());
 		awareOfModules = collectAwareOfModuleImports(getModule());
+		importedModuleClassLoaders = null;
+		missingClasses.clear();
 		libraryCache.entrySet().removeIf(uriFileEntry -> uriFileEntry.getValue() == null);
 	}
 	
@@ -555,6 +568,8 @@ public class ModuleClassLoader extends URLClassLoader {
 		libraryCache.clear();
 		requiredModules = null;
 		awareOfModules = null;
+		importedModuleClassLoaders = null;
+		missingClasses.clear();
 		disposed = true;
 	}
 	
@@ -569,6 +584,9 @@ public class ModuleClassLoader extends URLClassLoader {
 	}
 	
 	/**
+	 * Classes which could neither be loaded from this module, its imported modules nor the parent
+	 * class loader are remembered until a module is started or stopped.
+	 * 
 	 * @see java.lang.ClassLoader#loadClass(java.lang.String, boolean)
 	 */
 	@Override
@@ -576,30 +594,17 @@ public class ModuleClassLoader extends URLClassLoader {
 		// Check if the class has already been loaded by this class loader
 		Class<?> result = findLoadedClass(name);
 		if (result == null) {
-			if (probeParentLoaderLast) {
-				try {
-					result = loadClass(name, resolve, this, null);
-				}
-				catch (ClassNotFoundException cnfe) {
-					// Continue trying...
-				}
-				
-				if (result == null && getParent() != null) {
-					result = getParent().loadClass(name);
-				}
-			} else {
-				try {
-					if (getParent() != null) {
-						result = getParent().loadClass(name);
-					}
-				}
-				catch (ClassNotFoundException cnfe) {
-					// Continue trying...
-				}
-				
-				if (result == null) {
-					result = loadClass(name, resolve, this, null);
-				}
+			long providedPackagesVersion = ModuleFactory.getProvidedPackagesVersion();
+			if (missingClasses.isMissing(name)) {
+				throw new ClassNotFoundException(name);
+			}
+			
+			try {
+				result = loadClassFromModulesOrParent(name, resolve);
+			}
+			catch (ClassNotFoundException e) {
+				missingClasses.addMissing(name, providedPackagesVersion);
+				throw e;
 			}
 		}
 		
@@ -610,9 +615,47 @@ public class ModuleClassLoader extends URLClassLoader {
 		return result;
 	}
 	
+	private Class<?> loadClassFromModulesOrParent(final String name, final boolean resolve)
+	        throws ClassNotFoundException {
+		Class<?> result = null;
+		if (probeParentLoaderLast) {
+			try {
+				result = loadClass(name, resolve, this, null);
+			}
+			catch (ClassNotFoundException cnfe) {
+				// Continue trying...
+			}
+			
+			if (result == null && getParent() != null) {
+				result = getParent().loadClass(name);
+			}
+		} else {
+			try {
+				if (getParent() != null) {
+					result = getParent().loadClass(name);
+				}
+			}
+			catch (ClassNotFoundException cnfe) {
+				// Continue trying...
+			}
+			
+			if (result == null) {
+				result = loadClass(name, resolve, this, null);
+			}
+		}
+		
+		if (result == null) {
+			throw new ClassNotFoundException(name);
+		}
+		return result;
+	}
+	
 	/**
 	 * Custom loadClass implementation to allow for loading from a given ModuleClassLoader and skip
-	 * the modules that have been tried already
+	 * the modules that have been tried already. If the class is not found in this module, it is
+	 * looked up only in the imported modules which provide its package, see
+	 * {@link ModuleFactory#getModuleClassLoadersForPackage(String)}, rather than in every imported
+	 * module.
 	 * 
 	 * @param name String path and name of the class to load
 	 * @param resolve boolean whether or not to resolve this class before returning
@@ -621,7 +664,7 @@ public class ModuleClassLoader extends URLClassLoader {
 	 * @return Class that has been loaded
 	 * @throws ClassNotFoundException if no class found
 	 */
-	protected synchronized Class<?> loadClass(final String name, final boolean resolve, final ModuleClassLoader requestor,
+	protected Class<?> loadClass(final String name, final boolean resolve, final ModuleClassLoader requestor,
 	        Set<String> seenModules) throws ClassNotFoundException {
 		
 		if (log.isTraceEnabled()) {
@@ -653,18 +696,8 @@ public class ModuleClassLoader extends URLClassLoader {
 			throw new ClassNotFoundException(msg);
 		}
 		
-		// Check if the class has already been loaded by this class loader
-		Class<?> result = findLoadedClass(name);
-		
 		// Try loading the class with this class loader 
-		if (result == null) {
-			try {
-				result = findClass(name);
-			}
-			catch (ClassNotFoundException e) {
-				// Continue trying...
-			}
-		}
+		Class<?> result = findModuleClass(name);
 		
 		// We were able to "find" a class
 		if (result != null) {
@@ -673,45 +706,107 @@ public class ModuleClassLoader extends URLClassLoader {
 			return result;
 		}
 		
-		// Look through this module's imports to see if the class
-		// can be loaded from them.
-		
-		if (seenModules == null) {
-			seenModules = new HashSet<>();
+		// Look through the modules imported by this module, directly or through other
+		// modules, which provide the package of the class
+		Set<ModuleClassLoader> providers = ModuleFactory.getModuleClassLoadersForPackage(StringUtils.substringBeforeLast(
+		    name, "."));
+		for (ModuleClassLoader moduleClassLoader : getImportedModuleClassLoaders()) {
+			if ((seenModules != null && seenModules.contains(moduleClassLoader.getModule().getModuleId()))
+			        || !(moduleClassLoader.developmentMode || providers.contains(moduleClassLoader))
+			        || !ModuleFactory.isModuleStarted(moduleClassLoader.getModule())) {
+				continue;
+			}
+			
+			result = moduleClassLoader.findModuleClass(name);
+			if (result != null) {
+				moduleClassLoader.checkClassVisibility(result, requestor);
+				
+				return result;
+			}
 		}
 		
-		// Add this module to the list of modules we've tried already
+		throw new ClassNotFoundException(name);
+	}
+	
+	/**
+	 * Loads the class from the resources of this module only.
+	 *
+	 * @param name the binary name of the class
+	 * @return the class or null if this module does not contain it
+	 */
+	private Class<?> findModuleClass(final String name) {
+		synchronized (getClassLoadingLock(name)) {
+			// Check if the class has already been loaded by this class loader
+			Class<?> result = findLoadedClass(name);
+			if (result == null) {
+				try {
+					result = findClass(name);
+				}
+				catch (ClassNotFoundException e) {
+					// Not part of this module
+				}
+			}
+			return result;
+		}
+	}
+	
+	/**
+	 * Gets the class loaders of the modules required by or aware of this module, followed by the ones
+	 * of the modules they import in turn, in the order they are searched for classes. They are
+	 * computed again once a module is started or stopped.
+	 */
+	private List<ModuleClassLoader> getImportedModuleClassLoaders() {
+		ImportedModuleClassLoaders imported = importedModuleClassLoaders;
+		long providedPackagesVersion = ModuleFactory.getProvidedPackagesVersion();
+		if (imported == null || imported.version != providedPackagesVersion) {
+			imported = new ImportedModuleClassLoaders(providedPackagesVersion, collectImportedModuleClassLoaders());
+			importedModuleClassLoaders = imported;
+		}
+		return imported.classLoaders;
+	}
+	
+	private List<ModuleClassLoader> collectImportedModuleClassLoaders() {
+		List<ModuleClassLoader> result = new ArrayList<>();
+		Set<String> seenModules = new HashSet<>();
 		seenModules.add(getModule().getModuleId());
-		
+		collectImportedModuleClassLoaders(this, seenModules, result);
+		return result;
+	}
+	
+	private static void collectImportedModuleClassLoaders(ModuleClassLoader classLoader, Set<String> seenModules,
+	        List<ModuleClassLoader> result) {
 		List<Module> importedModules = new ArrayList<>();
-		if (requiredModules != null) {
-			Collections.addAll(importedModules, requiredModules);
+		if (classLoader.requiredModules != null) {
+			Collections.addAll(importedModules, classLoader.requiredModules);
 		}
-		if (awareOfModules != null) {
-			Collections.addAll(importedModules, awareOfModules);
+		if (classLoader.awareOfModules != null) {
+			Collections.addAll(importedModules, classLoader.awareOfModules);
 		}
 		
 		for (Module importedModule : importedModules) {
-			if (seenModules.contains(importedModule.getModuleId())) {
+			if (!seenModules.add(importedModule.getModuleId())) {
 				continue;
 			}
 			
-			ModuleClassLoader moduleClassLoader = ModuleFactory.getModuleClassLoader(importedModule);
-			
 			// Module class loader may be null if module has not been started yet
+			ModuleClassLoader moduleClassLoader = ModuleFactory.getModuleClassLoader(importedModule);
 			if (moduleClassLoader != null) {
-				try {
-					result = moduleClassLoader.loadClass(name, resolve, requestor, seenModules);
-					
-					return result;
-				}
-				catch (ClassNotFoundException e) {
-					// Continue trying...
-				}
+				result.add(moduleClassLoader);
+				collectImportedModuleClassLoaders(moduleClassLoader, seenModules, result);
 			}
 		}
+	}
+	
+	private static class ImportedModuleClassLoaders {
 		
-		throw new ClassNotFoundException(name);
+		private final long version;
+		
+		private final List<ModuleClassLoader> classLoaders;
+		
+		private ImportedModuleClassLoaders(long version, List<ModuleClassLoader> classLoaders) {
+			this.version = version;
+			this.classLoaders = classLoaders;
+		}
 	}
 	
 	/**
@@ -879,6 +974,18 @@ public class ModuleClassLoader extends URLClassLoader {
 		return Collections.enumeration(result);
 	}
 	
+	/**
+	 * Finds a resource in the resources of this module only, unlike {@link #findResource(String)}
+	 * which also looks in the modules this module imports.
+	 *
+	 * @param name String path and name of the file
+	 * @return URL to the resource or null if this module does not contain it
+	 * @since 3.0.0
+	 */
+	public URL findModuleResource(final String name) {
+		return expandIfNecessary(super.findResource(name));
+	}
+	
 	/**
 	 * Find a resource (image, file, etc) in the module structure
 	 *
@@ -56,6 +56,28 @@ public class ModuleConstants {
 	 */
 	public static final String RUNTIMEPROPERTY_MODULE_LIST_TO_LOAD = "module.list_to_load";
 	
+	/**
+	 * Setting this property to "true" starts and stops modules which do not map entities in their own
+	 * child application context instead of refreshing the whole application context, see
+	 * {@link ModuleUtil#canStartModuleApplicationContext(Module)}. The web application still refreshes
+	 * its whole application context for modules with web controllers or handler mappings, which
+	 * includes most modules with a user interface, since the dispatcher servlet only serves the handlers
+	 * of the web application context.
+	 * 
+	 * @since 3.0.0
+	 */
+	public static final String RUNTIMEPROPERTY_INCREMENTAL_REFRESH = "module.incremental_refresh";
+	
+	/**
+	 * The number of modules to start in parallel at most at application startup. Modules are started
+	 * in waves, a module only being started once the modules it requires or is aware of are, see
+	 * {@link ModuleFactory#getModulesInStartupWaves(java.util.Collection)}. Defaults to 1, starting
+	 * modules one by one.
+	 * 
+	 * @since 3.0.0
+	 */
+	public static final String RUNTIMEPROPERTY_STARTUP_THREADS = "module.startup_threads";
+	
 	/**
 	 * Name of the runtime property that will tell the system where to look for modules to load. Can
 	 * be either relative or absolute
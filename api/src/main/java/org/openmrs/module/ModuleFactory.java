@@ -20,7 +20,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +28,11 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
@@ -37,9 +41,13 @@ import org.openmrs.GlobalProperty;
 import org.openmrs.Privilege;
 import org.openmrs.api.APIException;
 import org.openmrs.api.AdministrationService;
+import org.openmrs.api.MessageSourceService;
 import org.openmrs.api.OpenmrsService;
+import org.openmrs.api.cache.GlobalPropertyCache;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.context.Daemon;
+import org.openmrs.api.context.UserContext;
+import org.openmrs.hl7.HL7ResolutionCache;
 import org.openmrs.module.Extension.MEDIA_TYPE;
 import org.openmrs.util.CycleException;
 import org.openmrs.util.DatabaseUpdater;
@@ -81,12 +89,18 @@ public class ModuleFactory {
 	
 	private static final Map<String, Set<ModuleClassLoader>> providedPackages = new ConcurrentHashMap<>();
 	
+	// incremented whenever the set of module class loaders providing packages changes
+	private static final AtomicLong providedPackagesVersion = new AtomicLong();
+	
 	// the name of the file within a module file
 	private static final String MODULE_CHANGELOG_FILENAME = "liquibase.xml";
 	
 	private static final Cache<String, DaemonToken> daemonTokens = CacheBuilder.newBuilder().softValues().build();
 	
-	private static final Set<String> actualStartupOrder = new LinkedHashSet<>();
+	private static final Set<String> actualStartupOrder = Collections.synchronizedSet(new LinkedHashSet<>());
+	
+	// serializes the database updates of modules started in parallel
+	private static final Object moduleDatabaseUpdateLock = new Object();
 	
 	/**
 	 * Add a module (in the form of a jar file) to the list of openmrs modules Returns null if an error
@@ -187,14 +201,21 @@ public class ModuleFactory {
 	 *            every module <strong>Should</strong> not start the loaded modules
 	 */
 	public static void loadModules(List<File> modulesToLoad) {
+		// the module files are parsed concurrently, but loaded in the given order
+		List<Future<Module>> parsedModules = parseModules(modulesToLoad);
+		
 		// loop over the modules and load all the modules that we can
-		for (File f : modulesToLoad) {
+		for (int i = 0; i < modulesToLoad.size(); i++) {
+			File f = modulesToLoad.get(i);
 			if (f.exists()) {
 				// ignore .svn folder and the like
 				if (!f.getName().startsWith(".")) {
 					try {
 						// last module loaded wins
-						Module mod = loadModule(f, true);
+						Module mod = getParsedModule(parsedModules.get(i));
+						if (mod != null) {
+							loadModule(mod, true);
+						}
 						log.debug("Loaded module: " + mod + " successfully");
 					}
 					catch (Exception e) {
@@ -222,11 +243,65 @@ public class ModuleFactory {
 		}
 	}
 	
+	/**
+	 * Parses the given module files with a thread per available processor, files which do not exist
+	 * or are hidden are not parsed
+	 *
+	 * @param moduleFiles the module files to parse
+	 * @return the parsed modules, in the order of the given files, and null for the files which are
+	 *         not parsed
+	 */
+	private static List<Future<Module>> parseModules(List<File> moduleFiles) {
+		List<Future<Module>> parsedModules = new ArrayList<>();
+		if (moduleFiles.isEmpty()) {
+			return parsedModules;
+		}
+		
+		MessageSourceService messageSourceService = Context.getMessageSourceService();
+		int threads = Math.min(Runtime.getRuntime().availableProcessors(), moduleFiles.size());
+		AtomicInteger threadNumber = new AtomicInteger();
+		ExecutorService parseExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread t = new Thread(runnable, "OpenMRS-Module-Parser-" + threadNumber.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		try {
+			for (File f : moduleFiles) {
+				if (f.exists() && !f.getName().startsWith(".")) {
+					parsedModules.add(parseExecutor.submit(() -> new ModuleFileParser(messageSourceService).parse(f)));
+				} else {
+					parsedModules.add(null);
+				}
+			}
+		}
+		finally {
+			// the files already submitted are still parsed
+			parseExecutor.shutdown();
+		}
+		return parsedModules;
+	}
+	
+	private static Module getParsedModule(Future<Module> parsedModule) throws Exception {
+		try {
+			return parsedModule.get();
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			throw e;
+		}
+	}
+	
 	/**
 	 * Try to start all of the loaded modules that have the global property <i>moduleId</i>.started is
 	 * set to "true" or the property does not exist. Otherwise, leave it as only "loaded"<br>
 	 * <br>
-	 * Modules that are already started will be skipped.
+	 * Modules that are already started will be skipped.<br>
+	 * <br>
+	 * If {@link ModuleConstants#RUNTIMEPROPERTY_STARTUP_THREADS} is greater than 1, the modules are
+	 * started in the waves returned by {@link #getModulesInStartupWaves(Collection)}, starting the
+	 * modules of a wave in parallel once all modules of the previous waves are started.
 	 */
 	public static void startModules() {
 		
@@ -234,44 +309,153 @@ public class ModuleFactory {
 		if (!getLoadedModules().isEmpty()) {
 			
 			List<Module> modules = getModulesThatShouldStart();
+			int startupThreads = getModuleStartupThreads();
 			
+			List<List<Module>> waves = new ArrayList<>();
 			try {
-				modules = getModulesInStartupOrder(modules);
+				if (startupThreads > 1) {
+					waves.addAll(getModulesInStartupWaves(modules));
+				} else {
+					getModulesInStartupOrder(modules).forEach(mod -> waves.add(Collections.singletonList(mod)));
+				}
 			}
 			catch (CycleException ex) {
 				String message = getCyclicDependenciesMessage(ex.getMessage());
 				log.error(message, ex);
 				notifySuperUsersAboutCyclicDependencies(ex);
-				modules = (List<Module>) ex.getExtraData();
+				waves.clear();
+				((List<Module>) ex.getExtraData()).forEach(mod -> waves.add(Collections.singletonList(mod)));
 			}
 			
 			// try and start the modules that should be started
-			for (Module mod : modules) {
-				
-				if (mod.isStarted()) {
-					// skip over modules that are already started
-					continue;
-				}
-				
-				// Skip module if required ones are not started
-				if (!requiredModulesStarted(mod)) {
-					String message = getFailedToStartModuleMessage(mod);
-					log.error(message);
-					mod.setStartupErrorMessage(message);
-					notifySuperUsersAboutModuleFailure(mod);
-					continue;
-				}
-				
-				try {
-					log.debug("starting module: {}", mod.getModuleId());
-					startModule(mod);
+			ModuleStartupTimeline timeline = new ModuleStartupTimeline();
+			ExecutorService startupExecutor = null;
+			// the modules of a wave are started on other threads, which act as the user of this one
+			UserContext userContext = Context.isSessionOpen() ? Context.getUserContext() : null;
+			try {
+				for (int wave = 0; wave < waves.size(); wave++) {
+					List<Module> waveModules = waves.get(wave);
+					if (waveModules.size() == 1) {
+						startModuleOfWave(waveModules.get(0), wave, timeline);
+						continue;
+					}
+					
+					if (startupExecutor == null) {
+						startupExecutor = newModuleStartupExecutor(startupThreads);
+					}
+					
+					// the modules of a wave don't depend on each other, only on the modules of the previous waves
+					List<Future<?>> startedWaveModules = new ArrayList<>();
+					for (Module mod : waveModules) {
+						final int waveNumber = wave;
+						startedWaveModules.add(startupExecutor
+						        .submit(() -> startModuleOfWaveInSession(mod, waveNumber, timeline, userContext)));
+					}
+					for (Future<?> startedWaveModule : startedWaveModules) {
+						try {
+							startedWaveModule.get();
+						}
+						catch (ExecutionException e) {
+							log.error("Error while starting modules", e.getCause());
+						}
+					}
 				}
-				catch (Exception e) {
-					log.error("Error while starting module: " + mod.getName(), e);
-					mod.setStartupErrorMessage("Error while starting module", e);
-					notifySuperUsersAboutModuleFailure(mod);
+			}
+			catch (InterruptedException e) {
+				log.error("Interrupted while starting modules", e);
+				Thread.currentThread().interrupt();
+			}
+			finally {
+				if (startupExecutor != null) {
+					startupExecutor.shutdownNow();
 				}
 			}
+			
+			timeline.log();
+		}
+	}
+	
+	/**
+	 * Starts the given module if it is not started yet and the modules it requires are started
+	 *
+	 * @param mod the module to start
+	 * @param wave the index of the wave the module is started in
+	 * @param timeline the timeline to record how long the module took to start in
+	 */
+	private static void startModuleOfWave(Module mod, int wave, ModuleStartupTimeline timeline) {
+		if (mod.isStarted()) {
+			// skip over modules that are already started
+			return;
+		}
+		
+		// Skip module if required ones are not started
+		if (!requiredModulesStarted(mod)) {
+			String message = getFailedToStartModuleMessage(mod);
+			log.error(message);
+			mod.setStartupErrorMessage(message);
+			notifySuperUsersAboutModuleFailure(mod);
+			timeline.addSkipped(mod, wave);
+			return;
+		}
+		
+		long startTime = System.currentTimeMillis();
+		try {
+			log.debug("starting module: {}", mod.getModuleId());
+			startModule(mod);
+		}
+		catch (Exception e) {
+			log.error("Error while starting module: " + mod.getName(), e);
+			mod.setStartupErrorMessage("Error while starting module", e);
+			notifySuperUsersAboutModuleFailure(mod);
+		}
+		timeline.addStarted(mod, wave, startTime, System.currentTimeMillis());
+	}
+	
+	/**
+	 * Starts the given module on a module startup thread, in a session of its own with the user
+	 * context of the thread that started the modules
+	 *
+	 * @param mod the module to start
+	 * @param wave the index of the wave the module is started in
+	 * @param timeline the timeline to record how long the module took to start in
+	 * @param userContext the user context of the thread that started the modules, null if it had none
+	 */
+	private static void startModuleOfWaveInSession(Module mod, int wave, ModuleStartupTimeline timeline,
+	        UserContext userContext) {
+		Context.openSession();
+		try {
+			if (userContext != null) {
+				Context.setUserContext(userContext);
+			}
+			startModuleOfWave(mod, wave, timeline);
+		}
+		finally {
+			Context.closeSession();
+		}
+	}
+	
+	private static ExecutorService newModuleStartupExecutor(int startupThreads) {
+		AtomicInteger threadNumber = new AtomicInteger();
+		return Executors.newFixedThreadPool(startupThreads, runnable -> {
+			Thread t = new Thread(runnable, "OpenMRS-Module-Startup-" + threadNumber.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+	}
+	
+	/**
+	 * @return the number of modules to start in parallel at most, see
+	 *         {@link ModuleConstants#RUNTIMEPROPERTY_STARTUP_THREADS}
+	 */
+	private static int getModuleStartupThreads() {
+		String prop = Context.getRuntimeProperties().getProperty(ModuleConstants.RUNTIMEPROPERTY_STARTUP_THREADS, "1");
+		try {
+			return Math.max(1, Integer.parseInt(prop.trim()));
+		}
+		catch (NumberFormatException e) {
+			log.warn("Invalid value for runtime property {}: {}, starting modules one by one",
+			    ModuleConstants.RUNTIMEPROPERTY_STARTUP_THREADS, prop);
+			return 1;
 		}
 	}
 	
@@ -349,6 +533,42 @@ public class ModuleFactory {
 		return graph.topologicalSort();
 	}
 	
+	/**
+	 * Groups modules into waves which can be started one after the other, such that the modules of a
+	 * wave only have required and aware-of dependencies on modules of previous waves. Within a wave,
+	 * modules keep the order returned by {@link #getModulesInStartupOrder(Collection)}.
+	 *
+	 * @param modules list of modules to group
+	 * @return the waves of modules, in startup order
+	 * @throws CycleException
+	 * @since 3.0.0
+	 */
+	public static List<List<Module>> getModulesInStartupWaves(Collection<Module> modules) throws CycleException {
+		List<List<Module>> waves = new ArrayList<>();
+		Map<String, Integer> waveByPackage = new HashMap<>();
+		
+		for (Module mod : getModulesInStartupOrder(modules)) {
+			// the dependencies of a module come before it in startup order, so their waves are known
+			int wave = 0;
+			List<String> dependencies = new ArrayList<>(mod.getRequiredModules());
+			dependencies.addAll(mod.getAwareOfModules());
+			for (String dependency : dependencies) {
+				Integer dependencyWave = waveByPackage.get(dependency);
+				if (dependencyWave != null) {
+					wave = Math.max(wave, dependencyWave + 1);
+				}
+			}
+			
+			waveByPackage.put(mod.getPackageName(), wave);
+			if (wave == waves.size()) {
+				waves.add(new ArrayList<>());
+			}
+			waves.get(wave).add(mod);
+		}
+		
+		return waves;
+	}
+	
 	/**
 	 * Send an Alert to all super users that the given module did not start successfully.
 	 *
@@ -472,8 +692,10 @@ public class ModuleFactory {
 	public static List<Module> getStartedModulesInOrder() {
 		List<Module> modules = new ArrayList<>();
 		if (actualStartupOrder != null) {
-			for (String moduleId : actualStartupOrder) {
-				modules.add(getStartedModulesMap().get(moduleId));
+			synchronized (actualStartupOrder) {
+				for (String moduleId : actualStartupOrder) {
+					modules.add(getStartedModulesMap().get(moduleId));
+				}
 			}
 		} else {
 			modules.addAll(getStartedModules());
@@ -651,82 +873,88 @@ public class ModuleFactory {
 				
 				// Sort this module's extensions, and merge them into the full extensions map
 				Comparator<Extension> sortOrder = (e1, e2) -> Integer.valueOf(e1.getOrder()).compareTo(e2.getOrder());
-				for (Map.Entry<String, List<Extension>> moduleExtensionEntry : moduleExtensionMap.entrySet()) {
-					// Sort this module's extensions for current extension point
-					List<Extension> sortedModuleExtensions = moduleExtensionEntry.getValue();
-					sortedModuleExtensions.sort(sortOrder);
-					
-					// Get existing extensions, and append the ones from the new module
-					List<Extension> extensions = getExtensionMap().computeIfAbsent(moduleExtensionEntry.getKey(),
-						k -> new ArrayList<>());
-					for (Extension ext : sortedModuleExtensions) {
-						log.debug("Adding to mapping ext: " + ext.getExtensionId() + " ext.class: " + ext.getClass());
-						extensions.add(ext);
+				synchronized (extensionMap) {
+					for (Map.Entry<String, List<Extension>> moduleExtensionEntry : moduleExtensionMap.entrySet()) {
+						// Sort this module's extensions for current extension point
+						List<Extension> sortedModuleExtensions = moduleExtensionEntry.getValue();
+						sortedModuleExtensions.sort(sortOrder);
+						
+						// Get existing extensions, and append the ones from the new module
+						List<Extension> extensions = getExtensionMap().computeIfAbsent(moduleExtensionEntry.getKey(),
+							k -> new ArrayList<>());
+						for (Extension ext : sortedModuleExtensions) {
+							log.debug("Adding to mapping ext: " + ext.getExtensionId() + " ext.class: " + ext.getClass());
+							extensions.add(ext);
+						}
 					}
 				}
 				
-				// run the module's sql update script
-				// This and the property updates are the only things that can't
-				// be undone at startup, so put these calls after any other
-				// calls that might hinder startup
-				SortedMap<String, String> diffs = SqlDiffFileParser.getSqlDiffs(module);
-				
-				try {
-					// this method must check and run queries against the database.
-					// to do this, it must be "authenticated".  Give the current
-					// "user" the proxy privilege so this can be done. ("user" might
-					// be nobody because this is being run at startup)
-					Context.addProxyPrivilege("");
+				// modules started in parallel update the database one at a time, their activators still
+				// run in parallel
+				synchronized (moduleDatabaseUpdateLock) {
+					// run the module's sql update script
+					// This and the property updates are the only things that can't
+					// be undone at startup, so put these calls after any other
+					// calls that might hinder startup
+					SortedMap<String, String> diffs = SqlDiffFileParser.getSqlDiffs(module);
 					
-					for (Map.Entry<String, String> entry : diffs.entrySet()) {
-						String version = entry.getKey();
-						String sql = entry.getValue();
-						if (StringUtils.hasText(sql)) {
-							runDiff(module, version, sql);
+					try {
+						// this method must check and run queries against the database.
+						// to do this, it must be "authenticated".  Give the current
+						// "user" the proxy privilege so this can be done. ("user" might
+						// be nobody because this is being run at startup)
+						Context.addProxyPrivilege("");
+					
+						for (Map.Entry<String, String> entry : diffs.entrySet()) {
+							String version = entry.getKey();
+							String sql = entry.getValue();
+							if (StringUtils.hasText(sql)) {
+								runDiff(module, version, sql);
+							}
 						}
 					}
-				}
-				finally {
-					// take the "authenticated" privilege away from the current "user"
-					Context.removeProxyPrivilege("");
-				}
-				
-				// run module's optional liquibase.xml immediately after sqldiff.xml
-				runLiquibase(module);
-				
-				// effectively mark this module as started successfully
-				getStartedModulesMap().put(moduleId, module);
-
-				actualStartupOrder.add(moduleId);
-				
-				try {
-					// save the state of this module for future restarts
-					saveGlobalProperty(moduleId + ".started", "true", getGlobalPropertyStartedDescription(moduleId));
+					finally {
+						// take the "authenticated" privilege away from the current "user"
+						Context.removeProxyPrivilege("");
+					}
 					
-					// save the mandatory status
-					saveGlobalProperty(moduleId + ".mandatory", String.valueOf(module.isMandatory()),
-						getGlobalPropertyMandatoryModuleDescription(moduleId));
-				}
-				catch (Exception e) {
-					// pass over errors because this doesn't really concern startup
-					// passing over this also allows for multiple of the same-named modules
-					// to be loaded in junit tests that are run within one session
-					log.debug("Got an error when trying to set the global property on module startup", e);
-				}
-				
-				// (this must be done after putting the module in the started
-				// list)
-				// if this module defined any privileges or global properties,
-				// make sure they are added to the database
-				// (Unfortunately, placing the call here will duplicate work
-				// done at initial app startup)
-				if (!module.getPrivileges().isEmpty() || !module.getGlobalProperties().isEmpty()) {
-					log.debug("Updating core dataset");
-					Context.checkCoreDataset();
-					// checkCoreDataset() currently doesn't throw an error. If
-					// it did, it needs to be
-					// caught and the module needs to be stopped and given a
-					// startup error
+					// run module's optional liquibase.xml immediately after sqldiff.xml
+					runLiquibase(module);
+					
+					// effectively mark this module as started successfully
+					getStartedModulesMap().put(moduleId, module);
+					
+					actualStartupOrder.add(moduleId);
+					
+					try {
+						// save the state of this module for future restarts
+						saveGlobalProperty(moduleId + ".started", "true", getGlobalPropertyStartedDescription(moduleId));
+					
+						// save the mandatory status
+						saveGlobalProperty(moduleId + ".mandatory", String.valueOf(module.isMandatory()),
+							getGlobalPropertyMandatoryModuleDescription(moduleId));
+					}
+					catch (Exception e) {
+						// pass over errors because this doesn't really concern startup
+						// passing over this also allows for multiple of the same-named modules
+						// to be loaded in junit tests that are run within one session
+						log.debug("Got an error when trying to set the global property on module startup", e);
+					}
+					
+					// (this must be done after putting the module in the started
+					// list)
+					// if this module defined any privileges or global properties,
+					// make sure they are added to the database
+					// (Unfortunately, placing the call here will duplicate work
+					// done at initial app startup)
+					if (!module.getPrivileges().isEmpty() || !module.getGlobalProperties().isEmpty()) {
+						log.debug("Updating core dataset");
+						Context.checkCoreDataset();
+						// checkCoreDataset() currently doesn't throw an error. If
+						// it did, it needs to be
+						// caught and the module needs to be stopped and given a
+						// startup error
+					}
 				}
 				
 				// should be near the bottom so the module has all of its stuff
@@ -779,9 +1007,9 @@ public class ModuleFactory {
 		return module;
 	}
 	
-	private static void registerProvidedPackages(ModuleClassLoader moduleClassLoader) {
+	private static synchronized void registerProvidedPackages(ModuleClassLoader moduleClassLoader) {
 		for (String providedPackage : moduleClassLoader.getProvidedPackages()) {
-			Set<ModuleClassLoader> newSet = new HashSet<>();
+			Set<ModuleClassLoader> newSet = new LinkedHashSet<>();
 			
 			Set<ModuleClassLoader> set = providedPackages.get(providedPackage);
 			if (set != null) {
@@ -789,13 +1017,14 @@ public class ModuleFactory {
 			}
 			
 			newSet.add(moduleClassLoader);
-			providedPackages.put(providedPackage, newSet);
+			providedPackages.put(providedPackage, Collections.unmodifiableSet(newSet));
 		}
+		providedPackagesVersion.incrementAndGet();
 	}
 	
-	private static void unregisterProvidedPackages(ModuleClassLoader moduleClassLoader) {
+	private static synchronized void unregisterProvidedPackages(ModuleClassLoader moduleClassLoader) {
 		for (String providedPackage : moduleClassLoader.getProvidedPackages()) {
-			Set<ModuleClassLoader> newSet = new HashSet<>();
+			Set<ModuleClassLoader> newSet = new LinkedHashSet<>();
 			
 			Set<ModuleClassLoader> set = providedPackages.get(providedPackage);
 			if (set != null) {
@@ -803,19 +1032,43 @@ public class ModuleFactory {
 			}
 			newSet.remove(moduleClassLoader);
 			
-			providedPackages.put(providedPackage, newSet);
+			if (newSet.isEmpty()) {
+				providedPackages.remove(providedPackage);
+			} else {
+				providedPackages.put(providedPackage, Collections.unmodifiableSet(newSet));
+			}
 		}
+		providedPackagesVersion.incrementAndGet();
 	}
 	
+	/**
+	 * Gets the class loaders of the started modules which provide the given package. The returned set
+	 * is read-only and is not copied, since it is looked up for every class loaded through the
+	 * {@link OpenmrsClassLoader} and the {@link ModuleClassLoader}s.
+	 *
+	 * @param packageName the name of the package
+	 * @return the class loaders in the order their modules were started, never null
+	 */
 	public static Set<ModuleClassLoader> getModuleClassLoadersForPackage(String packageName) {
 		Set<ModuleClassLoader> set = providedPackages.get(packageName);
 		if (set == null) {
 			return Collections.emptySet();
 		} else {
-			return new HashSet<>(set);
+			return set;
 		}
 	}
 	
+	/**
+	 * Gets a number which changes whenever a module class loader is registered for or unregistered
+	 * from the packages it provides, so that class lookups cached by class loaders can be discarded.
+	 *
+	 * @return the current version of the packages provided by modules
+	 * @since 3.0.0
+	 */
+	public static long getProvidedPackagesVersion() {
+		return providedPackagesVersion.get();
+	}
+	
 	/**
 	 * Gets the error message of a module which fails to start.
 	 *
@@ -962,6 +1215,9 @@ public class ModuleFactory {
 			try {
 				// run liquibase.xml by Liquibase API
 				DatabaseUpdater.executeChangelog(MODULE_CHANGELOG_FILENAME, new Contexts(), null, moduleClassLoader);
+				// the changesets may have inserted or updated global properties and metadata
+				Context.getRegisteredComponent("globalPropertyCache", GlobalPropertyCache.class).clear();
+				Context.getRegisteredComponent("hl7ResolutionCache", HL7ResolutionCache.class).clear();
 			}
 			catch (InputRequiredException e) {
 				// the user would be stepped through the questions returned here.
@@ -1097,15 +1353,17 @@ public class ModuleFactory {
 				
 				// remove all extensions by this module
 				try {
-					for (Extension ext : mod.getExtensions()) {
-						String extId = ext.getExtensionId();
-						try {
-							List<Extension> tmpExtensions = getExtensions(extId);
-							tmpExtensions.remove(ext);
-							getExtensionMap().put(extId, tmpExtensions);
-						}
-						catch (Exception exterror) {
-							log.warn("Error while getting extension: " + ext, exterror);
+					synchronized (extensionMap) {
+						for (Extension ext : mod.getExtensions()) {
+							String extId = ext.getExtensionId();
+							try {
+								List<Extension> tmpExtensions = getExtensions(extId);
+								tmpExtensions.remove(ext);
+								getExtensionMap().put(extId, tmpExtensions);
+							}
+							catch (Exception exterror) {
+								log.warn("Error while getting extension: " + ext, exterror);
+							}
 						}
 					}
 				}
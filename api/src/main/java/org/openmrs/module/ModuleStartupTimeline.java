@@ -0,0 +1,86 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records when each module was started by {@link ModuleFactory#startModules()}, in which wave and on
+ * which thread, and how long it took, so that the modules slowing down startup can be found.
+ *
+ * @since 3.0.0
+ */
+class ModuleStartupTimeline {
+	
+	private static final Logger log = LoggerFactory.getLogger(ModuleStartupTimeline.class);
+	
+	private final long startTime = System.currentTimeMillis();
+	
+	private final List<Entry> entries = new ArrayList<>();
+	
+	synchronized void addStarted(Module module, int wave, long moduleStartTime, long moduleEndTime) {
+		entries.add(new Entry(module.getModuleId(), wave, Thread.currentThread().getName(), moduleStartTime - startTime,
+		        moduleEndTime - moduleStartTime, module.isStarted() ? "started" : "failed"));
+	}
+	
+	synchronized void addSkipped(Module module, int wave) {
+		long now = System.currentTimeMillis() - startTime;
+		entries.add(new Entry(module.getModuleId(), wave, Thread.currentThread().getName(), now, 0, "skipped"));
+	}
+	
+	/**
+	 * Logs the startup of each module, ordered by wave and start time
+	 */
+	void log() {
+		List<Entry> sortedEntries;
+		synchronized (this) {
+			sortedEntries = new ArrayList<>(entries);
+		}
+		sortedEntries.sort(Comparator.comparingInt((Entry e) -> e.wave).thenComparingLong(e -> e.offset));
+		if (sortedEntries.isEmpty()) {
+			return;
+		}
+	
+		log.info("Finished starting modules in {} ms", System.currentTimeMillis() - startTime);
+		for (Entry entry : sortedEntries) {
+			log.info("Module {} {} in wave {} at +{} ms on {}, took {} ms", entry.moduleId, entry.status, entry.wave + 1,
+			    entry.offset, entry.thread, entry.duration);
+		}
+	}
+	
+	private static class Entry {
+	
+		private final String moduleId;
+	
+		private final int wave;
+	
+		private final String thread;
+	
+		private final long offset;
+	
+		private final long duration;
+	
+		private final String status;
+	
+		Entry(String moduleId, int wave, String thread, long offset, long duration, String status) {
+			this.moduleId = moduleId;
+			this.wave = wave;
+			this.thread = thread;
+			this.offset = offset;
+			this.duration = duration;
+			this.status = status;
+		}
+	}
+}
@@ -27,6 +27,7 @@ import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.jar.JarEntry;
@@ -48,7 +49,15 @@ import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.support.AbstractRefreshableApplicationContext;
+import org.springframework.context.support.AbstractRefreshableConfigApplicationContext;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.ResourceLoader;
 
 /**
  * Utility methods for working and manipulating modules
@@ -864,6 +873,8 @@ public class ModuleUtil {
 		
 		OpenmrsClassLoader.saveState();
 		SchedulerUtil.shutdown();
+		// the beans of modules started in their own child context are loaded into the refreshed context
+		closeModuleApplicationContexts();
 		ServiceContext.destroyInstance();
 		
 		try {
@@ -944,6 +955,252 @@ public class ModuleUtil {
 		return ctx;
 	}
 	
+	/**
+	 * @return true if modules may be started in their own child application context, see
+	 *         {@link ModuleConstants#RUNTIMEPROPERTY_INCREMENTAL_REFRESH}
+	 * @since 3.0.0
+	 */
+	public static boolean isIncrementalRefreshEnabled() {
+		String prop = Context.getRuntimeProperties().getProperty(ModuleConstants.RUNTIMEPROPERTY_INCREMENTAL_REFRESH,
+		    "false");
+		return "true".equalsIgnoreCase(prop.trim());
+	}
+	
+	/**
+	 * Checks whether the beans of the given module can be loaded into a child application context of
+	 * their own with {@link #startModuleApplicationContext(AbstractRefreshableConfigApplicationContext,
+	 * ApplicationContext, Module)} instead of refreshing the whole application context. It is only
+	 * possible if incremental refresh is enabled and:
+	 * <ul>
+	 * <li>the module maps no entities, which must be added to the session factory</li>
+	 * <li>none of the modules it requires or is aware of has a child application context, whose beans
+	 * would not be visible to the module's beans</li>
+	 * </ul>
+	 *
+	 * @param module the started module
+	 * @return true if the module can be started in its own child application context
+	 * @since 3.0.0
+	 */
+	public static boolean canStartModuleApplicationContext(Module module) {
+		if (!isIncrementalRefreshEnabled()) {
+			return false;
+		}
+		
+		if ((module.getMappingFiles() != null && !module.getMappingFiles().isEmpty())
+		        || (module.getPackagesWithMappedClasses() != null && !module.getPackagesWithMappedClasses().isEmpty())) {
+			log.debug("Module {} maps entities, the application context must be refreshed", module.getModuleId());
+			return false;
+		}
+		
+		List<String> importedPackages = new ArrayList<>(module.getRequiredModules());
+		importedPackages.addAll(module.getAwareOfModules());
+		for (String importedPackage : importedPackages) {
+			Module importedModule = ModuleFactory.getModuleByPackage(importedPackage);
+			if (importedModule != null
+			        && ServiceContext.getInstance().getModuleApplicationContext(importedModule.getModuleId()) != null) {
+				log.debug("Module {} uses module {} which has its own application context, the application context "
+				        + "must be refreshed", module.getModuleId(), importedModule.getModuleId());
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Loads the beans of a started module into a child application context of the given one, instead
+	 * of refreshing the whole application context. The module's moduleApplicationContext.xml and
+	 * webModuleApplicationContext.xml files are loaded and the components in its package are
+	 * scanned. Module services set on the ServiceContext by the module's beans are available as soon
+	 * as the child context is refreshed.
+	 * <p>
+	 * The child context is registered with the {@link ServiceContext}. Once the caller made sure it can
+	 * serve the module's beans, it must call {@link #moduleApplicationContextStarted(Module)}.
+	 *
+	 * @param moduleApplicationContext a new application context to load the beans into
+	 * @param parent the application context of OpenMRS
+	 * @param module the started module
+	 * @return the refreshed child application context, or null if it failed to refresh, in which case
+	 *         it has been closed and the whole application context must be refreshed instead
+	 * @see #canStartModuleApplicationContext(Module)
+	 * @since 3.0.0
+	 */
+	public static ConfigurableApplicationContext startModuleApplicationContext(
+	        AbstractRefreshableConfigApplicationContext moduleApplicationContext, ApplicationContext parent, Module module) {
+		ModuleClassLoader moduleClassLoader = ModuleFactory.getModuleClassLoader(module);
+		List<String> configLocations = getModuleApplicationContextLocations(moduleClassLoader);
+		
+		moduleApplicationContext.setParent(parent);
+		moduleApplicationContext.setClassLoader(moduleClassLoader);
+		moduleApplicationContext.setDisplayName("Application context of module " + module.getModuleId());
+		// an empty array rather than none, so that no default location is loaded
+		moduleApplicationContext.setConfigLocations(configLocations.toArray(new String[0]));
+		moduleApplicationContext.addBeanFactoryPostProcessor(new ModuleApplicationContextPostProcessor(
+		        moduleApplicationContext, module));
+		
+		log.info("Starting the application context of module {} from {}", module.getModuleId(), configLocations);
+		ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+		Thread.currentThread().setContextClassLoader(moduleClassLoader);
+		try {
+			moduleApplicationContext.refresh();
+		}
+		catch (RuntimeException e) {
+			log.warn("Unable to start the application context of module " + module.getModuleId(), e);
+			// beans that were created before the failure may have set services already
+			ServiceContext.getInstance().removeModuleServices(module.getPackageName());
+			try {
+				moduleApplicationContext.close();
+			}
+			catch (RuntimeException closeException) {
+				log.warn("Exception while closing the application context of module " + module.getModuleId(),
+				    closeException);
+			}
+			return null;
+		}
+		finally {
+			Thread.currentThread().setContextClassLoader(contextClassLoader);
+		}
+		
+		ServiceContext.getInstance().addModuleApplicationContext(module.getModuleId(), moduleApplicationContext);
+		return moduleApplicationContext;
+	}
+	
+	/**
+	 * Loads the definitions of the beans that
+	 * {@link #startModuleApplicationContext(AbstractRefreshableConfigApplicationContext, ApplicationContext, Module)}
+	 * would load for the given module into a bean factory of their own, without creating any of the
+	 * beans, so that they can be inspected before the module's application context is started.
+	 *
+	 * @param module the started module
+	 * @param parent the application context of OpenMRS
+	 * @return a bean factory holding the module's bean definitions
+	 * @since 3.0.0
+	 */
+	public static ConfigurableListableBeanFactory loadModuleBeanDefinitions(Module module, ApplicationContext parent) {
+		ModuleClassLoader moduleClassLoader = ModuleFactory.getModuleClassLoader(module);
+		
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory(parent.getAutowireCapableBeanFactory());
+		beanFactory.setBeanClassLoader(moduleClassLoader);
+		ResourceLoader resourceLoader = new DefaultResourceLoader(moduleClassLoader);
+		
+		ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+		Thread.currentThread().setContextClassLoader(moduleClassLoader);
+		try {
+			XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+			reader.setBeanClassLoader(moduleClassLoader);
+			reader.setResourceLoader(resourceLoader);
+			reader.setEnvironment(parent.getEnvironment());
+			for (String location : getModuleApplicationContextLocations(moduleClassLoader)) {
+				reader.loadBeanDefinitions(location);
+			}
+			
+			ModuleApplicationContextPostProcessor.scanComponents(beanFactory, parent.getEnvironment(), resourceLoader,
+			    module);
+		}
+		finally {
+			Thread.currentThread().setContextClassLoader(contextClassLoader);
+		}
+		return beanFactory;
+	}
+	
+	/**
+	 * @return the URLs of the application context files of the module loaded by the given class loader
+	 */
+	private static List<String> getModuleApplicationContextLocations(ModuleClassLoader moduleClassLoader) {
+		List<String> configLocations = new ArrayList<>();
+		for (String name : new String[] { "moduleApplicationContext.xml", "webModuleApplicationContext.xml" }) {
+			URL url = moduleClassLoader.findModuleResource(name);
+			if (url != null) {
+				configLocations.add(url.toString());
+			}
+		}
+		return configLocations;
+	}
+	
+	/**
+	 * Does for a module started with
+	 * {@link #startModuleApplicationContext(AbstractRefreshableConfigApplicationContext, ApplicationContext, Module)}
+	 * what {@link #refreshApplicationContext(AbstractRefreshableApplicationContext, boolean, Module)}
+	 * does for the started module: loads its advice, passes its daemon token and calls the
+	 * contextRefreshed() and started() methods of its activator.
+	 *
+	 * @param module the started module
+	 * @since 3.0.0
+	 */
+	public static void moduleApplicationContextStarted(Module module) {
+		try {
+			Context.openSessionWithCurrentUser();
+			ModuleFactory.loadAdvice(module);
+			try {
+				ModuleFactory.passDaemonToken(module);
+				
+				if (module.getModuleActivator() != null) {
+					module.getModuleActivator().contextRefreshed();
+					try {
+						module.getModuleActivator().started();
+					}
+					catch (Exception e) {
+						log.warn("Unable to invoke started() method on the module's activator", e);
+						ModuleFactory.stopModule(module, true, true);
+						stopModuleApplicationContext(module);
+					}
+				}
+			}
+			catch (Exception e) {
+				log.warn("Unable to invoke method on the module's activator ", e);
+			}
+		}
+		finally {
+			Context.closeSessionWithCurrentUser();
+		}
+	}
+	
+	/**
+	 * Closes the child application context of a module started with
+	 * {@link #startModuleApplicationContext(AbstractRefreshableConfigApplicationContext, ApplicationContext, Module)}
+	 * and removes its services from the {@link ServiceContext}.
+	 *
+	 * @param module the stopped module
+	 * @return true if the module had its own application context, false if the application context
+	 *         must be refreshed to remove the module's beans
+	 * @since 3.0.0
+	 */
+	public static boolean stopModuleApplicationContext(Module module) {
+		ConfigurableApplicationContext moduleApplicationContext = ServiceContext.getInstance()
+		        .removeModuleApplicationContext(module.getModuleId());
+		if (moduleApplicationContext == null) {
+			return false;
+		}
+		
+		log.info("Stopping the application context of module {}", module.getModuleId());
+		ServiceContext.getInstance().removeModuleServices(module.getPackageName());
+		try {
+			moduleApplicationContext.close();
+		}
+		catch (Exception e) {
+			log.warn("Exception while closing the application context of module " + module.getModuleId(), e);
+		}
+		return true;
+	}
+	
+	/**
+	 * Closes the child application contexts of all modules, whose beans are loaded into the
+	 * application context when it is refreshed.
+	 */
+	static void closeModuleApplicationContexts() {
+		Map<String, ConfigurableApplicationContext> moduleApplicationContexts = ServiceContext.getInstance()
+		        .getModuleApplicationContexts();
+		for (Map.Entry<String, ConfigurableApplicationContext> entry : moduleApplicationContexts.entrySet()) {
+			ServiceContext.getInstance().removeModuleApplicationContext(entry.getKey());
+			try {
+				entry.getValue().close();
+			}
+			catch (Exception e) {
+				log.warn("Exception while closing the application context of module " + entry.getKey(), e);
+			}
+		}
+	}
+	
 	/**
 	 * Looks at the &lt;moduleid&gt;.mandatory properties and at the currently started modules to make
 	 * sure that all mandatory modules have been started successfully.
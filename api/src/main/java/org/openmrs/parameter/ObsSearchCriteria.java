@@ -0,0 +1,191 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.parameter;
+
+import java.util.Collection;
+import java.util.Date;
+
+import org.openmrs.Concept;
+import org.openmrs.Encounter;
+import org.openmrs.Location;
+import org.openmrs.Obs;
+import org.openmrs.Person;
+import org.openmrs.Visit;
+
+/**
+ * The search parameter object for obs. A convenience interface for building instances is provided
+ * by {@link ObsSearchCriteriaBuilder}.
+ * <p>
+ * Matching obs are returned ordered by obsDatetime and obsId. Results are paged with a cursor
+ * rather than an offset: the next page starts after the last obs of the previous one, see
+ * {@link #after(Obs)}, so reading a page costs the same no matter how deep into the results it is.
+ *
+ * @since 3.0.0
+ * @see ObsSearchCriteriaBuilder
+ * @see org.openmrs.api.ObsService#getObservations(ObsSearchCriteria)
+ */
+public class ObsSearchCriteria {
+
+	private Collection<Person> persons;
+
+	private Collection<Encounter> encounters;
+
+	private Collection<Concept> concepts;
+
+	private Collection<Concept> valueCodedAnswers;
+
+	private Collection<Location> locations;
+
+	private Collection<Visit> visits;
+
+	private Date fromDate;
+
+	private Date toDate;
+
+	private boolean includeVoided;
+
+	private Date afterObsDatetime;
+
+	private Integer afterObsId;
+
+	private Integer maxResults;
+
+	/**
+	 * Instead of calling this constructor directly, it is recommended to use
+	 * {@link ObsSearchCriteriaBuilder}.
+	 *
+	 * @param persons the person of the obs must be in this collection
+	 * @param encounters the encounter of the obs must be in this collection
+	 * @param concepts the question concept of the obs must be in this collection
+	 * @param valueCodedAnswers the coded answer of the obs must be in this collection
+	 * @param locations the location of the obs must be in this collection
+	 * @param visits the visit of the encounter of the obs must be in this collection
+	 * @param fromDate the minimum obsDatetime (inclusive)
+	 * @param toDate the maximum obsDatetime (inclusive)
+	 * @param includeVoided whether to include the voided obs or not
+	 * @param afterObsDatetime the obsDatetime of the last obs of the previous page
+	 * @param afterObsId the obsId of the last obs of the previous page
+	 * @param maxResults the maximum number of obs to return
+	 */
+	public ObsSearchCriteria(Collection<Person> persons, Collection<Encounter> encounters, Collection<Concept> concepts,
+	    Collection<Concept> valueCodedAnswers, Collection<Location> locations, Collection<Visit> visits, Date fromDate,
+	    Date toDate, boolean includeVoided, Date afterObsDatetime, Integer afterObsId, Integer maxResults) {
+		if ((afterObsDatetime == null) != (afterObsId == null)) {
+			throw new IllegalArgumentException("The obsDatetime and obsId of the cursor must be set together");
+		}
+		this.persons = persons;
+		this.encounters = encounters;
+		this.concepts = concepts;
+		this.valueCodedAnswers = valueCodedAnswers;
+		this.locations = locations;
+		this.visits = visits;
+		this.fromDate = fromDate;
+		this.toDate = toDate;
+		this.includeVoided = includeVoided;
+		this.afterObsDatetime = afterObsDatetime;
+		this.afterObsId = afterObsId;
+		this.maxResults = maxResults;
+	}
+
+	/**
+	 * Creates the criteria for the page following the given obs
+	 *
+	 * @param lastObs the last obs of the current page
+	 * @return a copy of these criteria with the cursor set after the given obs
+	 */
+	public ObsSearchCriteria after(Obs lastObs) {
+		return new ObsSearchCriteria(persons, encounters, concepts, valueCodedAnswers, locations, visits, fromDate, toDate,
+		        includeVoided, lastObs.getObsDatetime(), lastObs.getObsId(), maxResults);
+	}
+
+	/**
+	 * @return the persons one of which the obs is for
+	 */
+	public Collection<Person> getPersons() {
+		return persons;
+	}
+
+	/**
+	 * @return the encounters one of which the obs belongs to
+	 */
+	public Collection<Encounter> getEncounters() {
+		return encounters;
+	}
+
+	/**
+	 * @return the question concepts one of which the obs is about
+	 */
+	public Collection<Concept> getConcepts() {
+		return concepts;
+	}
+
+	/**
+	 * @return the coded answers one of which the obs has as value
+	 */
+	public Collection<Concept> getValueCodedAnswers() {
+		return valueCodedAnswers;
+	}
+
+	/**
+	 * @return the locations one of which the obs was recorded at
+	 */
+	public Collection<Location> getLocations() {
+		return locations;
+	}
+
+	/**
+	 * @return the visits one of which the encounter of the obs belongs to
+	 */
+	public Collection<Visit> getVisits() {
+		return visits;
+	}
+
+	/**
+	 * @return the minimum obsDatetime (inclusive)
+	 */
+	public Date getFromDate() {
+		return fromDate;
+	}
+
+	/**
+	 * @return the maximum obsDatetime (inclusive)
+	 */
+	public Date getToDate() {
+		return toDate;
+	}
+
+	/**
+	 * @return whether to include the voided obs or not
+	 */
+	public boolean getIncludeVoided() {
+		return includeVoided;
+	}
+
+	/**
+	 * @return the obsDatetime of the last obs of the previous page, null for the first page
+	 */
+	public Date getAfterObsDatetime() {
+		return afterObsDatetime;
+	}
+
+	/**
+	 * @return the obsId of the last obs of the previous page, null for the first page
+	 */
+	public Integer getAfterObsId() {
+		return afterObsId;
+	}
+
+	/**
+	 * @return the maximum number of obs to return, null for no limit
+	 */
+	public Integer getMaxResults() {
+		return maxResults;
+	}
+}
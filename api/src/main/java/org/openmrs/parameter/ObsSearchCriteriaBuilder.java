@@ -0,0 +1,174 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.parameter;
+
+import java.util.Collection;
+import java.util.Date;
+
+import org.openmrs.Concept;
+import org.openmrs.Encounter;
+import org.openmrs.Location;
+import org.openmrs.Obs;
+import org.openmrs.Person;
+import org.openmrs.Visit;
+
+/**
+ * A convenience builder for {@link ObsSearchCriteria}. Create a builder, set its properties to
+ * desired values and finally call {@link #createObsSearchCriteria()} to create the actual search
+ * criteria instance.
+ *
+ * @since 3.0.0
+ * @see ObsSearchCriteria
+ */
+public class ObsSearchCriteriaBuilder {
+
+	private Collection<Person> persons;
+
+	private Collection<Encounter> encounters;
+
+	private Collection<Concept> concepts;
+
+	private Collection<Concept> valueCodedAnswers;
+
+	private Collection<Location> locations;
+
+	private Collection<Visit> visits;
+
+	private Date fromDate;
+
+	private Date toDate;
+
+	private boolean includeVoided;
+
+	private Date afterObsDatetime;
+
+	private Integer afterObsId;
+
+	private Integer maxResults;
+
+	/**
+	 * @param persons the person of the obs must be in this collection
+	 * @return this builder instance
+	 */
+	public ObsSearchCriteriaBuilder setPersons(Collection<Person> persons) {
+		this.persons = persons;
+		return this;
+	}
+
+	/**
+	 * @param encounters the encounter of the obs must be in this collection
+	 * @return this builder instance
+	 */
+	public ObsSearchCriteriaBuilder setEncounters(Collection<Encounter> encounters) {
+		this.encounters = encounters;
+		return this;
+	}
+
+	/**
+	 * @param concepts the question concept of the obs must be in this collection
+	 * @return this builder instance
+	 */
+	public ObsSearchCriteriaBuilder setConcepts(Collection<Concept> concepts) {
+		this.concepts = concepts;
+		return this;
+	}
+
+	/**
+	 * @param valueCodedAnswers the coded answer of the obs must be in this collection
+	 * @return this builder instance
+	 */
+	public ObsSearchCriteriaBuilder setValueCodedAnswers(Collection<Concept> valueCodedAnswers) {
+		this.valueCodedAnswers = valueCodedAnswers;
+		return this;
+	}
+
+	/**
+	 * @param locations the location of the obs must be in this collection
+	 * @return this builder instance
+	 */
+	public ObsSearchCriteriaBuilder setLocations(Collection<Location> locations) {
+		this.locations = locations;
+		return this;
+	}
+
+	/**
+	 * @param visits the visit of the encounter of the obs must be in this collection
+	 * @return this builder instance
+	 */
+	public ObsSearchCriteriaBuilder setVisits(Collection<Visit> visits) {
+		this.visits = visits;
+		return this;
+	}
+
+	/**
+	 * @param fromDate the minimum obsDatetime (inclusive)
+	 * @return this builder instance
+	 */
+	public ObsSearchCriteriaBuilder setFromDate(Date fromDate) {
+		this.fromDate = fromDate;
+		return this;
+	}
+
+	/**
+	 * @param toDate the maximum obsDatetime (inclusive)
+	 * @return this builder instance
+	 */
+	public ObsSearchCriteriaBuilder setToDate(Date toDate) {
+		this.toDate = toDate;
+		return this;
+	}
+
+	/**
+	 * @param includeVoided whether to include the voided obs or not
+	 * @return this builder instance
+	 */
+	public ObsSearchCriteriaBuilder setIncludeVoided(boolean includeVoided) {
+		this.includeVoided = includeVoided;
+		return this;
+	}
+
+	/**
+	 * @param afterObsDatetime the obsDatetime of the last obs of the previous page
+	 * @param afterObsId the obsId of the last obs of the previous page
+	 * @return this builder instance
+	 */
+	public ObsSearchCriteriaBuilder setAfter(Date afterObsDatetime, Integer afterObsId) {
+		this.afterObsDatetime = afterObsDatetime;
+		this.afterObsId = afterObsId;
+		return this;
+	}
+
+	/**
+	 * @param lastObs the last obs of the previous page
+	 * @return this builder instance
+	 */
+	public ObsSearchCriteriaBuilder setAfter(Obs lastObs) {
+		return setAfter(lastObs.getObsDatetime(), lastObs.getObsId());
+	}
+
+	/**
+	 * @param maxResults the maximum number of obs to return, the page size
+	 * @return this builder instance
+	 */
+	public ObsSearchCriteriaBuilder setMaxResults(Integer maxResults) {
+		this.maxResults = maxResults;
+		return this;
+	}
+
+	/**
+	 * Create an {@link ObsSearchCriteria} with the properties of this builder instance.
+	 *
+	 * @return a new search criteria instance
+	 */
+	public ObsSearchCriteria createObsSearchCriteria() {
+		return new ObsSearchCriteria(persons, encounters, concepts, valueCodedAnswers, locations, visits, fromDate, toDate,
+		        includeVoided, afterObsDatetime, afterObsId, maxResults);
+	}
+}
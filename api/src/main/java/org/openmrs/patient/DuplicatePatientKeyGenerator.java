@@ -0,0 +1,188 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.patient;
+
+import java.text.Normalizer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openmrs.Patient;
+import org.openmrs.PatientIdentifier;
+import org.openmrs.PersonName;
+import org.openmrs.api.db.PatientDuplicateKey;
+
+/**
+ * Computes the blocking keys of a patient. Two patients are compared for duplication only if they
+ * share at least one key, and their score is the sum of the weights of the kinds of keys they share:
+ * <ul>
+ * <li>{@link #IDENTIFIER}, weight 40: an identifier with case, spaces and punctuation removed</li>
+ * <li>{@link #NAME_BIRTHDATE}, weight 30: the soundex codes of the given and family names and the
+ * birthdate</li>
+ * <li>{@link #FAMILY_BIRTHDATE_GENDER}, weight 20: the soundex code of the family name, the
+ * birthdate and the gender</li>
+ * <li>{@link #NAME_GENDER_BIRTH_YEAR}, weight 10: the soundex codes of the given and family names,
+ * the gender and the year of birth</li>
+ * </ul>
+ * Keys are computed for every name and identifier that is not voided. Each kind of key has a
+ * different weight, so a pair sharing several keys of one kind is counted once for it, and a score
+ * of 100 means all kinds of keys are shared.
+ *
+ * @since 3.0.0
+ */
+public class DuplicatePatientKeyGenerator {
+	
+	public static final String IDENTIFIER = "identifier";
+	
+	public static final String NAME_BIRTHDATE = "name_birthdate";
+	
+	public static final String FAMILY_BIRTHDATE_GENDER = "family_birthdate_gender";
+	
+	public static final String NAME_GENDER_BIRTH_YEAR = "name_gender_birth_year";
+	
+	/**
+	 * The kinds of keys in decreasing order of weight
+	 */
+	public static final String[] KEY_TYPES = { IDENTIFIER, NAME_BIRTHDATE, FAMILY_BIRTHDATE_GENDER,
+	        NAME_GENDER_BIRTH_YEAR };
+	
+	private static final int[] WEIGHTS = { 40, 30, 20, 10 };
+	
+	private static final String SOUNDEX_CODES = "01230120022455012623010202";
+	
+	private DuplicatePatientKeyGenerator() {
+	}
+	
+	/**
+	 * @param keyType one of {@link #KEY_TYPES}
+	 * @return the score two patients sharing a key of the given kind get for it
+	 */
+	public static int getWeight(String keyType) {
+		for (int i = 0; i < KEY_TYPES.length; i++) {
+			if (KEY_TYPES[i].equals(keyType)) {
+				return WEIGHTS[i];
+			}
+		}
+		throw new IllegalArgumentException("Unknown duplicate patient key type: " + keyType);
+	}
+	
+	/**
+	 * @param patient a saved patient
+	 * @return the blocking keys of the patient, none if it is voided
+	 */
+	public static List<PatientDuplicateKey> getKeys(Patient patient) {
+		List<PatientDuplicateKey> keys = new ArrayList<>();
+		if (patient.getVoided()) {
+			return keys;
+		}
+	
+		Set<String> identifiers = new LinkedHashSet<>();
+		for (PatientIdentifier identifier : patient.getIdentifiers()) {
+			String value = normalizeIdentifier(identifier.getIdentifier());
+			if (!identifier.getVoided() && value != null) {
+				identifiers.add(value);
+			}
+		}
+		for (String identifier : identifiers) {
+			keys.add(new PatientDuplicateKey(patient.getPatientId(), IDENTIFIER, identifier));
+		}
+	
+		String birthdate = patient.getBirthdate() != null ? new SimpleDateFormat("yyyyMMdd").format(patient
+		        .getBirthdate()) : null;
+		String gender = StringUtils.trimToNull(StringUtils.upperCase(patient.getGender()));
+		Set<String> nameBirthdate = new LinkedHashSet<>();
+		Set<String> familyBirthdateGender = new LinkedHashSet<>();
+		Set<String> nameGenderBirthYear = new LinkedHashSet<>();
+		for (PersonName name : patient.getNames()) {
+			if (name.getVoided()) {
+				continue;
+			}
+			String given = soundex(name.getGivenName());
+			String family = soundex(name.getFamilyName());
+			if (family == null || birthdate == null) {
+				continue;
+			}
+			if (given != null) {
+				nameBirthdate.add(given + family + birthdate);
+			}
+			if (gender != null) {
+				familyBirthdateGender.add(family + birthdate + gender);
+				if (given != null) {
+					nameGenderBirthYear.add(given + family + gender + birthdate.substring(0, 4));
+				}
+			}
+		}
+		nameBirthdate.forEach(value -> keys.add(new PatientDuplicateKey(patient.getPatientId(), NAME_BIRTHDATE, value)));
+		familyBirthdateGender.forEach(value -> keys.add(new PatientDuplicateKey(patient.getPatientId(),
+		        FAMILY_BIRTHDATE_GENDER, value)));
+		nameGenderBirthYear.forEach(value -> keys.add(new PatientDuplicateKey(patient.getPatientId(),
+		        NAME_GENDER_BIRTH_YEAR, value)));
+		return keys;
+	}
+	
+	/**
+	 * @return the identifier in upper case without any character other than letters and digits, null
+	 *         if nothing is left
+	 */
+	static String normalizeIdentifier(String identifier) {
+		if (identifier == null) {
+			return null;
+		}
+		StringBuilder normalized = new StringBuilder(identifier.length());
+		for (char c : identifier.toUpperCase(Locale.ROOT).toCharArray()) {
+			if (Character.isLetterOrDigit(c)) {
+				normalized.append(c);
+			}
+		}
+		return normalized.length() > 0 ? StringUtils.left(normalized.toString(), 255) : null;
+	}
+	
+	/**
+	 * @return the American soundex code of the name with accents removed, null if the name has no
+	 *         letter
+	 */
+	static String soundex(String name) {
+		if (name == null) {
+			return null;
+		}
+		String letters = Normalizer.normalize(name, Normalizer.Form.NFD).toUpperCase(Locale.ROOT);
+		StringBuilder code = new StringBuilder(4);
+		char previous = 0;
+		for (char c : letters.toCharArray()) {
+			if (c < 'A' || c > 'Z') {
+				continue;
+			}
+			char digit = SOUNDEX_CODES.charAt(c - 'A');
+			if (code.length() == 0) {
+				code.append(c);
+			} else if (digit != '0' && digit != previous) {
+				code.append(digit);
+				if (code.length() == 4) {
+					break;
+				}
+			}
+			// H and W do not separate letters with the same code, vowels do
+			if (c != 'H' && c != 'W') {
+				previous = digit;
+			}
+		}
+		if (code.length() == 0) {
+			return null;
+		}
+		while (code.length() < 4) {
+			code.append('0');
+		}
+		return code.toString();
+	}
+}
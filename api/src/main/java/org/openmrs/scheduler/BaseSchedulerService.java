@@ -0,0 +1,323 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.openmrs.api.APIException;
+import org.openmrs.api.impl.BaseOpenmrsService;
+import org.openmrs.scheduler.db.SchedulerDAO;
+import org.openmrs.scheduler.timer.TimerSchedulerMemento;
+import org.openmrs.util.OpenmrsMemento;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Holds what the scheduler engines have in common: the task definitions stored by the
+ * {@link SchedulerDAO}, the leases on them, and stopping and restarting the scheduled tasks when
+ * the application context is refreshed. Subclasses schedule and run the tasks.
+ *
+ * @since 3.0.0
+ */
+@Transactional
+public abstract class BaseSchedulerService extends BaseOpenmrsService implements SchedulerService {
+
+	private static final Logger log = LoggerFactory.getLogger(BaseSchedulerService.class);
+
+	/**
+	 * Global data access object context
+	 */
+	private SchedulerDAO schedulerDAO;
+
+	/**
+	 * Gets the scheduler data access object.
+	 */
+	public SchedulerDAO getSchedulerDAO() {
+		return this.schedulerDAO;
+	}
+
+	/**
+	 * Sets the scheduler data access object.
+	 */
+	public void setSchedulerDAO(SchedulerDAO dao) {
+		this.schedulerDAO = dao;
+	}
+
+	/**
+	 * Start up hook for the scheduler, which schedules the tasks configured to start on startup.
+	 */
+	@Override
+	public void onStartup() {
+		// Get all of the tasks in the database
+		Collection<TaskDefinition> taskDefinitions = getSchedulerDAO().getTasks();
+
+		// Iterate through the tasks and start them if their startOnStartup flag is true
+		if (taskDefinitions != null) {
+			for (TaskDefinition taskDefinition : taskDefinitions) {
+				try {
+					// If the task is configured to start on startup, we schedule it to run
+					// Otherwise it needs to be started manually.
+					if (taskDefinition.getStartOnStartup()) {
+						scheduleTask(taskDefinition);
+					}
+				}
+				catch (Exception e) {
+					log.error("Failed to schedule task for class " + taskDefinition.getTaskClass(), e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Shutdown all running tasks.
+	 */
+	public void shutdownAllTasks() {
+		// iterate over this (copied) list of tasks and stop them all
+		for (TaskDefinition task : getScheduledTasks()) {
+			try {
+				shutdownTask(task);
+			}
+			catch (SchedulerException | APIException e) {
+				log.error("Failed to stop task " + task.getTaskClass(), e);
+			}
+		}
+	}
+
+	/**
+	 * Loop over all currently started tasks and cycle them. This should be done after the
+	 * classloader has been changed (e.g. during module start/stop)
+	 */
+	@Override
+	public void rescheduleAllTasks() throws SchedulerException {
+		for (TaskDefinition task : getScheduledTasks()) {
+			try {
+				rescheduleTask(task);
+			}
+			catch (SchedulerException e) {
+				log.error("Failed to restart task: " + task.getName(), e);
+			}
+		}
+	}
+
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#rescheduleTask(org.openmrs.scheduler.TaskDefinition)
+	 */
+	@Override
+	public Task rescheduleTask(TaskDefinition taskDefinition) throws SchedulerException {
+		shutdownTask(taskDefinition);
+		return scheduleTask(taskDefinition);
+	}
+
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#scheduleIfNotRunning(org.openmrs.scheduler.TaskDefinition)
+	 */
+	@Override
+	public void scheduleIfNotRunning(TaskDefinition taskDef) {
+		Task task = taskDef.getTaskInstance();
+		if (task == null) {
+			try {
+				scheduleTask(taskDef);
+			}
+			catch (SchedulerException e) {
+				log.error("Failed to schedule task, because:", e);
+			}
+		} else if (!task.isExecuting()) {
+			try {
+				rescheduleTask(taskDef);
+			}
+			catch (SchedulerException e) {
+				log.error("Failed to re-schedule task, because:", e);
+			}
+		}
+	}
+
+	/**
+	 * Get all registered tasks.
+	 *
+	 * @return all registerd tasks
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Collection<TaskDefinition> getRegisteredTasks() {
+		return getSchedulerDAO().getTasks();
+	}
+
+	/**
+	 * Get the task with the given identifier.
+	 *
+	 * @param id the identifier of the task
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public TaskDefinition getTask(Integer id) {
+		log.debug("get task {}", id);
+		return getSchedulerDAO().getTask(id);
+	}
+
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#getTaskByUuid(java.lang.String)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public TaskDefinition getTaskByUuid(String uuid) {
+		return getSchedulerDAO().getTaskByUuid(uuid);
+	}
+
+	/**
+	 * Get the task with the given name.
+	 *
+	 * @param name name of the task
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public TaskDefinition getTaskByName(String name) {
+		log.debug("get task {}", name);
+		TaskDefinition foundTask = null;
+		try {
+			foundTask = getSchedulerDAO().getTaskByName(name);
+		}
+		catch (ObjectRetrievalFailureException orfe) {
+			log.warn("getTaskByName(" + name + ") failed, because: " + orfe);
+		}
+		return foundTask;
+	}
+
+	/**
+	 * Save a task in the database.
+	 *
+	 * @param task the <code>TaskDefinition</code> to save
+	 */
+	@Override
+	public void saveTaskDefinition(TaskDefinition task) {
+		if (task.getId() != null) {
+			getSchedulerDAO().updateTask(task);
+		} else {
+			getSchedulerDAO().createTask(task);
+		}
+	}
+
+	/**
+	 * Delete the task with the given identifier.
+	 *
+	 * @param id the identifier of the task
+	 */
+	@Override
+	public void deleteTask(Integer id) {
+		TaskDefinition task = getTask(id);
+		if (task.getStarted()) {
+			throw new APIException("Scheduler.timer.task.delete", (Object[]) null);
+		}
+
+		// delete the task
+		getSchedulerDAO().deleteTask(id);
+	}
+
+	/**
+	 * Get system variables.
+	 */
+	@Override
+	public SortedMap<String, String> getSystemVariables() {
+		SortedMap<String, String> systemVariables = new TreeMap<>();
+		// scheduler username and password can be found in the global properties
+		// TODO Look into java.util.concurrent.TimeUnit class.
+		// TODO Remove this from global properties.  This is a constant value that should never change.
+		systemVariables.put("SCHEDULER_MILLIS_PER_SECOND", String.valueOf(SchedulerConstants.SCHEDULER_MILLIS_PER_SECOND));
+		return systemVariables;
+	}
+
+	/**
+	 * Saves and stops all active tasks
+	 *
+	 * @return OpenmrsMemento
+	 */
+	@Override
+	public OpenmrsMemento saveToMemento() {
+
+		Set<Integer> tasks = new HashSet<>();
+
+		for (TaskDefinition task : getScheduledTasks()) {
+			tasks.add(task.getId());
+			try {
+				shutdownTask(task);
+			}
+			catch (SchedulerException e) {
+				// just swallow exceptions
+				log.debug("Failed to stop task while saving memento " + task.getName(), e);
+			}
+		}
+
+		TimerSchedulerMemento memento = new TimerSchedulerMemento(tasks);
+		memento.saveErrorTasks();
+
+		return memento;
+	}
+
+	/**
+	 * Restarts the tasks stopped by {@link #saveToMemento()}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void restoreFromMemento(OpenmrsMemento memento) {
+
+		if (memento instanceof TimerSchedulerMemento) {
+			TimerSchedulerMemento timerMemento = (TimerSchedulerMemento) memento;
+
+			Set<Integer> taskIds = (Set<Integer>) timerMemento.getState();
+
+			// try to start all of the tasks that were stopped right before this restore
+			for (Integer taskId : taskIds) {
+				TaskDefinition task = getTask(taskId);
+				try {
+					scheduleTask(task);
+				}
+				catch (Exception e) {
+					// essentially swallow exceptions
+					log.debug("EXPECTED ERROR IF STOPPING THIS TASK'S MODULE: Unable to start task " + taskId, e);
+
+					// save this errored task and try again next time we restore
+					timerMemento.addErrorTask(taskId);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#acquireTaskLease(java.lang.Integer, java.lang.String,
+	 *      java.util.Date)
+	 */
+	@Override
+	public boolean acquireTaskLease(Integer taskId, String owner, Date expiry) {
+		return getSchedulerDAO().acquireTaskLease(taskId, owner, new Date(), expiry);
+	}
+
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#renewTaskLease(java.lang.Integer, java.lang.String,
+	 *      java.util.Date)
+	 */
+	@Override
+	public boolean renewTaskLease(Integer taskId, String owner, Date expiry) {
+		return getSchedulerDAO().renewTaskLease(taskId, owner, expiry);
+	}
+
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#releaseTaskLease(java.lang.Integer, java.lang.String)
+	 */
+	@Override
+	public void releaseTaskLease(Integer taskId, String owner) {
+		getSchedulerDAO().releaseTaskLease(taskId, owner);
+	}
+}
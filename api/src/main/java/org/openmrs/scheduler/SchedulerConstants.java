@@ -33,6 +33,82 @@ public class SchedulerConstants {
 	/** Scheduler admin email property - Used to email administrator if a task fails */
 	public static final String SCHEDULER_ADMIN_EMAIL_PROPERTY = "scheduler.admin_email";
 	
+	/**
+	 * Runtime property selecting the scheduler engine, either {@link #SCHEDULER_ENGINE_TIMER} or
+	 * {@link #SCHEDULER_ENGINE_EXECUTOR}
+	 * 
+	 * @since 3.0.0
+	 */
+	public static final String SCHEDULER_ENGINE_RUNTIME_PROPERTY = "scheduler.engine";
+	
+	/**
+	 * The default engine running every task on its own JDK timer
+	 * 
+	 * @since 3.0.0
+	 */
+	public static final String SCHEDULER_ENGINE_TIMER = "timer";
+	
+	/**
+	 * The engine running tasks on a shared thread pool, each task runs on a single server of a cluster
+	 * 
+	 * @since 3.0.0
+	 */
+	public static final String SCHEDULER_ENGINE_EXECUTOR = "executor";
+	
+	/**
+	 * Runtime property holding the number of threads firing tasks with the executor engine
+	 * 
+	 * @since 3.0.0
+	 */
+	public static final String SCHEDULER_POOL_SIZE_RUNTIME_PROPERTY = "scheduler.pool_size";
+	
+	/**
+	 * Runtime property holding the name identifying this server when leasing tasks, defaults to the
+	 * host name and process id
+	 * 
+	 * @since 3.0.0
+	 */
+	public static final String SCHEDULER_NODE_ID_RUNTIME_PROPERTY = "scheduler.node_id";
+	
+	/**
+	 * Runtime property holding the number of seconds a server holds the lease of a task it runs
+	 * without renewing it, before other servers may take the lease over. The lease of a running task is
+	 * renewed every third of this timeout, so it only expires if the server stops.
+	 * 
+	 * @since 3.0.0
+	 */
+	public static final String SCHEDULER_LEASE_TIMEOUT_RUNTIME_PROPERTY = "scheduler.lease_timeout";
+	
+	/**
+	 * Runtime property holding the number of seconds a task may start late before the execution is
+	 * considered misfired
+	 * 
+	 * @since 3.0.0
+	 */
+	public static final String SCHEDULER_MISFIRE_THRESHOLD_RUNTIME_PROPERTY = "scheduler.misfire_threshold";
+	
+	/**
+	 * Runtime property holding what to do with misfired executions, either
+	 * {@link #SCHEDULER_MISFIRE_POLICY_FIRE_ONCE} or {@link #SCHEDULER_MISFIRE_POLICY_SKIP}
+	 * 
+	 * @since 3.0.0
+	 */
+	public static final String SCHEDULER_MISFIRE_POLICY_RUNTIME_PROPERTY = "scheduler.misfire_policy";
+	
+	/**
+	 * Misfired executions are run once as soon as possible, however many were missed
+	 * 
+	 * @since 3.0.0
+	 */
+	public static final String SCHEDULER_MISFIRE_POLICY_FIRE_ONCE = "fire_once";
+	
+	/**
+	 * Misfired executions are dropped, the task next runs at its next scheduled time
+	 * 
+	 * @since 3.0.0
+	 */
+	public static final String SCHEDULER_MISFIRE_POLICY_SKIP = "skip";
+	
 	private SchedulerConstants() {
 	}
 	
@@ -10,6 +10,8 @@
 package org.openmrs.scheduler;
 
 import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.SortedMap;
 
 import org.openmrs.annotation.Authorized;
@@ -167,4 +169,62 @@ public interface SchedulerService extends OpenmrsService {
 	 */
 	public void scheduleIfNotRunning(TaskDefinition taskDef);
 	
+	/**
+	 * Takes the lease on a task so that servers sharing the database do not run it at the same time.
+	 * The lease is taken if no server holds it, if it has expired or if the given owner already holds
+	 * it.
+	 * 
+	 * @param taskId the identifier of the task
+	 * @param owner the name of the server taking the lease
+	 * @param expiry the time until which the lease is held
+	 * @return true if the lease was taken, false if another server holds it
+	 * @since 3.0.0
+	 * <strong>Should</strong> not take a lease held by another owner until it expires
+	 */
+	@Authorized( { "Manage Scheduler" })
+	public boolean acquireTaskLease(Integer taskId, String owner, Date expiry);
+	
+	/**
+	 * Changes the expiry of a lease held by the given owner, the expiry may be moved back.
+	 * 
+	 * @param taskId the identifier of the task
+	 * @param owner the name of the server holding the lease
+	 * @param expiry the new time until which the lease is held
+	 * @return true if the lease was changed, false if the owner does not hold it
+	 * @since 3.0.0
+	 */
+	@Authorized( { "Manage Scheduler" })
+	public boolean renewTaskLease(Integer taskId, String owner, Date expiry);
+	
+	/**
+	 * Gives up a lease held by the given owner so that other servers can take it immediately.
+	 * 
+	 * @param taskId the identifier of the task
+	 * @param owner the name of the server holding the lease
+	 * @since 3.0.0
+	 */
+	@Authorized( { "Manage Scheduler" })
+	public void releaseTaskLease(Integer taskId, String owner);
+	
+	/**
+	 * Gets the most recent executions of a task on this server, oldest first. Scheduler engines that
+	 * do not record executions return an empty list.
+	 * 
+	 * @param taskId the identifier of the task
+	 * @return the recorded executions
+	 * @since 3.0.0
+	 */
+	@Authorized( { "Manage Scheduler" })
+	public List<TaskExecution> getTaskExecutions(Integer taskId);
+	
+	/**
+	 * Gets the execution counts and durations of a task on this server.
+	 * 
+	 * @param taskId the identifier of the task
+	 * @return the statistics, null if the scheduler engine does not record them
+	 * @since 3.0.0
+	 */
+	@Authorized( { "Manage Scheduler" })
+	public TaskExecutionStatistics getTaskExecutionStatistics(Integer taskId);
+	
 }
@@ -14,9 +14,12 @@ import java.util.Date;
 import java.util.Map;
 import java.util.Properties;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.openmrs.api.APIException;
 import org.openmrs.api.context.Context;
+import org.openmrs.scheduler.executor.ExecutorSchedulerServiceImpl;
+import org.openmrs.scheduler.timer.TimerSchedulerServiceImpl;
 import org.openmrs.util.PrivilegeConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -67,6 +70,26 @@ public class SchedulerUtil {
 		}
 	}
 	
+	/**
+	 * Creates the scheduler service selected by the
+	 * {@link SchedulerConstants#SCHEDULER_ENGINE_RUNTIME_PROPERTY} runtime property, the timer based
+	 * one by default.
+	 * 
+	 * @return a new scheduler service
+	 * @since 3.0.0
+	 */
+	public static SchedulerService createSchedulerService() {
+		String engine = StringUtils.trim(Context.getRuntimeProperties().getProperty(
+		    SchedulerConstants.SCHEDULER_ENGINE_RUNTIME_PROPERTY, SchedulerConstants.SCHEDULER_ENGINE_TIMER));
+		if (SchedulerConstants.SCHEDULER_ENGINE_EXECUTOR.equalsIgnoreCase(engine)) {
+			return new ExecutorSchedulerServiceImpl();
+		}
+		if (!SchedulerConstants.SCHEDULER_ENGINE_TIMER.equalsIgnoreCase(engine)) {
+			log.warn("Unknown scheduler engine '{}', using '{}'", engine, SchedulerConstants.SCHEDULER_ENGINE_TIMER);
+		}
+		return new TimerSchedulerServiceImpl();
+	}
+	
 	/**
 	 * Shutdown the scheduler service that is statically associated with the Context class.
 	 */
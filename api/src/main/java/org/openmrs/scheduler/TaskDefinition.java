@@ -51,6 +51,13 @@ public class TaskDefinition extends BaseChangeableOpenmrsMetadata {
 	
 	private Boolean started;
 	
+	// Cluster lease, only written by the scheduler through SchedulerService#acquireTaskLease
+	@NotAudited
+	private String leaseOwner;
+	
+	@NotAudited
+	private Date leaseExpiry;
+	
 	// Relationships
 	@NotAudited
 	private Map<String, String> properties;
@@ -232,6 +239,43 @@ public class TaskDefinition extends BaseChangeableOpenmrsMetadata {
 		this.started = started;
 	}
 	
+	/**
+	 * Gets the server currently holding the lease on this task, as loaded from the database.
+	 * 
+	 * @since 3.0.0
+	 */
+	public String getLeaseOwner() {
+		return leaseOwner;
+	}
+	
+	/**
+	 * Sets the server holding the lease on this task. The value is never saved, leases are only
+	 * changed by {@link SchedulerService#acquireTaskLease(Integer, String, Date)} and related methods.
+	 * 
+	 * @since 3.0.0
+	 */
+	public void setLeaseOwner(String leaseOwner) {
+		this.leaseOwner = leaseOwner;
+	}
+	
+	/**
+	 * Gets the time until which the lease on this task is held, as loaded from the database.
+	 * 
+	 * @since 3.0.0
+	 */
+	public Date getLeaseExpiry() {
+		return leaseExpiry;
+	}
+	
+	/**
+	 * Sets the time until which the lease on this task is held. The value is never saved.
+	 * 
+	 * @since 3.0.0
+	 */
+	public void setLeaseExpiry(Date leaseExpiry) {
+		this.leaseExpiry = leaseExpiry;
+	}
+	
 	/**
 	 * Get task configuration property.
 	 * 
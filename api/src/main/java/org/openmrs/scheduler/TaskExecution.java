@@ -0,0 +1,106 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * One execution of a scheduled task on this server.
+ *
+ * @see SchedulerService#getTaskExecutions(Integer)
+ * @since 3.0.0
+ */
+public class TaskExecution implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final Integer taskId;
+	
+	private final String node;
+	
+	private final Date scheduledTime;
+	
+	private final Date startTime;
+	
+	private final Date endTime;
+	
+	private final boolean misfired;
+	
+	private final String error;
+	
+	/**
+	 * @param taskId the identifier of the task
+	 * @param node the server that ran the task
+	 * @param scheduledTime the time the task was due
+	 * @param startTime the time the task started
+	 * @param endTime the time the task finished
+	 * @param misfired true if the task started later than allowed
+	 * @param error the message of the exception the task failed with, null if it succeeded
+	 */
+	public TaskExecution(Integer taskId, String node, Date scheduledTime, Date startTime, Date endTime, boolean misfired,
+	    String error) {
+		this.taskId = taskId;
+		this.node = node;
+		this.scheduledTime = scheduledTime;
+		this.startTime = startTime;
+		this.endTime = endTime;
+		this.misfired = misfired;
+		this.error = error;
+	}
+	
+	public Integer getTaskId() {
+		return taskId;
+	}
+	
+	public String getNode() {
+		return node;
+	}
+	
+	public Date getScheduledTime() {
+		return scheduledTime;
+	}
+	
+	public Date getStartTime() {
+		return startTime;
+	}
+	
+	public Date getEndTime() {
+		return endTime;
+	}
+	
+	/**
+	 * @return the number of milliseconds the task ran
+	 */
+	public long getDuration() {
+		return endTime.getTime() - startTime.getTime();
+	}
+	
+	public boolean isMisfired() {
+		return misfired;
+	}
+	
+	/**
+	 * @return true if the task finished without throwing an exception
+	 */
+	public boolean isSuccessful() {
+		return error == null;
+	}
+	
+	public String getError() {
+		return error;
+	}
+	
+	@Override
+	public String toString() {
+		return "[TaskExecution taskId=" + taskId + " node=" + node + " startTime=" + startTime + " duration="
+		        + getDuration() + "ms" + (misfired ? " misfired" : "") + (error != null ? " error=" + error : "") + "]";
+	}
+}
@@ -0,0 +1,99 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler;
+
+import java.io.Serializable;
+
+/**
+ * Execution counts and durations of a scheduled task on this server since it was first scheduled.
+ *
+ * @see SchedulerService#getTaskExecutionStatistics(Integer)
+ * @since 3.0.0
+ */
+public class TaskExecutionStatistics implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final long executionCount;
+	
+	private final long failureCount;
+	
+	private final long misfireCount;
+	
+	private final long leaseConflictCount;
+	
+	private final long totalDuration;
+	
+	private final long maxDuration;
+	
+	private final long lastDuration;
+	
+	/**
+	 * @param executionCount the number of times the task ran
+	 * @param failureCount the number of executions that threw an exception
+	 * @param misfireCount the number of executions that started later than allowed or were skipped
+	 * @param leaseConflictCount the number of times the task was due but ran on another server
+	 * @param totalDuration the total number of milliseconds the task ran
+	 * @param maxDuration the longest execution in milliseconds
+	 * @param lastDuration the last execution in milliseconds
+	 */
+	public TaskExecutionStatistics(long executionCount, long failureCount, long misfireCount, long leaseConflictCount,
+	    long totalDuration, long maxDuration, long lastDuration) {
+		this.executionCount = executionCount;
+		this.failureCount = failureCount;
+		this.misfireCount = misfireCount;
+		this.leaseConflictCount = leaseConflictCount;
+		this.totalDuration = totalDuration;
+		this.maxDuration = maxDuration;
+		this.lastDuration = lastDuration;
+	}
+	
+	public long getExecutionCount() {
+		return executionCount;
+	}
+	
+	public long getFailureCount() {
+		return failureCount;
+	}
+	
+	public long getMisfireCount() {
+		return misfireCount;
+	}
+	
+	public long getLeaseConflictCount() {
+		return leaseConflictCount;
+	}
+	
+	public long getTotalDuration() {
+		return totalDuration;
+	}
+	
+	public long getMaxDuration() {
+		return maxDuration;
+	}
+	
+	public long getLastDuration() {
+		return lastDuration;
+	}
+	
+	/**
+	 * @return the average execution in milliseconds, 0 if the task never ran
+	 */
+	public long getAverageDuration() {
+		return executionCount == 0 ? 0 : totalDuration / executionCount;
+	}
+	
+	@Override
+	public String toString() {
+		return "[TaskExecutionStatistics executions=" + executionCount + " failures=" + failureCount + " misfires="
+		        + misfireCount + " leaseConflicts=" + leaseConflictCount + " averageDuration=" + getAverageDuration()
+		        + "ms maxDuration=" + maxDuration + "ms lastDuration=" + lastDuration + "ms]";
+	}
+}
@@ -9,6 +9,7 @@
  */
 package org.openmrs.scheduler.db;
 
+import java.util.Date;
 import java.util.List;
 
 import org.openmrs.api.db.DAOException;
@@ -85,4 +86,39 @@ public interface SchedulerDAO {
 	 * @throws DAOException
 	 */
 	public TaskDefinition getTaskByName(String name) throws DAOException;
+	
+	/**
+	 * Takes the lease on a task if it is not held, has expired or is already held by the given owner.
+	 * 
+	 * @param taskId identifier of the task
+	 * @param owner the server taking the lease
+	 * @param now the current time, leases expiring at or before it are free
+	 * @param expiry the time until which the lease is held
+	 * @return true if the lease was taken, false if another server holds it
+	 * @throws DAOException
+	 * @since 3.0.0
+	 */
+	public boolean acquireTaskLease(Integer taskId, String owner, Date now, Date expiry) throws DAOException;
+	
+	/**
+	 * Changes the expiry of a lease held by the given owner.
+	 * 
+	 * @param taskId identifier of the task
+	 * @param owner the server holding the lease
+	 * @param expiry the new time until which the lease is held
+	 * @return true if the lease was changed, false if the owner no longer holds it
+	 * @throws DAOException
+	 * @since 3.0.0
+	 */
+	public boolean renewTaskLease(Integer taskId, String owner, Date expiry) throws DAOException;
+	
+	/**
+	 * Gives up a lease held by the given owner.
+	 * 
+	 * @param taskId identifier of the task
+	 * @param owner the server holding the lease
+	 * @throws DAOException
+	 * @since 3.0.0
+	 */
+	public void releaseTaskLease(Integer taskId, String owner) throws DAOException;
 }
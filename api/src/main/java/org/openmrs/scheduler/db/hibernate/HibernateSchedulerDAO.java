@@ -12,6 +12,7 @@ package org.openmrs.scheduler.db.hibernate;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Root;
+import java.util.Date;
 import java.util.List;
 
 import org.hibernate.Session;
@@ -166,4 +167,43 @@ public class HibernateSchedulerDAO implements SchedulerDAO {
 	public TaskDefinition getTaskByUuid(String uuid) throws DAOException {
 		return HibernateUtil.getUniqueEntityByUUID(sessionFactory, TaskDefinition.class, uuid);
 	}
+	
+	/**
+	 * The lease columns are not updatable through the mapping, so that saving a task definition never
+	 * overwrites a lease taken by another server in the meantime. They are changed with conditional
+	 * updates instead, only one of several servers racing for an expired lease gets it.
+	 * 
+	 * @see org.openmrs.scheduler.db.SchedulerDAO#acquireTaskLease(Integer, String, Date, Date)
+	 */
+	@Override
+	public boolean acquireTaskLease(Integer taskId, String owner, Date now, Date expiry) throws DAOException {
+		int updated = sessionFactory.getCurrentSession().createNativeMutationQuery(
+		    "update scheduler_task_config set lease_owner = :owner, lease_expiry = :expiry where task_config_id = :id"
+		            + " and (lease_owner is null or lease_owner = :owner or lease_expiry is null or lease_expiry <= :now)")
+		        .setParameter("owner", owner).setParameter("expiry", expiry).setParameter("id", taskId)
+		        .setParameter("now", now).executeUpdate();
+		return updated == 1;
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.db.SchedulerDAO#renewTaskLease(Integer, String, Date)
+	 */
+	@Override
+	public boolean renewTaskLease(Integer taskId, String owner, Date expiry) throws DAOException {
+		int updated = sessionFactory.getCurrentSession().createNativeMutationQuery(
+		    "update scheduler_task_config set lease_expiry = :expiry where task_config_id = :id and lease_owner = :owner")
+		        .setParameter("expiry", expiry).setParameter("id", taskId).setParameter("owner", owner).executeUpdate();
+		return updated == 1;
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.db.SchedulerDAO#releaseTaskLease(Integer, String)
+	 */
+	@Override
+	public void releaseTaskLease(Integer taskId, String owner) throws DAOException {
+		sessionFactory.getCurrentSession().createNativeMutationQuery(
+		    "update scheduler_task_config set lease_owner = null, lease_expiry = null where task_config_id = :id"
+		            + " and lease_owner = :owner")
+		        .setParameter("id", taskId).setParameter("owner", owner).executeUpdate();
+	}
 }
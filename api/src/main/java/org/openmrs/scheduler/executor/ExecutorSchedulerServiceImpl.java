@@ -0,0 +1,371 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.executor;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openmrs.api.APIException;
+import org.openmrs.api.context.Context;
+import org.openmrs.scheduler.BaseSchedulerService;
+import org.openmrs.scheduler.SchedulerConstants;
+import org.openmrs.scheduler.SchedulerException;
+import org.openmrs.scheduler.SchedulerUtil;
+import org.openmrs.scheduler.Task;
+import org.openmrs.scheduler.TaskDefinition;
+import org.openmrs.scheduler.TaskExecution;
+import org.openmrs.scheduler.TaskExecutionStatistics;
+import org.openmrs.scheduler.TaskFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Scheduler service running all tasks on one shared pool of threads, see
+ * {@link ExecutorSchedulerTask} for how a task is fired.
+ * <p>
+ * Servers sharing a database take a lease on a task before running it, so each execution happens
+ * on one server only, and renew it while the task runs. Server clocks are assumed to be
+ * synchronized to well within the shortest repeat interval and the lease timeout. The executions of each task on this server and their durations are kept in
+ * memory, see {@link #getTaskExecutions(Integer)} and {@link #getTaskExecutionStatistics(Integer)}.
+ * <p>
+ * This engine is used when the {@link SchedulerConstants#SCHEDULER_ENGINE_RUNTIME_PROPERTY} runtime
+ * property is set to {@link SchedulerConstants#SCHEDULER_ENGINE_EXECUTOR}.
+ *
+ * @since 3.0.0
+ */
+@Transactional
+public class ExecutorSchedulerServiceImpl extends BaseSchedulerService {
+	
+	private static final Logger log = LoggerFactory.getLogger(ExecutorSchedulerServiceImpl.class);
+	
+	private static final int DEFAULT_POOL_SIZE = 4;
+	
+	private static final long DEFAULT_LEASE_TIMEOUT_SECONDS = 1800;
+	
+	private static final long DEFAULT_MISFIRE_THRESHOLD_SECONDS = 60;
+	
+	private static final int HISTORY_SIZE = 25;
+	
+	private final Map<Integer, ExecutorSchedulerTask> scheduledTasks = new ConcurrentHashMap<>();
+	
+	private final Map<Integer, TaskExecutionHistory> histories = new ConcurrentHashMap<>();
+	
+	private final AtomicInteger threadNumber = new AtomicInteger();
+	
+	private final int poolSize;
+	
+	private final String nodeId;
+	
+	private final long leaseTimeout;
+	
+	private final long misfireThreshold;
+	
+	private final boolean skipMisfires;
+	
+	private ScheduledExecutorService executor;
+	
+	/**
+	 * Creates a scheduler configured by the OpenMRS runtime properties
+	 */
+	public ExecutorSchedulerServiceImpl() {
+		this(Context.getRuntimeProperties());
+	}
+	
+	/**
+	 * Creates a scheduler configured by the given properties
+	 *
+	 * @param properties the runtime properties
+	 */
+	public ExecutorSchedulerServiceImpl(Properties properties) {
+		poolSize = (int) Math.max(1, getLongProperty(properties, SchedulerConstants.SCHEDULER_POOL_SIZE_RUNTIME_PROPERTY,
+		    DEFAULT_POOL_SIZE));
+		leaseTimeout = getLongProperty(properties, SchedulerConstants.SCHEDULER_LEASE_TIMEOUT_RUNTIME_PROPERTY,
+		    DEFAULT_LEASE_TIMEOUT_SECONDS) * SchedulerConstants.SCHEDULER_MILLIS_PER_SECOND;
+		misfireThreshold = getLongProperty(properties, SchedulerConstants.SCHEDULER_MISFIRE_THRESHOLD_RUNTIME_PROPERTY,
+		    DEFAULT_MISFIRE_THRESHOLD_SECONDS) * SchedulerConstants.SCHEDULER_MILLIS_PER_SECOND;
+		skipMisfires = SchedulerConstants.SCHEDULER_MISFIRE_POLICY_SKIP.equalsIgnoreCase(StringUtils.trim(properties
+		        .getProperty(SchedulerConstants.SCHEDULER_MISFIRE_POLICY_RUNTIME_PROPERTY)));
+		String configuredNodeId = StringUtils.trimToNull(properties
+		        .getProperty(SchedulerConstants.SCHEDULER_NODE_ID_RUNTIME_PROPERTY));
+		nodeId = configuredNodeId != null ? configuredNodeId : getDefaultNodeId();
+	}
+	
+	/**
+	 * Start up hook for the scheduler and all of its scheduled tasks.
+	 */
+	@Override
+	public void onStartup() {
+		log.info("Starting scheduler service on {} with {} threads", nodeId, poolSize);
+		super.onStartup();
+	}
+	
+	/**
+	 * Shutdown hook for the scheduler and all of its scheduled tasks. Running tasks are not
+	 * interrupted.
+	 */
+	@Override
+	public void onShutdown() {
+		log.debug("Gracefully shutting down scheduler service ...");
+		try {
+			shutdownAllTasks();
+		}
+		catch (APIException e) {
+			log.error("Failed to stop all tasks due to API exception", e);
+		}
+		finally {
+			synchronized (this) {
+				if (executor != null) {
+					executor.shutdown();
+					executor = null;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#scheduleTask(org.openmrs.scheduler.TaskDefinition)
+	 */
+	@Override
+	public Task scheduleTask(TaskDefinition taskDefinition) throws SchedulerException {
+		if (taskDefinition == null) {
+			return null;
+		}
+	
+		ExecutorSchedulerTask existing = scheduledTasks.remove(taskDefinition.getId());
+		if (existing != null) {
+			log.info("Shutting down the existing instance of this task to avoid conflicts!!");
+			existing.cancel();
+		}
+	
+		Task clientTask;
+		try {
+			clientTask = TaskFactory.getInstance().createInstance(taskDefinition);
+			if (clientTask == null) {
+				return null;
+			}
+			taskDefinition.setTaskInstance(clientTask);
+	
+			ExecutorSchedulerTask schedulerTask = new ExecutorSchedulerTask(this, taskDefinition, clientTask, histories
+			        .computeIfAbsent(taskDefinition.getId(), id -> new TaskExecutionHistory(HISTORY_SIZE)));
+			Date firstExecutionTime = getFirstExecutionTime(taskDefinition);
+			log.info("Starting task {} ... the task will execute for the first time at {}", taskDefinition.getName(),
+			    firstExecutionTime);
+			scheduledTasks.put(taskDefinition.getId(), schedulerTask);
+			schedulerTask.schedule(firstExecutionTime);
+	
+			taskDefinition.setStarted(true);
+			saveTaskDefinition(taskDefinition);
+		}
+		catch (Exception e) {
+			log.error("Failed to schedule task " + taskDefinition.getName(), e);
+			throw new SchedulerException("Failed to schedule task", e);
+		}
+		return clientTask;
+	}
+	
+	/**
+	 * Repeating tasks with a start time run at the start time plus a whole number of intervals, so
+	 * that every server has the same schedule. If the last execution before now did not happen on any
+	 * server, for instance because they were all down, its time is returned so that it is handled as a
+	 * misfire.
+	 */
+	Date getFirstExecutionTime(TaskDefinition taskDefinition) {
+		Date now = new Date();
+		if (taskDefinition.getStartTime() == null) {
+			return new Date(now.getTime() + SchedulerConstants.SCHEDULER_DEFAULT_DELAY
+			        * SchedulerConstants.SCHEDULER_MILLIS_PER_SECOND);
+		}
+	
+		Date next = SchedulerUtil.getNextExecution(taskDefinition);
+		long repeatInterval = taskDefinition.getRepeatInterval() != null ? taskDefinition.getRepeatInterval()
+		        * SchedulerConstants.SCHEDULER_MILLIS_PER_SECOND : 0;
+		if (repeatInterval <= 0) {
+			return next.before(now) ? now : next;
+		}
+	
+		Date previous = new Date(next.getTime() - repeatInterval);
+		Date lastExecutionTime = taskDefinition.getLastExecutionTime();
+		if (lastExecutionTime != null && lastExecutionTime.before(previous)
+		        && !previous.before(taskDefinition.getStartTime())) {
+			return previous;
+		}
+		return next;
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#shutdownTask(org.openmrs.scheduler.TaskDefinition)
+	 */
+	@Override
+	public void shutdownTask(TaskDefinition taskDefinition) throws SchedulerException {
+		if (taskDefinition != null) {
+			ExecutorSchedulerTask schedulerTask = scheduledTasks.remove(taskDefinition.getId());
+			if (schedulerTask != null) {
+				schedulerTask.cancel();
+				if (!schedulerTask.isExecuting()) {
+					getSchedulerDAO().releaseTaskLease(taskDefinition.getId(), nodeId);
+				}
+			}
+	
+			taskDefinition.setStarted(false);
+			saveTaskDefinition(taskDefinition);
+		}
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#getScheduledTasks()
+	 */
+	@Override
+	public Collection<TaskDefinition> getScheduledTasks() {
+		List<TaskDefinition> list = new ArrayList<>();
+		for (Integer id : scheduledTasks.keySet()) {
+			list.add(getTask(id));
+		}
+		return list;
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#deleteTask(java.lang.Integer)
+	 */
+	@Override
+	public void deleteTask(Integer id) {
+		super.deleteTask(id);
+		histories.remove(id);
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#getSystemVariables()
+	 */
+	@Override
+	public SortedMap<String, String> getSystemVariables() {
+		SortedMap<String, String> systemVariables = super.getSystemVariables();
+		systemVariables.put("SCHEDULER_NODE_ID", nodeId);
+		return systemVariables;
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#getStatus(java.lang.Integer)
+	 */
+	@Override
+	public String getStatus(Integer id) {
+		ExecutorSchedulerTask scheduledTask = scheduledTasks.get(id);
+		if (scheduledTask != null) {
+			if (scheduledTask.isExecuting()) {
+				return "Currently executing";
+			}
+			Date nextExecutionTime = scheduledTask.getNextExecutionTime();
+			if (nextExecutionTime != null) {
+				return "Scheduled to execute at " + nextExecutionTime;
+			}
+		}
+		return "Not Running";
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#getTaskExecutions(java.lang.Integer)
+	 */
+	@Override
+	public List<TaskExecution> getTaskExecutions(Integer taskId) {
+		TaskExecutionHistory history = histories.get(taskId);
+		return history != null ? history.getExecutions() : Collections.emptyList();
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#getTaskExecutionStatistics(java.lang.Integer)
+	 */
+	@Override
+	public TaskExecutionStatistics getTaskExecutionStatistics(Integer taskId) {
+		TaskExecutionHistory history = histories.get(taskId);
+		return history != null ? history.getStatistics() : new TaskExecutionStatistics(0, 0, 0, 0, 0, 0, 0);
+	}
+	
+	/**
+	 * @return the executor firing the tasks, created on first use
+	 */
+	synchronized ScheduledExecutorService getExecutor() {
+		if (executor == null) {
+			ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(poolSize, runnable -> {
+				Thread thread = new Thread(runnable, "OpenMRS-Scheduler-" + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			pool.setRemoveOnCancelPolicy(true);
+			executor = pool;
+		}
+		return executor;
+	}
+	
+	/**
+	 * @return the name identifying this server when leasing tasks
+	 */
+	String getNodeId() {
+		return nodeId;
+	}
+	
+	/**
+	 * @return the number of milliseconds a lease is taken for when a task starts, and extended by
+	 *         while it runs
+	 */
+	long getLeaseTimeout() {
+		return leaseTimeout;
+	}
+	
+	/**
+	 * @return the number of milliseconds a task may start late before it is misfired
+	 */
+	long getMisfireThreshold() {
+		return misfireThreshold;
+	}
+	
+	/**
+	 * @return true if misfired executions are dropped rather than run once
+	 */
+	boolean isSkipMisfires() {
+		return skipMisfires;
+	}
+	
+	private static String getDefaultNodeId() {
+		String host;
+		try {
+			host = InetAddress.getLocalHost().getHostName();
+		}
+		catch (UnknownHostException e) {
+			host = "localhost";
+		}
+		return host + "-" + ProcessHandle.current().pid();
+	}
+	
+	private static long getLongProperty(Properties properties, String name, long defaultValue) {
+		String value = StringUtils.trimToNull(properties.getProperty(name));
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return Long.parseLong(value);
+		}
+		catch (NumberFormatException e) {
+			log.warn("Invalid value '{}' for runtime property {}, using {}", value, name, defaultValue);
+			return defaultValue;
+		}
+	}
+}
@@ -0,0 +1,279 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.executor;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openmrs.api.context.Context;
+import org.openmrs.api.context.Daemon;
+import org.openmrs.scheduler.SchedulerConstants;
+import org.openmrs.scheduler.SchedulerService;
+import org.openmrs.scheduler.SchedulerUtil;
+import org.openmrs.scheduler.Task;
+import org.openmrs.scheduler.TaskDefinition;
+import org.openmrs.scheduler.TaskExecution;
+import org.openmrs.scheduler.timer.TimerSchedulerTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fires a task on the shared executor of an {@link ExecutorSchedulerServiceImpl}.
+ * <p>
+ * Each execution is scheduled on its own, the next one once the current one has finished, so a
+ * task never runs twice at the same time on this server and executions missed while it ran long or
+ * while the executor was busy are never replayed in a burst. An execution starting later than the
+ * misfire threshold is run once or dropped depending on the misfire policy.
+ * <p>
+ * Before running the task its lease is taken in the database. If another server holds it the
+ * execution is skipped. While the task runs the lease is renewed every third of the lease timeout,
+ * so that other servers do not take it over from a long execution. A repeating task keeps its lease
+ * for nine tenths of its interval after it started, so servers whose schedules are not aligned with
+ * this one skip their executions in between.
+ *
+ * @since 3.0.0
+ */
+public class ExecutorSchedulerTask implements Runnable {
+	
+	private static final Logger log = LoggerFactory.getLogger(ExecutorSchedulerTask.class);
+	
+	private final ExecutorSchedulerServiceImpl scheduler;
+	
+	private final Task task;
+	
+	private final Integer taskId;
+	
+	private final String taskName;
+	
+	private final long repeatInterval;
+	
+	private final TaskExecutionHistory history;
+	
+	private volatile Date nextExecutionTime;
+	
+	private volatile ScheduledFuture<?> future;
+	
+	private volatile boolean executing;
+	
+	private volatile boolean cancelled;
+	
+	ExecutorSchedulerTask(ExecutorSchedulerServiceImpl scheduler, TaskDefinition taskDefinition, Task task,
+	    TaskExecutionHistory history) {
+		this.scheduler = scheduler;
+		this.task = task;
+		this.taskId = taskDefinition.getId();
+		this.taskName = taskDefinition.getName();
+		Long interval = taskDefinition.getRepeatInterval();
+		this.repeatInterval = interval != null ? interval * SchedulerConstants.SCHEDULER_MILLIS_PER_SECOND : 0;
+		this.history = history;
+	}
+	
+	/**
+	 * Schedules the next execution at the given time.
+	 *
+	 * @param executionTime the time to run the task at
+	 */
+	synchronized void schedule(Date executionTime) {
+		if (cancelled) {
+			return;
+		}
+		nextExecutionTime = executionTime;
+		long delay = Math.max(0, executionTime.getTime() - System.currentTimeMillis());
+		try {
+			future = scheduler.getExecutor().schedule(this, delay, TimeUnit.MILLISECONDS);
+		}
+		catch (RejectedExecutionException e) {
+			log.debug("Not scheduling task {}, the scheduler is shutting down", taskName);
+			nextExecutionTime = null;
+		}
+	}
+	
+	/**
+	 * Cancels the next execution and invokes the task's shutdown() callback method. A running
+	 * execution is not interrupted.
+	 */
+	synchronized void cancel() {
+		cancelled = true;
+		nextExecutionTime = null;
+		if (future != null) {
+			future.cancel(false);
+		}
+		task.shutdown();
+	}
+	
+	@Override
+	public void run() {
+		Date scheduledTime = nextExecutionTime;
+		if (cancelled || scheduledTime == null) {
+			return;
+		}
+	
+		boolean misfired = System.currentTimeMillis() - scheduledTime.getTime() > scheduler.getMisfireThreshold();
+		try {
+			if (misfired && scheduler.isSkipMisfires()) {
+				log.warn("Skipping task {} that was due at {}", taskName, scheduledTime);
+				history.recordSkippedMisfire();
+			} else {
+				if (misfired) {
+					log.warn("Running task {} that was due at {}", taskName, scheduledTime);
+				}
+				fire(scheduledTime, misfired);
+			}
+		}
+		finally {
+			if (repeatInterval > 0) {
+				schedule(getNextExecutionTime(scheduledTime, System.currentTimeMillis()));
+			} else {
+				nextExecutionTime = null;
+			}
+		}
+	}
+	
+	private void fire(Date scheduledTime, boolean misfired) {
+		Exception[] failure = new Exception[1];
+		try {
+			TaskExecution execution = Daemon.executeScheduledTask(() -> leaseAndExecute(scheduledTime, misfired, failure));
+			if (execution == null) {
+				log.debug("Task {} is leased by another server, skipping the execution due at {}", taskName,
+				    scheduledTime);
+				history.recordLeaseConflict();
+			} else {
+				history.recordExecution(execution);
+			}
+		}
+		catch (InterruptedException e) {
+			// the scheduler is shutting down, the daemon thread finishes the execution on its own
+			Thread.currentThread().interrupt();
+			return;
+		}
+		catch (Exception e) {
+			failure[0] = e;
+		}
+	
+		if (failure[0] != null) {
+			log.error("FATAL ERROR: Task [" + task.getClass() + "] failed due to exception ["
+			        + failure[0].getClass().getName() + "]", failure[0]);
+			SchedulerUtil.sendSchedulerError(failure[0]);
+		}
+	}
+	
+	/**
+	 * Runs in a daemon thread, so that the lease is taken and the task is run with the daemon user
+	 *
+	 * @return the execution, null if another server holds the lease
+	 */
+	private TaskExecution leaseAndExecute(Date scheduledTime, boolean misfired, Exception[] failure) {
+		SchedulerService schedulerService = Context.getSchedulerService();
+		String node = scheduler.getNodeId();
+		Date startTime = new Date();
+		if (!schedulerService.acquireTaskLease(taskId, node, new Date(startTime.getTime() + scheduler.getLeaseTimeout()))) {
+			return null;
+		}
+	
+		executing = true;
+		CountDownLatch finished = new CountDownLatch(1);
+		Future<?> renewal = Daemon.runNewDaemonTask(() -> renewLeaseUntilFinished(node, finished));
+		try {
+			TimerSchedulerTask.execute(task);
+		}
+		catch (Exception e) {
+			failure[0] = e;
+		}
+		finally {
+			executing = false;
+			finished.countDown();
+			awaitRenewal(renewal);
+		}
+		Date endTime = new Date();
+	
+		if (repeatInterval > 0) {
+			schedulerService.renewTaskLease(taskId, node, new Date(startTime.getTime() + repeatInterval
+			        - repeatInterval / 10));
+		}
+		String error = failure[0] == null ? null : failure[0].getClass().getName() + ": " + failure[0].getMessage();
+		return new TaskExecution(taskId, node, scheduledTime, startTime, endTime, misfired, error);
+	}
+	
+	/**
+	 * Runs in a daemon thread of its own while the task runs, extending the lease by the lease timeout
+	 * every third of it until the task has finished
+	 */
+	private void renewLeaseUntilFinished(String node, CountDownLatch finished) {
+		long leaseTimeout = scheduler.getLeaseTimeout();
+		long period = Math.max(SchedulerConstants.SCHEDULER_MILLIS_PER_SECOND, leaseTimeout / 3);
+		try {
+			while (!finished.await(period, TimeUnit.MILLISECONDS)) {
+				Date expiry = new Date(System.currentTimeMillis() + leaseTimeout);
+				if (!Context.getSchedulerService().renewTaskLease(taskId, node, expiry)) {
+					log.warn("Task {} lost its lease while running, another server may run it too", taskName);
+					return;
+				}
+				log.debug("Renewed the lease of running task {} until {}", taskName, expiry);
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (Exception e) {
+			log.warn("Failed to renew the lease of running task " + taskName, e);
+		}
+	}
+	
+	/**
+	 * Waits for the lease renewal to stop, so that it cannot override the lease taken once the task
+	 * has finished
+	 */
+	private void awaitRenewal(Future<?> renewal) {
+		try {
+			renewal.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e) {
+			log.warn("Failed to renew the lease of running task " + taskName, e.getCause());
+		}
+	}
+	
+	/**
+	 * @return the first time after now that is a whole number of intervals after the given time
+	 */
+	private Date getNextExecutionTime(Date previousTime, long now) {
+		long elapsedIntervals = Math.max(0, now - previousTime.getTime()) / repeatInterval + 1;
+		return new Date(previousTime.getTime() + elapsedIntervals * repeatInterval);
+	}
+	
+	Integer getTaskId() {
+		return taskId;
+	}
+	
+	Task getTask() {
+		return task;
+	}
+	
+	/**
+	 * @return the time of the next execution, null if there is none
+	 */
+	Date getNextExecutionTime() {
+		return nextExecutionTime;
+	}
+	
+	/**
+	 * @return true while the task runs on this server
+	 */
+	boolean isExecuting() {
+		return executing;
+	}
+}
@@ -0,0 +1,79 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.executor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openmrs.scheduler.TaskExecution;
+import org.openmrs.scheduler.TaskExecutionStatistics;
+import org.openmrs.util.ThreadSafeCircularFifoQueue;
+
+/**
+ * The most recent executions of a task along with counters over all its executions.
+ */
+class TaskExecutionHistory {
+	
+	private final ThreadSafeCircularFifoQueue<TaskExecution> executions;
+	
+	private final AtomicLong executionCount = new AtomicLong();
+	
+	private final AtomicLong failureCount = new AtomicLong();
+	
+	private final AtomicLong misfireCount = new AtomicLong();
+	
+	private final AtomicLong leaseConflictCount = new AtomicLong();
+	
+	private final AtomicLong totalDuration = new AtomicLong();
+	
+	private final AtomicLong maxDuration = new AtomicLong();
+	
+	private volatile long lastDuration;
+	
+	TaskExecutionHistory(int size) {
+		executions = new ThreadSafeCircularFifoQueue<>(size);
+	}
+	
+	void recordExecution(TaskExecution execution) {
+		executions.add(execution);
+		long duration = execution.getDuration();
+		executionCount.incrementAndGet();
+		if (!execution.isSuccessful()) {
+			failureCount.incrementAndGet();
+		}
+		if (execution.isMisfired()) {
+			misfireCount.incrementAndGet();
+		}
+		totalDuration.addAndGet(duration);
+		maxDuration.accumulateAndGet(duration, Math::max);
+		lastDuration = duration;
+	}
+	
+	/**
+	 * Counts a misfired execution that was dropped rather than run
+	 */
+	void recordSkippedMisfire() {
+		misfireCount.incrementAndGet();
+	}
+	
+	void recordLeaseConflict() {
+		leaseConflictCount.incrementAndGet();
+	}
+	
+	List<TaskExecution> getExecutions() {
+		return new ArrayList<>(executions);
+	}
+	
+	TaskExecutionStatistics getStatistics() {
+		return new TaskExecutionStatistics(executionCount.get(), failureCount.get(), misfireCount.get(),
+		        leaseConflictCount.get(), totalDuration.get(), maxDuration.get(), lastDuration);
+	}
+}
@@ -0,0 +1,74 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.tasks;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openmrs.api.PatientService;
+import org.openmrs.api.context.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A scheduled task that computes the duplicate detection blocking keys of all patients, e.g. after
+ * upgrading or after names were changed without saving the patient. The number of patients processed
+ * in one transaction can be set with the batchSize task property, 1000 by default.
+ *
+ * @see PatientService#updatePatientDuplicateKeys(Integer, int)
+ * @since 3.0.0
+ */
+public class UpdatePatientDuplicateKeysTask extends AbstractTask {
+	
+	private static final Logger log = LoggerFactory.getLogger(UpdatePatientDuplicateKeysTask.class);
+	
+	private static final int DEFAULT_BATCH_SIZE = 1000;
+	
+	/**
+	 * @see org.openmrs.scheduler.tasks.AbstractTask#execute()
+	 */
+	@Override
+	public void execute() {
+		if (!isExecuting) {
+			log.debug("Updating patient duplicate keys task started");
+			
+			startExecuting();
+			
+			try {
+				int batchSize = getBatchSize();
+				Integer lastPatientId = null;
+				do {
+					lastPatientId = Context.getPatientService().updatePatientDuplicateKeys(lastPatientId, batchSize);
+					// the keys are saved in the batch transaction, the session only needs to be emptied
+					Context.clearSession();
+					log.debug("Updated the duplicate keys of patients up to id {}", lastPatientId);
+				} while (lastPatientId != null);
+			}
+			catch (Exception e) {
+				log.error("Error occurred while updating the patient duplicate keys: ", e);
+			}
+			finally {
+				log.debug("Updating patient duplicate keys task ended");
+				stopExecuting();
+			}
+		}
+	}
+	
+	private int getBatchSize() {
+		String value = StringUtils.trimToNull(getTaskDefinition().getProperty("batchSize"));
+		if (value != null) {
+			try {
+				return Integer.parseInt(value);
+			}
+			catch (NumberFormatException e) {
+				log.warn("Ignoring invalid value '{}' for task property batchSize", value);
+			}
+		}
+		return DEFAULT_BATCH_SIZE;
+	}
+}
@@ -0,0 +1,97 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.tasks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.db.SearchIndexProgress;
+import org.openmrs.api.db.SearchIndexUpdateOptions;
+import org.openmrs.util.OpenmrsClassLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A scheduled task that rebuilds the search index, resuming an earlier update that was
+ * interrupted. The update can be configured with these task properties:
+ * <ul>
+ * <li>types: comma separated names of the entity classes to reindex, all if blank</li>
+ * <li>typesToIndexInParallel, threadsToLoadObjects, batchSizeToLoadObjects, idFetchSize,
+ * partitionSize: see {@link SearchIndexUpdateOptions}</li>
+ * <li>resume: false to reindex everything from scratch, true by default</li>
+ * </ul>
+ *
+ * @see Context#updateSearchIndex(SearchIndexUpdateOptions)
+ * @since 3.0.0
+ */
+public class UpdateSearchIndexTask extends AbstractTask {
+	
+	private static final Logger log = LoggerFactory.getLogger(UpdateSearchIndexTask.class);
+	
+	/**
+	 * @see org.openmrs.scheduler.tasks.AbstractTask#execute()
+	 */
+	@Override
+	public void execute() {
+		if (!isExecuting) {
+			log.debug("Updating search index task started");
+	
+			startExecuting();
+	
+			try {
+				Context.updateSearchIndex(getOptions());
+				SearchIndexProgress progress = Context.getSearchIndexProgress();
+				log.info("Search index update finished: {}", progress);
+			}
+			catch (Exception e) {
+				log.error("Error occurred while updating the search index: ", e);
+			}
+			finally {
+				log.debug("Updating search index task ended");
+				stopExecuting();
+			}
+		}
+	}
+	
+	private SearchIndexUpdateOptions getOptions() throws ClassNotFoundException {
+		SearchIndexUpdateOptions options = new SearchIndexUpdateOptions();
+		String types = getTaskDefinition().getProperty("types");
+		if (StringUtils.isNotBlank(types)) {
+			List<Class<?>> classes = new ArrayList<>();
+			for (String type : StringUtils.split(types, ',')) {
+				classes.add(OpenmrsClassLoader.getInstance().loadClass(type.trim()));
+			}
+			options.setTypes(classes);
+		}
+		options.setTypesToIndexInParallel(getIntegerProperty("typesToIndexInParallel"));
+		options.setThreadsToLoadObjects(getIntegerProperty("threadsToLoadObjects"));
+		options.setBatchSizeToLoadObjects(getIntegerProperty("batchSizeToLoadObjects"));
+		options.setIdFetchSize(getIntegerProperty("idFetchSize"));
+		options.setPartitionSize(getIntegerProperty("partitionSize"));
+		options.setResume(!"false".equalsIgnoreCase(StringUtils.trim(getTaskDefinition().getProperty("resume"))));
+		return options;
+	}
+	
+	private Integer getIntegerProperty(String name) {
+		String value = StringUtils.trimToNull(getTaskDefinition().getProperty(name));
+		if (value == null) {
+			return null;
+		}
+		try {
+			return Integer.valueOf(value);
+		}
+		catch (NumberFormatException e) {
+			log.warn("Ignoring invalid value '{}' for task property {}", value, name);
+			return null;
+		}
+	}
+}
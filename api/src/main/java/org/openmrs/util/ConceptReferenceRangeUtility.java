@@ -10,22 +10,32 @@
 package org.openmrs.util;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.text.StringEscapeUtils;
 import org.apache.velocity.VelocityContext;
-import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.context.InternalContextAdapterImpl;
 import org.apache.velocity.exception.ParseErrorException;
+import org.apache.velocity.runtime.RuntimeInstance;
 import org.apache.velocity.runtime.log.Log4JLogChute;
+import org.apache.velocity.runtime.parser.ParseException;
+import org.apache.velocity.runtime.parser.node.SimpleNode;
 import org.joda.time.LocalTime;
 import org.openmrs.Concept;
+import org.openmrs.ConceptNumeric;
+import org.openmrs.ConceptReferenceRange;
 import org.openmrs.Obs;
 import org.openmrs.Person;
 import org.openmrs.api.APIException;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.db.hibernate.HibernateUtil;
 
+import java.util.Map;
 import java.util.Properties;
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A utility class that evaluates the concept ranges 
@@ -34,6 +44,12 @@ import java.util.Locale;
  */
 public class ConceptReferenceRangeUtility {
 	
+	/**
+	 * Compiled criteria keyed by {@link ConceptReferenceRange#getConceptReferenceRangeId()}, entries are
+	 * evicted when the owning concept is saved or purged
+	 */
+	private static final Map<Integer, CompiledCriteria> compiledCriteriaCache = new ConcurrentHashMap<>();
+	
 	public ConceptReferenceRangeUtility() {
 	}
 	
@@ -46,48 +62,94 @@ public class ConceptReferenceRangeUtility {
 	 * @return true if the criteria evaluates to true, false otherwise
 	 */
 	public boolean evaluateCriteria(String criteria, Obs obs) {
-		if (obs == null) {
-			throw new IllegalArgumentException("Failed to evaluate criteria with reason: Obs is null");
-		}
+		validateObs(obs);
 		
-		if (obs.getPerson() == null) {
-			throw new IllegalArgumentException("Failed to evaluate criteria with reason: patient is null");
+		if (StringUtils.isBlank(criteria)) {
+			throw new IllegalArgumentException("Failed to evaluate criteria with reason: criteria is empty");
 		}
 		
+		return CompiledCriteria.compile(criteria).evaluate(this, obs);
+	}
+	
+	/**
+	 * Evaluates the criteria of the given {@link ConceptReferenceRange} against the provided {@link Obs}. The
+	 * criteria of a saved reference range is parsed only once and the compiled form is reused until the
+	 * concept owning the range is saved again, see {@link #clearCompiledCriteria(Concept)}
+	 *
+	 * @param referenceRange the reference range whose criteria should be evaluated
+	 * @param obs The observation (Obs) object containing the values to be used in the criteria evaluation.
+	 * 
+	 * @return true if the criteria evaluates to true, false otherwise
+	 * @since 3.0.0
+	 */
+	public boolean evaluateCriteria(ConceptReferenceRange referenceRange, Obs obs) {
+		validateObs(obs);
+		
+		String criteria = referenceRange.getCriteria();
 		if (StringUtils.isBlank(criteria)) {
 			throw new IllegalArgumentException("Failed to evaluate criteria with reason: criteria is empty");
 		}
+		criteria = StringEscapeUtils.unescapeHtml4(criteria);
 		
-		VelocityContext velocityContext = new VelocityContext();
-		velocityContext.put("fn", this);
-		velocityContext.put("obs", obs);
+		Integer referenceRangeId = referenceRange.getConceptReferenceRangeId();
+		if (referenceRangeId == null) {
+			return CompiledCriteria.compile(criteria).evaluate(this, obs);
+		}
 		
-		velocityContext.put("patient", obs.getPerson());
+		CompiledCriteria compiledCriteria = compiledCriteriaCache.get(referenceRangeId);
+		if (compiledCriteria == null || !compiledCriteria.criteria.equals(criteria)) {
+			// the range may have been edited but not yet saved, in which case the stale entry is replaced
+			compiledCriteria = CompiledCriteria.compile(criteria);
+			compiledCriteriaCache.put(referenceRangeId, compiledCriteria);
+		}
 		
-		VelocityEngine velocityEngine = new VelocityEngine();
-		try {
-			Properties props = new Properties();
-			props.put("runtime.log.logsystem.class", Log4JLogChute.class.getName());
-			props.put("runtime.log.logsystem.log4j.category", "velocity");
-			props.put("runtime.log.logsystem.log4j.logger", "velocity");
-			velocityEngine.init(props);
+		return compiledCriteria.evaluate(this, obs);
+	}
+	
+	/**
+	 * Removes the compiled criteria of all reference ranges belonging to the given concept
+	 * 
+	 * @param concept the concept whose reference ranges have changed
+	 * @since 3.0.0
+	 */
+	public static void clearCompiledCriteria(Concept concept) {
+		Concept realConcept = HibernateUtil.getRealObjectFromProxy(concept);
+		if (!(realConcept instanceof ConceptNumeric) || ((ConceptNumeric) realConcept).getReferenceRanges() == null) {
+			return;
 		}
-		catch (Exception e) {
-			throw new APIException("Failed to create the velocity engine: " + e.getMessage(), e);
+		for (ConceptReferenceRange referenceRange : ((ConceptNumeric) realConcept).getReferenceRanges()) {
+			clearCompiledCriteria(referenceRange);
 		}
-		
-		StringWriter writer = new StringWriter();
-		String wrappedCriteria = "#set( $criteria = " + criteria + " )$criteria";
-		
-		try {
-			velocityEngine.evaluate(velocityContext, writer, ConceptReferenceRangeUtility.class.getName(), wrappedCriteria);
-			return Boolean.parseBoolean(writer.toString());
+	}
+	
+	/**
+	 * Removes the compiled criteria of the given reference range
+	 * 
+	 * @param referenceRange the reference range that has changed
+	 * @since 3.0.0
+	 */
+	public static void clearCompiledCriteria(ConceptReferenceRange referenceRange) {
+		if (referenceRange != null && referenceRange.getConceptReferenceRangeId() != null) {
+			compiledCriteriaCache.remove(referenceRange.getConceptReferenceRangeId());
 		}
-		catch (ParseErrorException e) {
-			throw new APIException("An error occurred while evaluating criteria. Invalid criteria: " + criteria, e);
+	}
+	
+	/**
+	 * Removes all compiled criteria
+	 * 
+	 * @since 3.0.0
+	 */
+	public static void clearCompiledCriteria() {
+		compiledCriteriaCache.clear();
+	}
+	
+	private void validateObs(Obs obs) {
+		if (obs == null) {
+			throw new IllegalArgumentException("Failed to evaluate criteria with reason: Obs is null");
 		}
-		catch (Exception e) {
-			throw new APIException("An error occurred while evaluating criteria: ", e);
+		
+		if (obs.getPerson() == null) {
+			throw new IllegalArgumentException("Failed to evaluate criteria with reason: patient is null");
 		}
 	}
 	
@@ -151,4 +213,86 @@ public class ConceptReferenceRangeUtility {
 			return getLatestObs(conceptRef, currentObs.getPerson());
 		}
 	}
+
+	/**
+	 * Holds the single velocity runtime shared by all criteria evaluations, it is created lazily on first
+	 * use and is thread safe once initialised
+	 */
+	private static class VelocityRuntimeHolder {
+		
+		private static final RuntimeInstance RUNTIME = createRuntime();
+		
+		private static RuntimeInstance createRuntime() {
+			RuntimeInstance runtime = new RuntimeInstance();
+			try {
+				Properties props = new Properties();
+				props.put("runtime.log.logsystem.class", Log4JLogChute.class.getName());
+				props.put("runtime.log.logsystem.log4j.category", "velocity");
+				props.put("runtime.log.logsystem.log4j.logger", "velocity");
+				runtime.init(props);
+			}
+			catch (Exception e) {
+				throw new APIException("Failed to create the velocity engine: " + e.getMessage(), e);
+			}
+			return runtime;
+		}
+	}
+	
+	/**
+	 * A criteria expression parsed into a velocity node tree. The tree is initialised once and can then be
+	 * rendered concurrently since all per evaluation state lives in the context passed to it.
+	 */
+	private static class CompiledCriteria {
+		
+		private final String criteria;
+		
+		private final SimpleNode nodeTree;
+		
+		private CompiledCriteria(String criteria, SimpleNode nodeTree) {
+			this.criteria = criteria;
+			this.nodeTree = nodeTree;
+		}
+		
+		static CompiledCriteria compile(String criteria) {
+			RuntimeInstance runtime = VelocityRuntimeHolder.RUNTIME;
+			String wrappedCriteria = "#set( $criteria = " + criteria + " )$criteria";
+			try {
+				SimpleNode nodeTree = runtime.parse(new StringReader(wrappedCriteria),
+				    ConceptReferenceRangeUtility.class.getName());
+				nodeTree.init(new InternalContextAdapterImpl(new VelocityContext()), runtime);
+				return new CompiledCriteria(criteria, nodeTree);
+			}
+			catch (ParseException | ParseErrorException e) {
+				throw new APIException("An error occurred while evaluating criteria. Invalid criteria: " + criteria, e);
+			}
+			catch (Exception e) {
+				throw new APIException("An error occurred while evaluating criteria: ", e);
+			}
+		}
+		
+		boolean evaluate(ConceptReferenceRangeUtility fn, Obs obs) {
+			VelocityContext velocityContext = new VelocityContext();
+			velocityContext.put("fn", fn);
+			velocityContext.put("obs", obs);
+			
+			velocityContext.put("patient", obs.getPerson());
+			
+			InternalContextAdapterImpl ica = new InternalContextAdapterImpl(velocityContext);
+			ica.pushCurrentTemplateName(ConceptReferenceRangeUtility.class.getName());
+			StringWriter writer = new StringWriter();
+			try {
+				nodeTree.render(ica, writer);
+				return Boolean.parseBoolean(writer.toString());
+			}
+			catch (ParseErrorException e) {
+				throw new APIException("An error occurred while evaluating criteria. Invalid criteria: " + criteria, e);
+			}
+			catch (Exception e) {
+				throw new APIException("An error occurred while evaluating criteria: ", e);
+			}
+			finally {
+				ica.popCurrentTemplateName();
+			}
+		}
+	}
 }
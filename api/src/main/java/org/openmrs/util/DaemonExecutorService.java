@@ -0,0 +1,432 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openmrs.api.context.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The executor running daemon tasks, see {@link org.openmrs.api.context.Daemon}.
+ * <p>
+ * Tasks are either run by a bounded pool of platform threads or by a new virtual thread per task,
+ * depending on the {@link OpenmrsConstants#DAEMON_THREAD_POOL_MODE_RUNTIME_PROPERTY} runtime
+ * property. The underlying executor is created on first use, so that the runtime properties are
+ * read once they have been loaded, and is created again after it has been drained by
+ * {@link #drain(long, TimeUnit)} so that OpenMRS can be restarted within the same JVM.
+ * <p>
+ * Every task is timed, {@link #getStatistics()} returns the number of waiting and running tasks
+ * along with how long tasks waited to be started and how long they ran.
+ *
+ * @since 3.0.0
+ */
+public class DaemonExecutorService extends AbstractExecutorService {
+	
+	private static final Logger log = LoggerFactory.getLogger(DaemonExecutorService.class);
+	
+	public static final String MODE_PLATFORM = "platform";
+	
+	public static final String MODE_VIRTUAL = "virtual";
+	
+	public static final int DEFAULT_MAX_POOL_SIZE = 200;
+	
+	public static final int DEFAULT_QUEUE_CAPACITY = 10000;
+	
+	public static final long DEFAULT_SHUTDOWN_TIMEOUT_SECONDS = 30;
+	
+	private static final long KEEP_ALIVE_SECONDS = 60;
+	
+	private final ThreadLocal<Boolean> runningTask = new ThreadLocal<>();
+	
+	private final AtomicInteger threadNumber = new AtomicInteger();
+	
+	private final AtomicInteger queuedTasks = new AtomicInteger();
+	
+	private final AtomicInteger activeTasks = new AtomicInteger();
+	
+	private final AtomicLong completedTasks = new AtomicLong();
+	
+	private final AtomicLong rejectedTasks = new AtomicLong();
+	
+	private final AtomicLong totalWaitNanos = new AtomicLong();
+	
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+	
+	private final AtomicLong totalRunNanos = new AtomicLong();
+	
+	private final AtomicLong maxRunNanos = new AtomicLong();
+	
+	private final Properties properties;
+	
+	private volatile ExecutorService delegate;
+	
+	private volatile String mode;
+	
+	/**
+	 * Creates an executor configured by the OpenMRS runtime properties
+	 */
+	public DaemonExecutorService() {
+		this(null);
+	}
+	
+	/**
+	 * Creates an executor configured by the given properties
+	 *
+	 * @param properties the properties to read the configuration from, null to use the OpenMRS runtime
+	 *            properties
+	 */
+	public DaemonExecutorService(Properties properties) {
+		this.properties = properties;
+	}
+	
+	@Override
+	public void execute(Runnable command) {
+		if (command == null) {
+			throw new NullPointerException();
+		}
+	
+		final long submittedAt = System.nanoTime();
+		queuedTasks.incrementAndGet();
+		Runnable instrumented = () -> {
+			long startedAt = System.nanoTime();
+			queuedTasks.decrementAndGet();
+			activeTasks.incrementAndGet();
+			record(startedAt - submittedAt, totalWaitNanos, maxWaitNanos);
+			runningTask.set(Boolean.TRUE);
+			try {
+				command.run();
+			}
+			finally {
+				runningTask.remove();
+				activeTasks.decrementAndGet();
+				completedTasks.incrementAndGet();
+				record(System.nanoTime() - startedAt, totalRunNanos, maxRunNanos);
+			}
+		};
+	
+		try {
+			getDelegate().execute(instrumented);
+		}
+		catch (RejectedExecutionException e) {
+			queuedTasks.decrementAndGet();
+			rejectedTasks.incrementAndGet();
+			log.warn("Rejected daemon task, {} tasks are running and {} are waiting", activeTasks.get(), queuedTasks.get());
+			throw e;
+		}
+	}
+	
+	/**
+	 * Stops accepting tasks on the current underlying executor, waits up to the given timeout for the
+	 * submitted tasks to finish and interrupts the ones still running after that. Tasks submitted
+	 * afterwards are run by a newly created underlying executor.
+	 * <p>
+	 * When called from a task of this executor the other tasks are not waited for, since the calling
+	 * task could only finish after them.
+	 *
+	 * @param timeout the maximum time to wait
+	 * @param unit the unit of the timeout
+	 * @return true if all tasks finished in time, false otherwise
+	 */
+	public boolean drain(long timeout, TimeUnit unit) {
+		ExecutorService draining;
+		synchronized (this) {
+			draining = delegate;
+			delegate = null;
+		}
+		if (draining == null) {
+			return true;
+		}
+	
+		log.debug("Draining daemon executor, {} tasks are running and {} are waiting", activeTasks.get(),
+		    queuedTasks.get());
+		draining.shutdown();
+		if (Boolean.TRUE.equals(runningTask.get())) {
+			return false;
+		}
+		try {
+			if (draining.awaitTermination(timeout, unit)) {
+				return true;
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	
+		List<Runnable> neverStarted = draining.shutdownNow();
+		queuedTasks.addAndGet(-neverStarted.size());
+		log.warn("Daemon tasks did not finish within {} {}, interrupted {} running tasks and dropped {} waiting tasks",
+		    timeout, unit, activeTasks.get(), neverStarted.size());
+		return false;
+	}
+	
+	/**
+	 * @return a snapshot of the current state of this executor
+	 */
+	public Statistics getStatistics() {
+		ExecutorService current = delegate;
+		int poolSize = current instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) current).getPoolSize() : activeTasks
+		        .get();
+		return new Statistics(mode, poolSize, activeTasks.get(), queuedTasks.get(), completedTasks.get(),
+		        rejectedTasks.get(), totalWaitNanos.get(), maxWaitNanos.get(), totalRunNanos.get(), maxRunNanos.get());
+	}
+	
+	@Override
+	public void shutdown() {
+		ExecutorService current = delegate;
+		if (current != null) {
+			current.shutdown();
+		}
+	}
+	
+	@Override
+	public List<Runnable> shutdownNow() {
+		ExecutorService current = delegate;
+		if (current == null) {
+			return Collections.emptyList();
+		}
+		List<Runnable> neverStarted = current.shutdownNow();
+		queuedTasks.addAndGet(-neverStarted.size());
+		return neverStarted;
+	}
+	
+	@Override
+	public boolean isShutdown() {
+		ExecutorService current = delegate;
+		return current != null && current.isShutdown();
+	}
+	
+	@Override
+	public boolean isTerminated() {
+		ExecutorService current = delegate;
+		return current != null && current.isTerminated();
+	}
+	
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		ExecutorService current = delegate;
+		return current == null || current.awaitTermination(timeout, unit);
+	}
+	
+	/**
+	 * @return the number of seconds {@link #drain(long, TimeUnit)} should wait when OpenMRS shuts down
+	 */
+	public long getShutdownTimeoutSeconds() {
+		return getLongProperty(getProperties(), OpenmrsConstants.DAEMON_THREAD_POOL_SHUTDOWN_TIMEOUT_RUNTIME_PROPERTY,
+		    DEFAULT_SHUTDOWN_TIMEOUT_SECONDS);
+	}
+	
+	private ExecutorService getDelegate() {
+		ExecutorService current = delegate;
+		if (current == null) {
+			synchronized (this) {
+				current = delegate;
+				if (current == null) {
+					current = createDelegate();
+					delegate = current;
+				}
+			}
+		}
+		return current;
+	}
+	
+	private ExecutorService createDelegate() {
+		Properties props = getProperties();
+		String configuredMode = StringUtils.defaultIfBlank(
+		    props.getProperty(OpenmrsConstants.DAEMON_THREAD_POOL_MODE_RUNTIME_PROPERTY), MODE_PLATFORM).trim();
+	
+		if (MODE_VIRTUAL.equalsIgnoreCase(configuredMode)) {
+			log.info("Running daemon tasks on virtual threads");
+			mode = MODE_VIRTUAL;
+			return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("OpenMRS-Daemon-", 1).factory());
+		}
+	
+		if (!MODE_PLATFORM.equalsIgnoreCase(configuredMode)) {
+			log.warn("Unknown value '{}' for runtime property {}, using '{}'", configuredMode,
+			    OpenmrsConstants.DAEMON_THREAD_POOL_MODE_RUNTIME_PROPERTY, MODE_PLATFORM);
+		}
+	
+		int maxPoolSize = (int) Math.max(1, getLongProperty(props,
+		    OpenmrsConstants.DAEMON_THREAD_POOL_MAX_SIZE_RUNTIME_PROPERTY, DEFAULT_MAX_POOL_SIZE));
+		int queueCapacity = (int) Math.max(1, getLongProperty(props,
+		    OpenmrsConstants.DAEMON_THREAD_POOL_QUEUE_CAPACITY_RUNTIME_PROPERTY, DEFAULT_QUEUE_CAPACITY));
+		log.info("Running daemon tasks on at most {} platform threads with up to {} waiting tasks", maxPoolSize,
+		    queueCapacity);
+	
+		ThreadFactory threadFactory = runnable -> {
+			Thread thread = new Thread(runnable, "OpenMRS-Daemon-" + threadNumber.incrementAndGet());
+			thread.setDaemon(false);
+			return thread;
+		};
+		// core and maximum size are equal so that a new thread is started for each task until the limit is
+		// reached, idle threads time out so that the pool shrinks back after bursts
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(maxPoolSize, maxPoolSize, KEEP_ALIVE_SECONDS,
+		        TimeUnit.SECONDS, new LinkedBlockingQueue<>(queueCapacity), threadFactory);
+		executor.allowCoreThreadTimeOut(true);
+		mode = MODE_PLATFORM;
+		return executor;
+	}
+	
+	private Properties getProperties() {
+		return properties != null ? properties : Context.getRuntimeProperties();
+	}
+	
+	private static long getLongProperty(Properties props, String name, long defaultValue) {
+		String value = props.getProperty(name);
+		if (StringUtils.isBlank(value)) {
+			return defaultValue;
+		}
+		try {
+			return Long.parseLong(value.trim());
+		}
+		catch (NumberFormatException e) {
+			log.warn("Invalid value '{}' for runtime property {}, using {}", value, name, defaultValue);
+			return defaultValue;
+		}
+	}
+	
+	private static void record(long nanos, AtomicLong total, AtomicLong max) {
+		total.addAndGet(nanos);
+		max.accumulateAndGet(nanos, Math::max);
+	}
+	
+	/**
+	 * A snapshot of the state of a {@link DaemonExecutorService}
+	 */
+	public static class Statistics {
+	
+		private final String mode;
+	
+		private final int poolSize;
+	
+		private final int activeCount;
+	
+		private final int queueDepth;
+	
+		private final long completedTaskCount;
+	
+		private final long rejectedTaskCount;
+	
+		private final long totalWaitNanos;
+	
+		private final long maxWaitNanos;
+	
+		private final long totalRunNanos;
+	
+		private final long maxRunNanos;
+	
+		Statistics(String mode, int poolSize, int activeCount, int queueDepth, long completedTaskCount,
+		    long rejectedTaskCount, long totalWaitNanos, long maxWaitNanos, long totalRunNanos, long maxRunNanos) {
+			this.mode = mode;
+			this.poolSize = poolSize;
+			this.activeCount = activeCount;
+			this.queueDepth = queueDepth;
+			this.completedTaskCount = completedTaskCount;
+			this.rejectedTaskCount = rejectedTaskCount;
+			this.totalWaitNanos = totalWaitNanos;
+			this.maxWaitNanos = maxWaitNanos;
+			this.totalRunNanos = totalRunNanos;
+			this.maxRunNanos = maxRunNanos;
+		}
+	
+		/**
+		 * @return "platform" or "virtual", null if no task has been submitted yet
+		 */
+		public String getMode() {
+			return mode;
+		}
+	
+		/**
+		 * @return the number of threads currently running or waiting for daemon tasks
+		 */
+		public int getPoolSize() {
+			return poolSize;
+		}
+	
+		/**
+		 * @return the number of tasks currently running
+		 */
+		public int getActiveCount() {
+			return activeCount;
+		}
+	
+		/**
+		 * @return the number of tasks submitted but not yet started
+		 */
+		public int getQueueDepth() {
+			return queueDepth;
+		}
+	
+		/**
+		 * @return the number of tasks that have finished, normally or not
+		 */
+		public long getCompletedTaskCount() {
+			return completedTaskCount;
+		}
+	
+		/**
+		 * @return the number of tasks that were rejected because the queue was full
+		 */
+		public long getRejectedTaskCount() {
+			return rejectedTaskCount;
+		}
+	
+		/**
+		 * @return the average time in milliseconds tasks waited before being started
+		 */
+		public double getAverageWaitMillis() {
+			long started = completedTaskCount + activeCount;
+			return started == 0 ? 0 : totalWaitNanos / 1_000_000.0 / started;
+		}
+	
+		/**
+		 * @return the longest time in milliseconds a task waited before being started
+		 */
+		public double getMaxWaitMillis() {
+			return maxWaitNanos / 1_000_000.0;
+		}
+	
+		/**
+		 * @return the average time in milliseconds finished tasks ran
+		 */
+		public double getAverageRunMillis() {
+			return completedTaskCount == 0 ? 0 : totalRunNanos / 1_000_000.0 / completedTaskCount;
+		}
+	
+		/**
+		 * @return the longest time in milliseconds a finished task ran
+		 */
+		public double getMaxRunMillis() {
+			return maxRunNanos / 1_000_000.0;
+		}
+	
+		@Override
+		public String toString() {
+			return "mode=" + mode + ", poolSize=" + poolSize + ", active=" + activeCount + ", queued=" + queueDepth
+			        + ", completed=" + completedTaskCount + ", rejected=" + rejectedTaskCount + ", avgWaitMs="
+			        + getAverageWaitMillis() + ", maxWaitMs=" + getMaxWaitMillis() + ", avgRunMs=" + getAverageRunMillis()
+			        + ", maxRunMs=" + getMaxRunMillis();
+		}
+	}
+}
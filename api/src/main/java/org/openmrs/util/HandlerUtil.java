@@ -16,6 +16,7 @@ import java.util.Map;
 import java.util.WeakHashMap;
 
 import org.openmrs.annotation.Handler;
+import org.openmrs.aop.RequiredDataTraversalPlan;
 import org.openmrs.api.APIException;
 import org.openmrs.api.context.Context;
 import org.slf4j.Logger;
@@ -87,6 +88,7 @@ public class HandlerUtil implements ApplicationListener<ContextRefreshedEvent> {
 	
 	public static void clearCachedHandlers() {
 		cachedHandlers = new WeakHashMap<>();
+		RequiredDataTraversalPlan.clearCachedPlans();
 	}
 	
 	/**
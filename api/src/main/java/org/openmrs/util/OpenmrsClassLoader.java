@@ -36,6 +36,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.apache.commons.lang3.StringUtils;
 import org.openmrs.api.APIException;
 import org.openmrs.api.context.Context;
+import org.openmrs.module.MissingClassCache;
 import org.openmrs.module.ModuleClassLoader;
 import org.openmrs.module.ModuleFactory;
 import org.openmrs.module.ModuleUtil;
@@ -65,9 +66,18 @@ public class OpenmrsClassLoader extends URLClassLoader {
 	 */
 	private Map<String, WeakReference<Class<?>>> cachedClasses = new ConcurrentHashMap<>();
 	
+	/**
+	 * Holds the names of classes that could not be loaded from modules nor from the web container.
+	 */
+	private final MissingClassCache missingClasses = new MissingClassCache();
+	
 	// suffix of the OpenMRS required library cache folder
 	private static final String LIBCACHESUFFIX = ".openmrs-lib-cache";
 	
+	static {
+		ClassLoader.registerAsParallelCapable();
+	}
+	
 	/**
 	 * Creates the instance for the OpenmrsClassLoader
 	 */
@@ -129,6 +139,10 @@ public class OpenmrsClassLoader extends URLClassLoader {
 	/**
 	 * It attempts to load classes from the module class loaders first and then
 	 * tries the web container class loader (parent class loader).
+	 * <p>
+	 * This class loader is parallel capable, classes of different names are loaded concurrently.
+	 * Classes which could neither be loaded from modules nor from the web container are remembered
+	 * until a module is started or stopped.
 	 * 
 	 * @see java.lang.ClassLoader#loadClass(java.lang.String, boolean)
 	 * <strong>Should</strong> load class from cache second time
@@ -137,35 +151,17 @@ public class OpenmrsClassLoader extends URLClassLoader {
 	 * <strong>Should</strong> load class if two module class loaders have same packages
 	 */
 	@Override
-	public synchronized Class<?> loadClass(String name, final boolean resolve) throws ClassNotFoundException {
+	public Class<?> loadClass(String name, final boolean resolve) throws ClassNotFoundException {
 		// Check if the class has already been requested from this class loader
 		Class<?> c = getCachedClass(name);
 		if (c == null) {
-			// We do not try to load classes using this.findClass on purpose.
-			// All classes are loaded by web container or by module class loaders.
-			
-			// First try loading from modules such that we allow modules to load
-			// different versions of the same libraries that may already be used
-			// by core or the web container. An example is the chartsearch module
-			// which uses different versions of lucene and solr from core
-			String packageName = StringUtils.substringBeforeLast(name, ".");
-			Set<ModuleClassLoader> moduleClassLoaders = ModuleFactory.getModuleClassLoadersForPackage(packageName);
-			for (ModuleClassLoader moduleClassLoader : moduleClassLoaders) {
-				try {
-					c = moduleClassLoader.loadClass(name);
-					break;
-				}
-				catch (ClassNotFoundException e) {
-					// Continue trying...
+			synchronized (getClassLoadingLock(name)) {
+				c = getCachedClass(name);
+				if (c == null) {
+					c = loadClassFromModulesOrParent(name);
+					cacheClass(name, c);
 				}
 			}
-			
-			if (c == null) {
-				// Finally try loading from web container
-				c = getParent().loadClass(name);
-			}
-			
-			cacheClass(name, c);
 		}
 		
 		if (resolve) {
@@ -175,6 +171,40 @@ public class OpenmrsClassLoader extends URLClassLoader {
 		return c;
 	}
 	
+	private Class<?> loadClassFromModulesOrParent(String name) throws ClassNotFoundException {
+		long providedPackagesVersion = ModuleFactory.getProvidedPackagesVersion();
+		if (missingClasses.isMissing(name)) {
+			throw new ClassNotFoundException(name);
+		}
+		
+		// We do not try to load classes using this.findClass on purpose.
+		// All classes are loaded by web container or by module class loaders.
+		
+		// First try loading from modules such that we allow modules to load
+		// different versions of the same libraries that may already be used
+		// by core or the web container. An example is the chartsearch module
+		// which uses different versions of lucene and solr from core
+		String packageName = StringUtils.substringBeforeLast(name, ".");
+		Set<ModuleClassLoader> moduleClassLoaders = ModuleFactory.getModuleClassLoadersForPackage(packageName);
+		for (ModuleClassLoader moduleClassLoader : moduleClassLoaders) {
+			try {
+				return moduleClassLoader.loadClass(name);
+			}
+			catch (ClassNotFoundException e) {
+				// Continue trying...
+			}
+		}
+		
+		// Finally try loading from web container
+		try {
+			return getParent().loadClass(name);
+		}
+		catch (ClassNotFoundException e) {
+			missingClasses.addMissing(name, providedPackagesVersion);
+			throw e;
+		}
+	}
+	
 	private Class<?> getCachedClass(String name) {
 		WeakReference<Class<?>> ref = cachedClasses.get(name);
 		if (ref != null) {
@@ -538,6 +568,7 @@ public class OpenmrsClassLoader extends URLClassLoader {
 		OpenmrsClassLoader.log = null;
 		
 		getInstance().cachedClasses.clear();
+		getInstance().missingClasses.clear();
 	}
 	
 	/**
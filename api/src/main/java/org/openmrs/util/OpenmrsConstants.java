@@ -177,6 +177,90 @@ public final class OpenmrsConstants {
 	 */
 	public static final String AUTO_UPDATE_DATABASE_RUNTIME_PROPERTY = "auto_update_database";
 	
+	/**
+	 * The name of the runtime property that selects how daemon tasks are run, either "platform" for a
+	 * bounded pool of platform threads or "virtual" for a new virtual thread per task
+	 *
+	 * @see DaemonExecutorService
+	 * @since 3.0.0
+	 */
+	public static final String DAEMON_THREAD_POOL_MODE_RUNTIME_PROPERTY = "daemon.thread_pool.mode";
+	
+	/**
+	 * The name of the runtime property holding the maximum number of platform threads running daemon
+	 * tasks
+	 *
+	 * @since 3.0.0
+	 */
+	public static final String DAEMON_THREAD_POOL_MAX_SIZE_RUNTIME_PROPERTY = "daemon.thread_pool.max_size";
+	
+	/**
+	 * The name of the runtime property holding the number of daemon tasks that may wait for a platform
+	 * thread before new tasks are rejected
+	 *
+	 * @since 3.0.0
+	 */
+	public static final String DAEMON_THREAD_POOL_QUEUE_CAPACITY_RUNTIME_PROPERTY = "daemon.thread_pool.queue_capacity";
+	
+	/**
+	 * The name of the runtime property holding the number of seconds running daemon tasks are given
+	 * to finish when OpenMRS shuts down
+	 *
+	 * @since 3.0.0
+	 */
+	public static final String DAEMON_THREAD_POOL_SHUTDOWN_TIMEOUT_RUNTIME_PROPERTY = "daemon.thread_pool.shutdown_timeout";
+
+	/**
+	 * The name of the runtime property holding the number of entity types reindexed at the same time
+	 * when the search index is updated
+	 *
+	 * @see org.openmrs.api.db.SearchIndexUpdateOptions
+	 * @since 3.0.0
+	 */
+	public static final String SEARCH_INDEX_TYPES_IN_PARALLEL_RUNTIME_PROPERTY = "search.index.types_in_parallel";
+
+	/**
+	 * The name of the runtime property holding the number of threads loading entities for each type
+	 * when the search index is updated
+	 *
+	 * @since 3.0.0
+	 */
+	public static final String SEARCH_INDEX_THREADS_TO_LOAD_OBJECTS_RUNTIME_PROPERTY = "search.index.threads_to_load_objects";
+
+	/**
+	 * The name of the runtime property holding the number of entities loaded in one batch when the
+	 * search index is updated
+	 *
+	 * @since 3.0.0
+	 */
+	public static final String SEARCH_INDEX_BATCH_SIZE_RUNTIME_PROPERTY = "search.index.batch_size";
+
+	/**
+	 * The name of the runtime property holding the JDBC fetch size used to read the identifiers of the
+	 * entities to reindex
+	 *
+	 * @since 3.0.0
+	 */
+	public static final String SEARCH_INDEX_ID_FETCH_SIZE_RUNTIME_PROPERTY = "search.index.id_fetch_size";
+
+	/**
+	 * The name of the runtime property holding the size of the identifier ranges an entity type is
+	 * reindexed in. The search index update resumes after the last completed range when interrupted.
+	 *
+	 * @since 3.0.0
+	 */
+	public static final String SEARCH_INDEX_PARTITION_SIZE_RUNTIME_PROPERTY = "search.index.partition_size";
+
+	/**
+	 * The name of the runtime property enabling the patient search index, which holds one document per
+	 * patient with its identifiers, names and searchable attributes. The search index must be updated
+	 * after it is enabled.
+	 *
+	 * @see org.openmrs.api.db.hibernate.search.PatientIndexMappingConfigurer
+	 * @since 3.0.0
+	 */
+	public static final String SEARCH_PATIENT_INDEX_ENABLED_RUNTIME_PROPERTY = "search.patient_index.enabled";
+
 	/**
 	 * These words are ignored in concept and patient searches
 	 *
@@ -277,6 +361,13 @@ public final class OpenmrsConstants {
 	
 	public static final String GLOBAL_PROPERTY_PATIENT_NAME_REGEX = "patient.nameValidationRegex";
 	
+	/**
+	 * Whether merging patients moves visits, encounters and observations with set-based updates
+	 * 
+	 * @since 3.0.0
+	 */
+	public static final String GP_PATIENT_MERGE_BULK_MODE = "patient.merge.bulkMode";
+	
 	public static final String GLOBAL_PROPERTY_PERSON_SEARCH_MAX_RESULTS = "person.searchMaxResults";
 	
 	public static final int GLOBAL_PROPERTY_PERSON_SEARCH_MAX_RESULTS_DEFAULT_VALUE = 1000;
@@ -349,6 +440,30 @@ public final class OpenmrsConstants {
 	
 	public static final String GLOBAL_PROPERTY_IGNORE_MISSING_NONLOCAL_PATIENTS = "hl7_processor.ignore_missing_patient_non_local";
 	
+	/**
+	 * The number of worker threads processing the HL7 inbound queue, 1 processes the messages one by
+	 * one
+	 * 
+	 * @since 3.0.0
+	 */
+	public static final String GP_HL7_PROCESSOR_WORKER_THREADS = "hl7_processor.worker_threads";
+	
+	/**
+	 * The number of HL7 inbound queue messages claimed at once when processing the queue with several
+	 * worker threads
+	 * 
+	 * @since 3.0.0
+	 */
+	public static final String GP_HL7_PROCESSOR_CLAIM_BATCH_SIZE = "hl7_processor.claim_batch_size";
+	
+	/**
+	 * The number of seconds after which an HL7 inbound queue message claimed by a processor that did
+	 * not finish it may be claimed again
+	 * 
+	 * @since 3.0.0
+	 */
+	public static final String GP_HL7_PROCESSOR_CLAIM_TIMEOUT = "hl7_processor.claim_timeout";
+	
 	public static final String GLOBAL_PROPERTY_TRUE_CONCEPT = "concept.true";
 	
 	public static final String GLOBAL_PROPERTY_FALSE_CONCEPT = "concept.false";
@@ -586,6 +701,14 @@ public final class OpenmrsConstants {
 	
 	public static final String GP_ORDER_NUMBER_GENERATOR_BEAN_ID = "order.orderNumberGeneratorBeanId";
 	
+	/**
+	 * The number of order number seeds each server reserves at a time, defaults to 1 so that order
+	 * numbers are strictly consecutive
+	 * 
+	 * @since 3.0.0
+	 */
+	public static final String GP_ORDER_NUMBER_SEED_BLOCK_SIZE = "order.orderNumberSeedBlockSize";
+	
 	/**
 	 * Specifies the uuid of the concept set where its members represent the possible drug routes
 	 */
@@ -803,6 +926,13 @@ public final class OpenmrsConstants {
 		                "",
 		                "Names of the patients must pass this regex. Eg : ^[a-zA-Z \\-]+$ contains only english alphabet letters, spaces, and hyphens. A value of .* or the empty string means no validation is done."));
 		
+		props.add(new GlobalProperty(GP_PATIENT_MERGE_BULK_MODE, "false",
+		        "Set to 'true' to move the visits, encounters, orders, diagnoses and observations of a merged patient with "
+		                + "set-based database updates instead of saving them one by one. Observations are then moved as they "
+		                + "are rather than being voided and recreated for the preferred patient, which makes merging patients "
+		                + "with a long history much faster",
+		        BooleanDatatype.class, null));
+		
 		props.add(new GlobalProperty(GLOBAL_PROPERTY_PERSON_SEARCH_MAX_RESULTS, String
 		        .valueOf(GLOBAL_PROPERTY_PERSON_SEARCH_MAX_RESULTS_DEFAULT_VALUE),
 		        "The maximum number of results returned by patient searches"));
@@ -897,6 +1027,18 @@ public final class OpenmrsConstants {
 		        "If true, hl7 messages for patients that are not found and are non-local will silently be dropped/ignored",
 		        BooleanDatatype.class, null));
 		
+		props.add(new GlobalProperty(GP_HL7_PROCESSOR_WORKER_THREADS, "1",
+		        "The number of threads processing the hl7 inbound queue. With more than 1 thread, batches of messages are "
+		                + "claimed and processed in parallel while the messages about the same patient are still processed "
+		                + "in the order they were queued"));
+		
+		props.add(new GlobalProperty(GP_HL7_PROCESSOR_CLAIM_BATCH_SIZE, "100",
+		        "The number of hl7 inbound queue messages claimed at once when the queue is processed by more than 1 thread"));
+		
+		props.add(new GlobalProperty(GP_HL7_PROCESSOR_CLAIM_TIMEOUT, "3600",
+		        "The number of seconds after which a claimed hl7 inbound queue message that was not processed, e.g. because "
+		                + "the server stopped, is claimed again when the queue is processed by more than 1 thread"));
+		
 		props
 		        .add(new GlobalProperty(
 		                GLOBAL_PROPERTY_SHOW_PATIENT_NAME,
@@ -1053,6 +1195,11 @@ public final class OpenmrsConstants {
 		props.add(new GlobalProperty(GP_ORDER_NUMBER_GENERATOR_BEAN_ID, "",
 		        "Specifies spring bean id of the order generator to use when assigning order numbers"));
 		
+		props.add(new GlobalProperty(GP_ORDER_NUMBER_SEED_BLOCK_SIZE, "1",
+		        "The number of order number seeds each server reserves at a time when using the default order number "
+		                + "generator. 1 assigns strictly consecutive order numbers, with larger blocks seeds that were "
+		                + "reserved but not used when the server stops are skipped"));
+		
 		props.add(new GlobalProperty(GP_DRUG_ROUTES_CONCEPT_UUID, "",
 		        "Specifies the uuid of the concept set where its members represent the possible drug routes"));
 		
@@ -10,9 +10,34 @@
 package org.openmrs.util;
 
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class OpenmrsThreadPoolHolder {
 	
-	public static final ExecutorService threadExecutor = Executors.newCachedThreadPool();
+	/**
+	 * The executor running daemon tasks, see {@link DaemonExecutorService} for how it is configured
+	 */
+	public static final ExecutorService threadExecutor = new DaemonExecutorService();
+	
+	/**
+	 * @return a snapshot of the number of running and waiting daemon tasks and of their latencies
+	 * @since 3.0.0
+	 */
+	public static DaemonExecutorService.Statistics getStatistics() {
+		return ((DaemonExecutorService) threadExecutor).getStatistics();
+	}
+	
+	/**
+	 * Waits for the running daemon tasks to finish, for at most the number of seconds given by the
+	 * {@link OpenmrsConstants#DAEMON_THREAD_POOL_SHUTDOWN_TIMEOUT_RUNTIME_PROPERTY} runtime property,
+	 * and interrupts the ones still running after that. Tasks submitted afterwards are run by new
+	 * threads.
+	 * 
+	 * @return true if all tasks finished in time, false otherwise
+	 * @since 3.0.0
+	 */
+	public static boolean drain() {
+		DaemonExecutorService executor = (DaemonExecutorService) threadExecutor;
+		return executor.drain(executor.getShutdownTimeoutSeconds(), TimeUnit.SECONDS);
+	}
 }
@@ -18,6 +18,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.HashSet;
@@ -27,6 +28,7 @@ import java.util.Set;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Test;
+import org.openmrs.collection.PatientIdBitmap;
 
 /**
  * Behavior-driven tests of the Cohort class.
@@ -336,4 +338,58 @@ public class CohortTest {
 		assertFalse(cohort.hasNoActiveMemberships());
 		
 	}
+	
+	@Test
+	public void constructorWithBitmap_shouldAddMembersToCohort() {
+		Cohort cohort = new Cohort("name", "description", PatientIdBitmap.of(1, 2, 3));
+		
+		Arrays.stream(ids).forEach(id -> assertTrue(cohort.contains(id)));
+		assertEquals(3, cohort.size());
+		assertEquals(new HashSet<>(Arrays.asList(ids)), cohort.getMemberIds());
+	}
+	
+	@Test
+	public void getMemberships_shouldCreateMembershipsForTheMembersOfABitmapBackedCohort() {
+		Cohort cohort = new Cohort("name", "description", PatientIdBitmap.of(1, 2, 3));
+		
+		Collection<CohortMembership> memberships = cohort.getMemberships();
+		
+		assertEquals(3, memberships.size());
+		memberships.forEach(m -> assertEquals(cohort, m.getCohort()));
+		assertEquals(PatientIdBitmap.of(1, 2, 3), cohort.getMemberBitmap());
+	}
+	
+	@Test
+	public void union_shouldCombineBitmapBackedCohortsWithoutCreatingMemberships() {
+		Cohort a = new Cohort("a", "description", PatientIdBitmap.of(1, 2, 3));
+		Cohort b = new Cohort("b", "description", PatientIdBitmap.of(3, 4));
+		
+		assertEquals(PatientIdBitmap.of(1, 2, 3, 4), Cohort.union(a, b).getMemberBitmap());
+		assertEquals(PatientIdBitmap.of(3), Cohort.intersect(a, b).getMemberBitmap());
+		assertEquals(PatientIdBitmap.of(1, 2), Cohort.subtract(a, b).getMemberBitmap());
+		assertEquals("(a + b)", Cohort.union(a, b).getName());
+	}
+	
+	@Test
+	public void getMemberBitmap_shouldNotIncludeVoidedMemberships() {
+		Cohort cohort = new Cohort("name", "description", ids);
+		CohortMembership voided = new CohortMembership(4);
+		voided.setVoided(true);
+		cohort.addMembership(voided);
+		
+		assertEquals(PatientIdBitmap.of(1, 2, 3), cohort.getMemberBitmap());
+	}
+	
+	@Test
+	public void setMemberships_shouldReplaceTheMembersOfABitmapBackedCohort() {
+		Cohort cohort = new Cohort("name", "description", PatientIdBitmap.of(1, 2, 3));
+		
+		cohort.setMemberships(new ArrayList<>(Collections.singletonList(new CohortMembership(4))));
+		
+		assertFalse(cohort.contains(1));
+		assertTrue(cohort.contains(4));
+		assertEquals(1, cohort.size());
+		assertEquals(PatientIdBitmap.of(4), cohort.getMemberBitmap());
+		assertEquals(1, cohort.getMemberships().size());
+	}
 }
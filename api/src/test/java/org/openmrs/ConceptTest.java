@@ -1266,4 +1266,49 @@ public class ConceptTest extends BaseContextSensitiveTest {
 		assertThat(concept.getSetMembers(), hasItem(setMember3));
 		assertThat(concept.getSetMembers().size(), is(3));
 	}
+	
+	/**
+	 * @see Concept#getName(Locale)
+	 */
+	@Test
+	public void getName_shouldReflectChangesToNamesAfterTheNameWasResolved() {
+		Concept concept = new Concept();
+		ConceptName fullySpecifiedName = new ConceptName("fully specified", Locale.ENGLISH);
+		concept.addName(fullySpecifiedName);
+		ConceptName synonym = new ConceptName("synonym", Locale.ENGLISH);
+		concept.addName(synonym);
+		assertEquals(fullySpecifiedName, concept.getName(Locale.ENGLISH));
+		assertEquals(synonym, concept.getShortestName(Locale.ENGLISH, true));
+		
+		synonym.setLocalePreferred(true);
+		assertEquals(synonym, concept.getName(Locale.ENGLISH));
+		
+		fullySpecifiedName.setName("fs");
+		assertEquals(fullySpecifiedName, concept.getShortestName(Locale.ENGLISH, true));
+		
+		synonym.setVoided(true);
+		assertEquals(fullySpecifiedName, concept.getName(Locale.ENGLISH));
+		
+		concept.removeName(fullySpecifiedName);
+		assertNull(concept.getName(Locale.ENGLISH, true));
+	}
+	
+	/**
+	 * @see Concept#getShortNameInLocale(Locale)
+	 */
+	@Test
+	public void getShortNameInLocale_shouldReturnAShortNameInTheSameLanguageBeforeOneInTheSameCountry() {
+		Concept concept = new Concept();
+		concept.addName(new ConceptName("fully specified", Locale.UK));
+		ConceptName frenchShortName = new ConceptName("fr", Locale.CANADA_FRENCH);
+		frenchShortName.setConceptNameType(ConceptNameType.SHORT);
+		concept.addName(frenchShortName);
+		assertEquals(frenchShortName, concept.getShortNameInLocale(Locale.CANADA));
+		
+		ConceptName englishShortName = new ConceptName("en", Locale.ENGLISH);
+		englishShortName.setConceptNameType(ConceptNameType.SHORT);
+		concept.addName(englishShortName);
+		assertEquals(englishShortName, concept.getShortNameInLocale(Locale.CANADA));
+		assertNull(concept.getShortNameInLocale(Locale.GERMANY));
+	}
 }
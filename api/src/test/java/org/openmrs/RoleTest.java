@@ -14,10 +14,12 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
 import org.junit.jupiter.api.Test;
+import org.openmrs.api.context.CompiledPrivileges;
 import org.openmrs.util.RoleConstants;
 
 /**
@@ -209,4 +211,24 @@ public class RoleTest {
 		assertEquals(6, grandparent.getAllChildRoles().size());
 	}
 	
+	@Test
+	public void setInheritedRoles_shouldInvalidateCompiledPrivileges() {
+		Role role = new Role("child");
+		long version = CompiledPrivileges.getVersion();
+		
+		role.setInheritedRoles(new HashSet<>(Collections.singleton(new Role("parent"))));
+		
+		assertTrue(CompiledPrivileges.getVersion() > version);
+	}
+	
+	@Test
+	public void setPrivileges_shouldInvalidateCompiledPrivileges() {
+		Role role = new Role("role");
+		long version = CompiledPrivileges.getVersion();
+		
+		role.setPrivileges(new HashSet<>(Collections.singleton(new Privilege("privilege"))));
+		
+		assertTrue(CompiledPrivileges.getVersion() > version);
+	}
+	
 }
@@ -12,8 +12,11 @@ package org.openmrs;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.HashSet;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.openmrs.api.context.CompiledPrivileges;
 import org.openmrs.util.RoleConstants;
 
 public class UserTest {
@@ -92,4 +95,16 @@ public class UserTest {
 		assertFalse(user.containsRole(ROLE_WHICH_DOES_NOT_EXIT));
 	}
 	
+	/**
+	 * @see User#setRoles(java.util.Set)
+	 */
+	@Test
+	public void setRoles_shouldInvalidateCompiledPrivileges() {
+		long version = CompiledPrivileges.getVersion();
+		
+		user.setRoles(new HashSet<>());
+		
+		assertTrue(CompiledPrivileges.getVersion() > version);
+	}
+	
 }
@@ -0,0 +1,313 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.aop;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.openmrs.BaseOpenmrsData;
+import org.openmrs.BaseOpenmrsObject;
+import org.openmrs.Concept;
+import org.openmrs.Encounter;
+import org.openmrs.Location;
+import org.openmrs.Obs;
+import org.openmrs.OpenmrsObject;
+import org.openmrs.Order;
+import org.openmrs.OrderType;
+import org.openmrs.Patient;
+import org.openmrs.Person;
+import org.openmrs.annotation.AllowDirectAccess;
+import org.openmrs.annotation.DisableHandlers;
+import org.openmrs.annotation.Independent;
+import org.openmrs.api.APIException;
+import org.openmrs.api.handler.OpenmrsObjectSaveHandler;
+import org.openmrs.api.handler.RequiredDataHandler;
+import org.openmrs.api.handler.SaveHandler;
+import org.openmrs.api.handler.VoidHandler;
+import org.openmrs.test.jupiter.BaseContextMockTest;
+import org.openmrs.util.HandlerUtil;
+import org.openmrs.util.Reflect;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * Tests the {@link RequiredDataTraversalPlan} class.
+ */
+public class RequiredDataTraversalPlanTest extends BaseContextMockTest {
+	
+	@Mock
+	ApplicationContext applicationContext;
+	
+	@Spy
+	OpenmrsObjectSaveHandler saveHandler;
+	
+	@BeforeEach
+	public void setUp() {
+		HandlerUtil.clearCachedHandlers();
+	}
+	
+	/**
+	 * Class with a private field without getter
+	 */
+	private class MiniOpenmrsObject extends BaseOpenmrsObject {
+	
+		@AllowDirectAccess
+		private List<Location> locations;
+	
+		public void setLocations(List<Location> locs) {
+			this.locations = locs;
+		}
+	
+		@Override
+		public Integer getId() {
+			return null;
+		}
+	
+		@Override
+		public void setId(Integer id) {
+		}
+	}
+	
+	/**
+	 * Class that has a mismatched getter name instead of the correct getter name
+	 */
+	private class ClassWithBadGetter extends BaseOpenmrsObject {
+	
+		private Set<Location> locations;
+	
+		public Set<Location> getMyLocations() {
+			return locations;
+		}
+	
+		public void setMyLocations(Set<Location> locs) {
+			this.locations = locs;
+		}
+	
+		@Override
+		public Integer getId() {
+			return null;
+		}
+	
+		@Override
+		public void setId(Integer id) {
+		}
+	}
+	
+	/**
+	 * Class with child collections that are independent, have disabled handlers or neither
+	 */
+	private class ClassWithChildCollections extends BaseOpenmrsData {
+	
+		@Independent
+		private List<Location> locations;
+	
+		@DisableHandlers(handlerTypes = { VoidHandler.class })
+		private List<Person> persons;
+	
+		private List<Obs> observations;
+	
+		public List<Location> getLocations() {
+			return locations;
+		}
+	
+		public List<Person> getPersons() {
+			return persons;
+		}
+	
+		public List<Obs> getObservations() {
+			return observations;
+		}
+	
+		@Override
+		public Integer getId() {
+			return null;
+		}
+	
+		@Override
+		public void setId(Integer id) {
+		}
+	}
+	
+	/**
+	 * @see RequiredDataTraversalPlan#getPlan(Class, Class)
+	 */
+	@Test
+	public void getPlan_shouldReturnTheSamePlanForTheSameHandlerTypeAndClass() {
+		assertSame(RequiredDataTraversalPlan.getPlan(SaveHandler.class, Patient.class),
+		    RequiredDataTraversalPlan.getPlan(SaveHandler.class, Patient.class));
+	}
+	
+	/**
+	 * @see RequiredDataTraversalPlan#getPlan(Class, Class)
+	 */
+	@Test
+	public void getPlan_shouldBuildSeparatePlansPerHandlerTypeAndClass() {
+		RequiredDataTraversalPlan<SaveHandler> plan = RequiredDataTraversalPlan.getPlan(SaveHandler.class, Patient.class);
+	
+		assertNotSame(plan, RequiredDataTraversalPlan.getPlan(VoidHandler.class, Patient.class));
+		assertNotSame(plan, RequiredDataTraversalPlan.getPlan(SaveHandler.class, Person.class));
+	}
+	
+	/**
+	 * @see RequiredDataTraversalPlan#clearCachedPlans()
+	 */
+	@Test
+	public void clearCachedPlans_shouldDiscardThePlansBuiltSoFar() {
+		RequiredDataTraversalPlan<SaveHandler> plan = RequiredDataTraversalPlan.getPlan(SaveHandler.class, Patient.class);
+	
+		HandlerUtil.clearCachedHandlers();
+	
+		assertNotSame(plan, RequiredDataTraversalPlan.getPlan(SaveHandler.class, Patient.class));
+	}
+	
+	/**
+	 * @see RequiredDataTraversalPlan#getPlan(Class, Class)
+	 */
+	@Test
+	public void getPlan_shouldUseTheHandlersRegisteredForTheClass() {
+		when(applicationContext.getBeansOfType(SaveHandler.class)).thenReturn(
+		    Collections.singletonMap("saveHandler", saveHandler));
+	
+		RequiredDataTraversalPlan<SaveHandler> plan = RequiredDataTraversalPlan.getPlan(SaveHandler.class, Patient.class);
+	
+		assertEquals(Collections.singletonList(saveHandler), plan.getHandlers());
+		assertEquals(HandlerUtil.getHandlersForType(SaveHandler.class, Patient.class), plan.getHandlers());
+	}
+	
+	/**
+	 * @see RequiredDataTraversalPlan#getPlan(Class, Class)
+	 */
+	@Test
+	public void getPlan_shouldSkipIndependentFieldsAndFieldsWithDisabledHandlers() {
+		assertEquals(Arrays.asList("persons", "observations"),
+		    getFieldNames(RequiredDataTraversalPlan.getPlan(SaveHandler.class, ClassWithChildCollections.class)));
+		assertEquals(Collections.singletonList("observations"),
+		    getFieldNames(RequiredDataTraversalPlan.getPlan(VoidHandler.class, ClassWithChildCollections.class)));
+	}
+	
+	/**
+	 * @see RequiredDataTraversalPlan#getPlan(Class, Class)
+	 */
+	@Test
+	public void getPlan_shouldDescendIntoTheSameCollectionsAsTheReflectiveTraversal() {
+		List<Class<? extends OpenmrsObject>> classes = Arrays.asList(Patient.class, Person.class, Encounter.class,
+		    Obs.class, Concept.class, Order.class, OrderType.class, Location.class, ClassWithChildCollections.class);
+		List<Class<? extends RequiredDataHandler<OpenmrsObject>>> handlerTypes = Arrays.asList(castHandlerType(SaveHandler.class),
+		    castHandlerType(VoidHandler.class));
+	
+		for (Class<? extends RequiredDataHandler<OpenmrsObject>> handlerType : handlerTypes) {
+			for (Class<? extends OpenmrsObject> openmrsObjectClass : classes) {
+				assertEquals(getReflectiveChildCollections(handlerType, openmrsObjectClass),
+				    getFieldNames(RequiredDataTraversalPlan.getPlan(handlerType, openmrsObjectClass)),
+				    handlerType.getSimpleName() + " on " + openmrsObjectClass.getSimpleName());
+			}
+		}
+	}
+	
+	/**
+	 * @see RequiredDataTraversalPlan.ChildCollection#get(OpenmrsObject)
+	 */
+	@Test
+	public void get_shouldGetValueOfGivenChildCollectionOnGivenField() {
+		MiniOpenmrsObject oo = new MiniOpenmrsObject();
+		List<Location> locs = new ArrayList<>();
+		Location location = new Location(1);
+		locs.add(location);
+		oo.setLocations(locs);
+	
+		Collection<OpenmrsObject> fetchedLocations = getChildCollection(SaveHandler.class, MiniOpenmrsObject.class,
+		    "locations").get(oo);
+	
+		assertTrue(fetchedLocations.contains(location));
+	}
+	
+	/**
+	 * @see RequiredDataTraversalPlan.ChildCollection#get(OpenmrsObject)
+	 */
+	@Test
+	public void get_shouldBeAbleToGetAnnotatedPrivateFields() {
+		MiniOpenmrsObject oo = new MiniOpenmrsObject();
+		oo.setLocations(new ArrayList<>());
+	
+		assertNotNull(getChildCollection(SaveHandler.class, MiniOpenmrsObject.class, "locations").get(oo));
+	}
+	
+	/**
+	 * @see RequiredDataTraversalPlan.ChildCollection#get(OpenmrsObject)
+	 */
+	@Test
+	public void get_shouldThrowAPIExceptionIfGetterMethodNotFound() {
+		ClassWithBadGetter oo = new ClassWithBadGetter();
+		oo.setMyLocations(new HashSet<>());
+	
+		RequiredDataTraversalPlan.ChildCollection childCollection = getChildCollection(SaveHandler.class,
+		    ClassWithBadGetter.class, "locations");
+	
+		assertThrows(APIException.class, () -> childCollection.get(oo));
+	}
+	
+	/**
+	 * The child collections RequiredDataAdvice used to find by reflecting over the class on every
+	 * save
+	 */
+	private List<String> getReflectiveChildCollections(Class<? extends RequiredDataHandler<OpenmrsObject>> handlerType,
+	        Class<? extends OpenmrsObject> openmrsObjectClass) {
+		List<String> fieldNames = new ArrayList<>();
+		Reflect reflect = new Reflect(OpenmrsObject.class);
+		for (Field field : reflect.getInheritedFields(openmrsObjectClass)) {
+			if (Reflect.isAnnotationPresent(openmrsObjectClass, field.getName(), Independent.class)) {
+				continue;
+			}
+			if (reflect.isCollectionField(field) && !RequiredDataAdvice.isHandlerMarkedAsDisabled(handlerType, field)) {
+				fieldNames.add(field.getName());
+			}
+		}
+		return fieldNames;
+	}
+	
+	private List<String> getFieldNames(RequiredDataTraversalPlan<?> plan) {
+		return plan.getChildCollections().stream().map(RequiredDataTraversalPlan.ChildCollection::getFieldName)
+		        .collect(Collectors.toList());
+	}
+	
+	private <H extends RequiredDataHandler<OpenmrsObject>> RequiredDataTraversalPlan.ChildCollection getChildCollection(
+	        Class<H> handlerType, Class<? extends OpenmrsObject> openmrsObjectClass, String fieldName) {
+		for (RequiredDataTraversalPlan.ChildCollection childCollection : RequiredDataTraversalPlan
+		        .getPlan(handlerType, openmrsObjectClass).getChildCollections()) {
+			if (childCollection.getFieldName().equals(fieldName)) {
+				return childCollection;
+			}
+		}
+		throw new AssertionError("No child collection " + fieldName + " on " + openmrsObjectClass);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private Class<? extends RequiredDataHandler<OpenmrsObject>> castHandlerType(Class<?> handlerType) {
+		return (Class<? extends RequiredDataHandler<OpenmrsObject>>) handlerType;
+	}
+}
@@ -537,6 +537,31 @@ public class AdministrationServiceTest extends BaseContextSensitiveTest {
 		assertEquals(1234.54, retValue);
 	}
 	
+	@Test
+	public void getGlobalPropertyValue_shouldReturnTheNewValueAfterThePropertyIsSaved() {
+		executeDataSet("org/openmrs/api/include/AdministrationServiceTest-globalproperties.xml");
+		assertEquals(1234, adminService.getGlobalPropertyValue("valid.integer", 4));
+		
+		GlobalProperty gp = adminService.getGlobalPropertyObject("valid.integer");
+		gp.setPropertyValue("5678");
+		adminService.saveGlobalProperty(gp);
+		
+		assertEquals(5678, adminService.getGlobalPropertyValue("valid.integer", 4));
+		assertEquals("5678", adminService.getGlobalProperty("VALID.INTEGER"));
+	}
+	
+	@Test
+	public void getGlobalProperty_shouldReturnTheNewValueAfterThePropertyIsChangedBySql() {
+		executeDataSet("org/openmrs/api/include/AdministrationServiceTest-globalproperties.xml");
+		assertEquals("correct-value", adminService.getGlobalProperty("a_valid_gp_key"));
+		
+		adminService.executeSQL("update global_property set property_value = 'sql-value' where property = 'a_valid_gp_key'",
+		    false);
+		Context.clearSession();
+		
+		assertEquals("sql-value", adminService.getGlobalProperty("a_valid_gp_key"));
+	}
+	
 	@Test
 	public void getGlobalProperty_shouldGetPropertyInCaseInsensitiveWay() {
 		executeDataSet("org/openmrs/api/include/AdministrationServiceTest-globalproperties.xml");
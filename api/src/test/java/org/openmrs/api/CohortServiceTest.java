@@ -33,6 +33,7 @@ import org.openmrs.CohortMembership;
 import org.openmrs.Patient;
 import org.openmrs.User;
 import org.openmrs.api.context.Context;
+import org.openmrs.collection.PatientIdBitmap;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
 
 /**
@@ -824,4 +825,30 @@ public class CohortServiceTest extends BaseContextSensitiveTest {
 
 		assertTrue(foundVoidedCohortMembership, "Expected to find a membership from a voided cohort");
 	}
+	
+	@Test
+	public void getMemberBitmap_shouldGetTheIdsOfTheNonVoidedMembers() throws Exception {
+		executeDataSet(COHORT_XML);
+		PatientIdBitmap members = service.getMemberBitmap(service.getCohort(2), null);
+		assertThat(members, is(PatientIdBitmap.of(6)));
+	}
+	
+	@Test
+	public void getMemberBitmap_shouldOnlyGetTheIdsOfMembershipsActiveOnTheGivenDate() throws Exception {
+		executeDataSet(COHORT_XML);
+		Cohort cohort = service.getCohort(2);
+		assertThat(service.getMemberBitmap(cohort, DateUtils.parseDate("2000-06-01", "yyyy-MM-dd")),
+		    is(PatientIdBitmap.of(6)));
+		assertTrue(service.getMemberBitmap(cohort, DateUtils.parseDate("1999-12-31", "yyyy-MM-dd")).isEmpty());
+	}
+	
+	@Test
+	public void saveCohort_shouldCreateMembershipsForTheMembersOfABitmapBackedCohort() {
+		Cohort cohort = new Cohort("bitmap cohort", "cohort created from a bitmap", PatientIdBitmap.of(2, 6, 7));
+		service.saveCohort(cohort);
+		Context.flushSession();
+		
+		assertThat(cohort.getMemberships().size(), is(3));
+		assertThat(service.getMemberBitmap(cohort, null), is(PatientIdBitmap.of(2, 6, 7)));
+	}
 }
@@ -2493,6 +2493,60 @@ public class EncounterServiceTest extends BaseContextSensitiveTest {
 		assertEquals(beforeSize + 1, patientEncounters.size());
 	}
 	
+	/**
+	 * @see EncounterService#getEncounters(String, Integer, Integer, Integer, boolean)
+	 */
+	@Test
+	public void getEncounters_shouldOnlyPageThroughEncountersTheUserIsAllowedToView() {
+		EncounterService encounterService = Context.getEncounterService();
+		List<Encounter> encounters = encounterService.getEncounters(null, 7, null, null, false);
+		EncounterType restrictedType = encounters.get(0).getEncounterType();
+		List<Encounter> viewable = new ArrayList<>();
+		for (Encounter encounter : encounters) {
+			if (!encounter.getEncounterType().equals(restrictedType)) {
+				viewable.add(encounter);
+			}
+		}
+		assertFalse(viewable.isEmpty());
+		
+		restrictedType.setViewPrivilege(Context.getUserService().getPrivilege("Some Privilege For View Encounter Types"));
+		encounterService.saveEncounterType(restrictedType);
+		
+		Context.becomeUser(Context.getUserService().getUserByUsername("test_user").getSystemId());
+		Context.addProxyPrivilege(PrivilegeConstants.GET_ENCOUNTERS);
+		
+		List<Encounter> firstPage = encounterService.getEncounters(null, 7, 0, 1, false);
+		assertEquals(1, firstPage.size());
+		assertTrue(viewable.contains(firstPage.get(0)));
+		assertEquals(viewable.size(), encounterService.getEncounters(null, 7, 0, encounters.size(), false).size());
+	}
+	
+	/**
+	 * @see EncounterService#getCountOfEncounters(String, boolean)
+	 */
+	@Test
+	public void getCountOfEncounters_shouldNotCountEncountersTheUserIsNotAllowedToView() {
+		executeDataSet(UNIQUE_ENC_WITH_PAGING_XML);
+		EncounterService encounterService = Context.getEncounterService();
+		List<Encounter> encounters = encounterService.getEncountersByPatient("qwerty", true);
+		EncounterType restrictedType = encounters.get(0).getEncounterType();
+		int restrictedCount = 0;
+		for (Encounter encounter : encounters) {
+			if (encounter.getEncounterType().equals(restrictedType)) {
+				restrictedCount++;
+			}
+		}
+		int count = encounterService.getCountOfEncounters("qwerty", true);
+		
+		restrictedType.setViewPrivilege(Context.getUserService().getPrivilege("Some Privilege For View Encounter Types"));
+		encounterService.saveEncounterType(restrictedType);
+		
+		Context.becomeUser(Context.getUserService().getUserByUsername("test_user").getSystemId());
+		Context.addProxyPrivilege(PrivilegeConstants.GET_ENCOUNTERS);
+		
+		assertEquals(count - restrictedCount, encounterService.getCountOfEncounters("qwerty", true).intValue());
+	}
+	
 	/**
 	 * @see EncounterService#canViewAllEncounterTypes(User)
 	 */
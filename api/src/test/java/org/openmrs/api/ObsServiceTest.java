@@ -40,7 +40,10 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.hibernate.SessionFactory;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 import org.openmrs.Concept;
@@ -62,6 +65,8 @@ import org.openmrs.obs.ComplexObsHandler;
 import org.openmrs.obs.handler.BinaryDataHandler;
 import org.openmrs.obs.handler.ImageHandler;
 import org.openmrs.obs.handler.TextHandler;
+import org.openmrs.parameter.ObsSearchCriteria;
+import org.openmrs.parameter.ObsSearchCriteriaBuilder;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
 import org.openmrs.util.DateUtil;
 import org.openmrs.util.OpenmrsConstants;
@@ -88,6 +93,9 @@ public class ObsServiceTest extends BaseContextSensitiveTest {
 	@Autowired
 	private AdministrationService adminService;
 	
+	@Autowired
+	private SessionFactory sessionFactory;
+	
 	/**
 	 * This method gets the revision obs for voided obs
 	 *
@@ -429,6 +437,111 @@ public class ObsServiceTest extends BaseContextSensitiveTest {
 		assertEquals(1, obs.size());
 	}
 	
+	/**
+	 * @see ObsService#getObservations(ObsSearchCriteria)
+	 */
+	@Test
+	public void getObservations_shouldReturnObsOrderedByObsDatetimeAndObsId() {
+		executeDataSet(INITIAL_OBS_XML);
+		
+		List<Obs> obs = Context.getObsService().getObservations(new ObsSearchCriteriaBuilder().createObsSearchCriteria());
+		
+		assertFalse(obs.isEmpty());
+		for (int i = 1; i < obs.size(); i++) {
+			Obs previous = obs.get(i - 1);
+			Obs current = obs.get(i);
+			int compare = previous.getObsDatetime().compareTo(current.getObsDatetime());
+			assertTrue(compare < 0 || (compare == 0 && previous.getObsId() < current.getObsId()));
+		}
+	}
+	
+	/**
+	 * @see ObsService#getObservations(ObsSearchCriteria)
+	 */
+	@Test
+	public void getObservations_shouldReturnThePageFollowingTheCursor() {
+		executeDataSet(INITIAL_OBS_XML);
+		ObsService os = Context.getObsService();
+		List<Obs> all = os.getObservations(new ObsSearchCriteriaBuilder().createObsSearchCriteria());
+		
+		List<Obs> page = os.getObservations(new ObsSearchCriteriaBuilder().setAfter(all.get(2)).setMaxResults(3)
+		        .createObsSearchCriteria());
+		
+		assertEquals(all.subList(3, 6), page);
+	}
+	
+	/**
+	 * @see ObsService#getObservations(ObsSearchCriteria)
+	 */
+	@Test
+	public void getObservations_shouldReturnEachMatchingObsExactlyOnceWhenPagingThroughAllPages() throws ParseException {
+		executeDataSet(INITIAL_OBS_XML);
+		ObsService os = Context.getObsService();
+		DateFormat df = new SimpleDateFormat("yyyy-MM-dd");
+		Date fromDate = df.parse("2006-02-01");
+		Date toDate = df.parse("2006-02-20");
+		
+		ObsSearchCriteria criteria = new ObsSearchCriteriaBuilder().setFromDate(fromDate).setToDate(toDate)
+		        .setMaxResults(2).createObsSearchCriteria();
+		Set<Obs> paged = new HashSet<>();
+		int count = 0;
+		List<Obs> page = os.getObservations(criteria);
+		while (!page.isEmpty()) {
+			paged.addAll(page);
+			count += page.size();
+			criteria = criteria.after(page.get(page.size() - 1));
+			page = os.getObservations(criteria);
+		}
+		
+		List<Obs> expected = os.getObservations(null, null, null, null, null, null, null, null, null, fromDate, toDate,
+		    false);
+		assertEquals(expected.size(), count);
+		assertEquals(new HashSet<>(expected), paged);
+	}
+	
+	/**
+	 * @see ObsService#getObservations(ObsSearchCriteria)
+	 */
+	@Test
+	public void getObservations_shouldFailIfOnlyPartOfTheCursorIsSet() {
+		assertThrows(IllegalArgumentException.class,
+		    () -> new ObsSearchCriteriaBuilder().setAfter(new Date(), null).createObsSearchCriteria());
+	}
+	
+	/**
+	 * @see ObsService#getObservationStream(ObsSearchCriteria)
+	 */
+	@Test
+	public void getObservationStream_shouldReturnAllMatchingObsAcrossPages() {
+		executeDataSet(INITIAL_OBS_XML);
+		ObsService os = Context.getObsService();
+		List<Obs> expected = os.getObservations(new ObsSearchCriteriaBuilder().createObsSearchCriteria());
+		
+		List<Integer> streamed;
+		try (Stream<Obs> stream = os.getObservationStream(new ObsSearchCriteriaBuilder().setMaxResults(2)
+		        .createObsSearchCriteria())) {
+			streamed = stream.map(Obs::getObsId).collect(Collectors.toList());
+		}
+		
+		assertEquals(expected.stream().map(Obs::getObsId).collect(Collectors.toList()), streamed);
+	}
+	
+	/**
+	 * @see ObsService#getObservationStream(ObsSearchCriteria)
+	 */
+	@Test
+	public void getObservationStream_shouldEvictThePreviousPageFromTheSession() {
+		executeDataSet(INITIAL_OBS_XML);
+		
+		List<Obs> streamed = Context.getObsService()
+		        .getObservationStream(new ObsSearchCriteriaBuilder().setMaxResults(2).createObsSearchCriteria()).limit(3)
+		        .collect(Collectors.toList());
+		
+		assertEquals(3, streamed.size());
+		assertFalse(sessionFactory.getCurrentSession().contains(streamed.get(0)));
+		assertTrue(sessionFactory.getCurrentSession().contains(streamed.get(2)));
+	}
+	
 	/**
 	 * @throws IOException
 	 * @see ObsService#getComplexObs(Integer,String)
@@ -1502,6 +1615,60 @@ public class ObsServiceTest extends BaseContextSensitiveTest {
 		assertNotNull(o.getCreator());
 	}
 	
+	/**
+	 * @see ObsService#saveObsBatch(List,String)
+	 */
+	@Test
+	public void saveObsBatch_shouldReportInvalidObsAndSaveTheOthers() {
+		ObsService os = Context.getObsService();
+		List<Obs> obs = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Obs o = new Obs(new Person(2), Context.getConceptService().getConcept(3), new Date(), new Location(1));
+			o.setValueNumeric(50d + i);
+			obs.add(o);
+		}
+		Obs invalid = obs.get(1);
+		invalid.setObsDatetime(null);
+		
+		BatchSaveResult<Obs> result = os.saveObsBatch(obs, null);
+		
+		assertEquals(2, result.getSaved().size());
+		assertEquals(1, result.getFailures().size());
+		assertTrue(result.getFailures().get(1) instanceof ValidationException);
+		assertNull(invalid.getObsId());
+		for (Obs saved : result.getSaved()) {
+			assertNotNull(saved.getObsId());
+			assertNotNull(saved.getCreator());
+			assertNotNull(os.getObs(saved.getObsId()));
+		}
+	}
+	
+	/**
+	 * @see ObsService#saveObsBatch(List,String)
+	 */
+	@Test
+	public void saveObsBatch_shouldRequireChangeMessageForExistingObs() {
+		ObsService os = Context.getObsService();
+		Obs existing = os.getObs(7);
+		Double originalValue = existing.getValueNumeric();
+		existing.setValueNumeric(99d);
+		
+		BatchSaveResult<Obs> result = os.saveObsBatch(Collections.singletonList(existing), null);
+		
+		assertTrue(result.hasFailures());
+		assertTrue(result.getSaved().isEmpty());
+		
+		// nothing may have been written for the rejected obs
+		Context.flushSession();
+		Context.clearSession();
+		Obs reloaded = os.getObs(7);
+		assertEquals(originalValue, reloaded.getValueNumeric());
+		assertFalse(reloaded.getVoided());
+		List<List<Object>> rows = Context.getAdministrationService().executeSQL(
+		    "select obs_id from obs where value_numeric = 99", true);
+		assertTrue(rows.isEmpty());
+	}
+	
 	/**
 	 * @see ObsService#saveObs(Obs,String)
 	 */
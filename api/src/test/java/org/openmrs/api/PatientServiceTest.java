@@ -32,6 +32,7 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.HashSet;
@@ -3275,6 +3276,93 @@ public class PatientServiceTest extends BaseContextSensitiveTest {
 		assertEquals(2, encounterService.getEncounter(57).getObsAtTopLevel(true).size());
 	}
 
+	/**
+	 * @see PatientService#mergePatients(Patient,Patient)
+	 */
+	@Test
+	public void mergePatients_shouldMoveClinicalDataWithSetBasedUpdatesInBulkMode() throws Exception {
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_PATIENT_MERGE_BULK_MODE, "true");
+		EncounterService encounterService = Context.getEncounterService();
+		ObsService obsService = Context.getObsService();
+		Patient preferred = patientService.getPatient(999);
+		Patient notPreferred = patientService.getPatient(7);
+		voidOrders(Collections.singleton(notPreferred));
+		
+		Obs obs = obsService.getObs(7);
+		obs.setEncounter(null);
+		obs.setComment("this observation is for testing the merge");
+		Obs independentObs = obsService.saveObs(obs, "Reason cannot be blank");
+		// loaded before the merge so that the merge has to evict the stale instances
+		Encounter encounter = encounterService.getEncounter(4);
+		assertEquals(6, encounter.getAllObs(true).size());
+		
+		PersonMergeLog audit = mergeAndRetrieveAudit(preferred, notPreferred);
+		
+		Encounter movedEncounter = encounterService.getEncounter(4);
+		assertNotSame(encounter, movedEncounter);
+		assertEquals(preferred, movedEncounter.getPatient());
+		assertEquals(Context.getAuthenticatedUser(), movedEncounter.getChangedBy());
+		// obs are moved as they are instead of being voided and recreated
+		assertEquals(6, movedEncounter.getAllObs(true).size());
+		for (Obs o : movedEncounter.getAllObs(true)) {
+			assertFalse(o.getVoided());
+			assertEquals(preferred.getPersonId(), o.getPerson().getPersonId());
+		}
+		Obs movedIndependentObs = obsService.getObs(independentObs.getObsId());
+		assertFalse(movedIndependentObs.getVoided());
+		assertEquals(preferred.getPersonId(), movedIndependentObs.getPerson().getPersonId());
+		assertEquals(preferred, Context.getVisitService().getVisit(8).getPatient());
+		assertEquals(preferred, Context.getOrderService().getOrder(1).getPatient());
+		
+		PersonMergeLogData mergedData = audit.getPersonMergeLogData();
+		assertThat(mergedData.getMovedVisits(), containsInAnyOrder(Context.getVisitService().getVisit(8).getUuid()));
+		assertThat(mergedData.getMovedEncounters(), containsInAnyOrder(encounterService.getEncounter(3).getUuid(),
+		    encounterService.getEncounter(4).getUuid(), encounterService.getEncounter(5).getUuid()));
+		assertThat(mergedData.getMovedIndependentObservations(), containsInAnyOrder(independentObs.getUuid()));
+		assertTrue(patientService.getPatient(7).getVoided());
+	}
+	
+	/**
+	 * @see PatientService#mergePatients(Patient,List)
+	 */
+	@Test
+	public void mergePatients_shouldMergeAllNonPreferredPatientsAndAuditEachOfThemInBulkMode() throws Exception {
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_PATIENT_MERGE_BULK_MODE, "true");
+		EncounterService encounterService = Context.getEncounterService();
+		VisitService visitService = Context.getVisitService();
+		Patient preferred = patientService.getPatient(999);
+		List<Patient> notPreferred = Arrays.asList(patientService.getPatient(7), patientService.getPatient(2));
+		voidOrders(notPreferred);
+		
+		patientService.mergePatients(preferred, notPreferred);
+		
+		assertTrue(patientService.getPatient(7).getVoided());
+		assertTrue(patientService.getPatient(2).getVoided());
+		PersonMergeLogData mergedData7 = getMergeLogData(7);
+		assertThat(mergedData7.getMovedVisits(), containsInAnyOrder(visitService.getVisit(8).getUuid()));
+		assertThat(mergedData7.getMovedEncounters(), containsInAnyOrder(encounterService.getEncounter(3).getUuid(),
+		    encounterService.getEncounter(4).getUuid(), encounterService.getEncounter(5).getUuid()));
+		PersonMergeLogData mergedData2 = getMergeLogData(2);
+		assertThat(mergedData2.getMovedVisits(), containsInAnyOrder(visitService.getVisit(1).getUuid(),
+		    visitService.getVisit(2).getUuid(), visitService.getVisit(3).getUuid(), visitService.getVisit(6).getUuid()));
+		assertThat(mergedData2.getMovedEncounters(), containsInAnyOrder(encounterService.getEncounter(6).getUuid()));
+		for (Encounter e : encounterService.getEncountersByPatient(preferred)) {
+			assertEquals(preferred, e.getPatient());
+		}
+		assertTrue(encounterService.getEncountersByPatient(patientService.getPatient(7)).isEmpty());
+		assertTrue(encounterService.getEncountersByPatient(patientService.getPatient(2)).isEmpty());
+	}
+	
+	private PersonMergeLogData getMergeLogData(Integer loserId) throws SerializationException {
+		for (PersonMergeLog mergeLog : personService.getAllPersonMergeLogs(true)) {
+			if (loserId.equals(mergeLog.getLoser().getId())) {
+				return mergeLog.getPersonMergeLogData();
+			}
+		}
+		fail("person merge of patient " + loserId + " was not audited");
+		return null;
+	}
+
 
 	/**
 	 * Gets the patient , then sees if it can get the patient identifier by the patient program as well
@@ -3311,5 +3399,125 @@ public class PatientServiceTest extends BaseContextSensitiveTest {
 		PatientIdentifierException patientIdentifierException = assertThrows(PatientIdentifierException.class, () -> patientService.getIdentifierValidator("com.example.InvalidIdentifierValidator"));
 		assertEquals("Could not find patient identifier validator com.example.InvalidIdentifierValidator", patientIdentifierException.getMessage());
 	}
+	
+	private Patient saveDuplicateTestPatient(String givenName, String familyName, String identifier) {
+		Patient patient = new Patient();
+		patient.setGender("M");
+		patient.setBirthdate(new GregorianCalendar(1980, Calendar.MAY, 17).getTime());
+		patient.addName(new PersonName(givenName, null, familyName));
+		patient.addIdentifier(new PatientIdentifier(identifier, patientService.getPatientIdentifierType(2), locationService
+		        .getLocation(1)));
+		return patientService.savePatient(patient);
+	}
+	
+	/**
+	 * @see PatientService#getDuplicatePatientCandidates(DuplicatePatientCandidate, int, int)
+	 */
+	@Test
+	public void getDuplicatePatientCandidates_shouldReturnPatientsSharingABlockingKey() {
+		Patient robert = saveDuplicateTestPatient("Robert", "Ashcraft", "ABC-123");
+		Patient rupert = saveDuplicateTestPatient("Rupert", "Ashcroft", "abc 123");
+		Patient mary = saveDuplicateTestPatient("Mary", "Ashcraft", "XYZ-987");
+		
+		List<DuplicatePatientCandidate> candidates = patientService.getDuplicatePatientCandidates(null, 0, 10);
+		
+		assertEquals(3, candidates.size());
+		assertDuplicatePatientCandidate(candidates.get(0), robert, rupert, 100);
+		assertDuplicatePatientCandidate(candidates.get(1), robert, mary, 20);
+		assertDuplicatePatientCandidate(candidates.get(2), rupert, mary, 20);
+	}
+	
+	/**
+	 * @see PatientService#getDuplicatePatientCandidates(DuplicatePatientCandidate, int, int)
+	 */
+	@Test
+	public void getDuplicatePatientCandidates_shouldNotReturnCandidatesBelowTheMinimumScore() {
+		Patient robert = saveDuplicateTestPatient("Robert", "Ashcraft", "ABC-123");
+		Patient rupert = saveDuplicateTestPatient("Rupert", "Ashcroft", "abc 123");
+		saveDuplicateTestPatient("Mary", "Ashcraft", "XYZ-987");
+		
+		List<DuplicatePatientCandidate> candidates = patientService.getDuplicatePatientCandidates(null, 50, 10);
+		
+		assertEquals(1, candidates.size());
+		assertDuplicatePatientCandidate(candidates.get(0), robert, rupert, 100);
+	}
+	
+	/**
+	 * @see PatientService#getDuplicatePatientCandidates(DuplicatePatientCandidate, int, int)
+	 */
+	@Test
+	public void getDuplicatePatientCandidates_shouldScoreEachKindOfSharedKeyOnce() {
+		Patient robert = saveDuplicateTestPatient("Robert", "Ashcraft", "ABC-123");
+		Patient rupert = saveDuplicateTestPatient("Rupert", "Ashcroft", "abc 123");
+		robert.addIdentifier(new PatientIdentifier("DEF-456", patientService.getPatientIdentifierType(2), locationService
+		        .getLocation(1)));
+		patientService.savePatient(robert);
+		rupert.addIdentifier(new PatientIdentifier("def 456", patientService.getPatientIdentifierType(2), locationService
+		        .getLocation(1)));
+		patientService.savePatient(rupert);
+		
+		List<DuplicatePatientCandidate> candidates = patientService.getDuplicatePatientCandidates(null, 0, 10);
+		
+		assertEquals(1, candidates.size());
+		assertDuplicatePatientCandidate(candidates.get(0), robert, rupert, 100);
+	}
+	
+	/**
+	 * @see PatientService#getDuplicatePatientCandidates(DuplicatePatientCandidate, int, int)
+	 */
+	@Test
+	public void getDuplicatePatientCandidates_shouldReturnThePageAfterTheGivenCandidate() {
+		Patient robert = saveDuplicateTestPatient("Robert", "Ashcraft", "ABC-123");
+		Patient rupert = saveDuplicateTestPatient("Rupert", "Ashcroft", "abc 123");
+		Patient mary = saveDuplicateTestPatient("Mary", "Ashcraft", "XYZ-987");
+		
+		List<DuplicatePatientCandidate> firstPage = patientService.getDuplicatePatientCandidates(null, 0, 2);
+		List<DuplicatePatientCandidate> secondPage = patientService.getDuplicatePatientCandidates(firstPage.get(1), 0, 2);
+		
+		assertEquals(2, firstPage.size());
+		assertEquals(1, secondPage.size());
+		assertDuplicatePatientCandidate(secondPage.get(0), rupert, mary, 20);
+	}
+	
+	/**
+	 * @see PatientService#voidPatient(Patient, String)
+	 */
+	@Test
+	public void voidPatient_shouldRemoveThePatientFromTheDuplicatePatientCandidates() {
+		saveDuplicateTestPatient("Robert", "Ashcraft", "ABC-123");
+		Patient rupert = saveDuplicateTestPatient("Rupert", "Ashcroft", "abc 123");
+		
+		patientService.voidPatient(rupert, "duplicate");
+		
+		assertThat(patientService.getDuplicatePatientCandidates(null, 0, 10), is(empty()));
+	}
+	
+	/**
+	 * @see PatientService#updatePatientDuplicateKeys(Integer, int)
+	 */
+	@Test
+	public void updatePatientDuplicateKeys_shouldComputeTheKeysOfTheNextPatients() {
+		Integer lastPatientId = patientService.updatePatientDuplicateKeys(null, 2);
+		
+		List<Patient> patients = patientService.getAllPatients();
+		patients.sort(Comparator.comparing(Patient::getPatientId));
+		assertEquals(patients.get(1).getPatientId(), lastPatientId);
+		assertEquals(patients.get(3).getPatientId(), patientService.updatePatientDuplicateKeys(lastPatientId, 2));
+	}
+	
+	/**
+	 * @see PatientService#updatePatientDuplicateKeys(Integer, int)
+	 */
+	@Test
+	public void updatePatientDuplicateKeys_shouldReturnNullWhenThereAreNoPatientsLeft() {
+		assertNull(patientService.updatePatientDuplicateKeys(Integer.MAX_VALUE - 1, 100));
+	}
+	
+	private void assertDuplicatePatientCandidate(DuplicatePatientCandidate candidate, Patient patient, Patient duplicate,
+	        int score) {
+		assertEquals(patient, candidate.getPatient());
+		assertEquals(duplicate, candidate.getDuplicate());
+		assertEquals(score, candidate.getScore());
+	}
 
 }
@@ -39,6 +39,7 @@ public class CacheConfigTest extends BaseContextSensitiveTest {
 	@Test
 	public void shouldContainSpecificCacheConfigurations(){
 		String[] expectedCaches = {"conceptDatatype", "subscription", "userSearchLocales", "conceptIdsByMapping", 
+			"globalProperties", "hl7LocationIds", "hl7PatientIdentifierTypeIds", "hl7UserIds", "hl7ProviderIds",
 			"testCache"};
 		Collection<String> actualCaches = cacheManager.getCacheNames();
 		assertThat(actualCaches, containsInAnyOrder(expectedCaches));
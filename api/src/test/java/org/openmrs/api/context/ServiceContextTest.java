@@ -9,8 +9,11 @@
  */
 package org.openmrs.api.context;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -20,13 +23,17 @@ import static org.mockito.MockitoAnnotations.openMocks;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.aopalliance.intercept.MethodInterceptor;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openmrs.api.APIException;
+import org.openmrs.api.PatientService;
+import org.openmrs.api.ServiceNotFoundException;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
 import org.openmrs.util.DatabaseUpdateException;
 import org.openmrs.util.InputRequiredException;
+import org.springframework.context.support.GenericApplicationContext;
 
 public class ServiceContextTest extends BaseContextSensitiveTest {
 	
@@ -96,4 +103,61 @@ public class ServiceContextTest extends BaseContextSensitiveTest {
 		verify(spiedServiceContext, never()).getMessageService();
 		verify(spiedServiceContext, never()).getMessageSourceService();
 	}
+	
+	@Test
+	public void addAdvice_shouldAdviseTheServiceWithoutReplacingIt() {
+		serviceContext.setService(GreetingService.class, new GreetingServiceImpl());
+		GreetingService service = serviceContext.getService(GreetingService.class);
+		MethodInterceptor advice = invocation -> "intercepted";
+		
+		serviceContext.addAdvice(GreetingService.class, advice);
+		String intercepted = serviceContext.getService(GreetingService.class).greet();
+		serviceContext.removeAdvice(GreetingService.class, advice);
+		
+		assertSame(service, serviceContext.getService(GreetingService.class));
+		assertEquals("intercepted", intercepted);
+		assertEquals("hello", service.greet());
+	}
+	
+	@Test
+	public void removeModuleServices_shouldRemoveTheServicesInTheModulePackage() {
+		serviceContext.setService(GreetingService.class, new GreetingServiceImpl());
+		
+		serviceContext.removeModuleServices("org.openmrs.api.context");
+		
+		assertThrows(ServiceNotFoundException.class, () -> serviceContext.getService(GreetingService.class));
+		assertNotNull(serviceContext.getService(PatientService.class));
+	}
+	
+	@Test
+	public void getRegisteredComponents_shouldReturnBeansOfModuleApplicationContexts() {
+		GenericApplicationContext moduleApplicationContext = new GenericApplicationContext(
+		        serviceContext.getApplicationContext());
+		moduleApplicationContext.registerBean("greetingService", GreetingServiceImpl.class);
+		moduleApplicationContext.refresh();
+		serviceContext.addModuleApplicationContext("greeting", moduleApplicationContext);
+		try {
+			assertEquals(1, serviceContext.getRegisteredComponents(GreetingService.class).size());
+			assertEquals("hello", serviceContext.getRegisteredComponent("greetingService", GreetingService.class).greet());
+		}
+		finally {
+			serviceContext.removeModuleApplicationContext("greeting");
+			moduleApplicationContext.close();
+		}
+		
+		assertTrue(serviceContext.getRegisteredComponents(GreetingService.class).isEmpty());
+	}
+	
+	public interface GreetingService {
+		
+		String greet();
+	}
+	
+	public static class GreetingServiceImpl implements GreetingService {
+		
+		@Override
+		public String greet() {
+			return "hello";
+		}
+	}
 }
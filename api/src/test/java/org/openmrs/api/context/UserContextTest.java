@@ -14,6 +14,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openmrs.Person;
 import org.openmrs.PersonName;
+import org.openmrs.Privilege;
+import org.openmrs.Role;
 import org.openmrs.User;
 import org.openmrs.api.PersonService;
 import org.openmrs.api.UserService;
@@ -24,6 +26,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.is;
 
 public class UserContextTest extends BaseContextSensitiveTest {
 	
@@ -111,4 +114,32 @@ public class UserContextTest extends BaseContextSensitiveTest {
 		// assert
 		assertThat(locationId, nullValue());
 	}
+
+	@Test
+	void hasPrivilege_shouldReflectChangesToTheRolesOfTheAuthenticatedUser() {
+		// arrange
+		Role role = new Role("Compiled Privileges Test Role");
+		Privilege privilege = new Privilege("Compiled Privileges Test Privilege");
+		Context.logout();
+		Context.authenticate(new UsernamePasswordCredentials("testUser", "Test1234"));
+		
+		try {
+			assertThat(Context.hasPrivilege(privilege.getPrivilege()), is(false));
+			
+			// act
+			Context.getAuthenticatedUser().addRole(role);
+			role.addPrivilege(privilege);
+			
+			// assert
+			assertThat(Context.hasPrivilege(privilege.getPrivilege()), is(true));
+			assertThat(Context.hasPrivilege(privilege.getPrivilege().toUpperCase()), is(true));
+			
+			role.removePrivilege(privilege);
+			assertThat(Context.hasPrivilege(privilege.getPrivilege()), is(false));
+		}
+		finally {
+			Context.logout();
+			authenticate();
+		}
+	}
 }
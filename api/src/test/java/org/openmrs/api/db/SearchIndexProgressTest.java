@@ -0,0 +1,51 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.openmrs.api.db.SearchIndexProgress.Status;
+import org.openmrs.api.db.SearchIndexProgress.TypeProgress;
+
+public class SearchIndexProgressTest {
+	
+	/**
+	 * @see SearchIndexProgress#getFractionDone()
+	 */
+	@Test
+	public void getFractionDone_shouldSumTheCountsOfAllTypes() {
+		SearchIndexProgress progress = new SearchIndexProgress(Status.RUNNING, new Date(), null, null, Arrays.asList(
+		    new TypeProgress("org.openmrs.PersonName", 300, 300, 3, 3, true),
+		    new TypeProgress("org.openmrs.PatientIdentifier", 100, 0, 0, 1, false)));
+	
+		assertEquals(400, progress.getTotalCount());
+		assertEquals(300, progress.getIndexedCount());
+		assertEquals(0.75, progress.getFractionDone());
+	}
+	
+	/**
+	 * @see SearchIndexProgress#getFractionDone()
+	 */
+	@Test
+	public void getFractionDone_shouldBeDoneForACompletedUpdateWithoutEntities() {
+		SearchIndexProgress running = new SearchIndexProgress(Status.RUNNING, new Date(), null, null,
+		        Collections.emptyList());
+		SearchIndexProgress completed = new SearchIndexProgress(Status.COMPLETED, new Date(), new Date(), null,
+		        Collections.emptyList());
+	
+		assertEquals(0.0, running.getFractionDone());
+		assertEquals(1.0, completed.getFractionDone());
+	}
+}
@@ -0,0 +1,201 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Properties;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openmrs.ConceptName;
+import org.openmrs.Drug;
+import org.openmrs.Patient;
+import org.openmrs.PatientIdentifier;
+import org.openmrs.PersonAttribute;
+import org.openmrs.PersonAttributeType;
+import org.openmrs.PersonName;
+import org.openmrs.api.PatientService;
+import org.openmrs.api.PersonService;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.db.hibernate.search.PatientIndexMappingConfigurer;
+import org.openmrs.test.SkipBaseSetup;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.openmrs.util.OpenmrsConstants;
+import org.springframework.test.annotation.DirtiesContext.HierarchyMode;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.TestExecutionListeners;
+import org.springframework.test.context.support.AbstractTestExecutionListener;
+
+/**
+ * Tests the patient search of {@link HibernatePatientDAO} with the patient search index enabled.
+ * <p>
+ * The index is only mapped when the session factory is built, so this class runs in an application
+ * context of its own. The shared application context is closed before the class runs and the one of
+ * this class after it, since both use the same database and the same static service context. The
+ * standard data is loaded by each test, as the database is recreated with the application context.
+ *
+ * @see PatientIndexMappingConfigurer
+ */
+@SkipBaseSetup
+@TestExecutionListeners(listeners = HibernatePatientDAOPatientIndexTest.PatientIndexContextListener.class,
+        mergeMode = TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS)
+public class HibernatePatientDAOPatientIndexTest extends BaseContextSensitiveTest {
+
+	private PatientService patientService;
+
+	private PersonService personService;
+
+	/**
+	 * Closes the application context cached for this class before and after the class runs
+	 */
+	public static class PatientIndexContextListener extends AbstractTestExecutionListener {
+
+		@Override
+		public void beforeTestClass(TestContext testContext) {
+			testContext.markApplicationContextDirty(HierarchyMode.EXHAUSTIVE);
+		}
+
+		@Override
+		public void afterTestClass(TestContext testContext) {
+			testContext.markApplicationContextDirty(HierarchyMode.EXHAUSTIVE);
+		}
+	}
+
+	/**
+	 * Enables the patient search index in the runtime properties the application context of this
+	 * class is built with, leaving the ones shared with the other tests unchanged
+	 *
+	 * @see BaseContextSensitiveTest#getRuntimeProperties()
+	 */
+	@Override
+	public Properties getRuntimeProperties() {
+		Properties properties = new Properties();
+		properties.putAll(super.getRuntimeProperties());
+		properties.setProperty(OpenmrsConstants.SEARCH_PATIENT_INDEX_ENABLED_RUNTIME_PROPERTY, "true");
+		return properties;
+	}
+
+	@Override
+	public Class<?>[] getIndexedTypes() {
+		return new Class<?>[] { ConceptName.class, Drug.class, PersonName.class, PersonAttribute.class,
+		        PatientIdentifier.class, Patient.class };
+	}
+
+	@BeforeEach
+	public void setUpStandardData() throws Exception {
+		deleteAllData();
+		if (useInMemoryDatabase()) {
+			initializeInMemoryDatabase();
+		} else {
+			executeDataSet(INITIAL_XML_DATASET_PACKAGE_PATH);
+		}
+		executeDataSet(EXAMPLE_XML_DATASET_PACKAGE_PATH);
+		getConnection().commit();
+		updateSearchIndex();
+		authenticate();
+
+		patientService = Context.getPatientService();
+		personService = Context.getPersonService();
+	}
+
+	private Patient newPatient(String givenName, String familyName, String identifier) {
+		Patient patient = new Patient();
+		patient.setGender("F");
+		patient.setBirthdate(new GregorianCalendar(1985, Calendar.MARCH, 2).getTime());
+		PersonName name = new PersonName(givenName, null, familyName);
+		name.setPreferred(true);
+		patient.addName(name);
+		PatientIdentifier patientIdentifier = new PatientIdentifier(identifier, patientService
+		        .getPatientIdentifierType(2), Context.getLocationService().getLocation(1));
+		patientIdentifier.setPreferred(true);
+		patient.addIdentifier(patientIdentifier);
+		return patient;
+	}
+
+	@Test
+	public void getPatients_shouldFindPatientsInThePatientSearchIndex() {
+		assertTrue(PatientIndexMappingConfigurer.isMapped(applicationContext.getBean(SessionFactory.class)));
+
+		Patient patient = patientService.savePatient(newPatient("Wanjiru", "Kamau", "WK-1001"));
+		updateSearchIndex();
+
+		assertThat(patientService.getPatients("Kamau"), contains(patient));
+	}
+
+	@Test
+	public void getPatients_shouldReturnAPatientMatchingItsIdentifierAndSeveralNamesOnce() {
+		Patient patient = newPatient("Kalinda", "Ombasa", "Kalinda");
+		patient.addName(new PersonName("Kalinda", null, "Ombasi"));
+		patient = patientService.savePatient(patient);
+		updateSearchIndex();
+
+		List<Patient> patients = patientService.getPatients("Kalinda");
+
+		assertThat(patients, contains(patient));
+		assertEquals(1, patientService.getCountOfPatients("Kalinda").intValue());
+	}
+
+	@Test
+	public void getPatients_shouldRankIdentifierMatchesAboveNameMatches() {
+		Patient nameMatch = patientService.savePatient(newPatient("Nyokabi", "Otieno", "NO-2002"));
+		Patient identifierMatch = patientService.savePatient(newPatient("Achieng", "Mutua", "Nyokabi"));
+		updateSearchIndex();
+
+		assertThat(patientService.getPatients("Nyokabi"), contains(identifierMatch, nameMatch));
+	}
+
+	@Test
+	public void getPatients_shouldRankNameMatchesAboveSearchableAttributeMatches() {
+		PersonAttributeType birthplace = personService.getPersonAttributeType(2);
+		birthplace.setSearchable(true);
+		personService.savePersonAttributeType(birthplace);
+
+		Patient attributeMatch = newPatient("Baraka", "Chege", "BC-3003");
+		attributeMatch.addAttribute(new PersonAttribute(birthplace, "Zanzibar"));
+		attributeMatch = patientService.savePatient(attributeMatch);
+		Patient nameMatch = patientService.savePatient(newPatient("Zanzibar", "Mwangi", "ZM-4004"));
+		updateSearchIndex();
+
+		assertThat(patientService.getPatients("Zanzibar"), contains(nameMatch, attributeMatch));
+	}
+
+	@Test
+	public void getPatients_shouldNotReturnVoidedPatientsUnlessAsked() {
+		Patient patient = patientService.savePatient(newPatient("Tumaini", "Baraka", "TB-5005"));
+		patientService.voidPatient(patient, "test");
+		updateSearchIndex();
+
+		assertThat(patientService.getPatients("Tumaini"), empty());
+		assertEquals(0, patientService.getCountOfPatients("Tumaini").intValue());
+		assertThat(patientService.getPatients("Tumaini", true, 0, null), contains(patient));
+	}
+
+	@Test
+	public void getPatients_shouldNotMatchVoidedNamesOfAPatient() {
+		Patient patient = newPatient("Imani", "Njeri", "IN-6006");
+		PersonName voidedName = new PersonName("Faraji", null, "Njeri");
+		voidedName.setVoided(true);
+		voidedName.setVoidReason("test");
+		patient.addName(voidedName);
+		patientService.savePatient(patient);
+		updateSearchIndex();
+
+		assertThat(patientService.getPatients("Faraji"), empty());
+	}
+}
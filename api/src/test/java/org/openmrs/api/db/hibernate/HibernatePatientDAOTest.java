@@ -14,7 +14,9 @@ import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.lessThan;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.sql.Date;
 import java.util.Arrays;
@@ -22,6 +24,9 @@ import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openmrs.Patient;
@@ -291,4 +296,42 @@ public class HibernatePatientDAOTest extends BaseContextSensitiveTest {
 		// then
 		assertThat(duplicatePatients.size(), equalTo(2));
 	}
+
+	@Test
+	public void getPatients_shouldLoadAPageOfPatientsFoundByNameInFewerStatementsThanHits() {
+		final int patientCount = 20;
+		for (int i = 0; i < patientCount; i++) {
+			Person person = new Person();
+			person.addName(new PersonName("Ioan" + i, null, "Wanyonyi"));
+			person = hibernatePersonDAO.savePerson(person);
+			Patient patient = new Patient(person);
+			patient.addIdentifier(new PatientIdentifier("WY-" + i, new PatientIdentifierType(2), null));
+			hibernatePatientDao.savePatient(patient);
+		}
+		Context.flushSession();
+		updateSearchIndex();
+		// the first search loads the global properties and metadata every search needs
+		assertEquals(patientCount, hibernatePatientDao.getPatients("Wanyonyi", 0, null).size());
+		Context.clearSession();
+		
+		Statistics statistics = applicationContext.getBean("sessionFactory", SessionFactory.class).getStatistics();
+		boolean statisticsEnabled = statistics.isStatisticsEnabled();
+		statistics.setStatisticsEnabled(true);
+		List<Patient> patients;
+		try {
+			statistics.clear();
+			patients = hibernatePatientDao.getPatients("Wanyonyi", 0, null);
+			for (Patient patient : patients) {
+				assertTrue(Hibernate.isInitialized(patient.getNames()));
+				assertTrue(Hibernate.isInitialized(patient.getIdentifiers()));
+			}
+		}
+		finally {
+			statistics.setStatisticsEnabled(statisticsEnabled);
+		}
+		
+		// the hits are loaded a page at a time along with their names and identifiers, not one by one
+		assertEquals(patientCount, patients.size());
+		assertThat(statistics.getPrepareStatementCount(), lessThan((long) patientCount));
+	}
 }
@@ -0,0 +1,40 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.openmrs.util.OpenmrsConstants;
+
+public class PatientIndexMappingConfigurerTest {
+	
+	/**
+	 * @see PatientIndexMappingConfigurer#isEnabled(Properties)
+	 */
+	@Test
+	public void isEnabled_shouldBeDisabledByDefault() {
+		assertFalse(PatientIndexMappingConfigurer.isEnabled(new Properties()));
+	}
+	
+	/**
+	 * @see PatientIndexMappingConfigurer#isEnabled(Properties)
+	 */
+	@Test
+	public void isEnabled_shouldBeEnabledByTheRuntimeProperty() {
+		Properties properties = new Properties();
+		properties.setProperty(OpenmrsConstants.SEARCH_PATIENT_INDEX_ENABLED_RUNTIME_PROPERTY, " true ");
+		
+		assertTrue(PatientIndexMappingConfigurer.isEnabled(properties));
+	}
+}
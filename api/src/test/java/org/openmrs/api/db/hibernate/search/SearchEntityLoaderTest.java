@@ -0,0 +1,84 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openmrs.Patient;
+import org.openmrs.api.context.Context;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+
+/**
+ * Tests {@link SearchEntityLoader} with the patients of the standard test dataset
+ */
+public class SearchEntityLoaderTest extends BaseContextSensitiveTest {
+
+	private Session session;
+
+	@BeforeEach
+	public void setUpSession() {
+		session = applicationContext.getBean("sessionFactory", SessionFactory.class).getCurrentSession();
+	}
+
+	private List<Integer> getIds(List<Patient> patients) {
+		return patients.stream().map(Patient::getPatientId).collect(Collectors.toList());
+	}
+
+	@Test
+	public void load_shouldReturnTheEntitiesInTheOrderOfTheIds() {
+		SearchEntityLoader<Patient> loader = SearchEntityLoader.newLoader(Patient.class, "person.personId");
+
+		assertThat(getIds(loader.load(session, Arrays.asList(7, 2, 6))), contains(7, 2, 6));
+		assertThat(getIds(loader.load(session, Arrays.asList(6, 7, 2))), contains(6, 7, 2));
+	}
+
+	@Test
+	public void load_shouldSkipTheIdsOfEntitiesThatDoNotExist() {
+		SearchEntityLoader<Patient> loader = SearchEntityLoader.newLoader(Patient.class, "person.personId");
+
+		assertThat(getIds(loader.load(session, Arrays.asList(12345, 7, 54321, 2))), contains(7, 2));
+	}
+
+	@Test
+	public void load_shouldReturnAnEmptyListIfThereAreNoIds() {
+		SearchEntityLoader<Patient> loader = SearchEntityLoader.newLoader(Patient.class, "person.personId");
+
+		assertThat(loader.load(session, Collections.emptyList()), empty());
+	}
+
+	@Test
+	public void load_shouldFetchTheGivenAssociationsAlongWithTheEntities() {
+		SearchEntityLoader<Patient> loader = SearchEntityLoader.newLoader(Patient.class, "person.personId", "names",
+		    "identifiers");
+		Context.flushSession();
+		Context.clearSession();
+
+		List<Patient> patients = loader.load(session, Arrays.asList(2, 7));
+
+		assertThat(getIds(patients), contains(2, 7));
+		for (Patient patient : patients) {
+			assertTrue(Hibernate.isInitialized(patient.getNames()));
+			assertTrue(Hibernate.isInitialized(patient.getIdentifiers()));
+		}
+	}
+}
@@ -0,0 +1,189 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.session.SearchSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openmrs.PersonName;
+import org.openmrs.api.db.SearchIndexProgress;
+import org.openmrs.api.db.SearchIndexUpdateOptions;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.openmrs.util.OpenmrsConstants;
+
+/**
+ * Tests {@link SearchIndexUpdater} against the index of the person names of the standard test
+ * dataset, which is reindexed in ranges of a few names
+ */
+public class SearchIndexUpdaterTest extends BaseContextSensitiveTest {
+
+	private static final int PARTITION_SIZE = 3;
+
+	@TempDir
+	public Path tempDir;
+
+	private SessionFactory sessionFactory;
+
+	private File checkpointFile;
+
+	private SearchIndexUpdater updater;
+
+	private List<Integer> personNameIds;
+
+	@BeforeEach
+	public void setUpUpdater() {
+		sessionFactory = applicationContext.getBean("sessionFactory", SessionFactory.class);
+		checkpointFile = tempDir.resolve("checkpoint.properties").toFile();
+		updater = new SearchIndexUpdater(sessionFactory, new Properties(), checkpointFile);
+		personNameIds = sessionFactory.getCurrentSession()
+		        .createQuery("select n.personNameId from PersonName n order by n.personNameId", Integer.class).list();
+		assertThat(personNameIds.size(), greaterThan(2 * PARTITION_SIZE));
+	}
+
+	/**
+	 * Restores the index of the person names the tests purge
+	 */
+	@AfterEach
+	public void restoreSearchIndex() {
+		updateSearchIndex();
+	}
+
+	private SearchIndexUpdateOptions newOptions(boolean resume) {
+		SearchIndexUpdateOptions options = new SearchIndexUpdateOptions(PersonName.class);
+		options.setPartitionSize(PARTITION_SIZE);
+		options.setResume(resume);
+		return options;
+	}
+
+	private SearchSession getSearchSession() {
+		return Search.session(sessionFactory.getCurrentSession());
+	}
+
+	private List<Integer> getIndexedIds() {
+		return getSearchSession().search(PersonName.class).select(f -> f.id(Integer.class)).where(f -> f.matchAll())
+		        .fetchAllHits();
+	}
+
+	private void purgeIndex() {
+		Search.mapping(sessionFactory).scope(PersonName.class).workspace().purge();
+		assertTrue(getIndexedIds().isEmpty());
+	}
+
+	private void writeCheckpoint(String version, String value) throws Exception {
+		Properties checkpoint = new Properties();
+		checkpoint.setProperty("version", version);
+		checkpoint.setProperty(PersonName.class.getName(), value);
+		try (OutputStream out = new FileOutputStream(checkpointFile)) {
+			checkpoint.store(out, null);
+		}
+	}
+
+	@Test
+	public void update_shouldReindexAllEntitiesOfTheTypeRangeByRange() {
+		purgeIndex();
+
+		updater.update(newOptions(true));
+
+		assertThat(getIndexedIds(), containsInAnyOrder(personNameIds.toArray()));
+		SearchIndexProgress progress = updater.getProgress();
+		assertEquals(SearchIndexProgress.Status.COMPLETED, progress.getStatus());
+		SearchIndexProgress.TypeProgress typeProgress = progress.getTypes().get(0);
+		assertEquals(PersonName.class.getName(), typeProgress.getType());
+		assertEquals(personNameIds.size(), typeProgress.getTotalCount());
+		assertEquals(personNameIds.size(), typeProgress.getIndexedCount());
+		assertThat(typeProgress.getPartitionCount(), greaterThan(1));
+		assertEquals(typeProgress.getPartitionCount(), typeProgress.getCompletedPartitions());
+		assertTrue(typeProgress.isCompleted());
+	}
+
+	@Test
+	public void update_shouldResumeAfterTheLastCompletedRangeWithoutPurgingTheIndex() throws Exception {
+		purgeIndex();
+		// the names up to the checkpoint were indexed before the update was interrupted, only the first is
+		// indexed again here so that reindexing the completed ranges would be noticed
+		Integer lastCompletedId = personNameIds.get(PARTITION_SIZE - 1);
+		getSearchSession().indexingPlan().addOrUpdate(
+		    sessionFactory.getCurrentSession().get(PersonName.class, personNameIds.get(0)));
+		getSearchSession().indexingPlan().execute();
+		writeCheckpoint(OpenmrsConstants.SEARCH_INDEX_VERSION.toString(), lastCompletedId.toString());
+
+		updater.update(newOptions(true));
+
+		List<Integer> expectedIds = new ArrayList<>();
+		expectedIds.add(personNameIds.get(0));
+		expectedIds.addAll(personNameIds.subList(PARTITION_SIZE, personNameIds.size()));
+		assertThat(getIndexedIds(), containsInAnyOrder(expectedIds.toArray()));
+		SearchIndexProgress.TypeProgress typeProgress = updater.getProgress().getTypes().get(0);
+		assertEquals(personNameIds.size(), typeProgress.getIndexedCount());
+		assertTrue(typeProgress.isCompleted());
+	}
+
+	@Test
+	public void update_shouldSkipATypeTheCheckpointRecordsAsComplete() throws Exception {
+		purgeIndex();
+		writeCheckpoint(OpenmrsConstants.SEARCH_INDEX_VERSION.toString(), "complete");
+
+		updater.update(newOptions(true));
+
+		assertTrue(getIndexedIds().isEmpty());
+		assertTrue(updater.getProgress().getTypes().get(0).isCompleted());
+	}
+
+	@Test
+	public void update_shouldIgnoreAStaleCheckpointIfNotResuming() throws Exception {
+		purgeIndex();
+		writeCheckpoint(OpenmrsConstants.SEARCH_INDEX_VERSION.toString(), personNameIds.get(PARTITION_SIZE - 1)
+		        .toString());
+
+		updater.update(newOptions(false));
+
+		assertThat(getIndexedIds(), containsInAnyOrder(personNameIds.toArray()));
+	}
+
+	@Test
+	public void update_shouldIgnoreACheckpointOfAnotherIndexVersion() throws Exception {
+		purgeIndex();
+		writeCheckpoint(String.valueOf(OpenmrsConstants.SEARCH_INDEX_VERSION - 1), "complete");
+
+		updater.update(newOptions(true));
+
+		assertThat(getIndexedIds(), containsInAnyOrder(personNameIds.toArray()));
+	}
+
+	@Test
+	public void update_shouldDeleteTheCheckpointWhenTheUpdateCompletes() throws Exception {
+		writeCheckpoint(OpenmrsConstants.SEARCH_INDEX_VERSION.toString(), personNameIds.get(PARTITION_SIZE - 1)
+		        .toString());
+
+		updater.update(newOptions(true));
+
+		assertFalse(checkpointFile.exists());
+		assertFalse(new File(checkpointFile.getParentFile(), checkpointFile.getName() + ".tmp").exists());
+	}
+}
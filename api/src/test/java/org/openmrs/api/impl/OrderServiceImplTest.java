@@ -0,0 +1,111 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.openmrs.api.AdministrationService;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.db.OrderDAO;
+import org.openmrs.test.jupiter.BaseContextMockTest;
+import org.openmrs.util.OpenmrsConstants;
+
+/**
+ * Tests {@link OrderServiceImpl} without the application context.
+ *
+ * @see org.openmrs.api.OrderServiceTest
+ */
+public class OrderServiceImplTest extends BaseContextMockTest {
+
+	private OrderServiceImpl orderService;
+
+	@Mock
+	private AdministrationService administrationService;
+
+	@Mock
+	private OrderDAO orderDAO;
+
+	@BeforeEach
+	public void before() {
+		orderService = new OrderServiceImpl();
+		orderService.setOrderDAO(orderDAO);
+		contextMockHelper.setAdministrationService(administrationService);
+	}
+
+	/**
+	 * @see OrderServiceImpl#getNextOrderNumberSeedSequenceValue()
+	 */
+	@Test
+	public void getNextOrderNumberSeedSequenceValue_shouldReserveSeedsInBlocksOfTheConfiguredSize() {
+		when(administrationService.getGlobalPropertyValue(OpenmrsConstants.GP_ORDER_NUMBER_SEED_BLOCK_SIZE, 1)).thenReturn(3);
+		when(orderDAO.getNextOrderNumberSeedSequenceValues(3)).thenReturn(10L, 20L);
+
+		List<Long> seeds = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			seeds.add(orderService.getNextOrderNumberSeedSequenceValue());
+		}
+
+		assertEquals(List.of(10L, 11L, 12L, 20L, 21L), seeds);
+		verify(orderDAO, times(2)).getNextOrderNumberSeedSequenceValues(3);
+	}
+
+	/**
+	 * @see OrderServiceImpl#getNextOrderNumberSeedSequenceValue()
+	 */
+	@Test
+	public void getNextOrderNumberSeedSequenceValue_shouldReturnUniqueSeedsWhenCalledConcurrently() throws Exception {
+		final int blockSize = 7;
+		final int threadCount = 8;
+		final int callsPerThread = 70;
+		when(administrationService.getGlobalPropertyValue(OpenmrsConstants.GP_ORDER_NUMBER_SEED_BLOCK_SIZE, 1)).thenReturn(
+		    blockSize);
+		AtomicLong storedSeed = new AtomicLong(1);
+		when(orderDAO.getNextOrderNumberSeedSequenceValues(blockSize)).thenAnswer(
+		    invocation -> storedSeed.getAndAdd(blockSize));
+
+		Set<Long> seeds = Collections.synchronizedSet(new HashSet<>());
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < threadCount; i++) {
+			threads.add(new Thread(() -> {
+				Context.setUserContext(userContext);
+				try {
+					for (int j = 0; j < callsPerThread; j++) {
+						seeds.add(orderService.getNextOrderNumberSeedSequenceValue());
+					}
+				}
+				finally {
+					Context.clearUserContext();
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(threadCount * callsPerThread, seeds.size());
+		verify(orderDAO, times(threadCount * callsPerThread / blockSize)).getNextOrderNumberSeedSequenceValues(blockSize);
+	}
+}
@@ -0,0 +1,192 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the throughput of {@link ChunkedPipe} with the queue of boxed bytes that
+ * {@link StreamDataService} used before. Run with <code>-Dopenmrs.benchmark=true</code>, the
+ * results are logged at info level.
+ */
+@EnabledIfSystemProperty(named = "openmrs.benchmark", matches = "true")
+public class ChunkedPipeBenchmarkTest {
+
+	private static final Logger log = LoggerFactory.getLogger(ChunkedPipeBenchmarkTest.class);
+
+	private static final int MEGABYTE = 1024 * 1024;
+
+	private static final int WARM_UP_ROUNDS = 2;
+
+	private static final int ROUNDS = 5;
+
+	private interface Pipe {
+
+		InputStream getInputStream();
+
+		OutputStream getOutputStream();
+	}
+
+	@Test
+	public void benchmark_bulkTransfer() throws Exception {
+		benchmark("bulk writes and reads of 8 KB", 64, 8192);
+	}
+
+	@Test
+	public void benchmark_byteByByteTransfer() throws Exception {
+		benchmark("single byte writes and reads", 16, 1);
+	}
+
+	private void benchmark(String name, int megabytes, int bufferSize) throws Exception {
+		double legacy = measure(LegacyQueuePipe::new, megabytes, bufferSize);
+		double chunked = measure(() -> {
+			ChunkedPipe pipe = new ChunkedPipe(StreamDataService.BUFFER_SIZE, StreamDataService.CHUNK_SIZE, 30,
+			        TimeUnit.SECONDS);
+			return new Pipe() {
+
+				@Override
+				public InputStream getInputStream() {
+					return pipe.getInputStream();
+				}
+
+				@Override
+				public OutputStream getOutputStream() {
+					return pipe.getOutputStream();
+				}
+			};
+		}, megabytes, bufferSize);
+		log.info("Streaming {} MB with {}: queue of boxed bytes {} MB/s, chunked pipe {} MB/s ({}x)", megabytes, name,
+		    String.format("%.1f", legacy), String.format("%.1f", chunked), String.format("%.1f", chunked / legacy));
+	}
+
+	private double measure(Supplier<Pipe> pipes, int megabytes, int bufferSize) throws Exception {
+		double best = 0;
+		for (int round = 0; round < WARM_UP_ROUNDS + ROUNDS; round++) {
+			long start = System.nanoTime();
+			long transferred = transfer(pipes.get(), (long) megabytes * MEGABYTE, bufferSize);
+			long nanos = System.nanoTime() - start;
+			assertEquals((long) megabytes * MEGABYTE, transferred);
+			if (round >= WARM_UP_ROUNDS) {
+				best = Math.max(best, megabytes / (nanos / 1e9));
+			}
+		}
+		return best;
+	}
+
+	private long transfer(Pipe pipe, long length, int bufferSize) throws Exception {
+		CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+			byte[] buffer = new byte[bufferSize];
+			try (OutputStream out = pipe.getOutputStream()) {
+				for (long written = 0; written < length; written += bufferSize) {
+					if (bufferSize == 1) {
+						out.write((int) written);
+					} else {
+						out.write(buffer, 0, bufferSize);
+					}
+				}
+			}
+			catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		});
+
+		InputStream in = pipe.getInputStream();
+		byte[] buffer = new byte[bufferSize];
+		long read = 0;
+		if (bufferSize == 1) {
+			while (in.read() != -1) {
+				read++;
+			}
+		} else {
+			int count;
+			while ((count = in.read(buffer, 0, bufferSize)) != -1) {
+				read += count;
+			}
+		}
+		writer.get();
+		return read;
+	}
+
+	/**
+	 * The pipe {@link StreamDataService} used before {@link ChunkedPipe}, moving one boxed byte at a
+	 * time through a blocking queue, kept here as the baseline
+	 */
+	private static class LegacyQueuePipe implements Pipe {
+
+		private final BlockingQueue<Integer> blockingQueue = new LinkedBlockingQueue<>(StreamDataService.BUFFER_SIZE);
+
+		private final long timeoutNanos = TimeUnit.SECONDS.toNanos(30);
+
+		@Override
+		public InputStream getInputStream() {
+			return new InputStream() {
+
+				@Override
+				public int read() throws IOException {
+					try {
+						Integer peek = blockingQueue.peek();
+						if (Integer.valueOf(-1).equals(peek)) {
+							return -1;
+						}
+						Integer value = blockingQueue.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+						if (value == null || value == -1) {
+							return -1;
+						}
+						return 255 & value;
+					}
+					catch (InterruptedException e) {
+						throw new IOException(e);
+					}
+				}
+			};
+		}
+
+		@Override
+		public OutputStream getOutputStream() {
+			return new OutputStream() {
+
+				@Override
+				public void write(int b) throws IOException {
+					offer(255 & b);
+				}
+
+				@Override
+				public void close() throws IOException {
+					offer(-1);
+				}
+
+				private void offer(int value) throws IOException {
+					try {
+						if (!blockingQueue.offer(value, timeoutNanos, TimeUnit.NANOSECONDS)) {
+							throw new IOException("Failed to write to full queue");
+						}
+					}
+					catch (InterruptedException e) {
+						throw new IOException(e);
+					}
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,157 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link ChunkedPipe}
+ */
+public class ChunkedPipeTest {
+
+	private static byte[] randomBytes(int length) {
+		byte[] data = new byte[length];
+		new Random(42).nextBytes(data);
+		return data;
+	}
+
+	@Test
+	public void read_shouldReturnAllBytesWrittenInBulkAndOneByOne() throws Exception {
+		byte[] data = randomBytes(100_000);
+		ChunkedPipe pipe = new ChunkedPipe(4096, 1000, 30, TimeUnit.SECONDS);
+
+		CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+			try (OutputStream out = pipe.getOutputStream()) {
+				out.write(data, 0, 50_000);
+				for (int i = 50_000; i < 60_000; i++) {
+					out.write(data[i]);
+				}
+				out.write(data, 60_000, data.length - 60_000);
+			}
+			catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		});
+
+		ByteArrayOutputStream read = new ByteArrayOutputStream();
+		InputStream in = pipe.getInputStream();
+		for (int i = 0; i < 30_000; i++) {
+			read.write(in.read());
+		}
+		IOUtils.copy(in, read);
+		writer.get(30, TimeUnit.SECONDS);
+
+		assertArrayEquals(data, read.toByteArray());
+		assertEquals(-1, in.read());
+		assertEquals(-1, in.read(new byte[10], 0, 10));
+	}
+
+	@Test
+	public void read_shouldReturnBytesHandedOverBeforeTheChunkIsFull() throws Exception {
+		ChunkedPipe pipe = new ChunkedPipe(4096, 1024, 30, TimeUnit.SECONDS);
+		OutputStream out = pipe.getOutputStream();
+
+		out.write(new byte[] { 1, 2, 3 });
+		out.flush();
+
+		byte[] read = new byte[10];
+		assertEquals(3, pipe.getInputStream().read(read, 0, read.length));
+		assertEquals(3, read[2]);
+	}
+
+	@Test
+	public void write_shouldBlockWhenThePipeIsFullUntilTheReaderCatchesUp() throws Exception {
+		ChunkedPipe pipe = new ChunkedPipe(2048, 1024, 30, TimeUnit.SECONDS);
+		CountDownLatch written = new CountDownLatch(1);
+
+		CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+			try (OutputStream out = pipe.getOutputStream()) {
+				out.write(new byte[3072]);
+				written.countDown();
+			}
+			catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		});
+
+		assertFalse(written.await(200, TimeUnit.MILLISECONDS));
+		assertEquals(3072, IOUtils.toByteArray(pipe.getInputStream()).length);
+		writer.get(30, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void write_shouldFailAndPropagateTheExceptionWhenThePipeStaysFull() throws Exception {
+		ChunkedPipe pipe = new ChunkedPipe(2048, 1024, 50, TimeUnit.MILLISECONDS);
+		OutputStream out = pipe.getOutputStream();
+
+		IOException exception = assertThrows(IOException.class, () -> out.write(new byte[3072]));
+
+		assertEquals("Failed to write to full queue", exception.getMessage());
+		assertSame(exception, assertThrows(IOException.class, () -> pipe.getInputStream().read()));
+	}
+
+	@Test
+	public void read_shouldFailWithTheExceptionPropagatedByTheWriter() throws Exception {
+		ChunkedPipe pipe = new ChunkedPipe(2048, 1024, 30, TimeUnit.SECONDS);
+		IOException failure = new IOException("Failed to write data in parallel");
+
+		CompletableFuture.runAsync(() -> {
+			try {
+				Thread.sleep(100);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			pipe.propagateStreamException(failure);
+		});
+
+		assertSame(failure, assertThrows(IOException.class, () -> pipe.getInputStream().read()));
+		assertSame(failure, assertThrows(IOException.class, () -> pipe.getInputStream().close()));
+		assertSame(failure, assertThrows(IOException.class, () -> pipe.getOutputStream().write(1)));
+	}
+
+	@Test
+	public void read_shouldEndTheStreamWhenNoDataArrivesWithinTheTimeout() throws Exception {
+		ChunkedPipe pipe = new ChunkedPipe(2048, 1024, 50, TimeUnit.MILLISECONDS);
+
+		assertEquals(-1, pipe.getInputStream().read());
+	}
+
+	@Test
+	public void write_shouldIgnoreBytesWrittenAfterClose() throws Exception {
+		ChunkedPipe pipe = new ChunkedPipe(2048, 1024, 30, TimeUnit.SECONDS);
+		OutputStream out = pipe.getOutputStream();
+
+		out.write(new byte[] { 1, 2 });
+		out.close();
+		out.write(3);
+		out.close();
+
+		assertArrayEquals(new byte[] { 1, 2 }, IOUtils.toByteArray(pipe.getInputStream()));
+		assertTrue(pipe.getInputStream().read() < 0);
+	}
+}
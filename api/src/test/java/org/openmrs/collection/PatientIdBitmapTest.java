@@ -0,0 +1,142 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.collection;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link PatientIdBitmap} class.
+ */
+public class PatientIdBitmapTest {
+	
+	@Test
+	public void add_shouldAddEachIdOnlyOnce() {
+		PatientIdBitmap bitmap = new PatientIdBitmap();
+		assertTrue(bitmap.add(7));
+		assertFalse(bitmap.add(7));
+		assertTrue(bitmap.add(70000));
+		
+		assertEquals(2, bitmap.size());
+		assertTrue(bitmap.contains(7));
+		assertTrue(bitmap.contains(70000));
+		assertFalse(bitmap.contains(8));
+	}
+	
+	@Test
+	public void add_shouldFailForNegativeIds() {
+		assertThrows(IllegalArgumentException.class, () -> new PatientIdBitmap().add(-1));
+	}
+	
+	@Test
+	public void remove_shouldRemoveIdsFromSparseAndDenseContainers() {
+		PatientIdBitmap bitmap = new PatientIdBitmap();
+		for (int i = 0; i < 10000; i++) {
+			bitmap.add(i);
+		}
+		bitmap.add(200000);
+		
+		assertTrue(bitmap.remove(5000));
+		assertFalse(bitmap.remove(5000));
+		assertTrue(bitmap.remove(200000));
+		
+		assertEquals(9999, bitmap.size());
+		assertFalse(bitmap.contains(5000));
+		assertFalse(bitmap.contains(200000));
+	}
+	
+	@Test
+	public void iterator_shouldReturnTheIdsInAscendingOrder() {
+		PatientIdBitmap bitmap = PatientIdBitmap.of(300000, 5, 65535, 65536, 1);
+		int[] expected = { 1, 5, 65535, 65536, 300000 };
+		
+		assertArrayEquals(expected, bitmap.toArray());
+		assertArrayEquals(expected, bitmap.stream().toArray());
+	}
+	
+	@Test
+	public void union_shouldMatchTheUnionOfTheIds() {
+		TreeSet<Integer> a = randomIds(1, 20000);
+		TreeSet<Integer> b = randomIds(2, 3000);
+		TreeSet<Integer> expected = new TreeSet<>(a);
+		expected.addAll(b);
+		
+		assertEquals(PatientIdBitmap.of(expected), PatientIdBitmap.union(PatientIdBitmap.of(a), PatientIdBitmap.of(b)));
+	}
+	
+	@Test
+	public void intersect_shouldMatchTheIntersectionOfTheIds() {
+		TreeSet<Integer> a = randomIds(3, 20000);
+		TreeSet<Integer> b = randomIds(4, 20000);
+		TreeSet<Integer> expected = new TreeSet<>(a);
+		expected.retainAll(b);
+		
+		PatientIdBitmap intersection = PatientIdBitmap.intersect(PatientIdBitmap.of(a), PatientIdBitmap.of(b));
+		assertEquals(PatientIdBitmap.of(expected), intersection);
+		assertEquals(expected.size(), intersection.size());
+	}
+	
+	@Test
+	public void subtract_shouldMatchTheDifferenceOfTheIds() {
+		TreeSet<Integer> a = randomIds(5, 20000);
+		TreeSet<Integer> b = randomIds(6, 3000);
+		TreeSet<Integer> expected = new TreeSet<>(a);
+		expected.removeAll(b);
+		
+		assertEquals(PatientIdBitmap.of(expected), PatientIdBitmap.subtract(PatientIdBitmap.of(a), PatientIdBitmap.of(b)));
+	}
+	
+	@Test
+	public void setOperations_shouldTreatNullAsEmpty() {
+		PatientIdBitmap bitmap = PatientIdBitmap.of(1, 2);
+		
+		assertEquals(bitmap, PatientIdBitmap.union(bitmap, null));
+		assertTrue(PatientIdBitmap.intersect(bitmap, null).isEmpty());
+		assertEquals(bitmap, PatientIdBitmap.subtract(bitmap, null));
+		assertTrue(PatientIdBitmap.subtract(null, bitmap).isEmpty());
+	}
+	
+	@Test
+	public void fromByteArray_shouldReadWhatToByteArrayWrote() {
+		PatientIdBitmap bitmap = PatientIdBitmap.of(randomIds(7, 50000));
+		
+		PatientIdBitmap read = PatientIdBitmap.fromByteArray(bitmap.toByteArray());
+		
+		assertEquals(bitmap, read);
+		assertArrayEquals(bitmap.toArray(), read.toArray());
+	}
+	
+	@Test
+	public void fromByteArray_shouldFailForBytesThatAreNotABitmap() {
+		assertThrows(IllegalArgumentException.class, () -> PatientIdBitmap.fromByteArray(new byte[] { 1, 2, 3 }));
+	}
+	
+	/**
+	 * @return random ids below 200000 that end up in both sparse and dense containers
+	 */
+	private TreeSet<Integer> randomIds(long seed, int count) {
+		Random random = new Random(seed);
+		TreeSet<Integer> ids = new TreeSet<>();
+		for (int i = 0; i < count; i++) {
+			ids.add(random.nextInt(200000));
+		}
+		ids.addAll(Arrays.asList(65535, 65536));
+		return ids;
+	}
+}
@@ -0,0 +1,91 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.hl7;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the partitioning of claimed messages in {@link HL7InQueueProcessor}
+ */
+public class HL7InQueueProcessorTest {
+
+	private static String message(String patientIdentifiers) {
+		return "MSH|^~\\&|FORMENTRY|AMRS.ELD|HL7LISTENER|AMRS.ELD|20080226102656||ORU^R01|JqnfhKKtouEz8kzTk6Zo|P|2.5\r"
+		        + "PID|||" + patientIdentifiers + "||John3^Doe^||\r" + "OBX|1|NM|5497^CD4, BY FACS^99DCT||450\r";
+	}
+
+	private static HL7InQueue queueItem(int id, String hl7Data) {
+		HL7InQueue hl7InQueue = new HL7InQueue();
+		hl7InQueue.setHL7InQueueId(id);
+		hl7InQueue.setHL7Data(hl7Data);
+		return hl7InQueue;
+	}
+
+	@Test
+	public void getPatientKey_shouldReturnTheFirstPatientIdentifier() {
+		assertEquals("3^^^^", HL7InQueueProcessor.getPatientKey(message("3^^^^")));
+		assertEquals("101-6^^^AMRS^MR", HL7InQueueProcessor.getPatientKey(message("101-6^^^AMRS^MR~7^^^^")));
+	}
+
+	@Test
+	public void getPatientKey_shouldReturnNullIfTheMessageHasNoPatientIdentifier() {
+		assertNull(HL7InQueueProcessor.getPatientKey(message("")));
+		assertNull(HL7InQueueProcessor.getPatientKey("a malformed hl7 message"));
+		assertNull(HL7InQueueProcessor.getPatientKey(null));
+	}
+
+	@Test
+	public void partition_shouldKeepTheMessagesOfAPatientTogetherInTheOrderTheyWereQueued() {
+		List<HL7InQueue> batch = new ArrayList<>();
+		for (int id = 1; id <= 40; id++) {
+			batch.add(queueItem(id, message((id % 5) + "^^^AMRS^MR")));
+		}
+
+		List<List<Integer>> partitions = HL7InQueueProcessor.partition(batch, 4);
+
+		assertTrue(partitions.size() <= 4);
+		int total = 0;
+		for (List<Integer> partition : partitions) {
+			total += partition.size();
+			List<Integer> sorted = new ArrayList<>(partition);
+			sorted.sort(null);
+			assertEquals(sorted, partition);
+		}
+		assertEquals(40, total);
+		for (int patient = 0; patient < 5; patient++) {
+			int partitionsOfPatient = 0;
+			for (List<Integer> partition : partitions) {
+				final int p = patient;
+				if (partition.stream().anyMatch(id -> id % 5 == p)) {
+					partitionsOfPatient++;
+				}
+			}
+			assertEquals(1, partitionsOfPatient);
+		}
+	}
+
+	@Test
+	public void partition_shouldSpreadMessagesWithoutPatientIdentifierById() {
+		List<HL7InQueue> batch = Arrays.asList(queueItem(1, "malformed"), queueItem(2, "malformed"),
+		    queueItem(3, "malformed"));
+
+		List<List<Integer>> partitions = HL7InQueueProcessor.partition(batch, 3);
+
+		assertEquals(3, partitions.size());
+	}
+}
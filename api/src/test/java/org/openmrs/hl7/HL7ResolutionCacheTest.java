@@ -0,0 +1,113 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.hl7;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tests {@link HL7ResolutionCache}
+ */
+public class HL7ResolutionCacheTest {
+
+	private HL7ResolutionCache resolutionCache;
+
+	private final AtomicInteger lookups = new AtomicInteger();
+
+	@BeforeEach
+	public void setUp() {
+		resolutionCache = new HL7ResolutionCache();
+		resolutionCache.setCacheManager(new ConcurrentMapCacheManager(HL7ResolutionCache.LOCATION_IDS,
+		        HL7ResolutionCache.USER_IDS));
+	}
+
+	private Integer lookUp(Integer id) {
+		lookups.incrementAndGet();
+		return id;
+	}
+
+	@Test
+	public void resolve_shouldLookUpAnIdOnlyOnce() throws Exception {
+		String key = HL7ResolutionCache.key("1", "Test Location");
+
+		assertEquals(Integer.valueOf(1), resolutionCache.resolve(HL7ResolutionCache.LOCATION_IDS, key, () -> lookUp(1)));
+		assertEquals(Integer.valueOf(1), resolutionCache.resolve(HL7ResolutionCache.LOCATION_IDS, key, () -> lookUp(2)));
+
+		assertEquals(1, lookups.get());
+	}
+
+	@Test
+	public void resolve_shouldNotCacheObjectsThatCouldNotBeResolved() throws Exception {
+		String key = HL7ResolutionCache.key("unknown");
+
+		assertNull(resolutionCache.resolve(HL7ResolutionCache.USER_IDS, key, () -> lookUp(null)));
+		assertEquals(Integer.valueOf(3), resolutionCache.resolve(HL7ResolutionCache.USER_IDS, key, () -> lookUp(3)));
+
+		assertEquals(2, lookups.get());
+	}
+
+	@Test
+	public void resolve_shouldLookUpIdsWithoutCacheIfTheCacheDoesNotExist() throws Exception {
+		String key = HL7ResolutionCache.key("1");
+
+		resolutionCache.resolve(HL7ResolutionCache.PROVIDER_IDS, key, () -> lookUp(1));
+		resolutionCache.resolve(HL7ResolutionCache.PROVIDER_IDS, key, () -> lookUp(1));
+
+		assertEquals(2, lookups.get());
+	}
+
+	@Test
+	public void clear_shouldEvictAllResolvedIds() throws Exception {
+		String key = HL7ResolutionCache.key("1");
+		resolutionCache.resolve(HL7ResolutionCache.LOCATION_IDS, key, () -> lookUp(1));
+
+		resolutionCache.clear();
+
+		assertEquals(Integer.valueOf(2), resolutionCache.resolve(HL7ResolutionCache.LOCATION_IDS, key, () -> lookUp(2)));
+	}
+
+	@Test
+	public void evict_shouldEvictTheCacheAgainOnceTheTransactionCompletes() throws Exception {
+		String key = HL7ResolutionCache.key("1");
+		resolutionCache.resolve(HL7ResolutionCache.LOCATION_IDS, key, () -> lookUp(1));
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			resolutionCache.evict(HL7ResolutionCache.LOCATION_IDS);
+			// another thread resolves the id before the change is committed
+			assertEquals(Integer.valueOf(1), resolutionCache.resolve(HL7ResolutionCache.LOCATION_IDS, key, () -> lookUp(1)));
+
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+				synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+			}
+		}
+		finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		assertEquals(Integer.valueOf(2), resolutionCache.resolve(HL7ResolutionCache.LOCATION_IDS, key, () -> lookUp(2)));
+		assertEquals(3, lookups.get());
+	}
+
+	@Test
+	public void key_shouldKeepValuesContainingTheSeparatorApart() {
+		assertNotEquals(HL7ResolutionCache.key("a|b", "c"), HL7ResolutionCache.key("a", "b|c"));
+		assertNotEquals(HL7ResolutionCache.key(null, "a"), HL7ResolutionCache.key("a", null));
+	}
+}
@@ -22,6 +22,7 @@ import static org.openmrs.util.OpenmrsUtil.deleteDirectory;
 import java.io.File;
 import java.io.IOException;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Properties;
@@ -40,6 +41,7 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.openmrs.Concept;
 import org.openmrs.GlobalProperty;
+import org.openmrs.Location;
 import org.openmrs.Obs;
 import org.openmrs.Patient;
 import org.openmrs.Person;
@@ -139,6 +141,114 @@ public class HL7ServiceTest extends BaseContextSensitiveTest {
 		assertThrows(HL7Exception.class, () -> hl7service.processHL7InQueue(queueItem));
 	}
 	
+	/**
+	 * @see HL7Service#claimHL7InQueues(int)
+	 */
+	@Test
+	public void claimHL7InQueues_shouldMarkTheClaimedQueueItemsAsProcessing() {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		
+		HL7Service hl7service = Context.getHL7Service();
+		List<HL7InQueue> claimed = hl7service.claimHL7InQueues(1);
+		
+		assertEquals(1, claimed.size());
+		assertEquals(1, claimed.get(0).getHL7InQueueId());
+		assertEquals(HL7Constants.HL7_STATUS_PROCESSING, claimed.get(0).getMessageState());
+		Context.flushSession();
+		Context.clearSession();
+		assertEquals(HL7Constants.HL7_STATUS_PROCESSING, hl7service.getHL7InQueue(1).getMessageState());
+		assertEquals(HL7Constants.HL7_STATUS_PENDING, hl7service.getHL7InQueue(2).getMessageState());
+	}
+	
+	/**
+	 * @see HL7Service#claimHL7InQueues(int)
+	 */
+	@Test
+	public void claimHL7InQueues_shouldNotClaimQueueItemsThatAreAlreadyClaimed() {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		
+		HL7Service hl7service = Context.getHL7Service();
+		hl7service.claimHL7InQueues(1);
+		List<HL7InQueue> claimed = hl7service.claimHL7InQueues(10);
+		
+		assertEquals(1, claimed.size());
+		assertEquals(2, claimed.get(0).getHL7InQueueId());
+		assertTrue(hl7service.claimHL7InQueues(10).isEmpty());
+	}
+	
+	/**
+	 * @see HL7Service#claimHL7InQueues(int)
+	 */
+	@Test
+	public void claimHL7InQueues_shouldClaimQueueItemsWhoseClaimHasExpired() {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		
+		HL7Service hl7service = Context.getHL7Service();
+		hl7service.claimHL7InQueues(10);
+		assertTrue(hl7service.claimHL7InQueues(10).isEmpty());
+		Context.getAdministrationService().executeSQL(
+		    "update hl7_in_queue set date_claimed = '2000-01-01 00:00:00' where hl7_in_queue_id = 1", false);
+		
+		List<HL7InQueue> claimed = hl7service.claimHL7InQueues(10);
+		
+		assertEquals(1, claimed.size());
+		assertEquals(1, claimed.get(0).getHL7InQueueId());
+		assertNotNull(claimed.get(0).getDateClaimed());
+	}
+	
+	/**
+	 * @see HL7Service#releaseHL7InQueues(List)
+	 */
+	@Test
+	public void releaseHL7InQueues_shouldMoveClaimedQueueItemsBackToPending() {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		
+		HL7Service hl7service = Context.getHL7Service();
+		hl7service.claimHL7InQueues(10);
+		hl7service.releaseHL7InQueues(Collections.singletonList(1));
+		
+		assertEquals(HL7Constants.HL7_STATUS_PENDING, hl7service.getHL7InQueue(1).getMessageState());
+		assertNull(hl7service.getHL7InQueue(1).getDateClaimed());
+		assertEquals(HL7Constants.HL7_STATUS_PROCESSING, hl7service.getHL7InQueue(2).getMessageState());
+		List<HL7InQueue> claimed = hl7service.claimHL7InQueues(10);
+		assertEquals(1, claimed.size());
+		assertEquals(1, claimed.get(0).getHL7InQueueId());
+	}
+	
+	/**
+	 * @throws HL7Exception
+	 * @see HL7Service#processClaimedHL7InQueue(HL7InQueue)
+	 */
+	@Test
+	public void processClaimedHL7InQueue_shouldCreateHL7InArchiveAfterSuccessfulParsing() throws HL7Exception, IOException {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		
+		File tempDir = new File(System.getProperty("java.io.tmpdir"), HL7Constants.HL7_ARCHIVE_DIRECTORY_NAME);
+		if (tempDir.exists() && tempDir.isDirectory())
+			assertTrue(deleteDirectory(tempDir));
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_HL7_ARCHIVE_DIRECTORY, tempDir.getAbsolutePath()));
+		
+		HL7Service hl7service = Context.getHL7Service();
+		HL7InQueue claimed = hl7service.claimHL7InQueues(1).get(0);
+		hl7service.processClaimedHL7InQueue(claimed);
+		
+		assertEquals(1, hl7service.getAllHL7InArchives().size());
+		assertNull(hl7service.getHL7InQueue(1));
+	}
+	
+	/**
+	 * @see HL7Service#processClaimedHL7InQueue(HL7InQueue)
+	 */
+	@Test
+	public void processClaimedHL7InQueue_shouldFailIfGivenInQueueIsNotMarkedAsProcessing() {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		
+		HL7Service hl7service = Context.getHL7Service();
+		HL7InQueue queueItem = hl7service.getHL7InQueue(1);
+		assertThrows(HL7Exception.class, () -> hl7service.processClaimedHL7InQueue(queueItem));
+	}
+	
 	/**
 	 * @throws HL7Exception
 	 * @see HL7Service#processHL7Message(Message)
@@ -650,6 +760,31 @@ public class HL7ServiceTest extends BaseContextSensitiveTest {
 		hl7service.getUuidFromIdentifiers(identifiers);
 	}
 	
+	/**
+	 * @see HL7Service#resolveLocationId(PL)
+	 */
+	@Test
+	public void resolveLocationId_shouldNotResolveACachedLocationAfterItIsRenamed() throws HL7Exception {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		HL7Service hl7service = Context.getHL7Service();
+		ORU_R01 oru = (ORU_R01) hl7service
+		        .parseHL7String("MSH|^~\\&|FORMENTRY|AMRS.ELD|HL7LISTENER|AMRS.ELD|20080226102656||ORU^R01|JqnfhKKtouEz8kzTk6Zo|P|2.5|1||||||||16^AMRS.ELD.FORMID\r"
+		                + "PID|||3^^^^||John3^Doe^||\r"
+		                + "PV1||O|99999^0^0^0&Test Location&0||||1^Super User (1-8)|||||||||||||||||||||||||||||||||||||20080212|||||||V\r"
+		                + "ORC|RE||||||||20080226102537|1^Super User\r"
+		                + "OBR|1|||1238^MEDICAL RECORD OBSERVATIONS^99DCT\r"
+		                + "OBX|1|NM|5497^CD4, BY FACS^99DCT||450|||||||||20080206");
+		PL hl7Location = oru.getPATIENT_RESULT().getPATIENT().getVISIT().getPV1().getAssignedPatientLocation();
+		assertEquals(Integer.valueOf(1), hl7service.resolveLocationId(hl7Location));
+		assertEquals(Integer.valueOf(1), hl7service.resolveLocationId(hl7Location));
+		
+		Location location = Context.getLocationService().getLocation(1);
+		location.setName("Renamed Location");
+		Context.getLocationService().saveLocation(location);
+		
+		assertNull(hl7service.resolveLocationId(hl7Location));
+	}
+	
 	/**
 	 * @throws HL7Exception
 	 * @see HL7Service#resolveLocationId(ca.uhn.hl7v2.model.v25.datatype.PL)
@@ -775,6 +910,28 @@ public class HL7ServiceTest extends BaseContextSensitiveTest {
 		assertThat(userId, is(501));
 	}
 	
+	/**
+	 * @see HL7Service#resolveUserId(ca.uhn.hl7v2.model.v25.datatype.XCN)
+	 */
+	@Test
+	public void resolveUserId_shouldNotResolveACachedUserAfterTheirNameIsChanged() throws HL7Exception {
+		HL7Service hl7service = Context.getHL7Service();
+		ORU_R01 oru = (ORU_R01) hl7service
+		        .parseHL7String("MSH|^~\\&|FORMENTRY|AMRS.ELD|HL7LISTENER|AMRS.ELD|20080226102656||ORU^R01|JqnfhKKtouEz8kzTk6Zo|P|2.5|1||||||||16^AMRS.ELD.FORMID\r"
+		                + "PID|||3^^^^||John3^Doe^||\r"
+		                + "ORC|RE||||||||20080226102537|^Otterbourg^Bruno\r"
+		                + "OBR|1|||1238^MEDICAL RECORD OBSERVATIONS^99DCT\r"
+		                + "OBX|1|NM|5497^CD4, BY FACS^99DCT||450|||||||||20080206");
+		XCN xcn = oru.getPATIENT_RESULT().getORDER_OBSERVATION().getORC().getEnteredBy(0);
+		assertThat(hl7service.resolveUserId(xcn), is(501));
+		
+		Person person = Context.getUserService().getUser(501).getPerson();
+		person.getPersonName().setFamilyName("Renamed");
+		Context.getPersonService().savePerson(person);
+		
+		assertNull(hl7service.resolveUserId(xcn));
+	}
+	
 	/**
 	 * @throws HL7Exception
 	 * @see HL7Service#resolveUserId(ca.uhn.hl7v2.model.v25.datatype.XCN)
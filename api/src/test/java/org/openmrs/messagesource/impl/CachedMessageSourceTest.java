@@ -10,6 +10,7 @@
 package org.openmrs.messagesource.impl;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.util.Locale;
 
@@ -59,4 +60,36 @@ public class CachedMessageSourceTest {
 		assertEquals(valueAsString, valueAsPM.getMessage());
 	}
 	
+	/**
+	 * @see CachedMessageSource#getMessage(String, Object[], Locale)
+	 */
+	@Test
+	public void getMessage_shouldOnlyResolveMessagesInTheRequestedLocale() {
+		CachedMessageSource cachedMessages = new CachedMessageSource();
+		cachedMessages.addPresentation(new PresentationMessage("patient.greeting", Locale.ENGLISH, "Hello {0}", ""));
+		cachedMessages.addPresentation(new PresentationMessage("patient.greeting", Locale.UK, "Hiya {0}", ""));
+		
+		assertEquals("Hiya Alex", cachedMessages.getMessage("patient.greeting", new Object[] { "Alex" }, Locale.UK));
+		assertEquals("Hello Alex", cachedMessages.getMessage("patient.greeting", new Object[] { "Alex" }, Locale.ENGLISH));
+		assertEquals("none", cachedMessages.getMessage("patient.greeting", null, "none", Locale.US));
+	}
+	
+	/**
+	 * @see CachedMessageSource#removePresentation(PresentationMessage)
+	 */
+	@Test
+	public void removePresentation_shouldOnlyRemoveTheMessageInTheGivenLocale() {
+		CachedMessageSource cachedMessages = new CachedMessageSource();
+		PresentationMessage english = new PresentationMessage("uuid.not.unique", Locale.ENGLISH, "it''s not unique", "");
+		cachedMessages.addPresentation(english);
+		cachedMessages.addPresentation(new PresentationMessage("uuid.not.unique", Locale.FRENCH, "pas unique", ""));
+		assertEquals("it's not unique", cachedMessages.getMessage("uuid.not.unique", null, Locale.ENGLISH));
+		
+		cachedMessages.removePresentation(english);
+		
+		assertEquals(1, cachedMessages.getLocales().size());
+		assertEquals(1, cachedMessages.getPresentations().size());
+		assertNull(cachedMessages.getPresentation("uuid.not.unique", Locale.ENGLISH));
+		assertEquals("pas unique", cachedMessages.getMessage("uuid.not.unique", null, Locale.FRENCH));
+	}
 }
@@ -0,0 +1,118 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.messagesource.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+import org.openmrs.messagesource.PresentationMessage;
+
+/**
+ * Tests {@link MutableResourceBundleMessageSource}.
+ */
+public class MutableResourceBundleMessageSourceTest {
+	
+	private static final String BASENAME = "classpath:org/openmrs/messagesource/impl/testmessages";
+	
+	private static final String CUSTOM_BASENAME = "classpath:org/openmrs/messagesource/impl/custom_testmessages";
+	
+	private static final Locale AUSTRIA = new Locale("de", "AT");
+	
+	/**
+	 * @see MutableResourceBundleMessageSource#getMessage(String, Object[], Locale)
+	 */
+	@Test
+	public void getMessage_shouldResolveMessagesInTheOrderOfTheBasenamesAndLocales() {
+		MutableResourceBundleMessageSource messageSource = newMessageSource(-1);
+		
+		assertEquals("Servus Alex", messageSource.getMessage("patient.greeting", new Object[] { "Alex" }, AUSTRIA));
+		assertEquals("Hallo Alex", messageSource.getMessage("patient.greeting", new Object[] { "Alex" }, Locale.GERMANY));
+		assertEquals("Hello Alex", messageSource.getMessage("patient.greeting", new Object[] { "Alex" }, Locale.FRENCH));
+		// any file of an earlier basename takes precedence over the more specific files of later ones
+		assertEquals("Auf Wiedersehen", messageSource.getMessage("patient.farewell", null, AUSTRIA));
+		assertEquals("Goodbye", messageSource.getMessage("patient.farewell", null, Locale.FRENCH));
+	}
+	
+	/**
+	 * @see MutableResourceBundleMessageSource#getMessage(String, Object[], Locale)
+	 */
+	@Test
+	public void getMessage_shouldNotFormatMessagesWithoutArguments() {
+		MutableResourceBundleMessageSource messageSource = newMessageSource(-1);
+		
+		assertEquals("it''s here", messageSource.getMessage("patient.quoted", null, Locale.ENGLISH));
+	}
+	
+	/**
+	 * @see MutableResourceBundleMessageSource#getMessage(String, Object[], Locale)
+	 */
+	@Test
+	public void getMessage_shouldFormatArgumentsLikeCachedMessageSource() {
+		MutableResourceBundleMessageSource messageSource = newMessageSource(-1);
+		CachedMessageSource cachedMessages = new CachedMessageSource();
+		cachedMessages.addPresentation(new PresentationMessage("patient.count", Locale.GERMANY, "{0,number} Patienten", ""));
+		Object[] args = { 1234 };
+		
+		assertEquals("1.234 Patienten", messageSource.getMessage("patient.count", args, Locale.GERMANY));
+		assertEquals("1,234 patients", messageSource.getMessage("patient.count", args, Locale.ENGLISH));
+		assertEquals(messageSource.getMessage("patient.count", args, Locale.GERMANY),
+		    cachedMessages.getMessage("patient.count", args, Locale.GERMANY));
+	}
+	
+	/**
+	 * @see MutableResourceBundleMessageSource#getMessage(String, Object[], String, Locale)
+	 */
+	@Test
+	public void getMessage_shouldResolveTheSameMessagesAsTheUncompiledResourceBundles() {
+		MutableResourceBundleMessageSource compiled = newMessageSource(-1);
+		// with cache seconds of 0 every lookup reads the properties files
+		MutableResourceBundleMessageSource uncompiled = newMessageSource(0);
+		
+		List<String> codes = Arrays.asList("patient.greeting", "patient.farewell", "patient.quoted", "patient.count",
+		    "patient.unknown");
+		List<Locale> locales = Arrays.asList(Locale.ROOT, Locale.ENGLISH, Locale.GERMAN, Locale.GERMANY, AUSTRIA,
+		    Locale.FRENCH);
+		for (String code : codes) {
+			for (Locale locale : locales) {
+				for (Object[] args : Arrays.asList(null, new Object[] { 1234 })) {
+					assertEquals(uncompiled.getMessage(code, args, "missing", locale),
+					    compiled.getMessage(code, args, "missing", locale), code + " in " + locale);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @see MutableResourceBundleMessageSource#clearCache()
+	 */
+	@Test
+	public void clearCache_shouldKeepResolvingMessages() {
+		MutableResourceBundleMessageSource messageSource = newMessageSource(-1);
+		assertEquals("Hallo Alex", messageSource.getMessage("patient.greeting", new Object[] { "Alex" }, Locale.GERMAN));
+		
+		messageSource.clearCache();
+		
+		assertEquals("Hallo Alex", messageSource.getMessage("patient.greeting", new Object[] { "Alex" }, Locale.GERMAN));
+	}
+	
+	private MutableResourceBundleMessageSource newMessageSource(int cacheSeconds) {
+		MutableResourceBundleMessageSource messageSource = new MutableResourceBundleMessageSource();
+		messageSource.setBasenames(CUSTOM_BASENAME, BASENAME);
+		// so that the results do not depend on the locale of the machine running the test
+		messageSource.setFallbackToSystemLocale(false);
+		messageSource.setDefaultEncoding("UTF-8");
+		messageSource.setCacheSeconds(cacheSeconds);
+		return messageSource;
+	}
+}
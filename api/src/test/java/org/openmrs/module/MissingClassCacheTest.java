@@ -0,0 +1,53 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class MissingClassCacheTest {
+
+	/**
+	 * @see MissingClassCache#isMissing(String)
+	 */
+	@Test
+	public void isMissing_shouldReturnTrueForAClassAddedWithTheCurrentVersion() {
+		MissingClassCache cache = new MissingClassCache();
+		cache.addMissing("org.openmrs.Missing", ModuleFactory.getProvidedPackagesVersion());
+
+		assertTrue(cache.isMissing("org.openmrs.Missing"));
+		assertFalse(cache.isMissing("org.openmrs.Other"));
+	}
+
+	/**
+	 * @see MissingClassCache#isMissing(String)
+	 */
+	@Test
+	public void isMissing_shouldReturnFalseIfModulesChangedSinceTheClassWasAdded() {
+		MissingClassCache cache = new MissingClassCache();
+		cache.addMissing("org.openmrs.Missing", ModuleFactory.getProvidedPackagesVersion() - 1);
+
+		assertFalse(cache.isMissing("org.openmrs.Missing"));
+	}
+
+	/**
+	 * @see MissingClassCache#clear()
+	 */
+	@Test
+	public void clear_shouldForgetMissingClasses() {
+		MissingClassCache cache = new MissingClassCache();
+		cache.addMissing("org.openmrs.Missing", ModuleFactory.getProvidedPackagesVersion());
+		cache.clear();
+
+		assertFalse(cache.isMissing("org.openmrs.Missing"));
+	}
+}
@@ -0,0 +1,155 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openmrs.api.APIException;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.context.ServiceContext;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+/**
+ * Tests starting and stopping the beans of a module in a child application context of its own
+ *
+ * @see ModuleUtil#startModuleApplicationContext(org.springframework.context.support.AbstractRefreshableConfigApplicationContext,
+ *      org.springframework.context.ApplicationContext, Module)
+ */
+public class ModuleApplicationContextTest extends BaseContextSensitiveTest {
+
+	private static final String MODULE1_PATH = "org/openmrs/module/include/test1-1.0-SNAPSHOT.omod";
+
+	private static final String MODULE2 = "test2";
+
+	private static final String MODULE2_PATH = "org/openmrs/module/include/test2-1.0-SNAPSHOT.omod";
+
+	private static final String MODULE2_SERVICE = "org.openmrs.module.test2.api.Test2Service";
+
+	private Module test2;
+
+	private Class<?> test2ServiceClass;
+
+	@BeforeEach
+	public void before() throws Exception {
+		ModuleUtil.shutdown();
+		runtimeProperties.setProperty(ModuleConstants.RUNTIMEPROPERTY_MODULE_LIST_TO_LOAD, MODULE1_PATH + " "
+		        + MODULE2_PATH);
+		ModuleUtil.startup(runtimeProperties);
+
+		test2 = ModuleFactory.getStartedModuleById(MODULE2);
+		assertNotNull(test2);
+		test2ServiceClass = ModuleFactory.getModuleClassLoader(test2).loadClass(MODULE2_SERVICE);
+		assertThrows(APIException.class, () -> Context.getService(test2ServiceClass));
+	}
+
+	@AfterEach
+	public void closeModuleApplicationContexts() {
+		ModuleUtil.closeModuleApplicationContexts();
+		ServiceContext.getInstance().removeModuleServices(test2.getPackageName());
+	}
+
+	@AfterAll
+	public static void cleanUp() {
+		//ensure that we do not have any left overs to interfere with other tests
+		ModuleUtil.shutdown();
+		runtimeProperties.remove(ModuleConstants.RUNTIMEPROPERTY_MODULE_LIST_TO_LOAD);
+	}
+
+	@Test
+	public void startModuleApplicationContext_shouldLoadTheBeansOfTheModuleIntoAChildApplicationContext() {
+		ConfigurableApplicationContext moduleApplicationContext = ModuleUtil.startModuleApplicationContext(
+		    new ClassPathXmlApplicationContext(), applicationContext, test2);
+
+		assertNotNull(moduleApplicationContext);
+		assertTrue(moduleApplicationContext.isActive());
+		assertSame(applicationContext, moduleApplicationContext.getParent());
+		assertSame(moduleApplicationContext, ServiceContext.getInstance().getModuleApplicationContext(MODULE2));
+		assertNotNull(Context.getService(test2ServiceClass));
+	}
+
+	@Test
+	public void startModuleApplicationContext_shouldCloseTheChildApplicationContextAndReturnNullIfItFailsToRefresh() {
+		ClassPathXmlApplicationContext failingApplicationContext = new ClassPathXmlApplicationContext() {
+
+			@Override
+			protected void finishRefresh() {
+				throw new IllegalStateException("the module's beans cannot be served");
+			}
+		};
+
+		assertNull(ModuleUtil.startModuleApplicationContext(failingApplicationContext, applicationContext, test2));
+
+		assertFalse(failingApplicationContext.isActive());
+		assertNull(ServiceContext.getInstance().getModuleApplicationContext(MODULE2));
+		// the services the module's beans set before the failure are removed, the core ones are kept
+		assertThrows(APIException.class, () -> Context.getService(test2ServiceClass));
+		assertNotNull(Context.getPatientService().getPatient(2));
+	}
+
+	@Test
+	public void stopModuleApplicationContext_shouldCloseTheChildApplicationContextAndRemoveTheModuleServices() {
+		ConfigurableApplicationContext moduleApplicationContext = ModuleUtil.startModuleApplicationContext(
+		    new ClassPathXmlApplicationContext(), applicationContext, test2);
+		assertNotNull(moduleApplicationContext);
+
+		assertTrue(ModuleUtil.stopModuleApplicationContext(test2));
+
+		assertFalse(moduleApplicationContext.isActive());
+		assertNull(ServiceContext.getInstance().getModuleApplicationContext(MODULE2));
+		assertThrows(APIException.class, () -> Context.getService(test2ServiceClass));
+		// closing the child application context must not destroy the service context it set the services on
+		assertNotNull(Context.getPatientService().getPatient(2));
+	}
+
+	@Test
+	public void stopModuleApplicationContext_shouldReturnFalseIfTheModuleHasNoChildApplicationContext() {
+		assertFalse(ModuleUtil.stopModuleApplicationContext(test2));
+
+		ModuleUtil.startModuleApplicationContext(new ClassPathXmlApplicationContext(), applicationContext, test2);
+		assertTrue(ModuleUtil.stopModuleApplicationContext(test2));
+		assertFalse(ModuleUtil.stopModuleApplicationContext(test2));
+	}
+
+	@Test
+	public void closeModuleApplicationContexts_shouldCloseAndUnregisterTheChildApplicationContextsOfAllModules() {
+		ConfigurableApplicationContext moduleApplicationContext = ModuleUtil.startModuleApplicationContext(
+		    new ClassPathXmlApplicationContext(), applicationContext, test2);
+		assertNotNull(moduleApplicationContext);
+
+		ModuleUtil.closeModuleApplicationContexts();
+
+		assertFalse(moduleApplicationContext.isActive());
+		assertTrue(ServiceContext.getInstance().getModuleApplicationContexts().isEmpty());
+		assertFalse(ModuleUtil.stopModuleApplicationContext(test2));
+		assertNotNull(Context.getPatientService().getPatient(2));
+	}
+
+	@Test
+	public void loadModuleBeanDefinitions_shouldLoadTheBeanDefinitionsOfTheModuleWithoutCreatingTheBeans() {
+		ConfigurableListableBeanFactory beanFactory = ModuleUtil.loadModuleBeanDefinitions(test2, applicationContext);
+
+		assertTrue(beanFactory.containsBeanDefinition("test2ManageController"));
+		assertFalse(beanFactory.containsSingleton("test2ManageController"));
+		assertThrows(APIException.class, () -> Context.getService(test2ServiceClass));
+		assertNull(ServiceContext.getInstance().getModuleApplicationContext(MODULE2));
+	}
+}
@@ -18,11 +18,17 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.openmrs.GlobalProperty;
+import org.openmrs.api.AdministrationService;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.context.UserContext;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
 
 public class ModuleFactoryTest extends BaseContextSensitiveTest {
@@ -179,6 +185,66 @@ public class ModuleFactoryTest extends BaseContextSensitiveTest {
 		assertFalse(test3.isStarted());
 	}
 	
+	@Test
+	public void getModulesInStartupWaves_shouldStartModulesAfterTheModulesTheyRequire() throws Exception {
+		ModuleFactory.unloadModule(ModuleFactory.getModuleById(MODULE1));
+		
+		ModuleFactory.loadModules(getModuleFiles());
+		Module test1 = ModuleFactory.getModuleById(MODULE1);
+		Module test2 = ModuleFactory.getModuleById(MODULE2);
+		Module test3 = ModuleFactory.getModuleById(MODULE3);
+		
+		List<List<Module>> waves = ModuleFactory.getModulesInStartupWaves(ModuleFactory.getLoadedModules());
+		
+		assertEquals(2, waves.size());
+		assertEquals(Collections.singletonList(test1), waves.get(0));
+		assertEquals(2, waves.get(1).size());
+		assertTrue(waves.get(1).containsAll(Arrays.asList(test2, test3)));
+	}
+	
+	@Test
+	public void startModules_shouldStartTheModulesOfAWaveInParallel() throws Exception {
+		ModuleFactory.unloadModule(ModuleFactory.getModuleById(MODULE1));
+		ModuleFactory.loadModules(getModuleFiles());
+		runtimeProperties.setProperty(ModuleConstants.RUNTIMEPROPERTY_STARTUP_THREADS, "2");
+		try {
+			ModuleFactory.startModules();
+			
+			for (String moduleId : Arrays.asList(MODULE1, MODULE2, MODULE3)) {
+				Module module = ModuleFactory.getModuleById(moduleId);
+				assertNull(module.getStartupErrorMessage());
+				assertTrue(module.isStarted());
+			}
+		}
+		finally {
+			runtimeProperties.remove(ModuleConstants.RUNTIMEPROPERTY_STARTUP_THREADS);
+			// the startup threads committed their changes, which the test transaction does not roll back
+			purgeGlobalPropertiesInNewSession(MODULE2 + ".started", MODULE3 + ".started");
+		}
+	}
+	
+	private void purgeGlobalPropertiesInNewSession(String... properties) throws InterruptedException {
+		UserContext userContext = Context.getUserContext();
+		Thread cleanup = new Thread(() -> {
+			Context.openSession();
+			try {
+				Context.setUserContext(userContext);
+				AdministrationService administrationService = Context.getAdministrationService();
+				for (String property : properties) {
+					GlobalProperty globalProperty = administrationService.getGlobalPropertyObject(property);
+					if (globalProperty != null) {
+						administrationService.purgeGlobalProperty(globalProperty);
+					}
+				}
+			}
+			finally {
+				Context.closeSession();
+			}
+		});
+		cleanup.start();
+		cleanup.join();
+	}
+	
 	private Module loadModule(String location, String moduleName, boolean replace) {
 		String moduleLocation = ModuleUtil.class.getClassLoader().getResource(location).getPath();
 
@@ -0,0 +1,104 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.patient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.openmrs.Patient;
+import org.openmrs.PatientIdentifier;
+import org.openmrs.PersonName;
+import org.openmrs.api.db.PatientDuplicateKey;
+
+/**
+ * Tests the {@link DuplicatePatientKeyGenerator}
+ */
+public class DuplicatePatientKeyGeneratorTest {
+	
+	/**
+	 * @see DuplicatePatientKeyGenerator#soundex(String)
+	 */
+	@Test
+	public void soundex_shouldEncodeNamesThatSoundAlikeTheSameWay() {
+		assertEquals("R163", DuplicatePatientKeyGenerator.soundex("Robert"));
+		assertEquals("R163", DuplicatePatientKeyGenerator.soundex("Rupert"));
+		assertEquals("A261", DuplicatePatientKeyGenerator.soundex("Ashcraft"));
+		assertEquals("P236", DuplicatePatientKeyGenerator.soundex("Pfister"));
+		assertEquals("T522", DuplicatePatientKeyGenerator.soundex("Tymczak"));
+		assertEquals("L000", DuplicatePatientKeyGenerator.soundex("Lee"));
+		assertEquals("E540", DuplicatePatientKeyGenerator.soundex("Émile"));
+		assertNull(DuplicatePatientKeyGenerator.soundex("-"));
+	}
+	
+	/**
+	 * @see DuplicatePatientKeyGenerator#normalizeIdentifier(String)
+	 */
+	@Test
+	public void normalizeIdentifier_shouldRemoveCaseSpacesAndPunctuation() {
+		assertEquals("ABC123", DuplicatePatientKeyGenerator.normalizeIdentifier(" abc-12 3 "));
+		assertNull(DuplicatePatientKeyGenerator.normalizeIdentifier("--"));
+	}
+	
+	/**
+	 * @see DuplicatePatientKeyGenerator#getKeys(Patient)
+	 */
+	@Test
+	public void getKeys_shouldComputeAKeyOfEachKind() {
+		List<String> keys = DuplicatePatientKeyGenerator.getKeys(createPatient()).stream()
+		        .map(key -> key.getKeyType() + "=" + key.getKeyValue()).collect(Collectors.toList());
+		
+		assertEquals(4, keys.size());
+		assertTrue(keys.contains("identifier=ABC123"));
+		assertTrue(keys.contains("name_birthdate=R163A26119800517"));
+		assertTrue(keys.contains("family_birthdate_gender=A26119800517M"));
+		assertTrue(keys.contains("name_gender_birth_year=R163A261M1980"));
+	}
+	
+	/**
+	 * @see DuplicatePatientKeyGenerator#getKeys(Patient)
+	 */
+	@Test
+	public void getKeys_shouldSkipVoidedNamesAndIdentifiers() {
+		Patient patient = createPatient();
+		patient.getPersonName().setVoided(true);
+		patient.getPatientIdentifier().setVoided(true);
+		
+		assertTrue(DuplicatePatientKeyGenerator.getKeys(patient).isEmpty());
+	}
+	
+	/**
+	 * @see DuplicatePatientKeyGenerator#getKeys(Patient)
+	 */
+	@Test
+	public void getKeys_shouldReturnNoKeysForAVoidedPatient() {
+		Patient patient = createPatient();
+		patient.setVoided(true);
+		
+		List<PatientDuplicateKey> keys = DuplicatePatientKeyGenerator.getKeys(patient);
+		
+		assertTrue(keys.isEmpty());
+	}
+	
+	private Patient createPatient() {
+		Patient patient = new Patient(1);
+		patient.setGender("M");
+		patient.setBirthdate(new GregorianCalendar(1980, Calendar.MAY, 17).getTime());
+		patient.addName(new PersonName("Robert", null, "Ashcraft"));
+		patient.addIdentifier(new PatientIdentifier("abc-123", null, null));
+		return patient;
+	}
+}
@@ -0,0 +1,205 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.Properties;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openmrs.scheduler.SchedulerConstants;
+import org.openmrs.scheduler.TaskDefinition;
+import org.openmrs.scheduler.TaskExecution;
+import org.openmrs.scheduler.TaskExecutionStatistics;
+import org.openmrs.scheduler.db.SchedulerDAO;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Tests methods in {@link ExecutorSchedulerServiceImpl}
+ */
+public class ExecutorSchedulerServiceImplTest extends BaseContextSensitiveTest {
+	
+	private static final long HOUR = 60 * 60 * 1000L;
+	
+	@Autowired
+	private SchedulerDAO schedulerDAO;
+	
+	private ExecutorSchedulerServiceImpl scheduler;
+	
+	private TaskDefinition taskDefinition;
+	
+	@BeforeEach
+	public void before() {
+		Properties properties = new Properties();
+		properties.setProperty(SchedulerConstants.SCHEDULER_NODE_ID_RUNTIME_PROPERTY, "node-a");
+		scheduler = new ExecutorSchedulerServiceImpl(properties);
+		scheduler.setSchedulerDAO(schedulerDAO);
+	
+		taskDefinition = new TaskDefinition();
+		taskDefinition.setName("LeasedTask");
+		taskDefinition.setTaskClass("org.openmrs.scheduler.tasks.TestTask");
+		taskDefinition.setRepeatInterval(3600L);
+		taskDefinition.setStartOnStartup(false);
+		scheduler.saveTaskDefinition(taskDefinition);
+	}
+	
+	/**
+	 * @see ExecutorSchedulerServiceImpl#acquireTaskLease(Integer, String, Date)
+	 */
+	@Test
+	public void acquireTaskLease_shouldNotAcquireALeaseHeldByAnotherServer() {
+		Date expiry = new Date(System.currentTimeMillis() + HOUR);
+	
+		assertTrue(scheduler.acquireTaskLease(taskDefinition.getId(), "node-a", expiry));
+		assertFalse(scheduler.acquireTaskLease(taskDefinition.getId(), "node-b", expiry));
+	}
+	
+	/**
+	 * @see ExecutorSchedulerServiceImpl#acquireTaskLease(Integer, String, Date)
+	 */
+	@Test
+	public void acquireTaskLease_shouldAcquireALeaseHeldBySameServer() {
+		Date expiry = new Date(System.currentTimeMillis() + HOUR);
+	
+		assertTrue(scheduler.acquireTaskLease(taskDefinition.getId(), "node-a", expiry));
+		assertTrue(scheduler.acquireTaskLease(taskDefinition.getId(), "node-a", expiry));
+	}
+	
+	/**
+	 * @see ExecutorSchedulerServiceImpl#acquireTaskLease(Integer, String, Date)
+	 */
+	@Test
+	public void acquireTaskLease_shouldAcquireAnExpiredLease() {
+		assertTrue(scheduler.acquireTaskLease(taskDefinition.getId(), "node-a", new Date(System.currentTimeMillis()
+		        - 1000)));
+		assertTrue(scheduler.acquireTaskLease(taskDefinition.getId(), "node-b", new Date(System.currentTimeMillis()
+		        + HOUR)));
+	}
+	
+	/**
+	 * @see ExecutorSchedulerServiceImpl#renewTaskLease(Integer, String, Date)
+	 */
+	@Test
+	public void renewTaskLease_shouldOnlyRenewTheLeaseOfItsOwner() {
+		Date expiry = new Date(System.currentTimeMillis() + HOUR);
+		scheduler.acquireTaskLease(taskDefinition.getId(), "node-a", expiry);
+	
+		assertTrue(scheduler.renewTaskLease(taskDefinition.getId(), "node-a", expiry));
+		assertFalse(scheduler.renewTaskLease(taskDefinition.getId(), "node-b", expiry));
+	}
+	
+	/**
+	 * @see ExecutorSchedulerServiceImpl#releaseTaskLease(Integer, String)
+	 */
+	@Test
+	public void releaseTaskLease_shouldLetAnotherServerAcquireTheLease() {
+		Date expiry = new Date(System.currentTimeMillis() + HOUR);
+		scheduler.acquireTaskLease(taskDefinition.getId(), "node-a", expiry);
+	
+		scheduler.releaseTaskLease(taskDefinition.getId(), "node-b");
+		assertFalse(scheduler.acquireTaskLease(taskDefinition.getId(), "node-b", expiry));
+	
+		scheduler.releaseTaskLease(taskDefinition.getId(), "node-a");
+		assertTrue(scheduler.acquireTaskLease(taskDefinition.getId(), "node-b", expiry));
+	}
+	
+	/**
+	 * @see ExecutorSchedulerServiceImpl#getFirstExecutionTime(TaskDefinition)
+	 */
+	@Test
+	public void getFirstExecutionTime_shouldReturnTheMissedExecutionOfARepeatingTask() {
+		long now = System.currentTimeMillis();
+		taskDefinition.setStartTime(new Date(now - 10 * HOUR - 1000));
+		taskDefinition.setLastExecutionTime(new Date(now - 3 * HOUR));
+	
+		Date firstExecutionTime = scheduler.getFirstExecutionTime(taskDefinition);
+	
+		assertTrue(firstExecutionTime.getTime() <= now);
+		assertTrue(firstExecutionTime.getTime() > now - HOUR);
+	}
+	
+	/**
+	 * @see ExecutorSchedulerServiceImpl#getFirstExecutionTime(TaskDefinition)
+	 */
+	@Test
+	public void getFirstExecutionTime_shouldReturnTheNextExecutionOfARepeatingTaskThatDidNotMissAny() {
+		long now = System.currentTimeMillis();
+		taskDefinition.setStartTime(new Date(now - 10 * HOUR - 1000));
+		taskDefinition.setLastExecutionTime(new Date(now - 100));
+	
+		Date firstExecutionTime = scheduler.getFirstExecutionTime(taskDefinition);
+	
+		assertTrue(firstExecutionTime.getTime() > now);
+		assertTrue(firstExecutionTime.getTime() <= now + HOUR);
+	}
+	
+	/**
+	 * @see ExecutorSchedulerServiceImpl#getFirstExecutionTime(TaskDefinition)
+	 */
+	@Test
+	public void getFirstExecutionTime_shouldNotReturnAPastTimeForAOneShotTask() {
+		long now = System.currentTimeMillis();
+		taskDefinition.setRepeatInterval(0L);
+		taskDefinition.setStartTime(new Date(now - HOUR));
+	
+		assertFalse(scheduler.getFirstExecutionTime(taskDefinition).getTime() < now);
+	}
+	
+	/**
+	 * @see ExecutorSchedulerServiceImpl#getSystemVariables()
+	 */
+	@Test
+	public void getSystemVariables_shouldIncludeTheNodeIdOfThisServer() {
+		assertEquals("node-a", scheduler.getSystemVariables().get("SCHEDULER_NODE_ID"));
+		assertEquals(String.valueOf(SchedulerConstants.SCHEDULER_MILLIS_PER_SECOND), scheduler.getSystemVariables().get(
+		    "SCHEDULER_MILLIS_PER_SECOND"));
+	}
+	
+	/**
+	 * @see ExecutorSchedulerServiceImpl#getTaskExecutionStatistics(Integer)
+	 */
+	@Test
+	public void getTaskExecutionStatistics_shouldReturnZeroStatisticsForATaskThatNeverRan() {
+		TaskExecutionStatistics statistics = scheduler.getTaskExecutionStatistics(taskDefinition.getId());
+	
+		assertEquals(0, statistics.getExecutionCount());
+		assertEquals(0, statistics.getAverageDuration());
+		assertTrue(scheduler.getTaskExecutions(taskDefinition.getId()).isEmpty());
+	}
+	
+	/**
+	 * @see TaskExecutionHistory#getStatistics()
+	 */
+	@Test
+	public void getStatistics_shouldCountFailuresMisfiresAndDurations() {
+		TaskExecutionHistory history = new TaskExecutionHistory(2);
+		history.recordExecution(new TaskExecution(1, "node-a", new Date(0), new Date(0), new Date(100), false, null));
+		history.recordExecution(new TaskExecution(1, "node-a", new Date(0), new Date(0), new Date(300), true, "error"));
+		history.recordExecution(new TaskExecution(1, "node-a", new Date(0), new Date(0), new Date(200), false, null));
+		history.recordSkippedMisfire();
+		history.recordLeaseConflict();
+	
+		TaskExecutionStatistics statistics = history.getStatistics();
+	
+		assertEquals(3, statistics.getExecutionCount());
+		assertEquals(1, statistics.getFailureCount());
+		assertEquals(2, statistics.getMisfireCount());
+		assertEquals(1, statistics.getLeaseConflictCount());
+		assertEquals(200, statistics.getAverageDuration());
+		assertEquals(300, statistics.getMaxDuration());
+		assertEquals(200, statistics.getLastDuration());
+		assertEquals(2, history.getExecutions().size());
+	}
+}
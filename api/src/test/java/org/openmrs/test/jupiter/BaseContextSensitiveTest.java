@@ -80,11 +80,13 @@ import org.openmrs.PersonAttribute;
 import org.openmrs.PersonName;
 import org.openmrs.User;
 import org.openmrs.annotation.OpenmrsProfileExcludeFilter;
+import org.openmrs.api.cache.GlobalPropertyCache;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.context.ContextAuthenticationException;
 import org.openmrs.api.context.ContextMockHelper;
 import org.openmrs.api.context.Credentials;
 import org.openmrs.api.context.UsernamePasswordCredentials;
+import org.openmrs.hl7.HL7ResolutionCache;
 import org.openmrs.test.Containers;
 import org.openmrs.test.OpenmrsMetadataHandler;
 import org.openmrs.test.SkipBaseSetup;
@@ -837,6 +839,10 @@ public abstract class BaseContextSensitiveTest {
 			//insert new rows, update existing rows, and leave others alone
 			DatabaseOperation.REFRESH.execute(dbUnitConn, dataset);
 			
+			// the dataset may have changed global properties and metadata without going through the API
+			Context.getRegisteredComponent("globalPropertyCache", GlobalPropertyCache.class).clear();
+			Context.getRegisteredComponent("hl7ResolutionCache", HL7ResolutionCache.class).clear();
+			
 			if (isPostgreSQL()) {
 				Context.getAdministrationService().updatePostgresSequence();
 			}
@@ -17,6 +17,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.openmrs.Concept;
 import org.openmrs.ConceptDatatype;
+import org.openmrs.ConceptReferenceRange;
 import org.openmrs.Encounter;
 import org.openmrs.Location;
 import org.openmrs.Obs;
@@ -487,6 +488,56 @@ class ConceptReferenceRangeUtilityTest extends BaseContextSensitiveTest {
 		);
 	}
 	
+	@Test
+	public void evaluateCriteria_shouldEvaluateTheCriteriaOfAReferenceRange() {
+		calendar = Calendar.getInstance();
+		calendar.add(Calendar.YEAR, -5);
+		person.setBirthdate(calendar.getTime());
+
+		Obs obs = buildObs();
+		obs.setPerson(person);
+		
+		ConceptReferenceRange referenceRange = new ConceptReferenceRange();
+		referenceRange.setConceptReferenceRangeId(1001);
+		referenceRange.setCriteria("$patient.getAge() &gt; 1 &amp;&amp; $patient.getAge() &lt; 10");
+
+		assertTrue(conceptReferenceRangeUtility.evaluateCriteria(referenceRange, obs));
+		assertTrue(conceptReferenceRangeUtility.evaluateCriteria(referenceRange, obs));
+	}
+
+	@Test
+	public void evaluateCriteria_shouldRecompileTheCriteriaOfAReferenceRangeWhenItChanges() {
+		calendar = Calendar.getInstance();
+		calendar.add(Calendar.YEAR, -5);
+		person.setBirthdate(calendar.getTime());
+
+		Obs obs = buildObs();
+		obs.setPerson(person);
+
+		ConceptReferenceRange referenceRange = new ConceptReferenceRange();
+		referenceRange.setConceptReferenceRangeId(1002);
+		referenceRange.setCriteria("$patient.getAge() > 1");
+		assertTrue(conceptReferenceRangeUtility.evaluateCriteria(referenceRange, obs));
+		
+		referenceRange.setCriteria("$patient.getAge() > 10");
+		assertFalse(conceptReferenceRangeUtility.evaluateCriteria(referenceRange, obs));
+		
+		ConceptReferenceRangeUtility.clearCompiledCriteria(referenceRange);
+		assertFalse(conceptReferenceRangeUtility.evaluateCriteria(referenceRange, obs));
+	}
+
+	@Test
+	public void evaluateCriteria_shouldThrowExceptionIfTheCriteriaOfAReferenceRangeIsInvalid() {
+		Obs obs = buildObs();
+		obs.setPerson(person);
+
+		ConceptReferenceRange referenceRange = new ConceptReferenceRange();
+		referenceRange.setConceptReferenceRangeId(1003);
+		referenceRange.setCriteria("invalidCriteria");
+
+		assertThrows(APIException.class, () -> conceptReferenceRangeUtility.evaluateCriteria(referenceRange, obs));
+	}
+	
 	private Obs buildObs() {
 		Concept concept = new Concept(5089);
 		concept.setDatatype(new ConceptDatatype(3));
@@ -0,0 +1,149 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class DaemonExecutorServiceTest {
+	
+	private DaemonExecutorService executor;
+	
+	@AfterEach
+	public void drainExecutor() {
+		if (executor != null) {
+			executor.drain(5, TimeUnit.SECONDS);
+		}
+	}
+	
+	@Test
+	public void execute_shouldNotRunMoreTasksThanTheMaximumPoolSize() throws Exception {
+		executor = new DaemonExecutorService(properties(DaemonExecutorService.MODE_PLATFORM, 2, 10));
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(2);
+		for (int i = 0; i < 5; i++) {
+			executor.execute(() -> {
+				started.countDown();
+				await(release);
+			});
+		}
+	
+		started.await(5, TimeUnit.SECONDS);
+		DaemonExecutorService.Statistics statistics = executor.getStatistics();
+		assertThat(statistics.getMode(), is(DaemonExecutorService.MODE_PLATFORM));
+		assertThat(statistics.getPoolSize(), lessThanOrEqualTo(2));
+		assertThat(statistics.getActiveCount(), is(2));
+		assertThat(statistics.getQueueDepth(), is(3));
+	
+		release.countDown();
+		executor.drain(5, TimeUnit.SECONDS);
+		assertThat(executor.getStatistics().getCompletedTaskCount(), is(5L));
+		assertThat(executor.getStatistics().getQueueDepth(), is(0));
+	}
+	
+	@Test
+	public void execute_shouldRejectTasksWhenTheQueueIsFull() throws Exception {
+		executor = new DaemonExecutorService(properties(DaemonExecutorService.MODE_PLATFORM, 1, 1));
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+		executor.execute(() -> {
+			started.countDown();
+			await(release);
+		});
+		started.await(5, TimeUnit.SECONDS);
+		executor.execute(() -> {});
+	
+		assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {}));
+		assertThat(executor.getStatistics().getRejectedTaskCount(), is(1L));
+		assertThat(executor.getStatistics().getQueueDepth(), is(1));
+		release.countDown();
+	}
+	
+	@Test
+	public void submit_shouldRunTasksOnVirtualThreadsInVirtualMode() throws Exception {
+		executor = new DaemonExecutorService(properties(DaemonExecutorService.MODE_VIRTUAL, 1, 1));
+	
+		Future<Boolean> isVirtual = executor.submit(() -> Thread.currentThread().isVirtual());
+	
+		assertThat(isVirtual.get(5, TimeUnit.SECONDS), is(true));
+		assertThat(executor.getStatistics().getMode(), is(DaemonExecutorService.MODE_VIRTUAL));
+	}
+	
+	@Test
+	public void getStatistics_shouldRecordHowLongTasksRan() throws Exception {
+		executor = new DaemonExecutorService(properties(DaemonExecutorService.MODE_PLATFORM, 1, 1));
+	
+		executor.submit(() -> {
+			Thread.sleep(20);
+			return null;
+		}).get(5, TimeUnit.SECONDS);
+	
+		assertThat(executor.getStatistics().getMaxRunMillis(), greaterThanOrEqualTo(20.0));
+		assertThat(executor.getStatistics().getAverageRunMillis(), greaterThanOrEqualTo(20.0));
+	}
+	
+	@Test
+	public void drain_shouldWaitForRunningTasksAndAcceptNewTasksAfterwards() throws Exception {
+		executor = new DaemonExecutorService(properties(DaemonExecutorService.MODE_PLATFORM, 1, 1));
+		Future<?> slowTask = executor.submit(() -> {
+			Thread.sleep(50);
+			return null;
+		});
+	
+		assertThat(executor.drain(5, TimeUnit.SECONDS), is(true));
+		assertThat(slowTask.isDone(), is(true));
+		assertThat(executor.submit(() -> "ran").get(5, TimeUnit.SECONDS), is("ran"));
+	}
+	
+	@Test
+	public void drain_shouldInterruptTasksStillRunningAfterTheTimeout() throws Exception {
+		executor = new DaemonExecutorService(properties(DaemonExecutorService.MODE_PLATFORM, 1, 1));
+		CountDownLatch started = new CountDownLatch(1);
+		Future<Boolean> blockedTask = executor.submit(() -> {
+			started.countDown();
+			await(new CountDownLatch(1));
+			return Thread.currentThread().isInterrupted();
+		});
+		started.await(5, TimeUnit.SECONDS);
+	
+		assertThat(executor.drain(10, TimeUnit.MILLISECONDS), is(false));
+		assertThat(blockedTask.get(5, TimeUnit.SECONDS), is(true));
+	}
+	
+	private static Properties properties(String mode, int maxSize, int queueCapacity) {
+		Properties properties = new Properties();
+		properties.setProperty(OpenmrsConstants.DAEMON_THREAD_POOL_MODE_RUNTIME_PROPERTY, mode);
+		properties.setProperty(OpenmrsConstants.DAEMON_THREAD_POOL_MAX_SIZE_RUNTIME_PROPERTY, String.valueOf(maxSize));
+		properties.setProperty(OpenmrsConstants.DAEMON_THREAD_POOL_QUEUE_CAPACITY_RUNTIME_PROPERTY,
+		    String.valueOf(queueCapacity));
+		return properties;
+	}
+	
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -70,6 +70,11 @@ import org.openmrs.web.DispatcherServlet;
 import org.openmrs.web.StaticDispatcherServlet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.context.support.WebApplicationContextUtils;
 import org.springframework.web.context.support.XmlWebApplicationContext;
 import org.w3c.dom.Document;
@@ -143,6 +148,9 @@ public class WebModuleUtil {
 			// of the web application context
 			boolean moduleNeedsContextRefresh = false;
 			
+			// dwr configuration is only read when the web application context is refreshed
+			boolean moduleUsesDwr = false;
+			
 			// copy the html files into the webapp (from /web/module/ in the module)
 			// also looks for a spring context file. If found, schedules spring to be restarted
 			JarFile jarFile = null;
@@ -274,6 +282,7 @@ public class WebModuleUtil {
 					}
 					
 					moduleNeedsContextRefresh = true;
+					moduleUsesDwr = true;
 					
 					// save the dwr-modules.xml file.
 					OpenmrsUtil.saveDocument(dwrmodulexml, f);
@@ -315,8 +324,10 @@ public class WebModuleUtil {
 				log.debug("Refreshing context for module {}", mod);
 				
 				try {
-					refreshWAC(servletContext, false, mod);
-					log.debug("Done Refreshing WAC");
+					if (moduleUsesDwr || !startModuleApplicationContext(mod, servletContext)) {
+						refreshWAC(servletContext, false, mod);
+						log.debug("Done Refreshing WAC");
+					}
 				}
 				catch (Exception e) {
 					String msg = "Unable to refresh the WebApplicationContext";
@@ -368,6 +379,91 @@ public class WebModuleUtil {
 		return false;
 	}
 	
+	/**
+	 * Loads the beans of the given module into a child of the web application context, which takes
+	 * far less time than refreshing the web application context and does not block requests
+	 * meanwhile. The child context is closed again if it fails to refresh.
+	 * <p>
+	 * Only modules without web controllers and handler mappings are started this way. The dispatcher
+	 * servlet only maps the handlers of the web application context, not the ones of its children, so
+	 * a module with controllers, which includes most modules with a user interface, still refreshes
+	 * the whole web application context. The module's bean definitions are checked for controllers
+	 * before the child context is refreshed and its beans once more afterwards.
+	 *
+	 * @param mod the started module
+	 * @param servletContext the current ServletContext
+	 * @return true if the module was started in its own application context, false if the web
+	 *         application context must be refreshed
+	 * @see ModuleUtil#canStartModuleApplicationContext(Module)
+	 */
+	private static boolean startModuleApplicationContext(Module mod, ServletContext servletContext) {
+		if (!ModuleUtil.canStartModuleApplicationContext(mod)) {
+			return false;
+		}
+		
+		XmlWebApplicationContext wac = (XmlWebApplicationContext) WebApplicationContextUtils
+		        .getWebApplicationContext(servletContext);
+		try {
+			if (hasWebControllers(ModuleUtil.loadModuleBeanDefinitions(mod, wac))) {
+				log.info("Module {} has web controllers, refreshing the web application context", mod.getModuleId());
+				return false;
+			}
+		}
+		catch (RuntimeException e) {
+			log.warn("Unable to load the bean definitions of module " + mod.getModuleId()
+			        + ", refreshing the web application context", e);
+			return false;
+		}
+		
+		XmlWebApplicationContext moduleApplicationContext = new XmlWebApplicationContext();
+		moduleApplicationContext.setServletContext(servletContext);
+		ConfigurableApplicationContext ctx = ModuleUtil.startModuleApplicationContext(moduleApplicationContext, wac, mod);
+		if (ctx == null) {
+			return false;
+		}
+		
+		// beans registered while refreshing, such as the ones of @Configuration classes, are not among
+		// the bean definitions checked above
+		if (ctx.getBeanNamesForAnnotation(Controller.class).length > 0
+		        || ctx.getBeanNamesForType(org.springframework.web.servlet.mvc.Controller.class).length > 0
+		        || ctx.getBeanNamesForType(HandlerMapping.class).length > 0) {
+			log.info("Module {} has web controllers, refreshing the web application context", mod.getModuleId());
+			ModuleUtil.stopModuleApplicationContext(mod);
+			return false;
+		}
+		
+		ModuleUtil.moduleApplicationContextStarted(mod);
+		return true;
+	}
+	
+	/**
+	 * Checks the bean definitions of a module, without creating any bean, for controllers and handler
+	 * mappings, which only the web application context can serve
+	 *
+	 * @param beanFactory the bean factory holding the module's bean definitions
+	 * @return true if any bean is a controller or handler mapping, or its type cannot be determined
+	 */
+	private static boolean hasWebControllers(ConfigurableListableBeanFactory beanFactory) {
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			if (beanFactory.getBeanDefinition(beanName).isAbstract()) {
+				continue;
+			}
+			
+			Class<?> beanType = beanFactory.getType(beanName, false);
+			if (beanType == null) {
+				log.debug("Unable to determine the type of bean {}", beanName);
+				return true;
+			}
+			if (AnnotatedElementUtils.hasAnnotation(beanType, Controller.class)
+			        || org.springframework.web.servlet.mvc.Controller.class.isAssignableFrom(beanType)
+			        || HandlerMapping.class.isAssignableFrom(beanType)) {
+				log.debug("Bean {} of type {} is a web controller", beanName, beanType.getName());
+				return true;
+			}
+		}
+		return false;
+	}
+	
 	/** Stops all tasks started by given module
 	 * @param mod
 	 */
@@ -915,7 +1011,8 @@ public class WebModuleUtil {
 			}
 		}
 		
-		if (!skipRefresh) {	
+		// a module started in its own application context is removed without a refresh
+		if (!ModuleUtil.stopModuleApplicationContext(mod) && !skipRefresh) {
 			refreshWAC(servletContext, false, null);
 		}
 		